@@ -129,6 +129,24 @@ public abstract class AbstractMetaDataReadInterface implements MetaDataReadInter
 
   protected abstract String getReadDocumentsSizeStatement();
 
+  @Override
+  public long getDocPartTableSize(
+      @Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase database,
+      @Nonnull MetaDocPart docPart
+  ) {
+    String statement = getReadDocPartTableSizeStatement();
+    return sqlHelper.executeStatementWithResult(dsl, statement, Context.FETCH,
+        ps -> {
+          ps.setString(1, database.getIdentifier());
+          ps.setString(2, docPart.getIdentifier());
+        })
+        .get(0)
+        .into(Long.class);
+  }
+
+  protected abstract String getReadDocPartTableSizeStatement();
+
   @Override
   public Long getIndexSize(
       @Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
@@ -44,10 +44,14 @@ import com.torodb.core.transaction.metainf.MetaIndexField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Query;
 import org.jooq.Record1;
 import org.jooq.TableField;
 import org.jooq.conf.ParamType;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Singleton;
@@ -524,6 +528,23 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
     return lastRid.value1();
   }
 
+  @Override
+  public void storeLastRids(DSLContext dsl, String database, String collection,
+      Map<TableRef, Integer> lastRids) {
+    if (lastRids.isEmpty()) {
+      return;
+    }
+    List<Query> updates = new ArrayList<>(lastRids.size());
+    for (Map.Entry<TableRef, Integer> lastRid : lastRids.entrySet()) {
+      updates.add(dsl.update(metaDocPartTable)
+          .set(metaDocPartTable.LAST_RID, lastRid.getValue())
+          .where(metaDocPartTable.DATABASE.eq(database)
+              .and(metaDocPartTable.COLLECTION.eq(collection))
+              .and(getTableRefEqCondition(metaDocPartTable.TABLE_REF, lastRid.getKey()))));
+    }
+    dsl.batch(updates).execute();
+  }
+
   protected abstract Condition getTableRefEqCondition(TableField<?, ?> field, TableRef tableRef);
 
   @Override
@@ -551,4 +572,15 @@ public abstract class AbstractMetaDataWriteInterface implements MetaDataWriteInt
     }
     return oldValue.orElse(null);
   }
+
+  @Override
+  public int deleteMetaInfoWithPrefix(DSLContext dsl, String keyPrefix) {
+    String escapedPrefix = keyPrefix
+        .replace("!", "!!")
+        .replace("%", "!%")
+        .replace("_", "!_");
+    return dsl.deleteFrom(kvTable)
+        .where(kvTable.KEY.like(escapedPrefix + "%", '!'))
+        .execute();
+  }
 }
@@ -21,14 +21,18 @@ package com.torodb.backend;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.SqlHelper.SetupPreparedStatement;
 import com.torodb.backend.d2r.ResultSetDocPartResult;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidSortSpec;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -36,6 +40,8 @@ import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.kvdocument.values.KvValue;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
 import org.jooq.lambda.Seq;
 import org.jooq.lambda.Unchecked;
 import org.jooq.lambda.tuple.Tuple2;
@@ -54,6 +60,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
@@ -69,15 +76,39 @@ public abstract class AbstractReadInterface implements ReadInterface {
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
   private final TableRefFactory tableRefFactory;
+  private final int cursorFetchSize;
+  private final boolean countEstimateEnabled;
 
   public AbstractReadInterface(MetaDataReadInterface metaDataReadInterface,
       DataTypeProvider dataTypeProvider,
-      ErrorHandler errorHandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
+      ErrorHandler errorHandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      BackendConfig backendConfig) {
     this.metaDataReadInterface = metaDataReadInterface;
     this.dataTypeProvider = dataTypeProvider;
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
     this.tableRefFactory = tableRefFactory;
+    this.cursorFetchSize = backendConfig.getCursorFetchSize();
+    this.countEstimateEnabled = backendConfig.isCountEstimateEnabled();
+  }
+
+  /**
+   * Prepares a statement whose result set is going to be wrapped in a cursor.
+   *
+   * <p>When {@link BackendConfig#getCursorFetchSize() streaming} is enabled the statement is
+   * forward only and its rows are fetched in blocks of the configured size, so the driver does
+   * not need to buffer the whole result set. Drivers like PostgreSQL's only stream when the
+   * connection is not in auto-commit mode, which is always the case for the connections of the
+   * pool.
+   */
+  protected PreparedStatement prepareCursorStatement(Connection connection, String statement)
+      throws SQLException {
+    PreparedStatement preparedStatement = connection.prepareStatement(statement,
+        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    if (cursorFetchSize > 0 && !connection.getAutoCommit()) {
+      preparedStatement.setFetchSize(cursorFetchSize);
+    }
+    return preparedStatement;
   }
 
   @Override
@@ -96,7 +127,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         metaDocPart.getIdentifier(), metaField.getIdentifier());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       sqlHelper.setPreparedStatementValue(preparedStatement, 1, metaField.getType(), value);
       return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
     } finally {
@@ -108,6 +139,75 @@ public abstract class AbstractReadInterface implements ReadInterface {
       String rootTableName,
       String columnName);
 
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  public Cursor<Integer> getCollectionDidsWithPredicate(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCol, DidPredicate predicate) throws SQLException {
+    return readCollectionDidsWithPredicate(dsl, metaDatabase, metaCol, predicate, null);
+  }
+
+  @Override
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  public Cursor<Integer> getCollectionDidsWithPredicate(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCol, DidPredicate predicate, DidSortSpec sortSpec) throws SQLException {
+    return readCollectionDidsWithPredicate(dsl, metaDatabase, metaCol, predicate, sortSpec);
+  }
+
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a Cursor<Integer>. It's iterated and closed in caller code")
+  private Cursor<Integer> readCollectionDidsWithPredicate(DSLContext dsl,
+      MetaDatabase metaDatabase, MetaCollection metaCol, DidPredicate predicate,
+      @Nullable DidSortSpec sortSpec) throws SQLException {
+    assert metaDatabase.getMetaCollectionByIdentifier(metaCol.getIdentifier()) != null;
+
+    MetaDocPart rootDocPart = metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return new EmptyCursor<>();
+    }
+
+    DidPredicateSqlTranslator translator = new DidPredicateSqlTranslator(sqlHelper, metaDatabase,
+        rootDocPart).translate(predicate);
+    String statement;
+    if (sortSpec == null) {
+      statement = getReadCollectionDidsWithConditionStatement(metaDatabase.getIdentifier(),
+          rootDocPart.getIdentifier(), translator.getCondition());
+    } else {
+      statement = getReadSortedCollectionDidsWithConditionStatement(metaDatabase.getIdentifier(),
+          rootDocPart.getIdentifier(), translator.getCondition(), sortSpec);
+    }
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : translator.getParameters()) {
+        sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, parameter.v1,
+            parameter.v2);
+        parameterIndex++;
+      }
+      return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  protected abstract String getReadCollectionDidsWithConditionStatement(String schemaName,
+      String rootTableName, String condition);
+
+  /**
+   * Returns a statement that selects the dids of the rows of the root table that fulfill the
+   * given condition, ordered and windowed as the given sort spec says.
+   *
+   * <p>Rows whose value on a sort field is null must be sorted as if it were lower than any other
+   * value and the did must be used as the last sort criteria.
+   */
+  protected abstract String getReadSortedCollectionDidsWithConditionStatement(String schemaName,
+      String rootTableName, String condition, DidSortSpec sortSpec);
+
   @Override
   @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
       justification =
@@ -182,7 +282,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         .map(e -> new Tuple2<String, Integer>(e.getKey().getIdentifier(), e.getValue().size())));
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       int parameterIndex = 1;
       Iterator<Map.Entry<MetaField, Collection<KvValue<?>>>> valuesMultimapSortedIterator =
           valuesMultimapSortedStreamProvider.get().iterator();
@@ -273,7 +373,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         metaDocPart.getIdentifier(), metaField.getIdentifier(), values.size());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       int parameterIndex = 1;
       for (KvValue<?> value : values) {
         sqlHelper.setPreparedStatementValue(preparedStatement, parameterIndex, metaField.getType(),
@@ -320,7 +420,7 @@ public abstract class AbstractReadInterface implements ReadInterface {
         .getIdentifier());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      PreparedStatement preparedStatement = connection.prepareStatement(statement);
+      PreparedStatement preparedStatement = prepareCursorStatement(connection, statement);
       return new DefaultDidCursor(errorHandler, preparedStatement.executeQuery());
     } finally {
       dsl.configuration().connectionProvider().release(connection);
@@ -346,8 +446,92 @@ public abstract class AbstractReadInterface implements ReadInterface {
         .get(0).into(Long.class);
   }
 
+  @Override
+  public long estimateCountAll(
+      @Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection
+  ) {
+    if (countEstimateEnabled) {
+      MetaDocPart rootDocPart = collection.getMetaDocPartByTableRef(
+          tableRefFactory.createRoot());
+      if (rootDocPart == null) {
+        return 0;
+      }
+      long estimation = readCountAllEstimation(dsl, database.getIdentifier(),
+          rootDocPart.getIdentifier());
+      if (estimation > 0) {
+        return estimation;
+      }
+    }
+    return countAll(dsl, database, collection);
+  }
+
+  /**
+   * Returns the number of rows of the root table as estimated by the database statistics or a
+   * non positive number if there is no estimation available (for instance, because the table has
+   * not been analyzed yet).
+   */
+  private long readCountAllEstimation(DSLContext dsl, String schemaName, String rootTableName) {
+    String statement = getEstimateCountAllStatement();
+    if (statement == null) {
+      return -1;
+    }
+    Result<Record> result = sqlHelper.executeStatementWithResult(dsl, statement, Context.FETCH,
+        ps -> {
+          ps.setString(1, schemaName);
+          ps.setString(2, rootTableName);
+        });
+    if (result.isEmpty() || result.get(0).get(0) == null) {
+      return -1;
+    }
+    return result.get(0).get(0, Long.class);
+  }
+
   protected abstract String getReadCountAllStatement(String schema, String rootTableName);
 
+  /**
+   * Returns a statement that reads the estimated number of rows of a table, whose schema and
+   * name are given as the first and second parameters, or null if the database does not keep
+   * that estimation.
+   */
+  @Nullable
+  protected String getEstimateCountAllStatement() {
+    return null;
+  }
+
+  @Override
+  public long countWithPredicate(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCol, DidPredicate predicate) {
+    assert metaDatabase.getMetaCollectionByIdentifier(metaCol.getIdentifier()) != null;
+
+    MetaDocPart rootDocPart = metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    if (rootDocPart == null) {
+      return 0;
+    }
+
+    DidPredicateSqlTranslator translator = new DidPredicateSqlTranslator(sqlHelper, metaDatabase,
+        rootDocPart).translate(predicate);
+    String statement = getReadCountWithConditionStatement(metaDatabase.getIdentifier(),
+        rootDocPart.getIdentifier(), translator.getCondition());
+    return sqlHelper.executeStatementWithResult(dsl, statement, Context.FETCH, ps -> {
+      int parameterIndex = 1;
+      for (Tuple2<FieldType, KvValue<?>> parameter : translator.getParameters()) {
+        sqlHelper.setPreparedStatementValue(ps, parameterIndex, parameter.v1, parameter.v2);
+        parameterIndex++;
+      }
+    }).get(0).into(Long.class);
+  }
+
+  /**
+   * Returns a statement that counts the rows of the root table that fulfill the given condition.
+   *
+   * <p>Conditions on other doc parts are translated to sub queries on the root did, so each
+   * document is counted once without a <em>DISTINCT</em> clause.
+   */
+  protected abstract String getReadCountWithConditionStatement(String schema,
+      String rootTableName, String condition);
+
   @Nonnull
   @Override
   public List<DocPartResult> getCollectionResultSets(@Nonnull DSLContext dsl,
@@ -358,35 +542,67 @@ public abstract class AbstractReadInterface implements ReadInterface {
   }
 
   @Override
-  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
-      justification =
-      "ResultSet is wrapped in a DocPartResult. It's iterated and closed in caller code")
   public List<DocPartResult> getCollectionResultSets(DSLContext dsl, MetaDatabase metaDatabase,
       MetaCollection metaCollection, Collection<Integer> dids) throws SQLException {
-    ArrayList<DocPartResult> result = new ArrayList<>();
+    List<Tuple2<MetaDocPart, String>> docPartStatements = metaCollection
+        .streamContainedMetaDocParts()
+        .sorted(TableRefComparator.MetaDocPart.DESC)
+        .map(metaDocPart -> new Tuple2<MetaDocPart, String>(
+            metaDocPart, getDocPartStatament(metaDatabase, metaDocPart, dids)))
+        .collect(Collectors.toList());
     Connection connection = dsl.configuration().connectionProvider().acquire();
     try {
-      Iterator<? extends MetaDocPart> metaDocPartIterator = metaCollection
-          .streamContainedMetaDocParts()
-          .sorted(TableRefComparator.MetaDocPart.DESC)
-          .iterator();
-      while (metaDocPartIterator.hasNext()) {
-        MetaDocPart metaDocPart = metaDocPartIterator.next();
-        String statament = getDocPartStatament(metaDatabase, metaDocPart, dids);
-
-        PreparedStatement preparedStatement = connection.prepareStatement(statament);
-        result.add(new ResultSetDocPartResult(metaDataReadInterface, dataTypeProvider, errorHandler,
-            metaDocPart, preparedStatement.executeQuery(), sqlHelper));
-      }
+      return getDocPartResults(connection, docPartStatements,
+          ps -> setDocPartStatementParameters(ps, dids));
     } finally {
       dsl.configuration().connectionProvider().release(connection);
     }
+  }
+
+  /**
+   * Executes the given doc part statements and returns their results in the same order.
+   *
+   * <p>The default implementation executes them one after the other on the given connection.
+   * Backends that can share a snapshot between connections may override it to execute them
+   * concurrently.
+   *
+   * @param statementSetup sets the parameters of each statement before it is executed
+   */
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a DocPartResult. It's iterated and closed in caller code")
+  protected List<DocPartResult> getDocPartResults(Connection connection,
+      List<Tuple2<MetaDocPart, String>> docPartStatements,
+      SetupPreparedStatement statementSetup) throws SQLException {
+    ArrayList<DocPartResult> result = new ArrayList<>(docPartStatements.size());
+    for (Tuple2<MetaDocPart, String> docPartStatement : docPartStatements) {
+      PreparedStatement preparedStatement = prepareCursorStatement(connection,
+          docPartStatement.v2);
+      statementSetup.accept(preparedStatement);
+      result.add(createDocPartResult(docPartStatement.v1, preparedStatement.executeQuery()));
+    }
     return result;
   }
 
+  protected DocPartResult createDocPartResult(MetaDocPart metaDocPart, ResultSet resultSet) {
+    return new ResultSetDocPartResult(metaDataReadInterface, dataTypeProvider, errorHandler,
+        metaDocPart, resultSet, sqlHelper);
+  }
+
   protected abstract String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
       Collection<Integer> dids);
 
+  /**
+   * Sets the parameters of a statement returned by
+   * {@link #getDocPartStatament(MetaDatabase, MetaDocPart, Collection)}.
+   *
+   * <p>The default implementation does nothing, which is correct for statements that contain the
+   * dids in their text. Backends that bind the dids as parameters must override it.
+   */
+  protected void setDocPartStatementParameters(PreparedStatement ps, Collection<Integer> dids)
+      throws SQLException {
+  }
+
   @Override
   public int getLastRowIdUsed(DSLContext dsl, MetaDatabase metaDatabase,
       MetaCollection metaCollection, MetaDocPart metaDocPart) {
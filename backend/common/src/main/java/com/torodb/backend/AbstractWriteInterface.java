@@ -18,6 +18,7 @@
 
 package com.torodb.backend;
 
+import com.google.common.base.Preconditions;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
@@ -41,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.inject.Singleton;
@@ -111,7 +113,8 @@ public abstract class AbstractWriteInterface implements WriteInterface {
       MetaDocPart metaDocPart = iterator.next();
       String statement = getDeleteDocPartsStatement(schemaName, metaDocPart.getIdentifier(), dids);
 
-      sqlHelper.executeUpdate(c, statement, Context.DELETE);
+      sqlHelper.executeUpdate(c, statement, Context.DELETE,
+          ps -> setDeleteDocPartsParameters(ps, dids));
 
       LOGGER.trace("Executed {}", statement);
     }
@@ -120,6 +123,53 @@ public abstract class AbstractWriteInterface implements WriteInterface {
   protected abstract String getDeleteDocPartsStatement(String schemaName, String tableName,
       Collection<Integer> dids);
 
+  /**
+   * Sets the parameters of a statement returned by
+   * {@link #getDeleteDocPartsStatement(String, String, Collection)}.
+   *
+   * <p>The default implementation does nothing, which is correct for statements that contain the
+   * dids in their text. Backends that bind the dids as parameters must override it.
+   */
+  protected void setDeleteDocPartsParameters(PreparedStatement ps, Collection<Integer> dids)
+      throws SQLException {
+  }
+
+  @Override
+  public boolean updateDocPartRow(DSLContext dsl, String schemaName, MetaDocPart metaDocPart,
+      int did, Map<MetaField, KvValue<?>> newValues) throws UserException {
+    Preconditions.checkArgument(!newValues.isEmpty(), "At least one field must be updated");
+    List<MetaField> metaFields = new ArrayList<>(newValues.keySet());
+    String statement = getUpdateDocPartRowStatement(schemaName, metaDocPart, metaFields);
+
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try (PreparedStatement preparedStatement = connection.prepareStatement(statement)) {
+      int parameterIndex = 1;
+      for (MetaField metaField : metaFields) {
+        sqlHelper.setPreparedStatementNullableValue(preparedStatement, parameterIndex++,
+            metaField.getType(), newValues.get(metaField));
+      }
+      preparedStatement.setInt(parameterIndex, did);
+      int updatedRows = preparedStatement.executeUpdate();
+
+      LOGGER.trace("Executed {}", statement);
+
+      return updatedRows > 0;
+    } catch (SQLException ex) {
+      throw errorHandler.handleUserException(Context.UPDATE, ex);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  /**
+   * Returns an statement that sets the given fields of the row of a given document.
+   *
+   * <p>The statement must have one parameter for each field, in the given order, followed by
+   * the did.
+   */
+  protected abstract String getUpdateDocPartRowStatement(String schemaName,
+      MetaDocPart metaDocPart, List<MetaField> metaFields);
+
   @Override
   public void insertDocPartData(DSLContext dsl, String schemaName, DocPartData docPartData) throws
       UserException {
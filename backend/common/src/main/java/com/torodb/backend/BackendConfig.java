@@ -43,4 +43,18 @@ public interface BackendConfig extends BundleConfig {
   public int getDbPort();
 
   public boolean includeForeignKeys();
+
+  /**
+   * The number of rows fetched on each round trip by cursors that may return big result sets, or
+   * zero if result sets should be read completely when the query is executed.
+   */
+  public int getCursorFetchSize();
+
+  /**
+   * Whether unfiltered count commands can be answered with the row estimation kept by the
+   * database statistics instead of scanning the whole root table.
+   *
+   * <p>Other exact counts, like the one reported by collStats, never use the estimation.
+   */
+  public boolean isCountEstimateEnabled();
 }
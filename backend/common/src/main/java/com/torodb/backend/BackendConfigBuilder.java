@@ -38,6 +38,10 @@ public interface BackendConfigBuilder {
 
   public BackendConfigBuilder setIncludeForeignKeys(boolean includeForeignKeys);
 
+  public BackendConfigBuilder setCursorFetchSize(int cursorFetchSize);
+
+  public BackendConfigBuilder setCountEstimateEnabled(boolean countEstimateEnabled);
+
   public BackendConfig build();
 
 }
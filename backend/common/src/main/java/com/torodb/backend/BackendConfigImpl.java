@@ -42,10 +42,13 @@ public class BackendConfigImpl implements BackendConfig {
   private final boolean includeForeignKeys;
   private final BundleConfig delegate;
   private final boolean sslEnabled;
+  private final int cursorFetchSize;
+  private final boolean countEstimateEnabled;
 
   protected BackendConfigImpl(long connectionPoolTimeout, int connectionPoolSize,
       int reservedReadPoolSize, String username, String password, String dbHost, String dbName,
-      int dbPort, boolean includeForeignKeys, BundleConfig delegate, boolean sslEnabled) {
+      int dbPort, boolean includeForeignKeys, BundleConfig delegate, boolean sslEnabled,
+      int cursorFetchSize, boolean countEstimateEnabled) {
     this.connectionPoolTimeout = connectionPoolTimeout;
     this.connectionPoolSize = connectionPoolSize;
     this.reservedReadPoolSize = reservedReadPoolSize;
@@ -57,6 +60,8 @@ public class BackendConfigImpl implements BackendConfig {
     this.includeForeignKeys = includeForeignKeys;
     this.delegate = delegate;
     this.sslEnabled = sslEnabled;
+    this.cursorFetchSize = cursorFetchSize;
+    this.countEstimateEnabled = countEstimateEnabled;
   }
 
   @Override
@@ -118,6 +123,16 @@ public class BackendConfigImpl implements BackendConfig {
   public boolean includeForeignKeys() {
     return includeForeignKeys;
   }
+
+  @Override
+  public int getCursorFetchSize() {
+    return cursorFetchSize;
+  }
+
+  @Override
+  public boolean isCountEstimateEnabled() {
+    return countEstimateEnabled;
+  }
   
   public boolean getSslEnabled() {
     return sslEnabled;
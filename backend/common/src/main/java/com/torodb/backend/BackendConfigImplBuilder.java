@@ -33,6 +33,8 @@ public class BackendConfigImplBuilder implements BackendConfigBuilder {
   private boolean includeForeignKeys = true;
   private final BundleConfig generalConfig;
   private boolean sslEnabled = false;
+  private int cursorFetchSize = 1000;
+  private boolean countEstimateEnabled = false;
 
   public BackendConfigImplBuilder(BundleConfig generalConfig) {
     this.generalConfig = generalConfig;
@@ -92,6 +94,18 @@ public class BackendConfigImplBuilder implements BackendConfigBuilder {
     return this;
   }
   
+  @Override
+  public BackendConfigImplBuilder setCursorFetchSize(int cursorFetchSize) {
+    this.cursorFetchSize = cursorFetchSize;
+    return this;
+  }
+
+  @Override
+  public BackendConfigImplBuilder setCountEstimateEnabled(boolean countEstimateEnabled) {
+    this.countEstimateEnabled = countEstimateEnabled;
+    return this;
+  }
+  
   public BackendConfigImplBuilder setSslEnabled(boolean sslEnabled) {
     this.sslEnabled = sslEnabled;
     return this;
@@ -100,7 +114,8 @@ public class BackendConfigImplBuilder implements BackendConfigBuilder {
   @Override
   public BackendConfig build() {
     return new BackendConfigImpl(connectionPoolTimeout, connectionPoolSize, reservedReadPoolSize,
-        username, password, dbHost, dbName, dbPort, includeForeignKeys, generalConfig, sslEnabled);
+        username, password, dbHost, dbName, dbPort, includeForeignKeys, generalConfig, sslEnabled,
+        cursorFetchSize, countEstimateEnabled);
   }
 
 }
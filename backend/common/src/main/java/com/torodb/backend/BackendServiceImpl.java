@@ -18,7 +18,6 @@
 
 package com.torodb.backend;
 
-import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.meta.SchemaUpdater;
 import com.torodb.common.util.Empty;
 import com.torodb.core.TableRefFactory;
@@ -29,33 +28,14 @@ import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.concurrent.StreamExecutor;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
-import com.torodb.core.exceptions.SystemException;
-import com.torodb.core.exceptions.ToroRuntimeException;
-import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.retrier.Retrier;
-import com.torodb.core.retrier.Retrier.Hint;
-import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.core.transaction.RollbackException;
-import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
-import com.torodb.core.transaction.metainf.MetaDocPart;
-import com.torodb.core.transaction.metainf.MetaDocPartIndexColumn;
-import com.torodb.core.transaction.metainf.MetaIdentifiedDocPartIndex;
 import org.apache.logging.log4j.Logger;
-import org.jooq.DSLContext;
-import org.jooq.lambda.tuple.Tuple2;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadFactory;
-import java.util.function.Consumer;
-import java.util.function.Function;
-import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -66,8 +46,8 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
   private final DbBackendService dbBackendService;
   private final SqlInterface sqlInterface;
   private final ReservedIdGenerator ridGenerator;
-  private final Retrier retrier;
   private final StreamExecutor streamExecutor;
+  private final DataImportJobScheduler dataImportJobScheduler;
   private final KvMetainfoHandler metainfoHandler;
   private final TableRefFactory tableRefFactory;
   private final IdentifierFactory identifierFactory;
@@ -83,15 +63,17 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
       SqlInterface sqlInterface, TableRefFactory tableRefFactory,
       IdentifierFactory identifierFactory, Retrier retrier,
       ConcurrentToolsFactory concurrentToolsFactory,
-      KvMetainfoHandler metainfoHandler, SchemaUpdater schemaUpdater) {
+      KvMetainfoHandler metainfoHandler, SchemaUpdater schemaUpdater,
+      DataImportModeMetrics dataImportModeMetrics) {
     super(threadFactory);
 
     this.dbBackendService = dbBackendService;
     this.sqlInterface = sqlInterface;
     this.ridGenerator = ridGenerator;
-    this.retrier = retrier;
     this.streamExecutor = concurrentToolsFactory.createStreamExecutor(
         LOGGER, "backend-inner-jobs", true);
+    this.dataImportJobScheduler = new DataImportJobScheduler(sqlInterface, metainfoHandler,
+        retrier, streamExecutor, dataImportModeMetrics);
     this.metainfoHandler = metainfoHandler;
     this.tableRefFactory = tableRefFactory;
     this.identifierFactory = identifierFactory;
@@ -108,6 +90,7 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
   public CompletableFuture<Empty> enableDataImportMode(MetaDatabase db)
       throws RollbackException {
     if (!sqlInterface.getDbBackend().isOnDataInsertMode(db)) {
+      dataImportJobScheduler.reset(db);
       sqlInterface.getDbBackend().enableDataInsertMode(db);
     }
     return CompletableFuture.completedFuture(Empty.getInstance());
@@ -123,129 +106,20 @@ public class BackendServiceImpl extends IdleTorodbService implements BackendServ
     }
     sqlInterface.getDbBackend().disableDataInsertMode(db);
 
-    //create internal indexes
-    Stream<Consumer<DSLContext>> createInternalIndexesJobs = db.streamMetaCollections().flatMap(
-        col -> col.streamContainedMetaDocParts().flatMap(
-            docPart -> enableInternalIndexJobs(db, col, docPart)
-        )
-    );
-
-    //create indexes
-    Stream<Consumer<DSLContext>> createIndexesJobs = db.streamMetaCollections().flatMap(
-        col -> enableIndexJobs(db, col)
-    );
-
-    //backend specific jobs
-    Stream<Consumer<DSLContext>> backendSpecificJobs = sqlInterface.getStructureInterface()
-        .streamDataInsertFinishTasks(db).map(job -> {
-          return (Consumer<DSLContext>) dsl -> {
-            String index = job.apply(dsl);
-            LOGGER.info("Task {} completed", index);
-          };
-        });
-    Stream<Consumer<DSLContext>> jobs = Stream
-        .concat(createInternalIndexesJobs, createIndexesJobs);
-    jobs = Stream.concat(jobs, backendSpecificJobs);
-    Stream<Runnable> runnables = jobs.map(this::dslConsumerToRunnable);
-
-    return streamExecutor.executeRunnables(runnables);
-  }
-
-  private Stream<Consumer<DSLContext>> enableInternalIndexJobs(MetaDatabase db, MetaCollection col,
-      MetaDocPart docPart) {
-    StructureInterface structureInterface = sqlInterface.getStructureInterface();
-
-    Stream<Function<DSLContext, String>> consumerStream;
-
-    if (docPart.getTableRef().isRoot()) {
-      consumerStream = structureInterface.streamRootDocPartTableIndexesCreation(
-          db.getIdentifier(),
-          docPart.getIdentifier(),
-          docPart.getTableRef()
-      );
-    } else {
-      MetaDocPart parentDocPart = col.getMetaDocPartByTableRef(
-          docPart.getTableRef().getParent().get()
-      );
-      assert parentDocPart != null;
-      consumerStream = structureInterface.streamDocPartTableIndexesCreation(
-          db.getIdentifier(),
-          docPart.getIdentifier(),
-          docPart.getTableRef(),
-          parentDocPart.getIdentifier()
-      );
-    }
-
-    return consumerStream.map(job -> {
-      return (Consumer<DSLContext>) dsl -> {
-        String index = job.apply(dsl);
-        LOGGER.info("Created internal index {} for table {}", index, docPart.getIdentifier());
-      };
-    });
+    return dataImportJobScheduler.schedule(db);
   }
 
-  private Stream<Consumer<DSLContext>> enableIndexJobs(MetaDatabase db, MetaCollection col) {
-    List<Consumer<DSLContext>> consumerList = new ArrayList<>();
-
-    Iterator<? extends MetaDocPart> docPartIterator = col.streamContainedMetaDocParts().iterator();
-    while (docPartIterator.hasNext()) {
-      MetaDocPart docPart = docPartIterator.next();
-
-      Iterator<? extends MetaIdentifiedDocPartIndex> docPartIndexIterator = docPart.streamIndexes()
-          .iterator();
-      while (docPartIndexIterator.hasNext()) {
-        MetaIdentifiedDocPartIndex docPartIndex = docPartIndexIterator.next();
-
-        consumerList.add(createIndexJob(db, docPart, docPartIndex));
-      }
+  @Override
+  public CompletableFuture<Empty> resumeDataImportModeJobs(MetaDatabase db) {
+    if (sqlInterface.getDbBackend().isOnDataInsertMode(db)) {
+      return CompletableFuture.completedFuture(Empty.getInstance());
     }
-
-    return consumerList.stream();
-  }
-
-  private Consumer<DSLContext> createIndexJob(MetaDatabase db, MetaDocPart docPart,
-      MetaIdentifiedDocPartIndex docPartIndex) {
-    return dsl -> {
-      List<Tuple2<String, Boolean>> columnList = new ArrayList<>(docPartIndex.size());
-      for (Iterator<? extends MetaDocPartIndexColumn> indexColumnIterator = docPartIndex
-          .iteratorColumns(); indexColumnIterator.hasNext();) {
-        MetaDocPartIndexColumn indexColumn = indexColumnIterator.next();
-        columnList.add(new Tuple2<>(indexColumn.getIdentifier(), indexColumn.getOrdering()
-            .isAscending()));
-      }
-
-      try {
-        sqlInterface.getStructureInterface().createIndex(
-            dsl, docPartIndex.getIdentifier(), db.getIdentifier(), docPart.getIdentifier(),
-            columnList,
-            docPartIndex.isUnique());
-      } catch (UserException userException) {
-        throw new SystemException(userException);
-      }
-      LOGGER.info("Created index {} for table {}", docPartIndex.getIdentifier(), docPart
-          .getIdentifier());
-    };
-  }
-
-  private Runnable dslConsumerToRunnable(Consumer<DSLContext> consumer) {
-    return () -> {
-      try {
-        retrier.retry(() -> {
-          try (Connection connection = sqlInterface.getDbBackend().createWriteConnection()) {
-            DSLContext dsl = sqlInterface.getDslContextFactory()
-                .createDslContext(connection);
-
-            consumer.accept(dsl);
-            connection.commit();
-            return null;
-          } catch (SQLException ex) {
-            throw sqlInterface.getErrorHandler().handleException(Context.CREATE_INDEX, ex);
+    return dataImportJobScheduler.resume(db)
+        .whenComplete((ignore, error) -> {
+          if (error != null) {
+            LOGGER.error("Error while resuming data import jobs on " + db.getIdentifier(), error);
           }
-        }, Hint.CRITICAL);
-      } catch (RetrierGiveUpException ex) {
-        throw new ToroRuntimeException(ex);
-      }
-    };
+        });
   }
 
   @Override
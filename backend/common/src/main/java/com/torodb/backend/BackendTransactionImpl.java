@@ -24,13 +24,17 @@ import com.torodb.core.backend.BackendCursor;
 import com.torodb.core.backend.BackendTransaction;
 import com.torodb.core.backend.EmptyBackendCursor;
 import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidSortSpec;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
 import com.torodb.core.exceptions.InvalidDatabaseException;
+import com.torodb.core.language.Projection;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.ProjectedMetaCollection;
 import com.torodb.kvdocument.values.KvValue;
 import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
@@ -88,6 +92,22 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
     return sqlInterface.getReadInterface().countAll(getDsl(), db, col);
   }
 
+  @Override
+  public long estimateCountAll(MetaDatabase db, MetaCollection col) {
+    return sqlInterface.getReadInterface().estimateCountAll(getDsl(), db, col);
+  }
+
+  @Override
+  public long countByPredicate(MetaDatabase db, MetaCollection col, DidPredicate predicate) {
+    if (predicate == DidPredicate.Constant.FALSE) {
+      return 0;
+    }
+    if (predicate == DidPredicate.Constant.TRUE) {
+      return countAll(db, col);
+    }
+    return sqlInterface.getReadInterface().countWithPredicate(getDsl(), db, col, predicate);
+  }
+
   @Override
   public long getCollectionSize(MetaDatabase db, MetaCollection col) {
     return sqlInterface.getMetaDataReadInterface().getCollectionSize(getDsl(), db, col);
@@ -120,6 +140,36 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
     }
   }
 
+  @Override
+  public BackendCursor findByPredicate(MetaDatabase db, MetaCollection col,
+      DidPredicate predicate) {
+    try {
+      if (predicate == DidPredicate.Constant.FALSE) {
+        return new EmptyBackendCursor();
+      }
+      Cursor<Integer> dids = sqlInterface.getReadInterface().getCollectionDidsWithPredicate(dsl,
+          db, col, predicate);
+      return new LazyBackendCursor(sqlInterface, dids, dsl, db, col);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
+  @Override
+  public BackendCursor findByPredicate(MetaDatabase db, MetaCollection col,
+      DidPredicate predicate, DidSortSpec sortSpec) {
+    try {
+      if (predicate == DidPredicate.Constant.FALSE) {
+        return new EmptyBackendCursor();
+      }
+      Cursor<Integer> dids = sqlInterface.getReadInterface().getCollectionDidsWithPredicate(dsl,
+          db, col, predicate, sortSpec);
+      return new LazyBackendCursor(sqlInterface, dids, dsl, db, col);
+    } catch (SQLException ex) {
+      throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+    }
+  }
+
   @Override
   public BackendCursor findByFieldIn(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
       Multimap<MetaField, KvValue<?>> valuesMultimap) {
@@ -155,6 +205,13 @@ public abstract class BackendTransactionImpl implements BackendTransaction {
     return new LazyBackendCursor(sqlInterface, didCursor, dsl, db, col);
   }
 
+  @Override
+  public BackendCursor fetch(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor,
+      Projection projection) {
+    return new LazyBackendCursor(sqlInterface, didCursor, dsl, db,
+        ProjectedMetaCollection.project(col, projection));
+  }
+
   @Override
   public Optional<KvValue<?>> readMetaInfo(MetaInfoKey key) throws
       IllegalArgumentException {
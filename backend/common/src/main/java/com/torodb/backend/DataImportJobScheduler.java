@@ -0,0 +1,340 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import com.codahale.metrics.Timer;
+import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.common.util.Empty;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.concurrent.StreamExecutor;
+import com.torodb.core.exceptions.SystemException;
+import com.torodb.core.exceptions.ToroRuntimeException;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.retrier.Retrier;
+import com.torodb.core.retrier.Retrier.Hint;
+import com.torodb.core.retrier.RetrierGiveUpException;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDocPartIndexColumn;
+import com.torodb.core.transaction.metainf.MetaIdentifiedDocPartIndex;
+import com.torodb.kvdocument.values.KvBoolean;
+import org.apache.logging.log4j.Logger;
+import org.jooq.DSLContext;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * Executes the jobs that must be done when the data import mode is disabled on a database.
+ *
+ * <p>Jobs are executed in three phases. First the internal indexes of the root doc parts are
+ * created, as they are the ones used to look for documents by did. Then the rest of internal and
+ * user indexes are created. Finally the backend specific tasks (like statistics collection) are
+ * executed. The jobs of each phase are executed in parallel by the given {@link StreamExecutor},
+ * starting with the biggest tables, so the longest builds do not delay the end of the phase.
+ *
+ * <p>Each index job stores a mark on the metainfo in the same transaction that creates the index,
+ * so the jobs that did not finish can be {@link #resume(MetaDatabase) resumed} after a restart.
+ */
+class DataImportJobScheduler {
+
+  private static final Logger LOGGER = BackendLoggerFactory.get(DataImportJobScheduler.class);
+  private static final String KEY_PREFIX = "dataImportJobs.";
+  private static final String PENDING_KEY = "pending";
+
+  private final SqlInterface sqlInterface;
+  private final KvMetainfoHandler metainfoHandler;
+  private final Retrier retrier;
+  private final StreamExecutor streamExecutor;
+  private final DataImportModeMetrics metrics;
+
+  DataImportJobScheduler(SqlInterface sqlInterface, KvMetainfoHandler metainfoHandler,
+      Retrier retrier, StreamExecutor streamExecutor, DataImportModeMetrics metrics) {
+    this.sqlInterface = sqlInterface;
+    this.metainfoHandler = metainfoHandler;
+    this.retrier = retrier;
+    this.streamExecutor = streamExecutor;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the prefix of all the metainfo keys used to track the jobs of the given database.
+   */
+  static String getKeyPrefix(MetaDatabase db) {
+    return KEY_PREFIX + db.getIdentifier() + ".";
+  }
+
+  /**
+   * Forgets the progress of previous executions on the given database.
+   */
+  void reset(MetaDatabase db) {
+    executeOnWriteConnection(Context.META_DELETE,
+        dsl -> metainfoHandler.deleteMetaInfoWithPrefix(dsl, getKeyPrefix(db)));
+  }
+
+  /**
+   * Executes all the jobs required to leave the data import mode on the given database.
+   */
+  CompletableFuture<Empty> schedule(MetaDatabase db) {
+    executeOnWriteConnection(Context.META_INSERT,
+        dsl -> metainfoHandler.writeMetaInfo(dsl, createKey(db, PENDING_KEY), KvBoolean.TRUE));
+    return execute(db);
+  }
+
+  /**
+   * Executes the jobs of a previous {@link #schedule(MetaDatabase)} that did not finish.
+   *
+   * @return a completed future if there was no unfinished execution on the given database
+   */
+  CompletableFuture<Empty> resume(MetaDatabase db) {
+    boolean pending = executeOnWriteConnection(Context.FETCH,
+        dsl -> metainfoHandler.readMetaInfo(dsl, createKey(db, PENDING_KEY)).isPresent());
+    if (!pending) {
+      return CompletableFuture.completedFuture(Empty.getInstance());
+    }
+    LOGGER.info("Resuming unfinished data import jobs on {}", db.getIdentifier());
+    return execute(db);
+  }
+
+  private CompletableFuture<Empty> execute(MetaDatabase db) {
+    Map<String, Long> tableSizes = readTableSizes(db);
+
+    List<Job> rootIndexJobs = new ArrayList<>();
+    List<Job> indexJobs = new ArrayList<>();
+    Iterator<? extends MetaCollection> colIterator = db.streamMetaCollections().iterator();
+    while (colIterator.hasNext()) {
+      MetaCollection col = colIterator.next();
+      Iterator<? extends MetaDocPart> docPartIterator = col.streamContainedMetaDocParts()
+          .iterator();
+      while (docPartIterator.hasNext()) {
+        MetaDocPart docPart = docPartIterator.next();
+        long tableSize = tableSizes.getOrDefault(docPart.getIdentifier(), 0L);
+        if (docPart.getTableRef().isRoot()) {
+          addInternalIndexJobs(rootIndexJobs, db, col, docPart, tableSize);
+        } else {
+          addInternalIndexJobs(indexJobs, db, col, docPart, tableSize);
+        }
+        addIndexJobs(indexJobs, db, docPart, tableSize);
+      }
+    }
+    Comparator<Job> biggestFirst = Comparator.comparingLong((Job job) -> job.tableSize)
+        .reversed();
+    rootIndexJobs.sort(biggestFirst);
+    indexJobs.sort(biggestFirst);
+
+    List<Job> finishJobs = new ArrayList<>();
+    sqlInterface.getStructureInterface().streamDataInsertFinishTasks(db)
+        .forEach(task -> finishJobs.add(new Job(null, 0, dsl -> {
+          String taskName = task.apply(dsl);
+          LOGGER.info("Task {} completed", taskName);
+        })));
+
+    AtomicInteger notStarted = new AtomicInteger(
+        rootIndexJobs.size() + indexJobs.size() + finishJobs.size());
+    metrics.getPendingJobs().inc(notStarted.get());
+
+    return executePhase(db, rootIndexJobs, metrics.getRootIndexJobs(), notStarted)
+        .thenCompose(ignore -> executePhase(db, indexJobs, metrics.getIndexJobs(), notStarted))
+        .thenCompose(ignore -> executePhase(db, finishJobs, metrics.getFinishJobs(), notStarted))
+        .thenApply(ignore -> {
+          reset(db);
+          LOGGER.info("All data import jobs on {} have finished", db.getIdentifier());
+          return Empty.getInstance();
+        })
+        .whenComplete((ignore, error) -> {
+          if (error != null) {
+            metrics.getPendingJobs().dec(notStarted.getAndSet(0));
+          }
+        });
+  }
+
+  private CompletableFuture<Empty> executePhase(MetaDatabase db, List<Job> jobs, Timer timer,
+      AtomicInteger notStarted) {
+    return streamExecutor.executeRunnables(jobs.stream()
+        .map(job -> toRunnable(db, job, timer, notStarted)));
+  }
+
+  private Map<String, Long> readTableSizes(MetaDatabase db) {
+    MetaDataReadInterface metaDataReadInterface = sqlInterface.getMetaDataReadInterface();
+    return executeOnWriteConnection(Context.FETCH, dsl -> {
+      Map<String, Long> tableSizes = new HashMap<>();
+      db.streamMetaCollections()
+          .flatMap(MetaCollection::streamContainedMetaDocParts)
+          .forEach(docPart -> tableSizes.put(docPart.getIdentifier(),
+              metaDataReadInterface.getDocPartTableSize(dsl, db, docPart)));
+      return tableSizes;
+    });
+  }
+
+  private void addInternalIndexJobs(List<Job> jobs, MetaDatabase db, MetaCollection col,
+      MetaDocPart docPart, long tableSize) {
+    StructureInterface structureInterface = sqlInterface.getStructureInterface();
+
+    Iterator<Function<DSLContext, String>> consumerIterator;
+
+    if (docPart.getTableRef().isRoot()) {
+      consumerIterator = structureInterface.streamRootDocPartTableIndexesCreation(
+          db.getIdentifier(),
+          docPart.getIdentifier(),
+          docPart.getTableRef()
+      ).iterator();
+    } else {
+      MetaDocPart parentDocPart = col.getMetaDocPartByTableRef(
+          docPart.getTableRef().getParent().get()
+      );
+      assert parentDocPart != null;
+      consumerIterator = structureInterface.streamDocPartTableIndexesCreation(
+          db.getIdentifier(),
+          docPart.getIdentifier(),
+          docPart.getTableRef(),
+          parentDocPart.getIdentifier()
+      ).iterator();
+    }
+
+    for (int i = 0; consumerIterator.hasNext(); i++) {
+      Function<DSLContext, String> job = consumerIterator.next();
+      String jobId = "internal." + docPart.getIdentifier() + "." + i;
+      jobs.add(new Job(jobId, tableSize, dsl -> {
+        String index = job.apply(dsl);
+        LOGGER.info("Created internal index {} for table {}", index, docPart.getIdentifier());
+      }));
+    }
+  }
+
+  private void addIndexJobs(List<Job> jobs, MetaDatabase db, MetaDocPart docPart,
+      long tableSize) {
+    Iterator<? extends MetaIdentifiedDocPartIndex> docPartIndexIterator = docPart.streamIndexes()
+        .iterator();
+    while (docPartIndexIterator.hasNext()) {
+      MetaIdentifiedDocPartIndex docPartIndex = docPartIndexIterator.next();
+
+      String jobId = "index." + docPartIndex.getIdentifier();
+      jobs.add(new Job(jobId, tableSize, createIndexJob(db, docPart, docPartIndex)));
+    }
+  }
+
+  private Consumer<DSLContext> createIndexJob(MetaDatabase db, MetaDocPart docPart,
+      MetaIdentifiedDocPartIndex docPartIndex) {
+    return dsl -> {
+      List<Tuple2<String, Boolean>> columnList = new ArrayList<>(docPartIndex.size());
+      for (Iterator<? extends MetaDocPartIndexColumn> indexColumnIterator = docPartIndex
+          .iteratorColumns(); indexColumnIterator.hasNext();) {
+        MetaDocPartIndexColumn indexColumn = indexColumnIterator.next();
+        columnList.add(new Tuple2<>(indexColumn.getIdentifier(), indexColumn.getOrdering()
+            .isAscending()));
+      }
+
+      try {
+        sqlInterface.getStructureInterface().createIndex(
+            dsl, docPartIndex.getIdentifier(), db.getIdentifier(), docPart.getIdentifier(),
+            columnList,
+            docPartIndex.isUnique());
+      } catch (UserException userException) {
+        throw new SystemException(userException);
+      }
+      LOGGER.info("Created index {} for table {}", docPartIndex.getIdentifier(), docPart
+          .getIdentifier());
+    };
+  }
+
+  private Runnable toRunnable(MetaDatabase db, Job job, Timer timer, AtomicInteger notStarted) {
+    return () -> {
+      notStarted.decrementAndGet();
+      metrics.getPendingJobs().dec();
+      metrics.getRunningJobs().inc();
+      try (Timer.Context ignored = timer.time()) {
+        MetaInfoKey key = job.id == null ? null : createKey(db, job.id);
+        boolean executed = executeOnWriteConnection(Context.CREATE_INDEX, dsl -> {
+          if (key != null && metainfoHandler.readMetaInfo(dsl, key).isPresent()) {
+            return false;
+          }
+          job.action.accept(dsl);
+          if (key != null) {
+            metainfoHandler.writeMetaInfo(dsl, key, KvBoolean.TRUE);
+          }
+          return true;
+        });
+        if (executed) {
+          metrics.getFinishedJobs().inc();
+        } else {
+          metrics.getSkippedJobs().inc();
+        }
+      } catch (RuntimeException ex) {
+        metrics.getFailedJobs().inc();
+        throw ex;
+      } finally {
+        metrics.getRunningJobs().dec();
+      }
+    };
+  }
+
+  private <R> R executeOnWriteConnection(Context context, Function<DSLContext, R> function) {
+    try {
+      return retrier.retry(() -> {
+        try (Connection connection = sqlInterface.getDbBackend().createWriteConnection()) {
+          DSLContext dsl = sqlInterface.getDslContextFactory()
+              .createDslContext(connection);
+
+          R result = function.apply(dsl);
+          connection.commit();
+          return result;
+        } catch (SQLException ex) {
+          throw sqlInterface.getErrorHandler().handleException(context, ex);
+        }
+      }, Hint.CRITICAL);
+    } catch (RetrierGiveUpException ex) {
+      throw new ToroRuntimeException(ex);
+    }
+  }
+
+  private static MetaInfoKey createKey(MetaDatabase db, String name) {
+    String keyName = getKeyPrefix(db) + name;
+    return () -> keyName;
+  }
+
+  private static class Job {
+
+    /**
+     * The id used to track the job on the metainfo or null if the job is always executed.
+     */
+    @Nullable
+    private final String id;
+    private final long tableSize;
+    private final Consumer<DSLContext> action;
+
+    public Job(@Nullable String id, long tableSize, Consumer<DSLContext> action) {
+      this.id = id;
+      this.tableSize = tableSize;
+      this.action = action;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.backend;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Metrics about the jobs executed when the data import mode is disabled.
+ */
+@Singleton
+@ThreadSafe
+public class DataImportModeMetrics {
+
+  private final Counter pendingJobs;
+  private final Counter runningJobs;
+  private final Counter finishedJobs;
+  private final Counter skippedJobs;
+  private final Counter failedJobs;
+  private final Timer rootIndexJobs;
+  private final Timer indexJobs;
+  private final Timer finishJobs;
+
+  @Inject
+  public DataImportModeMetrics(ToroMetricRegistry parentRegistry) {
+    ToroMetricRegistry registry = parentRegistry.createSubRegistry("DataImportMode");
+    pendingJobs = registry.counter("pendingJobs");
+    runningJobs = registry.counter("runningJobs");
+    finishedJobs = registry.counter("finishedJobs");
+    skippedJobs = registry.counter("skippedJobs");
+    failedJobs = registry.counter("failedJobs");
+    rootIndexJobs = registry.timer("rootIndexJobs");
+    indexJobs = registry.timer("indexJobs");
+    finishJobs = registry.timer("finishJobs");
+  }
+
+  /**
+   * The number of jobs that have been scheduled but have not started yet.
+   */
+  public Counter getPendingJobs() {
+    return pendingJobs;
+  }
+
+  public Counter getRunningJobs() {
+    return runningJobs;
+  }
+
+  public Counter getFinishedJobs() {
+    return finishedJobs;
+  }
+
+  /**
+   * The number of jobs that were not executed because they already finished before a restart.
+   */
+  public Counter getSkippedJobs() {
+    return skippedJobs;
+  }
+
+  public Counter getFailedJobs() {
+    return failedJobs;
+  }
+
+  /**
+   * The time spent creating the internal indexes of root doc parts.
+   */
+  public Timer getRootIndexJobs() {
+    return rootIndexJobs;
+  }
+
+  /**
+   * The time spent creating the other internal indexes and the user indexes.
+   */
+  public Timer getIndexJobs() {
+    return indexJobs;
+  }
+
+  /**
+   * The time spent on backend specific tasks, like statistics collection.
+   */
+  public Timer getFinishJobs() {
+    return finishJobs;
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend;
+
+import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidPredicateVisitor;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Translates a {@link DidPredicate} into a SQL condition that can be used on the
+ * <em>WHERE</em> clause of a query on the root doc part table.
+ *
+ * <p>Conditions on the root table are evaluated directly on its columns, while conditions on other
+ * doc part tables are evaluated as a <em>did IN (SELECT did FROM ...)</em> sub query. Each leaf is
+ * rendered in a way that never evaluates to <em>NULL</em>, so negations follow the two-valued
+ * logic expected by {@link DidPredicate}.
+ */
+public class DidPredicateSqlTranslator {
+
+  private final SqlHelper sqlHelper;
+  private final MetaDatabase metaDatabase;
+  private final MetaDocPart rootDocPart;
+  private final SqlBuilder sb;
+  private final List<Tuple2<FieldType, KvValue<?>>> parameters = new ArrayList<>();
+
+  public DidPredicateSqlTranslator(SqlHelper sqlHelper, MetaDatabase metaDatabase,
+      MetaDocPart rootDocPart) {
+    assert rootDocPart.getTableRef().isRoot();
+    this.sqlHelper = sqlHelper;
+    this.metaDatabase = metaDatabase;
+    this.rootDocPart = rootDocPart;
+    this.sb = new SqlBuilder(new StringBuilder());
+  }
+
+  /**
+   * Appends the condition that represents the given predicate.
+   *
+   * @return this translator
+   */
+  public DidPredicateSqlTranslator translate(DidPredicate predicate) {
+    predicate.accept(new Visitor(), null);
+    return this;
+  }
+
+  /**
+   * @return the SQL condition generated so far
+   */
+  public String getCondition() {
+    return sb.toString();
+  }
+
+  /**
+   * @return the values that must be bound to the placeholders of the condition, in order.
+   */
+  public List<Tuple2<FieldType, KvValue<?>>> getParameters() {
+    return parameters;
+  }
+
+  private class Visitor implements DidPredicateVisitor<Void, Void> {
+
+    @Override
+    public Void visit(DidPredicate.Constant predicate, Void arg) {
+      sb.append(predicate == DidPredicate.Constant.TRUE ? "1=1" : "1=0");
+      return null;
+    }
+
+    @Override
+    public Void visit(DidPredicate.And predicate, Void arg) {
+      appendJunction(predicate.getChildren(), " AND ", DidPredicate.Constant.TRUE);
+      return null;
+    }
+
+    @Override
+    public Void visit(DidPredicate.Or predicate, Void arg) {
+      appendJunction(predicate.getChildren(), " OR ", DidPredicate.Constant.FALSE);
+      return null;
+    }
+
+    private void appendJunction(List<DidPredicate> children, String operator,
+        DidPredicate.Constant neutral) {
+      if (children.isEmpty()) {
+        neutral.accept(this, null);
+        return;
+      }
+      sb.append('(');
+      Iterator<DidPredicate> it = children.iterator();
+      while (it.hasNext()) {
+        it.next().accept(this, null);
+        if (it.hasNext()) {
+          sb.append(operator);
+        }
+      }
+      sb.append(')');
+    }
+
+    @Override
+    public Void visit(DidPredicate.Not predicate, Void arg) {
+      sb.append("NOT (");
+      predicate.getChild().accept(this, null);
+      sb.append(')');
+      return null;
+    }
+
+    @Override
+    public Void visit(DidPredicate.Compare predicate, Void arg) {
+      MetaField field = predicate.getField();
+      appendLeaf(predicate, () -> {
+        sb.append(" AND ")
+            .quote(field.getIdentifier())
+            .append(' ')
+            .append(predicate.getOperator().getSymbol())
+            .append(' ')
+            .append(sqlHelper.getPlaceholder(field.getType()));
+        parameters.add(new Tuple2<>(field.getType(), predicate.getValue()));
+      });
+      return null;
+    }
+
+    @Override
+    public Void visit(DidPredicate.In predicate, Void arg) {
+      MetaField field = predicate.getField();
+      appendLeaf(predicate, () -> {
+        sb.append(" AND ")
+            .quote(field.getIdentifier())
+            .append(" IN (");
+        String placeholder = sqlHelper.getPlaceholder(field.getType());
+        for (KvValue<?> value : predicate.getValues()) {
+          sb.append(placeholder)
+              .append(',');
+          parameters.add(new Tuple2<>(field.getType(), value));
+        }
+        sb.setLastChar(')');
+      });
+      return null;
+    }
+
+    @Override
+    public Void visit(DidPredicate.NotNull predicate, Void arg) {
+      appendLeaf(predicate, () -> { });
+      return null;
+    }
+
+    /**
+     * Appends a leaf condition whose first term is the not null check of the predicate column.
+     *
+     * @param tail appends the rest of the terms, each one starting with <em>AND</em>
+     */
+    private void appendLeaf(DidPredicate.FieldPredicate predicate, Runnable tail) {
+      MetaDocPart docPart = predicate.getDocPart();
+      boolean onRoot = docPart.getTableRef().isRoot();
+      assert !onRoot || docPart.getIdentifier().equals(rootDocPart.getIdentifier());
+      if (onRoot) {
+        sb.append('(');
+      } else {
+        sb.quote(DocPartTableFields.DID.fieldName)
+            .append(" IN (SELECT ")
+            .quote(DocPartTableFields.DID.fieldName)
+            .append(" FROM ")
+            .table(metaDatabase.getIdentifier(), docPart.getIdentifier())
+            .append(" WHERE ");
+      }
+      sb.quote(predicate.getField().getIdentifier())
+          .append(" IS NOT NULL");
+      tail.run();
+      sb.append(')');
+    }
+  }
+}
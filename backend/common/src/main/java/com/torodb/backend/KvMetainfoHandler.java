@@ -61,6 +61,11 @@ public class KvMetainfoHandler {
     return fromStorableString(storedString);
   }
 
+  int deleteMetaInfoWithPrefix(DSLContext dsl, String keyPrefix) {
+    return sqlInterface.getMetaDataWriteInterface()
+        .deleteMetaInfoWithPrefix(dsl, keyPrefix);
+  }
+
   private KvValue<?> fromStorableString(String value) {
     switch (value) {
       case "true":
@@ -116,6 +116,12 @@ public interface MetaDataReadInterface {
   long getDocumentsSize(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection);
 
+  /**
+   * Returns the size in bytes of the table that stores the given doc part, without its indexes.
+   */
+  long getDocPartTableSize(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaDocPart docPart);
+
   Long getIndexSize(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection, @Nonnull String index);
 
@@ -18,6 +18,7 @@
 
 package com.torodb.backend;
 
+import com.torodb.core.TableRef;
 import com.torodb.core.backend.MetaInfoKey;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
@@ -30,6 +31,8 @@ import com.torodb.core.transaction.metainf.MetaIndexField;
 import com.torodb.core.transaction.metainf.MetaScalar;
 import org.jooq.DSLContext;
 
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -98,6 +101,21 @@ public interface MetaDataWriteInterface {
   int consumeRids(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection, @Nonnull MetaDocPart docPart, int count);
 
+  /**
+   * Stores the given rids as the last rids used by the doc parts of a collection.
+   *
+   * <p>All doc parts are updated with a single batch.
+   */
+  void storeLastRids(@Nonnull DSLContext dsl, @Nonnull String database,
+      @Nonnull String collection, @Nonnull Map<TableRef, Integer> lastRids);
+
   @Nullable
   String writeMetaInfo(@Nonnull DSLContext dsl, @Nonnull MetaInfoKey key, @Nonnull String newValue);
+
+  /**
+   * Deletes all metainfo entries whose key starts with the given prefix.
+   *
+   * @return the number of deleted entries
+   */
+  int deleteMetaInfoWithPrefix(@Nonnull DSLContext dsl, @Nonnull String keyPrefix);
 }
@@ -0,0 +1,508 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend;
+
+import com.google.common.base.Preconditions;
+import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.SqlHelper.SetupPreparedStatement;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.services.IdleTorodbService;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.logging.log4j.Logger;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Executes the doc part statements of a read concurrently, each helper connection reading the
+ * same snapshot than the connection that requested the read.
+ *
+ * <p>The connection of the caller exports its snapshot, which is imported by helper connections
+ * taken from the read only pool. The caller connection executes its own share of statements
+ * while the helpers execute theirs, so the latency of a read is closer to the one of its
+ * slowest doc part than to the sum of all of them. Results are returned in the requested order
+ * and only block when they are consumed before their helper has finished.
+ *
+ * <p>As a snapshot only contains committed data, this is only used on read only connections.
+ * The number of helpers used at the same time by all reads is limited by a fixed number of
+ * permits, each one held while its helper connection is open. A read that cannot get a permit
+ * in a short time executes all its statements on the caller connection. If a helper cannot be
+ * used (for instance because it is still waiting for a connection when its results are consumed
+ * or because the snapshot is no longer valid), its statements are executed on the caller
+ * connection when their results are consumed.
+ */
+@ThreadSafe
+public abstract class ParallelDocPartFetcher extends IdleTorodbService {
+
+  private static final Logger LOGGER = BackendLoggerFactory.get(ParallelDocPartFetcher.class);
+
+  /**
+   * The default maximum number of helper connections used by all reads.
+   */
+  public static final int DEFAULT_MAX_HELPERS = 3;
+  /**
+   * The default minimum number of doc parts a read must have to be executed concurrently.
+   */
+  public static final int DEFAULT_MIN_DOC_PARTS = 3;
+  /**
+   * The default time a read waits for its first helper before executing all its statements on
+   * the caller connection.
+   */
+  public static final long DEFAULT_HELPER_ACQUIRE_TIMEOUT_MILLIS = 10;
+  /**
+   * The default time a consumed result waits for its helper before executing its statement on
+   * the caller connection.
+   */
+  public static final long DEFAULT_MAX_HELPER_WAIT_MILLIS = 5000;
+
+  private final DbBackendService dbBackendService;
+  private final ErrorHandler errorHandler;
+  private final ExecutorService executor;
+  private final Semaphore helperPermits;
+  private final int maxHelpers;
+  private final int minDocParts;
+  private final long helperAcquireTimeoutMillis;
+  private final long maxHelperWaitMillis;
+
+  protected ParallelDocPartFetcher(ThreadFactory threadFactory,
+      DbBackendService dbBackendService, ErrorHandler errorHandler,
+      ConcurrentToolsFactory concurrentToolsFactory, int maxHelpers) {
+    this(threadFactory, dbBackendService, errorHandler, concurrentToolsFactory, maxHelpers,
+        DEFAULT_MIN_DOC_PARTS, DEFAULT_HELPER_ACQUIRE_TIMEOUT_MILLIS,
+        DEFAULT_MAX_HELPER_WAIT_MILLIS);
+  }
+
+  /**
+   * @param maxHelpers the maximum number of helper connections used by all reads. If it is 0,
+   *                   reads are never executed concurrently
+   */
+  protected ParallelDocPartFetcher(ThreadFactory threadFactory,
+      DbBackendService dbBackendService, ErrorHandler errorHandler,
+      ConcurrentToolsFactory concurrentToolsFactory, int maxHelpers, int minDocParts,
+      long helperAcquireTimeoutMillis, long maxHelperWaitMillis) {
+    super(threadFactory);
+    Preconditions.checkArgument(maxHelpers >= 0, "The number of helpers cannot be negative");
+    Preconditions.checkArgument(minDocParts > 1, "At least two doc parts are required");
+    Preconditions.checkArgument(helperAcquireTimeoutMillis >= 0,
+        "The helper acquire timeout cannot be negative");
+    Preconditions.checkArgument(maxHelperWaitMillis >= 0,
+        "The helper wait cannot be negative");
+    this.dbBackendService = dbBackendService;
+    this.errorHandler = errorHandler;
+    this.maxHelpers = maxHelpers;
+    this.minDocParts = minDocParts;
+    this.helperAcquireTimeoutMillis = helperAcquireTimeoutMillis;
+    this.maxHelperWaitMillis = maxHelperWaitMillis;
+    this.helperPermits = new Semaphore(maxHelpers);
+    this.executor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "doc-part-fetcher", Math.max(1, maxHelpers));
+  }
+
+  /**
+   * Returns the maximum number of helpers that can be used with a read only pool of the given
+   * size, leaving at least half of it to the connections that request reads.
+   */
+  public static int maxHelpersFor(int reservedReadPoolSize) {
+    return Math.max(0, Math.min(DEFAULT_MAX_HELPERS, (reservedReadPoolSize - 1) / 2));
+  }
+
+  /**
+   * Returns the identifier of a snapshot that contains the same data that is visible on the
+   * current transaction of the given connection.
+   */
+  protected abstract String exportSnapshot(Connection connection) throws SQLException;
+
+  /**
+   * Makes the current transaction of the given connection read the snapshot previously exported
+   * with {@link #exportSnapshot(java.sql.Connection)}.
+   */
+  protected abstract void importSnapshot(Connection connection, String snapshotId)
+      throws SQLException;
+
+  @Override
+  protected void startUp() throws Exception {
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    executor.shutdown();
+    if (!executor.awaitTermination(maxHelperWaitMillis, TimeUnit.MILLISECONDS)) {
+      LOGGER.warn("Doc part fetch helpers did not finish on time, they will be interrupted");
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns true iff a read of the given number of doc parts on the given connection should be
+   * executed by this fetcher.
+   */
+  public boolean isWorthy(Connection connection, int docParts) throws SQLException {
+    return maxHelpers > 0 && docParts >= minDocParts && isRunning() && connection.isReadOnly();
+  }
+
+  /**
+   * Executes the given doc part statements and returns their results in the same order.
+   *
+   * @param statementSetup sets the parameters of each statement before it is executed, on the
+   *                       caller connection or on a helper one
+   */
+  public List<DocPartResult> fetch(Connection connection,
+      List<Tuple2<MetaDocPart, String>> docPartStatements,
+      SetupPreparedStatement statementSetup,
+      BiFunction<MetaDocPart, ResultSet, DocPartResult> docPartResultFactory)
+      throws SQLException {
+    int helpers = acquireHelpers(Math.min(maxHelpers, docPartStatements.size() - 1));
+    int workers = helpers + 1;
+    List<HelperFetch> helperFetches = new ArrayList<>(helpers);
+    if (helpers > 0) {
+      String snapshotId;
+      try {
+        snapshotId = exportSnapshot(connection);
+      } catch (SQLException | RuntimeException ex) {
+        helperPermits.release(helpers);
+        throw ex;
+      }
+      for (int helper = 1; helper < workers; helper++) {
+        List<Tuple2<MetaDocPart, String>> helperStatements = new ArrayList<>();
+        for (int index = helper; index < docPartStatements.size(); index += workers) {
+          helperStatements.add(docPartStatements.get(index));
+        }
+        HelperFetch helperFetch = new HelperFetch(snapshotId, helperStatements, statementSetup);
+        helperFetches.add(helperFetch);
+        helperFetch.submit();
+      }
+    }
+
+    List<DocPartResult> result = new ArrayList<>(docPartStatements.size());
+    for (int index = 0; index < docPartStatements.size(); index++) {
+      int worker = index % workers;
+      if (worker == 0) {
+        result.add(null);
+      } else {
+        result.add(new HelperDocPartResult(helperFetches.get(worker - 1), index / workers,
+            connection, docPartStatements.get(index), docPartResultFactory));
+      }
+    }
+    try {
+      for (int index = 0; index < docPartStatements.size(); index += workers) {
+        Tuple2<MetaDocPart, String> docPartStatement = docPartStatements.get(index);
+        result.set(index, docPartResultFactory.apply(docPartStatement.v1,
+            executeQuery(connection, docPartStatement.v2, statementSetup)));
+      }
+    } catch (SQLException | RuntimeException ex) {
+      result.stream()
+          .filter(docPartResult -> docPartResult != null)
+          .forEach(DocPartResult::close);
+      throw ex;
+    }
+    return result;
+  }
+
+  /**
+   * Acquires up to the given number of helper permits and returns how many of them have been
+   * acquired.
+   *
+   * <p>Only the first permit is waited for, and no more than the helper acquire timeout.
+   */
+  private int acquireHelpers(int wanted) {
+    try {
+      if (!helperPermits.tryAcquire(helperAcquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        LOGGER.trace("No doc part fetch helper is available, the read will be sequential");
+        return 0;
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return 0;
+    }
+    int acquired = 1;
+    while (acquired < wanted && helperPermits.tryAcquire()) {
+      acquired++;
+    }
+    return acquired;
+  }
+
+  @SuppressFBWarnings(value = {"OBL_UNSATISFIED_OBLIGATION", "ODR_OPEN_DATABASE_RESOURCE"},
+      justification =
+      "ResultSet is wrapped in a DocPartResult. It's iterated and closed in caller code")
+  private static ResultSet executeQuery(Connection connection, String statement,
+      SetupPreparedStatement statementSetup) throws SQLException {
+    PreparedStatement preparedStatement = connection.prepareStatement(statement);
+    statementSetup.accept(preparedStatement);
+    return preparedStatement.executeQuery();
+  }
+
+  /**
+   * Executes the statements of a helper on its own connection.
+   *
+   * <p>The helper holds a permit from the moment it is created until its connection is closed.
+   * Its results are completed by the helper or, if they are abandoned before that, by the
+   * caller. In the latter case the helper closes what it has opened as soon as it finishes.
+   */
+  private class HelperFetch implements Runnable {
+
+    private final String snapshotId;
+    private final List<Tuple2<MetaDocPart, String>> docPartStatements;
+    private final SetupPreparedStatement statementSetup;
+    private final CompletableFuture<List<ResultSet>> resultSets = new CompletableFuture<>();
+    private Connection helperConnection;
+    private int openResults;
+    private boolean permitReleased = false;
+
+    private HelperFetch(String snapshotId, List<Tuple2<MetaDocPart, String>> docPartStatements,
+        SetupPreparedStatement statementSetup) {
+      this.snapshotId = snapshotId;
+      this.docPartStatements = docPartStatements;
+      this.statementSetup = statementSetup;
+      this.openResults = docPartStatements.size();
+    }
+
+    private void submit() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ex) {
+        LOGGER.debug("Doc part fetch helper rejected, its statements will be executed on the "
+            + "caller connection", ex);
+        resultSets.completeExceptionally(ex);
+        closeConnection();
+      }
+    }
+
+    @Override
+    public void run() {
+      List<ResultSet> result = new ArrayList<>(docPartStatements.size());
+      try {
+        Connection connection = openConnection();
+        importSnapshot(connection, snapshotId);
+        for (Tuple2<MetaDocPart, String> docPartStatement : docPartStatements) {
+          if (resultSets.isDone()) {
+            break;
+          }
+          result.add(executeQuery(connection, docPartStatement.v2, statementSetup));
+        }
+        if (!resultSets.complete(result)) {
+          LOGGER.trace("Doc part fetch helper finished after its results were abandoned");
+          closeResultSets(result);
+          closeConnection();
+        }
+      } catch (Throwable throwable) {
+        LOGGER.debug("Doc part fetch helper failed, its statements will be executed on the "
+            + "caller connection", throwable);
+        try {
+          closeResultSets(result);
+          closeConnection();
+        } catch (RuntimeException ex) {
+          LOGGER.debug("Error while closing a failed doc part fetch helper", ex);
+        }
+        resultSets.completeExceptionally(throwable);
+      }
+    }
+
+    /**
+     * Opens the helper connection.
+     *
+     * <p>The connection is requested without holding the lock of this helper, so results can be
+     * abandoned and closed while the read only pool is exhausted.
+     */
+    private Connection openConnection() {
+      Preconditions.checkState(!resultSets.isDone(), "The results have been abandoned");
+      Connection connection = dbBackendService.createReadOnlyConnection();
+      synchronized (this) {
+        helperConnection = connection;
+      }
+      return connection;
+    }
+
+    /**
+     * Returns the result set of the given statement or null if this helper failed or did not
+     * finish on time, in which case the result is abandoned.
+     */
+    private ResultSet getResultSet(int statementIndex) {
+      try {
+        return resultSets.get(maxHelperWaitMillis, TimeUnit.MILLISECONDS).get(statementIndex);
+      } catch (ExecutionException | CancellationException ex) {
+        return null;
+      } catch (TimeoutException ex) {
+        LOGGER.debug("Doc part fetch helper did not finish on time, its statements will be "
+            + "executed on the caller connection");
+        return getResultSetOrAbandon(statementIndex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return getResultSetOrAbandon(statementIndex);
+      }
+    }
+
+    /**
+     * Returns the result set of the given statement if this helper has already finished or
+     * abandons its results and returns null otherwise.
+     */
+    private ResultSet getResultSetOrAbandon(int statementIndex) {
+      if (resultSets.completeExceptionally(new CancellationException("Abandoned results"))) {
+        return null;
+      }
+      try {
+        return resultSets.getNow(null).get(statementIndex);
+      } catch (RuntimeException ex) {
+        return null;
+      }
+    }
+
+    private synchronized void resultClosed() {
+      openResults--;
+      if (openResults == 0 && isSucceeded()) {
+        closeConnection();
+      }
+    }
+
+    /**
+     * Returns true iff the helper has finished and its results have not been abandoned, so the
+     * connection is no longer used by the helper thread.
+     */
+    private boolean isSucceeded() {
+      return resultSets.isDone() && !resultSets.isCompletedExceptionally();
+    }
+
+    private void closeResultSets(List<ResultSet> result) {
+      for (ResultSet resultSet : result) {
+        try {
+          Statement statement = resultSet.getStatement();
+          resultSet.close();
+          if (statement != null) {
+            statement.close();
+          }
+        } catch (SQLException ex) {
+          LOGGER.debug("Error while closing an abandoned doc part result", ex);
+        }
+      }
+    }
+
+    private synchronized void closeConnection() {
+      try {
+        if (helperConnection != null) {
+          helperConnection.rollback();
+          helperConnection.close();
+        }
+      } catch (SQLException ex) {
+        throw errorHandler.handleException(Context.CLOSE, ex);
+      } finally {
+        helperConnection = null;
+        if (!permitReleased) {
+          permitReleased = true;
+          helperPermits.release();
+        }
+      }
+    }
+  }
+
+  private class HelperDocPartResult implements DocPartResult {
+
+    private final HelperFetch helperFetch;
+    private final int statementIndex;
+    private final Connection callerConnection;
+    private final Tuple2<MetaDocPart, String> docPartStatement;
+    private final BiFunction<MetaDocPart, ResultSet, DocPartResult> docPartResultFactory;
+    private DocPartResult delegate;
+    private boolean closed = false;
+
+    private HelperDocPartResult(HelperFetch helperFetch, int statementIndex,
+        Connection callerConnection, Tuple2<MetaDocPart, String> docPartStatement,
+        BiFunction<MetaDocPart, ResultSet, DocPartResult> docPartResultFactory) {
+      this.helperFetch = helperFetch;
+      this.statementIndex = statementIndex;
+      this.callerConnection = callerConnection;
+      this.docPartStatement = docPartStatement;
+      this.docPartResultFactory = docPartResultFactory;
+    }
+
+    private DocPartResult getDelegate() {
+      Preconditions.checkState(!closed, "The result has been closed");
+      if (delegate == null) {
+        ResultSet resultSet = helperFetch.getResultSet(statementIndex);
+        if (resultSet == null) {
+          try {
+            resultSet = executeQuery(callerConnection, docPartStatement.v2,
+                helperFetch.statementSetup);
+          } catch (SQLException ex) {
+            throw errorHandler.handleException(Context.FETCH, ex);
+          }
+        }
+        delegate = docPartResultFactory.apply(docPartStatement.v1, resultSet);
+      }
+      return delegate;
+    }
+
+    @Override
+    public MetaDocPart getMetaDocPart() {
+      return docPartStatement.v1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return getDelegate().hasNext();
+    }
+
+    @Override
+    public DocPartResultRow next() {
+      return getDelegate().next();
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (delegate == null) {
+          ResultSet resultSet = helperFetch.getResultSetOrAbandon(statementIndex);
+          if (resultSet != null) {
+            resultSet.close();
+          }
+        } else {
+          delegate.close();
+        }
+      } catch (SQLException ex) {
+        throw errorHandler.handleException(Context.CLOSE, ex);
+      } finally {
+        helperFetch.resultClosed();
+      }
+    }
+  }
+}
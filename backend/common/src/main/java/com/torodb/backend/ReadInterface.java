@@ -19,6 +19,8 @@
 package com.torodb.backend;
 
 import com.google.common.collect.Multimap;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidSortSpec;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartResult;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -44,6 +46,24 @@ public interface ReadInterface {
       @Nonnull MetaField metaField, @Nonnull KvValue<?> value)
       throws SQLException;
 
+  /**
+   * Returns a cursor that iterates, in ascending order, over the dids of the documents that
+   * fulfill the given predicate.
+   */
+  @Nonnull
+  Cursor<Integer> getCollectionDidsWithPredicate(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCol,
+      @Nonnull DidPredicate predicate) throws SQLException;
+
+  /**
+   * Returns a cursor that iterates over the dids of the documents that fulfill the given
+   * predicate, in the order and within the window specified by the given sort spec.
+   */
+  @Nonnull
+  Cursor<Integer> getCollectionDidsWithPredicate(@Nonnull DSLContext dsl,
+      @Nonnull MetaDatabase metaDatabase, @Nonnull MetaCollection metaCol,
+      @Nonnull DidPredicate predicate, @Nonnull DidSortSpec sortSpec) throws SQLException;
+
   @Nonnull
   public Cursor<Integer> getCollectionDidsWithFieldsIn(DSLContext dsl, MetaDatabase metaDatabase,
       MetaCollection metaCol, MetaDocPart metaDocPart, Multimap<MetaField, KvValue<?>> valuesMap)
@@ -59,6 +79,21 @@ public interface ReadInterface {
   long countAll(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
       @Nonnull MetaCollection collection);
 
+  /**
+   * Like {@link #countAll(DSLContext, MetaDatabase, MetaCollection)}, but the row estimation kept
+   * by the database statistics is returned instead when
+   * {@link BackendConfig#isCountEstimateEnabled()} is true and there is an estimation available.
+   */
+  long estimateCountAll(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection);
+
+  /**
+   * Returns the number of documents on the given collection that fulfill the given predicate,
+   * without reading the documents themselves.
+   */
+  long countWithPredicate(@Nonnull DSLContext dsl, @Nonnull MetaDatabase database,
+      @Nonnull MetaCollection collection, @Nonnull DidPredicate predicate);
+
   @Nonnull
   Cursor<Integer> getAllCollectionDids(@Nonnull DSLContext dsl, @Nonnull MetaDatabase metaDatabase,
       @Nonnull MetaCollection metaCollection)
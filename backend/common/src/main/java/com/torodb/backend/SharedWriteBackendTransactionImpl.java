@@ -49,6 +49,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl implements
     SharedWriteBackendTransaction {
@@ -120,6 +121,8 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
     }
     getSqlInterface().getMetaDataWriteInterface().deleteMetaDatabase(getDsl(), db);
     getSqlInterface().getStructureInterface().dropDatabase(getDsl(), db);
+    getBackendConnection().getMetaInfoHandler()
+        .deleteMetaInfoWithPrefix(getDsl(), DataImportJobScheduler.getKeyPrefix(db));
   }
 
   protected void dropMetaCollection(MetaDatabase database, MetaCollection coll) {
@@ -253,6 +256,15 @@ public class SharedWriteBackendTransactionImpl extends BackendTransactionImpl im
         .deleteCollectionDocParts(getDsl(), db.getIdentifier(), col, dids);
   }
 
+  @Override
+  public boolean updateDocPartRow(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
+      int did, Map<MetaField, KvValue<?>> newValues) throws UserException {
+    Preconditions.checkState(!isClosed(), "This transaction is closed");
+
+    return getSqlInterface().getWriteInterface()
+        .updateDocPartRow(getDsl(), db.getIdentifier(), docPart, did, newValues);
+  }
+
   @Override
   public void createIndex(MetaDatabase db, MutableMetaCollection col, MetaIndex index) throws
       UserException {
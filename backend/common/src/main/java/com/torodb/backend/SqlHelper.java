@@ -105,7 +105,14 @@ public class SqlHelper {
   }
 
   public int executeUpdate(Connection c, String statement, Context context) {
+    return executeUpdate(c, statement, context, ps -> {
+    });
+  }
+
+  public int executeUpdate(Connection c, String statement, Context context,
+      SetupPreparedStatement statementSetup) {
     try (PreparedStatement ps = c.prepareStatement(statement)) {
+      statementSetup.accept(ps);
       return ps.executeUpdate();
     } catch (SQLException ex) {
       throw errorHandler.handleException(context, ex);
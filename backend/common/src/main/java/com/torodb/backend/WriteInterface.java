@@ -22,9 +22,13 @@ import com.torodb.core.cursors.Cursor;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
 import org.jooq.DSLContext;
 
 import java.util.Collection;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 
@@ -39,4 +43,17 @@ public interface WriteInterface {
   void deleteCollectionDocParts(@Nonnull DSLContext dsl, @Nonnull String schemaName,
       @Nonnull MetaCollection metaCollection, @Nonnull Collection<Integer> dids);
 
+  /**
+   * Sets the given fields of the row that the given document has on the given doc part.
+   *
+   * <p>The doc part must contain at most one row of each document, like the root doc part and
+   * the ones whose rows are subdocuments reached from the root only through object keys. A null
+   * value sets the column of its field to null.
+   *
+   * @return true iff the row was found and updated
+   */
+  boolean updateDocPartRow(@Nonnull DSLContext dsl, @Nonnull String schemaName,
+      @Nonnull MetaDocPart metaDocPart, int did, @Nonnull Map<MetaField, KvValue<?>> newValues)
+      throws UserException;
+
 }
@@ -21,6 +21,7 @@ package com.torodb.backend.guice;
 import com.google.inject.PrivateModule;
 import com.google.inject.Singleton;
 import com.torodb.backend.BackendServiceImpl;
+import com.torodb.backend.DataImportModeMetrics;
 import com.torodb.backend.DslContextFactory;
 import com.torodb.backend.DslContextFactoryImpl;
 import com.torodb.backend.KvMetainfoHandler;
@@ -84,6 +85,9 @@ public class BackendModule extends PrivateModule {
     expose(BackendService.class);
 
     bind(KvMetainfoHandler.class);
+
+    bind(DataImportModeMetrics.class)
+        .in(Singleton.class);
   }
 
 }
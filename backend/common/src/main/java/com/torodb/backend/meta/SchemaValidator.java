@@ -19,24 +19,27 @@
 package com.torodb.backend.meta;
 
 import com.google.common.base.Splitter;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
 import com.torodb.backend.exceptions.InvalidDatabaseSchemaException;
 import com.torodb.backend.meta.SchemaValidator.Table.ResultSetIterator;
-import com.torodb.backend.tables.records.MetaFieldRecord;
-import com.torodb.backend.tables.records.MetaScalarRecord;
-import com.torodb.core.TableRef;
-import com.torodb.core.TableRefFactory;
 import com.torodb.core.exceptions.SystemException;
 import org.jooq.DSLContext;
 import org.jooq.DataType;
+import org.jooq.lambda.tuple.Tuple2;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public class SchemaValidator {
 
@@ -46,6 +49,8 @@ public class SchemaValidator {
   private final String schemaName;
   private final Iterable<? extends Table> existingTables;
   private final Iterable<? extends Index> existingIndexes;
+  private final Map<String, Table> tablesByName;
+  private final Map<String, Index> indexesByName;
 
   public SchemaValidator(DSLContext dsl, String schemaName, String database) throws
       InvalidDatabaseSchemaException {
@@ -59,6 +64,14 @@ public class SchemaValidator {
     } finally {
       dsl.configuration().connectionProvider().release(connection);
     }
+    tablesByName = new HashMap<>();
+    for (Table table : existingTables) {
+      tablesByName.putIfAbsent(table.getName(), table);
+    }
+    indexesByName = new HashMap<>();
+    for (Index index : existingIndexes) {
+      indexesByName.putIfAbsent(index.getName(), index);
+    }
   }
 
   private List<Table> getTables(String schemaName, Connection connection) {
@@ -115,104 +128,53 @@ public class SchemaValidator {
   }
 
   public boolean existsTable(String tableName) {
-    for (Table table : existingTables) {
-      if (table.getName().equals(tableName)) {
-        return true;
-      }
-    }
-    return false;
+    return tablesByName.containsKey(tableName);
   }
 
   public boolean existsColumn(String tableName, String columnName) {
-    for (Table table : existingTables) {
-      if (table.getName().equals(tableName)) {
-        for (TableField field : table.fields()) {
-          if (field.getName().equals(columnName)) {
-            return true;
-          }
-        }
-      }
-    }
-    return false;
+    Table table = tablesByName.get(tableName);
+    return table != null && table.getField(columnName) != null;
   }
 
   public boolean existsColumnWithType(String tableName, String columnName, DataType<?> columnType) {
-    for (Table table : existingTables) {
-      if (table.getName().equals(tableName)) {
-        for (TableField field : table.fields()) {
-          if (field.getName().equals(columnName)) {
-            if (field.getSqlType() == columnType.getSQLType() && field.getTypeName().equals(
-                COLUMN_TYPE_NAME_SPLITTER
-                    .splitToList(columnType.getTypeName()).stream()
-                    .reduce((e1, e2) -> e2).get())) {
-              return true;
-            } else {
-              return false;
-            }
-          }
-        }
-      }
-    }
-    return false;
+    Table table = tablesByName.get(tableName);
+    if (table == null) {
+      return false;
+    }
+    TableField field = table.getField(columnName);
+    if (field == null) {
+      return false;
+    }
+    return field.getSqlType() == columnType.getSQLType() && field.getTypeName().equals(
+        COLUMN_TYPE_NAME_SPLITTER
+            .splitToList(columnType.getTypeName()).stream()
+            .reduce((e1, e2) -> e2).get());
   }
 
   public TableField getColumn(String tableName, String columnName) {
-    for (Table table : existingTables) {
-      if (table.getName().equals(tableName)) {
-        for (TableField field : table.fields()) {
-          if (field.getName().equals(columnName)) {
-            return field;
-          }
-        }
-      }
+    Table table = tablesByName.get(tableName);
+    TableField field = table == null ? null : table.getField(columnName);
+    if (field == null) {
+      throw new IllegalArgumentException("Column " + columnName + " in table " + schemaName + "."
+          + tableName + " not found");
     }
-    throw new IllegalArgumentException("Column " + columnName + " in table " + schemaName + "."
-        + tableName + " not found");
+    return field;
   }
 
   public boolean existsIndex(String indexName) {
-    for (Index index : existingIndexes) {
-      if (index.getName().equals(indexName)) {
-        return true;
-      }
-    }
-    return false;
+    return indexesByName.containsKey(indexName);
   }
 
   public boolean existsIndexColumn(String indexName, int position, String columnName) {
-    for (Index index : existingIndexes) {
-      if (index.getName().equals(indexName)) {
-        for (IndexField field : index.fields()) {
-          if (field.getName().equals(columnName)) {
-            return true;
-          }
-        }
-      }
+    Index index = indexesByName.get(indexName);
+    if (index == null) {
+      return false;
     }
-    return false;
-  }
-
-  public static boolean containsField(TableField existingField,
-      String collection,
-      TableRef tableRef,
-      Iterable<MetaFieldRecord<Object>> fields,
-      Iterable<MetaScalarRecord<Object>> scalars,
-      TableRefFactory tableRefFactory) {
-
-    for (MetaFieldRecord<?> field : fields) {
-      if (collection.equals(field.getCollection()) && tableRef.equals(field.getTableRefValue(
-          tableRefFactory)) && existingField.getName().equals(field.getIdentifier())) {
+    for (IndexField field : index.fields()) {
+      if (field.getName().equals(columnName)) {
         return true;
       }
     }
-
-    for (MetaScalarRecord<?> scalar : scalars) {
-      if (collection.equals(scalar.getCollection()) && tableRef.equals(scalar.getTableRefValue(
-          tableRefFactory)) && existingField.getName().equals(scalar.getIdentifier())) {
-        return true;
-      }
-    }
-
     return false;
   }
 
@@ -430,12 +392,14 @@ public class SchemaValidator {
     private final String schema;
     private final String name;
     private final ImmutableList<TableField> fields;
+    private final ImmutableMap<String, TableField> fieldsByName;
 
     public Table(String schema, String name, ImmutableList<TableField> fields) {
       super();
       this.schema = schema;
       this.name = name;
       this.fields = fields;
+      this.fieldsByName = Maps.uniqueIndex(fields, TableField::getName);
     }
 
     public String getSchema() {
@@ -450,16 +414,30 @@ public class SchemaValidator {
       return fields;
     }
 
+    /**
+     * Returns the field of this table with the given name or null if there is no such field.
+     */
+    public TableField getField(String name) {
+      return fieldsByName.get(name);
+    }
+
+    /**
+     * Iterates over the tables of a schema.
+     *
+     * <p>The columns of all tables are read with a single meta data call when the iterator is
+     * created, instead of one call per table.
+     */
     public static class ResultSetIterator implements Iterator<Table> {
 
       private final ResultSet tableResultSet;
-      private final DatabaseMetaData metaData;
+      private final ListMultimap<Tuple2<String, String>, TableField> columns;
 
       private boolean hasNext;
 
       public ResultSetIterator(String schemaName, Connection connection) {
         try {
-          this.metaData = connection.getMetaData();
+          DatabaseMetaData metaData = connection.getMetaData();
+          this.columns = readColumns(metaData, schemaName);
           this.tableResultSet = metaData.getTables(null, schemaName, null, new String[]{"TABLE"});
           this.hasNext = tableResultSet.next();
         } catch (SQLException sqlException) {
@@ -467,6 +445,25 @@ public class SchemaValidator {
         }
       }
 
+      private static ListMultimap<Tuple2<String, String>, TableField> readColumns(
+          DatabaseMetaData metaData, String schemaName) throws SQLException {
+        ListMultimap<Tuple2<String, String>, TableField> columns = ArrayListMultimap.create();
+        try (ResultSet columnResultSet = metaData.getColumns(null, schemaName, null, null)) {
+          while (columnResultSet.next()) {
+            columns.put(
+                new Tuple2<>(columnResultSet.getString("TABLE_SCHEM"),
+                    columnResultSet.getString("TABLE_NAME")),
+                new TableField(
+                    columnResultSet.getString("COLUMN_NAME"),
+                    columnResultSet.getInt("ORDINAL_POSITION"),
+                    columnResultSet.getInt("DATA_TYPE"),
+                    columnResultSet.getString("TYPE_NAME"),
+                    columnResultSet.getInt("SOURCE_DATA_TYPE")));
+          }
+        }
+        return columns;
+      }
+
       @Override
       public boolean hasNext() {
         return hasNext;
@@ -474,21 +471,10 @@ public class SchemaValidator {
 
       @Override
       public Table next() {
-        List<TableField> fields = new ArrayList<>();
-
         try {
-          String catalog = tableResultSet.getString("TABLE_CAT");
           String schema = tableResultSet.getString("TABLE_SCHEM");
           String name = tableResultSet.getString("TABLE_NAME");
-          ResultSet columnResultSet = metaData.getColumns(catalog, schema, name, null);
-          while (columnResultSet.next()) {
-            fields.add(new TableField(
-                columnResultSet.getString("COLUMN_NAME"),
-                columnResultSet.getInt("ORDINAL_POSITION"),
-                columnResultSet.getInt("DATA_TYPE"),
-                columnResultSet.getString("TYPE_NAME"),
-                columnResultSet.getInt("SOURCE_DATA_TYPE")));
-          }
+          List<TableField> fields = columns.get(new Tuple2<>(schema, name));
 
           if (!tableResultSet.next()) {
             this.hasNext = false;
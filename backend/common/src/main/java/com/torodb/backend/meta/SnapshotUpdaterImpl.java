@@ -18,6 +18,9 @@
 
 package com.torodb.backend.meta;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+import com.torodb.backend.BackendConfig;
 import com.torodb.backend.BackendLoggerFactory;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.SqlHelper;
@@ -46,6 +49,7 @@ import com.torodb.backend.tables.records.MetaScalarRecord;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.SnapshotUpdater;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.exceptions.InvalidDatabaseException;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
@@ -63,12 +67,20 @@ import com.torodb.core.transaction.metainf.MutableMetaSnapshot;
 import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
 import org.jooq.DataType;
-import org.jooq.Result;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 import javax.inject.Inject;
 
@@ -79,13 +91,17 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
   private final SqlInterface sqlInterface;
   private final SqlHelper sqlHelper;
   private final TableRefFactory tableRefFactory;
+  private final ExecutorService validatorExecutor;
 
   @Inject
   public SnapshotUpdaterImpl(SqlInterface sqlInterface, SqlHelper sqlHelper,
-      SchemaUpdater schemaUpdater, TableRefFactory tableRefFactory) {
+      SchemaUpdater schemaUpdater, TableRefFactory tableRefFactory, BackendConfig backendConfig,
+      ConcurrentToolsFactory concurrentToolsFactory) {
     this.sqlInterface = sqlInterface;
     this.sqlHelper = sqlHelper;
     this.tableRefFactory = tableRefFactory;
+    this.validatorExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "snapshot-validator", Math.max(1, backendConfig.getReservedReadPoolSize()));
   }
 
   @Override
@@ -101,101 +117,195 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
           + "the database");
     }
 
+    Updater updater;
     try (Connection connection = sqlInterface.getDbBackend().createSystemConnection()) {
       DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
 
-      Updater updater = new Updater(dsl, tableRefFactory, sqlInterface);
-      updater.loadMetaSnapshot(mutableSnapshot);
+      updater = new Updater(dsl, tableRefFactory, sqlInterface);
 
       connection.commit();
     } catch (SQLException sqlException) {
       throw sqlInterface.getErrorHandler().handleException(Context.UNKNOWN, sqlException);
     }
 
+    updater.loadMetaSnapshot(mutableSnapshot, validatorExecutor);
+
     try (MergerStage merge = metainfoRepository.startMerge(mutableSnapshot)) {
       merge.commit();
     }
   }
 
+  /**
+   * Builds a {@link MutableMetaSnapshot} from the meta tables.
+   *
+   * <p>Each meta table is read with a single query when the updater is created and its rows are
+   * grouped in memory by the database, collection, doc part or index they belong to. The schema
+   * of each database is then read and validated concurrently, each database on its own read only
+   * connection, and finally the snapshot is built in a single pass.
+   */
   private static class Updater {
 
-    private final DSLContext dsl;
     private final TableRefFactory tableRefFactory;
     private final SqlInterface sqlInterface;
-    private final MetaCollectionTable<MetaCollectionRecord> collectionTable;
-    private final MetaDocPartTable<Object, MetaDocPartRecord<Object>> docPartTable;
-    private final MetaFieldTable<Object, MetaFieldRecord<Object>> fieldTable;
-    private final MetaScalarTable<Object, MetaScalarRecord<Object>> scalarTable;
-    private final MetaIndexTable<MetaIndexRecord> indexTable;
-    private final MetaIndexFieldTable<Object, MetaIndexFieldRecord<Object>> indexFieldTable;
-    private final MetaDocPartIndexTable<Object, MetaDocPartIndexRecord<Object>> docPartIndexTable;
+    private final List<MetaDatabaseRecord> databases;
+    private final ImmutableListMultimap<String, MetaCollectionRecord> collections;
+    private final ImmutableListMultimap<String, MetaDocPartRecord<Object>> databaseDocParts;
+    @SuppressWarnings("checkstyle:lineLength")
+    private final ImmutableListMultimap<Tuple2<String, String>, MetaDocPartRecord<Object>> docParts;
+    private final ImmutableListMultimap<String, MetaFieldRecord<Object>> databaseFields;
+    @SuppressWarnings("checkstyle:lineLength")
+    private final ImmutableListMultimap<Tuple3<String, String, TableRef>, MetaFieldRecord<Object>> fields;
+    private final ImmutableListMultimap<String, MetaScalarRecord<Object>> databaseScalars;
+    @SuppressWarnings("checkstyle:lineLength")
+    private final ImmutableListMultimap<Tuple3<String, String, TableRef>, MetaScalarRecord<Object>> scalars;
+    @SuppressWarnings("checkstyle:lineLength")
+    private final ImmutableListMultimap<Tuple3<String, String, TableRef>, MetaDocPartIndexRecord<Object>> docPartIndexes;
     @SuppressWarnings("checkstyle:lineLength")
-    private final MetaDocPartIndexColumnTable<Object, MetaDocPartIndexColumnRecord<Object>> fieldIndexTable;
+    private final ImmutableListMultimap<Tuple2<String, String>, MetaDocPartIndexColumnRecord<Object>> docPartIndexColumns;
+    private final ImmutableListMultimap<Tuple2<String, String>, MetaIndexRecord> indexes;
+    @SuppressWarnings("checkstyle:lineLength")
+    private final ImmutableListMultimap<Tuple3<String, String, String>, MetaIndexFieldRecord<Object>> indexFields;
 
     public Updater(DSLContext dsl, TableRefFactory tableRefFactory, SqlInterface sqlInterface) {
-      this.dsl = dsl;
       this.tableRefFactory = tableRefFactory;
       this.sqlInterface = sqlInterface;
 
-      this.collectionTable = sqlInterface.getMetaDataReadInterface().getMetaCollectionTable();
-      this.docPartTable = sqlInterface.getMetaDataReadInterface().getMetaDocPartTable();
-      this.fieldTable = sqlInterface.getMetaDataReadInterface().getMetaFieldTable();
-      this.scalarTable = sqlInterface.getMetaDataReadInterface().getMetaScalarTable();
-      this.indexTable = sqlInterface.getMetaDataReadInterface().getMetaIndexTable();
-      this.indexFieldTable = sqlInterface.getMetaDataReadInterface().getMetaIndexFieldTable();
-      this.docPartIndexTable = sqlInterface.getMetaDataReadInterface().getMetaDocPartIndexTable();
-      this.fieldIndexTable = sqlInterface.getMetaDataReadInterface()
-          .getMetaDocPartIndexColumnTable();
+      MetaDatabaseTable<MetaDatabaseRecord> databaseTable = sqlInterface
+          .getMetaDataReadInterface().getMetaDatabaseTable();
+      MetaCollectionTable<MetaCollectionRecord> collectionTable = sqlInterface
+          .getMetaDataReadInterface().getMetaCollectionTable();
+      MetaDocPartTable<Object, MetaDocPartRecord<Object>> docPartTable = sqlInterface
+          .getMetaDataReadInterface().getMetaDocPartTable();
+      MetaFieldTable<Object, MetaFieldRecord<Object>> fieldTable = sqlInterface
+          .getMetaDataReadInterface().getMetaFieldTable();
+      MetaScalarTable<Object, MetaScalarRecord<Object>> scalarTable = sqlInterface
+          .getMetaDataReadInterface().getMetaScalarTable();
+      MetaIndexTable<MetaIndexRecord> indexTable = sqlInterface
+          .getMetaDataReadInterface().getMetaIndexTable();
+      MetaIndexFieldTable<Object, MetaIndexFieldRecord<Object>> indexFieldTable = sqlInterface
+          .getMetaDataReadInterface().getMetaIndexFieldTable();
+      MetaDocPartIndexTable<Object, MetaDocPartIndexRecord<Object>> docPartIndexTable =
+          sqlInterface.getMetaDataReadInterface().getMetaDocPartIndexTable();
+      MetaDocPartIndexColumnTable<Object, MetaDocPartIndexColumnRecord<Object>> fieldIndexTable =
+          sqlInterface.getMetaDataReadInterface().getMetaDocPartIndexColumnTable();
+
+      this.databases = dsl.selectFrom(databaseTable)
+          .fetch();
+      this.collections = Multimaps.index(
+          dsl.selectFrom(collectionTable)
+              .fetch(),
+          MetaCollectionRecord::getDatabase);
+
+      List<MetaDocPartRecord<Object>> docPartRecords = dsl.selectFrom(docPartTable)
+          .fetch();
+      this.databaseDocParts = Multimaps.index(docPartRecords, MetaDocPartRecord::getDatabase);
+      this.docParts = Multimaps.index(docPartRecords,
+          docPart -> new Tuple2<>(docPart.getDatabase(), docPart.getCollection()));
+
+      List<MetaFieldRecord<Object>> fieldRecords = dsl.selectFrom(fieldTable)
+          .fetch();
+      this.databaseFields = Multimaps.index(fieldRecords, MetaFieldRecord::getDatabase);
+      this.fields = Multimaps.index(fieldRecords,
+          field -> new Tuple3<>(field.getDatabase(), field.getCollection(),
+              field.getTableRefValue(tableRefFactory)));
+
+      List<MetaScalarRecord<Object>> scalarRecords = dsl.selectFrom(scalarTable)
+          .fetch();
+      this.databaseScalars = Multimaps.index(scalarRecords, MetaScalarRecord::getDatabase);
+      this.scalars = Multimaps.index(scalarRecords,
+          scalar -> new Tuple3<>(scalar.getDatabase(), scalar.getCollection(),
+              scalar.getTableRefValue(tableRefFactory)));
+
+      this.docPartIndexes = Multimaps.index(
+          dsl.selectFrom(docPartIndexTable)
+              .fetch(),
+          docPartIndex -> new Tuple3<>(docPartIndex.getDatabase(),
+              docPartIndex.getCollection(), docPartIndex.getTableRefValue(tableRefFactory)));
+      this.docPartIndexColumns = Multimaps.index(
+          dsl.selectFrom(fieldIndexTable)
+              .orderBy(fieldIndexTable.POSITION)
+              .fetch(),
+          indexColumn -> new Tuple2<>(indexColumn.getDatabase(),
+              indexColumn.getIndexIdentifier()));
+
+      this.indexes = Multimaps.index(
+          dsl.selectFrom(indexTable)
+              .fetch(),
+          index -> new Tuple2<>(index.getDatabase(), index.getCollection()));
+      this.indexFields = Multimaps.index(
+          dsl.selectFrom(indexFieldTable)
+              .orderBy(indexFieldTable.POSITION)
+              .fetch(),
+          indexField -> new Tuple3<>(indexField.getDatabase(), indexField.getCollection(),
+              indexField.getIndex()));
     }
 
-    private void loadMetaSnapshot(MutableMetaSnapshot mutableSnapshot) throws
-        InvalidDatabaseSchemaException {
+    private void loadMetaSnapshot(MutableMetaSnapshot mutableSnapshot,
+        ExecutorService validatorExecutor) throws InvalidDatabaseSchemaException {
 
-      MetaDatabaseTable<MetaDatabaseRecord> metaDatabaseTable = sqlInterface
-          .getMetaDataReadInterface().getMetaDatabaseTable();
-      Result<MetaDatabaseRecord> records =
-          dsl.selectFrom(metaDatabaseTable)
-              .fetch();
+      List<CompletableFuture<SchemaValidator>> schemaValidators =
+          new ArrayList<>(databases.size());
+      for (MetaDatabaseRecord databaseRecord : databases) {
+        schemaValidators.add(CompletableFuture.supplyAsync(
+            () -> validateSchema(databaseRecord), validatorExecutor));
+      }
 
-      for (MetaDatabaseRecord databaseRecord : records) {
+      for (int index = 0; index < databases.size(); index++) {
+        SchemaValidator schemaValidator;
         try {
-          analyzeDatabase(mutableSnapshot, databaseRecord);
-        } catch (SQLException sqlException) {
-          throw new InvalidDatabaseException(sqlException);
+          schemaValidator = schemaValidators.get(index).join();
+        } catch (CompletionException ex) {
+          if (ex.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) ex.getCause();
+          }
+          throw new InvalidDatabaseException(ex.getCause());
         }
+        analyzeDatabase(mutableSnapshot, databases.get(index), schemaValidator);
       }
     }
 
-    private void analyzeDatabase(MutableMetaSnapshot snapshot, MetaDatabaseRecord databaseRecord)
-        throws InvalidDatabaseSchemaException, SQLException {
+    private SchemaValidator validateSchema(MetaDatabaseRecord databaseRecord) {
+      SchemaValidator schemaValidator;
+      try (Connection connection = sqlInterface.getDbBackend().createReadOnlyConnection()) {
+        DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
+
+        schemaValidator = new SchemaValidator(dsl, databaseRecord.getIdentifier(),
+            databaseRecord.getName());
+
+        connection.rollback();
+      } catch (SQLException sqlException) {
+        throw new InvalidDatabaseException(sqlException);
+      }
+
+      checkCompleteness(databaseRecord, schemaValidator);
+
+      return schemaValidator;
+    }
+
+    private void analyzeDatabase(MutableMetaSnapshot snapshot, MetaDatabaseRecord databaseRecord,
+        SchemaValidator schemaValidator) throws InvalidDatabaseSchemaException {
       MutableMetaDatabase metaDatabase = snapshot.addMetaDatabase(databaseRecord.getName(),
           databaseRecord.getIdentifier());
 
-      SchemaValidator schemaValidator = new SchemaValidator(dsl, databaseRecord.getIdentifier(),
-          databaseRecord.getName());
-
-      dsl.selectFrom(collectionTable)
-          .where(collectionTable.DATABASE.eq(databaseRecord.getName()))
-          .fetch()
+      collections.get(databaseRecord.getName())
           .forEach(
               (col) -> analyzeCollection(metaDatabase, col, schemaValidator));
-
-      checkCompleteness(databaseRecord, schemaValidator);
     }
 
     private void checkCompleteness(MetaDatabaseRecord database, SchemaValidator schemaValidator) {
-      Map<String, MetaDocPartRecord<Object>> docParts = dsl
-          .selectFrom(docPartTable)
-          .where(docPartTable.DATABASE.eq(database.getName()))
-          .fetchMap(docPartTable.IDENTIFIER);
-      List<MetaFieldRecord<Object>> fields = dsl
-          .selectFrom(fieldTable)
-          .where(fieldTable.DATABASE.eq(database.getName()))
-          .fetch();
-      List<MetaScalarRecord<Object>> scalars = dsl
-          .selectFrom(scalarTable)
-          .where(scalarTable.DATABASE.eq(database.getName()))
-          .fetch();
+      Map<String, MetaDocPartRecord<Object>> docParts = new HashMap<>();
+      for (MetaDocPartRecord<Object> docPart : databaseDocParts.get(database.getName())) {
+        docParts.put(docPart.getIdentifier(), docPart);
+      }
+      Set<Tuple3<String, TableRef, String>> columns = new HashSet<>();
+      for (MetaFieldRecord<Object> field : databaseFields.get(database.getName())) {
+        columns.add(new Tuple3<>(field.getCollection(), field.getTableRefValue(tableRefFactory),
+            field.getIdentifier()));
+      }
+      for (MetaScalarRecord<Object> scalar : databaseScalars.get(database.getName())) {
+        columns.add(new Tuple3<>(scalar.getCollection(), scalar.getTableRefValue(tableRefFactory),
+            scalar.getIdentifier()));
+      }
       for (Table table : schemaValidator.getExistingTables()) {
         MetaDocPartRecord<?> docPart = docParts.get(table.getName());
         if (docPart == null) {
@@ -204,13 +314,14 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
               + " has no container associated for database " + database.getName());
         }
 
+        TableRef tableRef = docPart.getTableRefValue(tableRefFactory);
         for (TableField existingField : table.fields()) {
           if (!sqlInterface.getIdentifierConstraints().isAllowedColumnIdentifier(existingField
               .getName())) {
             continue;
           }
-          if (!SchemaValidator.containsField(existingField, docPart.getCollection(),
-              docPart.getTableRefValue(tableRefFactory), fields, scalars, tableRefFactory)) {
+          if (!columns.contains(new Tuple3<>(docPart.getCollection(), tableRef,
+              existingField.getName()))) {
             throw new InvalidDatabaseSchemaException(database.getIdentifier(),
                 "Column " + getColumnRef(database, table, existingField)
                 + " has no field associated for database " + database.getName());
@@ -226,17 +337,11 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
           collection.getIdentifier()
       );
 
-      dsl.selectFrom(docPartTable)
-          .where(docPartTable.DATABASE.eq(database.getName())
-              .and(docPartTable.COLLECTION.eq(collection.getName())))
-          .fetch()
+      docParts.get(new Tuple2<>(database.getName(), collection.getName()))
           .forEach(
               (docPart) -> analyzeDocPart(database, col, docPart, schemaValidator));
 
-      dsl.selectFrom(indexTable)
-          .where(indexTable.DATABASE.eq(database.getName())
-              .and(indexTable.COLLECTION.eq(collection.getName())))
-          .fetch()
+      indexes.get(new Tuple2<>(database.getName(), collection.getName()))
           .forEach(
               (index) -> analyzeIndex(database, col, index, schemaValidator));
     }
@@ -257,27 +362,17 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
 
       MutableMetaDocPart docPart = collection.addMetaDocPart(
           docPartRecord.getTableRefValue(tableRefFactory), docPartRecord.getIdentifier());
-      dsl.selectFrom(fieldTable)
-          .where(fieldTable.DATABASE.eq(database.getName())
-              .and(fieldTable.COLLECTION.eq(collection.getName()))
-              .and(fieldTable.TABLE_REF.eq(docPartRecord.getTableRef())))
-          .fetch()
+      Tuple3<String, String, TableRef> docPartKey = new Tuple3<>(database.getName(),
+          collection.getName(), docPart.getTableRef());
+      fields.get(docPartKey)
           .forEach(
               (field) -> analyzeField(database, collection, docPart, field, schemaValidator));
 
-      dsl.selectFrom(scalarTable)
-          .where(scalarTable.DATABASE.eq(database.getName())
-              .and(scalarTable.COLLECTION.eq(collection.getName()))
-              .and(scalarTable.TABLE_REF.eq(docPartRecord.getTableRef())))
-          .fetch()
+      scalars.get(docPartKey)
           .forEach(
               (scalar) -> analyzeScalar(database, collection, docPart, scalar, schemaValidator));
 
-      dsl.selectFrom(docPartIndexTable)
-          .where(docPartIndexTable.DATABASE.eq(database.getName())
-              .and(docPartIndexTable.COLLECTION.eq(collection.getName()))
-              .and(docPartIndexTable.TABLE_REF.eq(docPartRecord.getTableRef())))
-          .fetch()
+      docPartIndexes.get(docPartKey)
           .forEach(
               (docPartIndex) -> analyzeDocPartIndex(database, collection, docPart, docPartIndex,
                   schemaValidator));
@@ -361,11 +456,7 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
       MutableMetaDocPartIndex metaDocPartIndex = docPart.addMetaDocPartIndex(docPartIndex
           .getUnique());
 
-      dsl.selectFrom(fieldIndexTable)
-          .where(fieldIndexTable.DATABASE.eq(database.getName())
-              .and(fieldIndexTable.INDEX_IDENTIFIER.eq(docPartIndex.getIdentifier())))
-          .orderBy(fieldIndexTable.POSITION)
-          .fetch()
+      docPartIndexColumns.get(new Tuple2<>(database.getName(), docPartIndex.getIdentifier()))
           .forEach(
               (indexField) -> analyzeDocPartIndexColumn(database, collection, docPart,
                   docPartIndex.getIdentifier(), metaDocPartIndex, indexField, schemaValidator));
@@ -411,12 +502,7 @@ public class SnapshotUpdaterImpl implements SnapshotUpdater {
       }
       MutableMetaIndex metaIndex = metaCollection.addMetaIndex(index.getName(), index.getUnique());
 
-      dsl.selectFrom(indexFieldTable)
-          .where(indexFieldTable.DATABASE.eq(db.getName())
-              .and(indexFieldTable.COLLECTION.eq(metaCollection.getName()))
-              .and(indexFieldTable.INDEX.eq(index.getName())))
-          .orderBy(indexFieldTable.POSITION)
-          .fetch()
+      indexFields.get(new Tuple3<>(db.getName(), metaCollection.getName(), index.getName()))
           .forEach(
               (indexField) -> analyzeIndexField(db, metaIndex, indexField, schemaValidator));
 
@@ -95,6 +95,11 @@ public class ReservedIdGeneratorImpl extends IdleTorodbService implements Reserv
       return get(tableRef).getAndAddLastUsedId(1) + 1;
     }
 
+    @Override
+    public int reserveRids(TableRef tableRef, int count) {
+      return get(tableRef).getAndAddLastUsedId(count) + 1;
+    }
+
     @Override
     public void setNextRid(TableRef tableRef, int nextRid) {
       get(tableRef).setLastUsedId(nextRid);
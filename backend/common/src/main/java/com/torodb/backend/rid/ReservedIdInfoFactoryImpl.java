@@ -19,37 +19,83 @@
 package com.torodb.backend.rid;
 
 import com.google.common.base.Preconditions;
+import com.torodb.backend.BackendConfig;
+import com.torodb.backend.BackendLoggerFactory;
+import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.SqlInterface;
+import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.backend.tables.records.MetaDocPartRecord;
 import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
 import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.services.IdleTorodbService;
 import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaSnapshot;
 import com.torodb.core.transaction.metainf.MetainfoRepository;
 import com.torodb.core.transaction.metainf.MetainfoRepository.SnapshotStage;
+import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
+import org.jooq.lambda.tuple.Tuple3;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+/**
+ * A {@link ReservedIdInfoFactory} that keeps the last rid used by each doc part as a high-water
+ * mark on the doc part meta table.
+ *
+ * <p>The high-water marks are stored when the service is stopped, once no more rids can be
+ * requested. When the service starts and the previous shutdown was clean, all of them are read
+ * with a single query. Otherwise the last rid used by each doc part is read from its table,
+ * using several connections concurrently.
+ */
 @Singleton
 public class ReservedIdInfoFactoryImpl extends IdleTorodbService implements ReservedIdInfoFactory {
 
+  private static final Logger LOGGER = BackendLoggerFactory.get(ReservedIdInfoFactoryImpl.class);
+  private static final MetaInfoKey LAST_RIDS_STATE_KEY = () -> "rid.lastRidsState";
+  private static final String LAST_RIDS_STORED = "stored";
+  private static final String LAST_RIDS_IN_USE = "inUse";
+
   private final MetainfoRepository metainfoRepository;
   private final SqlInterface sqlInterface;
+  private final TableRefFactory tableRefFactory;
+  private final ExecutorService loaderExecutor;
+  private final int loaderThreads;
   @SuppressWarnings("checkstyle:LineLength")
   private ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> megaMap;
 
   @Inject
   public ReservedIdInfoFactoryImpl(@TorodbIdleService ThreadFactory threadFactory,
-      MetainfoRepository metainfoRepository, SqlInterface sqlInterface) {
+      MetainfoRepository metainfoRepository, SqlInterface sqlInterface,
+      TableRefFactory tableRefFactory, BackendConfig backendConfig,
+      ConcurrentToolsFactory concurrentToolsFactory) {
     super(threadFactory);
     this.metainfoRepository = metainfoRepository;
     this.sqlInterface = sqlInterface;
+    this.tableRefFactory = tableRefFactory;
+    this.loaderThreads = Math.max(1, backendConfig.getReservedReadPoolSize());
+    this.loaderExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "rid-loader", loaderThreads);
   }
 
   @Override
@@ -62,38 +108,135 @@ public class ReservedIdInfoFactoryImpl extends IdleTorodbService implements Rese
     try (Connection connection = sqlInterface.getDbBackend().createSystemConnection()) {
       DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
 
-      megaMap = loadRowIds(dsl, snapshot);
-    }
+      boolean lastRidsStored = sqlInterface.getMetaDataReadInterface()
+          .readKv(dsl, LAST_RIDS_STATE_KEY)
+          .map(LAST_RIDS_STORED::equals)
+          .orElse(false);
+      if (lastRidsStored) {
+        megaMap = loadStoredRowIds(dsl, snapshot);
+      } else {
+        LOGGER.info("Last used rids were not stored on the last shutdown, they will be read "
+            + "from the doc part tables");
+        megaMap = loadRowIds(snapshot);
+      }
 
+      sqlInterface.getMetaDataWriteInterface().writeMetaInfo(dsl, LAST_RIDS_STATE_KEY,
+          LAST_RIDS_IN_USE);
+      connection.commit();
+    }
   }
 
   @Override
   protected void shutDown() throws Exception {
+    loaderExecutor.shutdown();
+    try (Connection connection = sqlInterface.getDbBackend().createSystemConnection()) {
+      DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
+
+      storeRowIds(dsl);
+
+      sqlInterface.getMetaDataWriteInterface().writeMetaInfo(dsl, LAST_RIDS_STATE_KEY,
+          LAST_RIDS_STORED);
+      connection.commit();
+    } catch (RuntimeException ex) {
+      LOGGER.warn("It was not possible to store the last used rids. They will be read from the "
+          + "doc part tables on the next start up", ex);
+    }
     megaMap.clear();
   }
 
   @SuppressWarnings("checkstyle:LineLength")
-  private ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> loadRowIds(
+  private ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> loadStoredRowIds(
       DSLContext dsl, MetaSnapshot snapshot) {
+    MetaDocPartTable<Object, MetaDocPartRecord<Object>> docPartTable = sqlInterface
+        .getMetaDataReadInterface().getMetaDocPartTable();
+    Map<Tuple3<String, String, TableRef>, Integer> storedLastRids = new HashMap<>();
+    for (MetaDocPartRecord<Object> docPart : dsl.selectFrom(docPartTable).fetch()) {
+      storedLastRids.put(new Tuple3<>(docPart.getDatabase(), docPart.getCollection(),
+          docPart.getTableRefValue(tableRefFactory)), docPart.getLastRid());
+    }
+
     ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> rowsIdMap =
         new ConcurrentHashMap<>();
+    streamDocParts(snapshot).forEach(docPart -> {
+      Integer lastRowIUsed = storedLastRids.get(new Tuple3<>(docPart.v1.getName(),
+          docPart.v2.getName(), docPart.v3.getTableRef()));
+      if (lastRowIUsed == null) {
+        lastRowIUsed = sqlInterface.getReadInterface().getLastRowIdUsed(dsl, docPart.v1,
+            docPart.v2, docPart.v3);
+      }
+      putRowId(rowsIdMap, docPart, lastRowIUsed);
+    });
+    return rowsIdMap;
+  }
 
-    snapshot.streamMetaDatabases().forEach(db -> {
-      ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>> collMap =
-          new ConcurrentHashMap<>();
-      rowsIdMap.put(db.getName(), collMap);
-      db.streamMetaCollections().forEach(collection -> {
-        ConcurrentHashMap<TableRef, ReservedIdInfo> tableRefMap = new ConcurrentHashMap<>();
-        collMap.put(collection.getName(), tableRefMap);
-        collection.streamContainedMetaDocParts().forEach(metaDocPart -> {
-          TableRef tableRef = metaDocPart.getTableRef();
-          Integer lastRowIUsed = sqlInterface.getReadInterface().getLastRowIdUsed(dsl, db,
-              collection, metaDocPart);
-          tableRefMap.put(tableRef, new ReservedIdInfo(lastRowIUsed, lastRowIUsed));
+  @SuppressWarnings("checkstyle:LineLength")
+  private ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> loadRowIds(
+      MetaSnapshot snapshot) {
+    ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> rowsIdMap =
+        new ConcurrentHashMap<>();
+
+    List<Tuple3<MetaDatabase, MetaCollection, MetaDocPart>> docParts = streamDocParts(snapshot)
+        .collect(Collectors.toList());
+
+    int workers = Math.min(loaderThreads, docParts.size());
+    List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+    for (int worker = 0; worker < workers; worker++) {
+      int firstIndex = worker;
+      futures.add(CompletableFuture.runAsync(() -> {
+        try (Connection connection = sqlInterface.getDbBackend().createReadOnlyConnection()) {
+          DSLContext dsl = sqlInterface.getDslContextFactory().createDslContext(connection);
+          for (int index = firstIndex; index < docParts.size(); index += workers) {
+            Tuple3<MetaDatabase, MetaCollection, MetaDocPart> docPart = docParts.get(index);
+            putRowId(rowsIdMap, docPart, sqlInterface.getReadInterface().getLastRowIdUsed(dsl,
+                docPart.v1, docPart.v2, docPart.v3));
+          }
+          connection.rollback();
+        } catch (SQLException ex) {
+          throw sqlInterface.getErrorHandler().handleException(Context.FETCH, ex);
+        }
+      }, loaderExecutor));
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+    return rowsIdMap;
+  }
+
+  private Stream<Tuple3<MetaDatabase, MetaCollection, MetaDocPart>> streamDocParts(
+      MetaSnapshot snapshot) {
+    return snapshot.streamMetaDatabases()
+        .flatMap(db -> db.streamMetaCollections()
+            .flatMap(collection -> collection.streamContainedMetaDocParts()
+                .map(docPart -> new Tuple3<MetaDatabase, MetaCollection, MetaDocPart>(db,
+                    collection, docPart))));
+  }
+
+  @SuppressWarnings("checkstyle:LineLength")
+  private void putRowId(
+      ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<TableRef, ReservedIdInfo>>> rowsIdMap,
+      Tuple3<? extends MetaDatabase, ? extends MetaCollection, ? extends MetaDocPart> docPart,
+      int lastRowIUsed) {
+    rowsIdMap.computeIfAbsent(docPart.v1.getName(), name -> new ConcurrentHashMap<>())
+        .computeIfAbsent(docPart.v2.getName(), name -> new ConcurrentHashMap<>())
+        .put(docPart.v3.getTableRef(), new ReservedIdInfo(lastRowIUsed, lastRowIUsed));
+  }
+
+  private void storeRowIds(DSLContext dsl) {
+    megaMap.forEach((dbName, collectionsMap) -> {
+      collectionsMap.forEach((collectionName, docPartsMap) -> {
+        Map<TableRef, Integer> lastRids = new HashMap<>();
+        docPartsMap.forEach((tableRef, reservedIdInfo) -> {
+          lastRids.put(tableRef, reservedIdInfo.getLastUsedId());
         });
+        sqlInterface.getMetaDataWriteInterface().storeLastRids(dsl, dbName, collectionName,
+            lastRids);
       });
     });
-    return rowsIdMap;
   }
 
   @Override
@@ -0,0 +1,280 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.SqlHelper.SetupPreparedStatement;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidSortSpec;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.language.filter.ComparisonOperator;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvInteger;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+public class AbstractReadInterfaceTest {
+
+  private static final String COUNT_ALL = "COUNT_ALL";
+  private static final String ESTIMATE = "ESTIMATE";
+  private static final String COUNT_WHERE = "COUNT_WHERE ";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private final TableRef rootRef = tableRefFactory.createRoot();
+  private final TableRef childRef = tableRefFactory.createChild(rootRef, "a");
+  private ImmutableMetaDocPart rootDocPart;
+  private ImmutableMetaDocPart childDocPart;
+  private ImmutableMetaCollection collection;
+  private ImmutableMetaDatabase database;
+  private DSLContext dsl;
+  private SqlHelper sqlHelper;
+  private PreparedStatement preparedStatement;
+
+  @Before
+  public void setUp() {
+    rootDocPart = new ImmutableMetaDocPart.Builder(rootRef, "colId")
+        .putField("x", "x_i", FieldType.INTEGER)
+        .build();
+    childDocPart = new ImmutableMetaDocPart.Builder(childRef, "colId_a")
+        .putField("y", "y_i", FieldType.INTEGER)
+        .build();
+    collection = new ImmutableMetaCollection.Builder("colName", "colId")
+        .put(rootDocPart)
+        .put(childDocPart)
+        .build();
+    database = new ImmutableMetaDatabase.Builder("dbName", "dbId")
+        .put(collection)
+        .build();
+
+    dsl = mock(DSLContext.class);
+    preparedStatement = mock(PreparedStatement.class);
+    sqlHelper = mock(SqlHelper.class);
+    given(sqlHelper.getPlaceholder(any(FieldType.class))).willReturn("?");
+  }
+
+  @Test
+  public void testCountWithPredicate() throws Exception {
+    givenStatementResult(COUNT_WHERE, 7L);
+    MetaField rootField = rootDocPart.getMetaFieldByIdentifier("x_i");
+    MetaField childField = childDocPart.getMetaFieldByIdentifier("y_i");
+    DidPredicate predicate = new DidPredicate.And(Arrays.asList(
+        new DidPredicate.Compare(rootDocPart, rootField, ComparisonOperator.EQ, KvInteger.of(1)),
+        new DidPredicate.NotNull(childDocPart, childField)));
+
+    long count = createReadInterface(false).countWithPredicate(dsl, database, collection,
+        predicate);
+
+    assertEquals(7, count);
+    ArgumentCaptor<String> statement = ArgumentCaptor.forClass(String.class);
+    then(sqlHelper).should().executeStatementWithResult(eq(dsl), statement.capture(),
+        eq(Context.FETCH), any(SetupPreparedStatement.class));
+    assertTrue(statement.getValue().startsWith(COUNT_WHERE + "dbId.colId WHERE "));
+    assertTrue("Conditions on other doc parts must be sub queries on the root did",
+        statement.getValue().contains("colId_a"));
+    assertFalse(statement.getValue().contains("DISTINCT"));
+    then(sqlHelper).should().setPreparedStatementValue(preparedStatement, 1, FieldType.INTEGER,
+        KvInteger.of(1));
+  }
+
+  @Test
+  public void testCountWithPredicateWithoutRootDocPart() {
+    ImmutableMetaCollection emptyCollection = new ImmutableMetaCollection.Builder("emptyName",
+        "emptyId").build();
+    ImmutableMetaDatabase emptyDatabase = new ImmutableMetaDatabase.Builder("dbName", "dbId")
+        .put(emptyCollection)
+        .build();
+
+    long count = createReadInterface(false).countWithPredicate(dsl, emptyDatabase,
+        emptyCollection, DidPredicate.Constant.TRUE);
+
+    assertEquals(0, count);
+    then(sqlHelper).should(never()).executeStatementWithResult(any(DSLContext.class),
+        anyString(), any(Context.class), any(SetupPreparedStatement.class));
+  }
+
+  @Test
+  public void testEstimateCountAllWhenDisabled() {
+    givenStatementResult(COUNT_ALL, 10L);
+    givenStatementResult(ESTIMATE, 42L);
+
+    assertEquals(10, createReadInterface(false).estimateCountAll(dsl, database, collection));
+    then(sqlHelper).should(never()).executeStatementWithResult(eq(dsl), eq(ESTIMATE),
+        any(Context.class), any(SetupPreparedStatement.class));
+  }
+
+  @Test
+  public void testEstimateCountAllUsesReltuples() throws Exception {
+    givenStatementResult(COUNT_ALL, 10L);
+    givenStatementResult(ESTIMATE, 42L);
+
+    assertEquals(42, createReadInterface(true).estimateCountAll(dsl, database, collection));
+    then(sqlHelper).should(never()).executeStatementWithResult(dsl, COUNT_ALL, Context.FETCH);
+    then(preparedStatement).should().setString(1, "dbId");
+    then(preparedStatement).should().setString(2, "colId");
+  }
+
+  @Test
+  public void testEstimateCountAllWithoutStatistics() {
+    givenStatementResult(COUNT_ALL, 10L);
+    givenStatementResult(ESTIMATE, 0L);
+
+    assertEquals(10, createReadInterface(true).estimateCountAll(dsl, database, collection));
+  }
+
+  @Test
+  public void testCountAllNeverUsesTheEstimation() {
+    givenStatementResult(COUNT_ALL, 10L);
+    givenStatementResult(ESTIMATE, 42L);
+
+    assertEquals(10, createReadInterface(true).countAll(dsl, database, collection));
+    then(sqlHelper).should(never()).executeStatementWithResult(eq(dsl), eq(ESTIMATE),
+        any(Context.class), any(SetupPreparedStatement.class));
+  }
+
+  private AbstractReadInterface createReadInterface(boolean countEstimateEnabled) {
+    BackendConfig backendConfig = mock(BackendConfig.class);
+    given(backendConfig.isCountEstimateEnabled()).willReturn(countEstimateEnabled);
+    return new TestReadInterface(sqlHelper, tableRefFactory, backendConfig);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenStatementResult(String statementPrefix, long value) {
+    Record record = mock(Record.class);
+    given(record.get(0)).willReturn(value);
+    given(record.get(0, Long.class)).willReturn(value);
+    given(record.into(Long.class)).willReturn(value);
+    Result<Record> result = mock(Result.class);
+    given(result.get(0)).willReturn(record);
+
+    given(sqlHelper.executeStatementWithResult(eq(dsl), startsWith(statementPrefix),
+        eq(Context.FETCH))).willReturn(result);
+    given(sqlHelper.executeStatementWithResult(eq(dsl), startsWith(statementPrefix),
+        eq(Context.FETCH), any(SetupPreparedStatement.class)))
+        .willAnswer(invocation -> {
+          ((SetupPreparedStatement) invocation.getArguments()[3]).accept(preparedStatement);
+          return result;
+        });
+  }
+
+  private static class TestReadInterface extends AbstractReadInterface {
+
+    public TestReadInterface(SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+        BackendConfig backendConfig) {
+      super(mock(MetaDataReadInterface.class), mock(DataTypeProvider.class),
+          mock(ErrorHandler.class), sqlHelper, tableRefFactory, backendConfig);
+    }
+
+    @Override
+    protected String getReadCountAllStatement(String schema, String rootTableName) {
+      return COUNT_ALL;
+    }
+
+    @Nullable
+    @Override
+    protected String getEstimateCountAllStatement() {
+      return ESTIMATE;
+    }
+
+    @Override
+    protected String getReadCountWithConditionStatement(String schema, String rootTableName,
+        String condition) {
+      return COUNT_WHERE + schema + "." + rootTableName + " WHERE " + condition;
+    }
+
+    @Override
+    protected String getReadCollectionDidsWithFieldEqualsToStatement(String schemaName,
+        String rootTableName, String columnName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getReadCollectionDidsWithConditionStatement(String schemaName,
+        String rootTableName, String condition) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getReadSortedCollectionDidsWithConditionStatement(String schemaName,
+        String rootTableName, String condition, DidSortSpec sortSpec) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getReadCollectionDidsWithFieldInStatement(String schemaName,
+        String rootTableName, Stream<Tuple2<String, Integer>> valuesCountList) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getReadCollectionDidsAndProjectionWithFieldInStatement(String schemaName,
+        String rootTableName, String columnName, int valuesCount) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getReadAllCollectionDidsStatement(String schemaName,
+        String rootTableName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
+        Collection<Integer> dids) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getLastRowIdUsedStatement(MetaDatabase metaDatabase,
+        MetaDocPart metaDocPart) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.torodb.common.util.Empty;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.concurrent.StreamExecutor;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.retrier.NeverRetryRetrier;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.ImmutableMetaIdentifiedDocPartIndex;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import org.jooq.DSLContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class DataImportJobSchedulerTest {
+
+  private static final String ROOT_TABLE = "col";
+  private static final String CHILD_TABLE = "col_b";
+  private static final String INDEX = "col_idx";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  /**
+   * The metainfo stored by the scheduler, by key name.
+   */
+  private final Map<String, String> metainfo = new ConcurrentHashMap<>();
+  /**
+   * The jobs executed by the scheduler, in execution order.
+   */
+  private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+  private MetaDatabase db;
+  private MetaDataWriteInterface metaDataWriteInterface;
+  private StructureInterface structureInterface;
+  private DataImportJobScheduler scheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    TableRef rootRef = tableRefFactory.createRoot();
+    TableRef childRef = tableRefFactory.createChild(rootRef, "b");
+    db = new ImmutableMetaDatabase.Builder("db", "db")
+        .put(new ImmutableMetaCollection.Builder("col", "col")
+            .put(new ImmutableMetaDocPart.Builder(rootRef, ROOT_TABLE)
+                .putField("a", "a_i", FieldType.INTEGER)
+                .putField("b", "b_e", FieldType.CHILD)
+                .put(new ImmutableMetaIdentifiedDocPartIndex.Builder(INDEX, false)
+                    .addColumn("a_i", FieldIndexOrdering.ASC)))
+            .put(new ImmutableMetaDocPart.Builder(childRef, CHILD_TABLE)
+                .putField("c", "c_i", FieldType.INTEGER)))
+        .build();
+
+    SqlInterface sqlInterface = mock(SqlInterface.class);
+    DbBackendService dbBackendService = mock(DbBackendService.class);
+    DslContextFactory dslContextFactory = mock(DslContextFactory.class);
+    MetaDataReadInterface metaDataReadInterface = mock(MetaDataReadInterface.class);
+    metaDataWriteInterface = mock(MetaDataWriteInterface.class);
+    structureInterface = mock(StructureInterface.class);
+    given(sqlInterface.getDbBackend()).willReturn(dbBackendService);
+    given(sqlInterface.getDslContextFactory()).willReturn(dslContextFactory);
+    given(sqlInterface.getMetaDataReadInterface()).willReturn(metaDataReadInterface);
+    given(sqlInterface.getMetaDataWriteInterface()).willReturn(metaDataWriteInterface);
+    given(sqlInterface.getStructureInterface()).willReturn(structureInterface);
+    given(dbBackendService.createWriteConnection()).willAnswer(invocation ->
+        mock(Connection.class));
+    given(dslContextFactory.createDslContext(any())).willReturn(mock(DSLContext.class));
+
+    given(metaDataReadInterface.getDocPartTableSize(any(), any(), any())).willAnswer(
+        invocation -> {
+          MetaDocPart docPart = (MetaDocPart) invocation.getArguments()[2];
+          return docPart.getIdentifier().equals(CHILD_TABLE) ? 1000L : 10L;
+        });
+    given(metaDataReadInterface.readKv(any(), any())).willAnswer(invocation -> Optional
+        .ofNullable(metainfo.get(((MetaInfoKey) invocation.getArguments()[1]).getKeyName())));
+    given(metaDataWriteInterface.writeMetaInfo(any(), any(), anyString())).willAnswer(
+        invocation -> metainfo.put(((MetaInfoKey) invocation.getArguments()[1]).getKeyName(),
+            (String) invocation.getArguments()[2]));
+    given(metaDataWriteInterface.deleteMetaInfoWithPrefix(any(), anyString())).willAnswer(
+        invocation -> {
+          String prefix = (String) invocation.getArguments()[1];
+          int before = metainfo.size();
+          metainfo.keySet().removeIf(key -> key.startsWith(prefix));
+          return before - metainfo.size();
+        });
+
+    given(structureInterface.streamRootDocPartTableIndexesCreation(anyString(), anyString(),
+        any())).willAnswer(invocation -> Stream.of(createJob("internal." + ROOT_TABLE)));
+    given(structureInterface.streamDocPartTableIndexesCreation(anyString(), anyString(), any(),
+        anyString())).willAnswer(invocation -> Stream.of(createJob("internal." + CHILD_TABLE)));
+    given(structureInterface.streamDataInsertFinishTasks(db)).willAnswer(invocation -> Stream
+        .of(createJob("finish")));
+    willAnswer(invocation -> executed.add("index." + INDEX)).given(structureInterface)
+        .createIndex(any(), eq(INDEX), anyString(), anyString(), any(), anyBoolean());
+
+    DataImportModeMetrics metrics = mock(DataImportModeMetrics.class);
+    given(metrics.getPendingJobs()).willReturn(new Counter());
+    given(metrics.getRunningJobs()).willReturn(new Counter());
+    given(metrics.getFinishedJobs()).willReturn(new Counter());
+    given(metrics.getSkippedJobs()).willReturn(new Counter());
+    given(metrics.getFailedJobs()).willReturn(new Counter());
+    given(metrics.getRootIndexJobs()).willReturn(new Timer());
+    given(metrics.getIndexJobs()).willReturn(new Timer());
+    given(metrics.getFinishJobs()).willReturn(new Timer());
+
+    scheduler = new DataImportJobScheduler(sqlInterface, new KvMetainfoHandler(sqlInterface),
+        NeverRetryRetrier.getInstance(), createSameThreadStreamExecutor(), metrics);
+  }
+
+  @Test
+  public void phasesAreExecutedInOrder() {
+    scheduler.schedule(db).join();
+
+    assertEquals(Arrays.asList("internal." + ROOT_TABLE, "internal." + CHILD_TABLE,
+        "index." + INDEX, "finish"), executed);
+  }
+
+  @Test
+  public void resumeOnlyExecutesTheUnfinishedJobs() {
+    String prefix = DataImportJobScheduler.getKeyPrefix(db);
+    metainfo.put(prefix + "pending", "true");
+    metainfo.put(prefix + "internal." + ROOT_TABLE + ".0", "true");
+    metainfo.put(prefix + "index." + INDEX, "true");
+
+    scheduler.resume(db).join();
+
+    assertEquals(Arrays.asList("internal." + CHILD_TABLE, "finish"), executed);
+  }
+
+  @Test
+  public void resumeDoesNothingIfThereIsNoUnfinishedExecution() {
+    CompletableFuture<Empty> result = scheduler.resume(db);
+
+    assertTrue(result.isDone());
+    assertTrue(executed.isEmpty());
+    then(structureInterface).should(never()).streamDataInsertFinishTasks(any());
+  }
+
+  @Test
+  public void finishedJobsAreResumedAfterAFailure() {
+    given(structureInterface.streamDocPartTableIndexesCreation(anyString(), anyString(), any(),
+        anyString())).willAnswer(invocation -> Stream.<Function<DSLContext, String>>of(dsl -> {
+          throw new IllegalStateException("Simulated failure");
+        }));
+    try {
+      scheduler.schedule(db).join();
+      fail("The failure of a job should fail the execution");
+    } catch (CompletionException expected) {
+      //the index phase failed
+    }
+    assertEquals(Collections.singletonList("internal." + ROOT_TABLE), executed);
+    assertTrue(metainfo.containsKey(DataImportJobScheduler.getKeyPrefix(db) + "pending"));
+
+    executed.clear();
+    given(structureInterface.streamDocPartTableIndexesCreation(anyString(), anyString(), any(),
+        anyString())).willAnswer(invocation -> Stream.of(createJob("internal." + CHILD_TABLE)));
+    scheduler.resume(db).join();
+
+    assertEquals(Arrays.asList("internal." + CHILD_TABLE, "index." + INDEX, "finish"),
+        executed);
+  }
+
+  @Test
+  public void theKeysOfTheDatabaseAreDeletedOnceAllJobsFinish() {
+    String otherKey = "dataImportJobs.otherDb.pending";
+    metainfo.put(otherKey, "true");
+
+    scheduler.schedule(db).join();
+
+    then(metaDataWriteInterface).should().deleteMetaInfoWithPrefix(any(),
+        eq(DataImportJobScheduler.getKeyPrefix(db)));
+    assertEquals(Collections.singleton(otherKey), metainfo.keySet());
+    assertTrue(scheduler.resume(db).isDone());
+    assertEquals(4, executed.size());
+  }
+
+  private Function<DSLContext, String> createJob(String name) {
+    return dsl -> {
+      executed.add(name);
+      return name;
+    };
+  }
+
+  /**
+   * Creates a stream executor that executes the runnables one after the other on the caller
+   * thread, stopping on the first one that fails.
+   */
+  private StreamExecutor createSameThreadStreamExecutor() {
+    StreamExecutor streamExecutor = mock(StreamExecutor.class);
+    given(streamExecutor.executeRunnables(any())).willAnswer(invocation -> {
+      @SuppressWarnings("unchecked")
+      Stream<Runnable> runnables = (Stream<Runnable>) invocation.getArguments()[0];
+      CompletableFuture<Empty> result = new CompletableFuture<>();
+      try {
+        runnables.forEach(Runnable::run);
+        result.complete(Empty.getInstance());
+      } catch (RuntimeException ex) {
+        result.completeExceptionally(ex);
+      }
+      return result;
+    });
+    return streamExecutor;
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelDocPartFetcherTest {
+
+  private static final String SNAPSHOT_ID = "snapshot-1";
+
+  private final Map<ResultSet, Connection> executedOn = new ConcurrentHashMap<>();
+  private final List<String> importedSnapshots = new ArrayList<>();
+  private ExecutorService executor;
+  private DbBackendService dbBackendService;
+  private ConcurrentToolsFactory concurrentToolsFactory;
+  private Connection callerConnection;
+  private TestParallelDocPartFetcher fetcher;
+
+  @Before
+  public void setUp() throws SQLException {
+    executor = Executors.newCachedThreadPool();
+    dbBackendService = mock(DbBackendService.class);
+    concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    given(concurrentToolsFactory.createExecutorServiceWithMaxThreads(anyString(), anyInt()))
+        .willReturn(executor);
+    callerConnection = createConnection();
+    given(callerConnection.isReadOnly()).willReturn(true);
+  }
+
+  @After
+  public void tearDown() {
+    if (fetcher != null && fetcher.isRunning()) {
+      fetcher.stopAsync();
+      fetcher.awaitTerminated();
+    }
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void helpersExecuteTheirStatementsOnTheCallerSnapshot() throws SQLException {
+    List<Connection> helperConnections = new ArrayList<>();
+    given(dbBackendService.createReadOnlyConnection()).willAnswer(invocation -> {
+      Connection connection = createConnection();
+      synchronized (helperConnections) {
+        helperConnections.add(connection);
+      }
+      return connection;
+    });
+    fetcher = startFetcher(3, 5000);
+    List<Tuple2<MetaDocPart, String>> statements = createStatements(4);
+
+    assertTrue(fetcher.isWorthy(callerConnection, statements.size()));
+    List<DocPartResult> results = fetch(statements);
+
+    assertEquals(statements.size(), results.size());
+    List<Connection> usedConnections = new ArrayList<>();
+    for (int index = 0; index < statements.size(); index++) {
+      assertSame(statements.get(index).v1, results.get(index).getMetaDocPart());
+      usedConnections.add(getExecutionConnection(results.get(index)));
+    }
+    assertSame(callerConnection, usedConnections.get(0));
+    for (int index = 1; index < statements.size(); index++) {
+      assertTrue(helperConnections.contains(usedConnections.get(index)));
+    }
+    assertEquals(3, helperConnections.size());
+    assertEquals(3, importedSnapshots.size());
+    assertTrue(importedSnapshots.stream().allMatch(SNAPSHOT_ID::equals));
+
+    results.forEach(DocPartResult::close);
+    for (Connection helperConnection : helperConnections) {
+      then(helperConnection).should().rollback();
+      then(helperConnection).should().close();
+    }
+  }
+
+  @Test
+  public void readIsSequentialWhenNoHelperIsAvailable() throws Exception {
+    CountDownLatch connectionRequested = new CountDownLatch(1);
+    CountDownLatch connectionAvailable = new CountDownLatch(1);
+    Connection helperConnection = createConnection();
+    given(dbBackendService.createReadOnlyConnection()).willAnswer(invocation -> {
+      connectionRequested.countDown();
+      connectionAvailable.await();
+      return helperConnection;
+    });
+    fetcher = startFetcher(1, 5000);
+
+    List<DocPartResult> blockedResults = fetch(createStatements(3));
+    assertTrue(connectionRequested.await(5, TimeUnit.SECONDS));
+
+    List<DocPartResult> results = fetch(createStatements(3));
+    for (DocPartResult result : results) {
+      assertSame(callerConnection, getExecutionConnection(result));
+    }
+    then(dbBackendService).should().createReadOnlyConnection();
+
+    connectionAvailable.countDown();
+    results.forEach(DocPartResult::close);
+    blockedResults.forEach(DocPartResult::close);
+  }
+
+  @Test
+  public void slowHelperIsAbandonedAndItsStatementsAreExecutedOnTheCaller() throws Exception {
+    CountDownLatch connectionAvailable = new CountDownLatch(1);
+    Connection helperConnection = createConnection();
+    given(dbBackendService.createReadOnlyConnection()).willAnswer(invocation -> {
+      connectionAvailable.await();
+      return helperConnection;
+    });
+    fetcher = startFetcher(1, 50);
+    List<Tuple2<MetaDocPart, String>> statements = createStatements(3);
+
+    List<DocPartResult> results = fetch(statements);
+    assertSame(callerConnection, getExecutionConnection(results.get(1)));
+
+    results.forEach(DocPartResult::close);
+    connectionAvailable.countDown();
+    then(helperConnection).should(timeout(5000)).close();
+
+    List<DocPartResult> nextResults = fetch(statements);
+    then(dbBackendService).should(timeout(5000).times(2)).createReadOnlyConnection();
+    nextResults.forEach(DocPartResult::close);
+  }
+
+  @Test
+  public void failedHelperStatementsAreExecutedOnTheCaller() throws Exception {
+    Connection helperConnection = createConnection();
+    given(dbBackendService.createReadOnlyConnection()).willReturn(helperConnection);
+    fetcher = startFetcher(1, 5000);
+    fetcher.failImport = true;
+
+    List<DocPartResult> results = fetch(createStatements(3));
+    for (DocPartResult result : results) {
+      assertSame(callerConnection, getExecutionConnection(result));
+    }
+    then(helperConnection).should().rollback();
+    then(helperConnection).should().close();
+    then(helperConnection).should(never()).prepareStatement(anyString());
+    results.forEach(DocPartResult::close);
+  }
+
+  @Test
+  public void stoppedFetcherIsNotWorthyAndShutsDownItsExecutor() throws SQLException {
+    fetcher = startFetcher(1, 5000);
+
+    fetcher.stopAsync();
+    fetcher.awaitTerminated();
+
+    assertFalse(fetcher.isWorthy(callerConnection, 3));
+    assertTrue(executor.isShutdown());
+  }
+
+  @Test
+  public void noHelpersAreUsedWithASmallReadPool() {
+    assertEquals(0, ParallelDocPartFetcher.maxHelpersFor(1));
+    assertEquals(0, ParallelDocPartFetcher.maxHelpersFor(2));
+    assertEquals(1, ParallelDocPartFetcher.maxHelpersFor(3));
+    assertEquals(ParallelDocPartFetcher.DEFAULT_MAX_HELPERS,
+        ParallelDocPartFetcher.maxHelpersFor(10));
+  }
+
+  private TestParallelDocPartFetcher startFetcher(int maxHelpers, long maxHelperWaitMillis) {
+    TestParallelDocPartFetcher result = new TestParallelDocPartFetcher(maxHelpers,
+        maxHelperWaitMillis);
+    result.startAsync();
+    result.awaitRunning();
+    return result;
+  }
+
+  private List<DocPartResult> fetch(List<Tuple2<MetaDocPart, String>> statements)
+      throws SQLException {
+    return fetcher.fetch(callerConnection, statements, preparedStatement -> { },
+        FakeDocPartResult::new);
+  }
+
+  private Connection getExecutionConnection(DocPartResult result) {
+    assertFalse(result.hasNext());
+    if (result instanceof FakeDocPartResult) {
+      return executedOn.get(((FakeDocPartResult) result).resultSet);
+    }
+    return executedOn.get(FakeDocPartResult.lastResultSet.get());
+  }
+
+  private static List<Tuple2<MetaDocPart, String>> createStatements(int count) {
+    List<Tuple2<MetaDocPart, String>> result = new ArrayList<>(count);
+    for (int index = 0; index < count; index++) {
+      result.add(new Tuple2<>(mock(MetaDocPart.class), "SELECT " + index));
+    }
+    return result;
+  }
+
+  private Connection createConnection() throws SQLException {
+    Connection connection = mock(Connection.class);
+    given(connection.prepareStatement(anyString())).willAnswer(invocation -> {
+      PreparedStatement preparedStatement = mock(PreparedStatement.class);
+      ResultSet resultSet = mock(ResultSet.class);
+      executedOn.put(resultSet, connection);
+      given(preparedStatement.executeQuery()).willReturn(resultSet);
+      return preparedStatement;
+    });
+    return connection;
+  }
+
+  private class TestParallelDocPartFetcher extends ParallelDocPartFetcher {
+
+    private volatile boolean failImport = false;
+
+    private TestParallelDocPartFetcher(int maxHelpers, long maxHelperWaitMillis) {
+      super(new ThreadFactoryBuilder().build(), dbBackendService, mock(ErrorHandler.class),
+          concurrentToolsFactory, maxHelpers, DEFAULT_MIN_DOC_PARTS, 10, maxHelperWaitMillis);
+    }
+
+    @Override
+    protected String exportSnapshot(Connection connection) throws SQLException {
+      assertSame(callerConnection, connection);
+      return SNAPSHOT_ID;
+    }
+
+    @Override
+    protected void importSnapshot(Connection connection, String snapshotId)
+        throws SQLException {
+      if (failImport) {
+        throw new SQLException("Invalid snapshot identifier");
+      }
+      synchronized (importedSnapshots) {
+        importedSnapshots.add(snapshotId);
+      }
+    }
+  }
+
+  private static class FakeDocPartResult implements DocPartResult {
+
+    private static final ThreadLocal<ResultSet> lastResultSet = new ThreadLocal<>();
+
+    private final MetaDocPart metaDocPart;
+    private final ResultSet resultSet;
+
+    private FakeDocPartResult(MetaDocPart metaDocPart, ResultSet resultSet) {
+      this.metaDocPart = metaDocPart;
+      this.resultSet = resultSet;
+      lastResultSet.set(resultSet);
+    }
+
+    @Override
+    public MetaDocPart getMetaDocPart() {
+      return metaDocPart;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return false;
+    }
+
+    @Override
+    public DocPartResultRow next() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -51,6 +51,25 @@ public class ReservedIdGeneratorImplTest {
 
   }
 
+  @Test
+  public void reservedBlocksAreContiguousAndDisjoint() {
+    ReservedIdInfoFactory factory = new MockedReservedIdInfoFactory();
+
+    factory.startAsync();
+    factory.awaitRunning();
+
+    TableRef root = new TableRefFactoryImpl().createRoot();
+    ReservedIdGeneratorImpl container = new ReservedIdGeneratorImpl(
+        factory, new ThreadFactoryBuilder().build());
+    DocPartRidGenerator docPartRidGenerator = container.getDocPartRidGenerator("myDB",
+        "myCollection");
+
+    assertEquals(1, docPartRidGenerator.reserveRids(root, 10));
+    assertEquals(11, docPartRidGenerator.nextRid(root));
+    assertEquals(12, docPartRidGenerator.reserveRids(root, 5));
+    assertEquals(17, docPartRidGenerator.nextRid(root));
+  }
+
   private static class MockedReservedIdInfoFactory extends AbstractIdleService implements
       ReservedIdInfoFactory {
 
@@ -0,0 +1,277 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.rid;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.torodb.backend.BackendConfig;
+import com.torodb.backend.DbBackendService;
+import com.torodb.backend.DslContextFactory;
+import com.torodb.backend.MetaDataReadInterface;
+import com.torodb.backend.MetaDataWriteInterface;
+import com.torodb.backend.ReadInterface;
+import com.torodb.backend.SqlInterface;
+import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.backend.tables.records.MetaDocPartRecord;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.MetaInfoKey;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetainfoRepository;
+import com.torodb.core.transaction.metainf.MetainfoRepository.SnapshotStage;
+import org.jooq.DSLContext;
+import org.jooq.Result;
+import org.jooq.SelectWhereStep;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ReservedIdInfoFactoryImplTest {
+
+  private static final String DB_NAME = "dbName";
+  private static final String COL_NAME = "colName";
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private final TableRef rootRef = tableRefFactory.createRoot();
+  private final TableRef childRef = tableRefFactory.createChild(rootRef, "a");
+  private final List<MetaDocPartRecord<Object>> storedDocParts = new ArrayList<>();
+  private ExecutorService loaderExecutor;
+  private DSLContext dsl;
+  private DSLContext readOnlyDsl;
+  private Connection systemConnection;
+  private Connection readOnlyConnection;
+  private MetaDataReadInterface metaDataReadInterface;
+  private MetaDataWriteInterface metaDataWriteInterface;
+  private ReadInterface readInterface;
+  private ReservedIdInfoFactoryImpl factory;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    ImmutableMetaSnapshot snapshot = new ImmutableMetaSnapshot.Builder()
+        .put(new ImmutableMetaDatabase.Builder(DB_NAME, "dbId")
+            .put(new ImmutableMetaCollection.Builder(COL_NAME, "colId")
+                .put(new ImmutableMetaDocPart(rootRef, "colId"))
+                .put(new ImmutableMetaDocPart(childRef, "colId_a"))
+                .build())
+            .build())
+        .build();
+    SnapshotStage snapshotStage = mock(SnapshotStage.class);
+    given(snapshotStage.createImmutableSnapshot()).willReturn(snapshot);
+    MetainfoRepository metainfoRepository = mock(MetainfoRepository.class);
+    given(metainfoRepository.startSnapshotStage()).willReturn(snapshotStage);
+
+    systemConnection = mock(Connection.class);
+    readOnlyConnection = mock(Connection.class);
+    DbBackendService dbBackend = mock(DbBackendService.class);
+    given(dbBackend.createSystemConnection()).willReturn(systemConnection);
+    given(dbBackend.createReadOnlyConnection()).willReturn(readOnlyConnection);
+
+    dsl = mock(DSLContext.class);
+    readOnlyDsl = mock(DSLContext.class);
+    DslContextFactory dslContextFactory = mock(DslContextFactory.class);
+    given(dslContextFactory.createDslContext(systemConnection)).willReturn(dsl);
+    given(dslContextFactory.createDslContext(readOnlyConnection)).willReturn(readOnlyDsl);
+
+    MetaDocPartTable<Object, MetaDocPartRecord<Object>> docPartTable =
+        mock(MetaDocPartTable.class);
+    SelectWhereStep<MetaDocPartRecord<Object>> select = mock(SelectWhereStep.class);
+    Result<MetaDocPartRecord<Object>> result = mock(Result.class);
+    given(dsl.selectFrom(docPartTable)).willReturn(select);
+    given(select.fetch()).willReturn(result);
+    given(result.iterator()).will(invocation -> storedDocParts.iterator());
+
+    metaDataReadInterface = mock(MetaDataReadInterface.class);
+    given(metaDataReadInterface.<Object, MetaDocPartRecord<Object>>getMetaDocPartTable())
+        .willReturn(docPartTable);
+    metaDataWriteInterface = mock(MetaDataWriteInterface.class);
+    readInterface = mock(ReadInterface.class);
+
+    SqlInterface sqlInterface = mock(SqlInterface.class);
+    given(sqlInterface.getDbBackend()).willReturn(dbBackend);
+    given(sqlInterface.getDslContextFactory()).willReturn(dslContextFactory);
+    given(sqlInterface.getMetaDataReadInterface()).willReturn(metaDataReadInterface);
+    given(sqlInterface.getMetaDataWriteInterface()).willReturn(metaDataWriteInterface);
+    given(sqlInterface.getReadInterface()).willReturn(readInterface);
+
+    BackendConfig backendConfig = mock(BackendConfig.class);
+    given(backendConfig.getReservedReadPoolSize()).willReturn(2);
+    loaderExecutor = Executors.newFixedThreadPool(2);
+    ConcurrentToolsFactory concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    given(concurrentToolsFactory.createExecutorServiceWithMaxThreads(anyString(), anyInt()))
+        .willReturn(loaderExecutor);
+
+    factory = new ReservedIdInfoFactoryImpl(new ThreadFactoryBuilder().build(),
+        metainfoRepository, sqlInterface, tableRefFactory, backendConfig,
+        concurrentToolsFactory);
+  }
+
+  @After
+  public void tearDown() {
+    loaderExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testCleanRestartUsesStoredLastRids() throws Exception {
+    givenLastRidsState(Optional.of("stored"));
+    addStoredDocPart(rootRef, 10);
+    addStoredDocPart(childRef, 20);
+
+    factory.startAsync().awaitRunning();
+
+    assertEquals(10, factory.create(DB_NAME, COL_NAME, rootRef).getLastUsedId());
+    assertEquals(20, factory.create(DB_NAME, COL_NAME, childRef).getLastUsedId());
+    then(readInterface).should(never()).getLastRowIdUsed(any(DSLContext.class),
+        any(MetaDatabase.class), any(MetaCollection.class), any(MetaDocPart.class));
+    InOrder inOrder = inOrder(metaDataWriteInterface, systemConnection);
+    inOrder.verify(metaDataWriteInterface).writeMetaInfo(eq(dsl), isLastRidsStateKey(),
+        eq("inUse"));
+    inOrder.verify(systemConnection).commit();
+  }
+
+  @Test
+  public void testRestartAfterCrashReadsLastRidsFromTables() throws Exception {
+    givenLastRidsState(Optional.of("inUse"));
+    addStoredDocPart(rootRef, 10);
+    addStoredDocPart(childRef, 20);
+    givenLastRowIdUsed(rootRef, 15);
+    givenLastRowIdUsed(childRef, 25);
+
+    factory.startAsync().awaitRunning();
+
+    assertEquals(15, factory.create(DB_NAME, COL_NAME, rootRef).getLastUsedId());
+    assertEquals(25, factory.create(DB_NAME, COL_NAME, childRef).getLastUsedId());
+    then(metaDataReadInterface).should(never()).getMetaDocPartTable();
+    then(readInterface).should(never()).getLastRowIdUsed(eq(dsl), any(MetaDatabase.class),
+        any(MetaCollection.class), any(MetaDocPart.class));
+    then(readOnlyConnection).should().rollback();
+    then(metaDataWriteInterface).should().writeMetaInfo(eq(dsl), isLastRidsStateKey(),
+        eq("inUse"));
+  }
+
+  @Test
+  public void testUnknownStateReadsLastRidsFromTables() throws Exception {
+    givenLastRidsState(Optional.empty());
+    givenLastRowIdUsed(rootRef, 15);
+    givenLastRowIdUsed(childRef, 25);
+
+    factory.startAsync().awaitRunning();
+
+    assertEquals(15, factory.create(DB_NAME, COL_NAME, rootRef).getLastUsedId());
+    assertEquals(25, factory.create(DB_NAME, COL_NAME, childRef).getLastUsedId());
+    then(metaDataReadInterface).should(never()).getMetaDocPartTable();
+  }
+
+  @Test
+  public void testStoredStateWithMissingLastRidFallsBackToTable() throws Exception {
+    givenLastRidsState(Optional.of("stored"));
+    addStoredDocPart(rootRef, 10);
+    givenLastRowIdUsed(rootRef, 15);
+    givenLastRowIdUsed(childRef, 25);
+
+    factory.startAsync().awaitRunning();
+
+    assertEquals(10, factory.create(DB_NAME, COL_NAME, rootRef).getLastUsedId());
+    assertEquals(25, factory.create(DB_NAME, COL_NAME, childRef).getLastUsedId());
+    then(readInterface).should().getLastRowIdUsed(eq(dsl), any(MetaDatabase.class),
+        any(MetaCollection.class), isDocPart(childRef));
+    then(readInterface).should(never()).getLastRowIdUsed(any(DSLContext.class),
+        any(MetaDatabase.class), any(MetaCollection.class), isDocPart(rootRef));
+  }
+
+  @Test
+  public void testShutDownStoresLastRids() throws Exception {
+    givenLastRidsState(Optional.of("stored"));
+    addStoredDocPart(rootRef, 10);
+    addStoredDocPart(childRef, 20);
+
+    factory.startAsync().awaitRunning();
+    factory.create(DB_NAME, COL_NAME, rootRef).getAndAddLastUsedId(5);
+    factory.create(DB_NAME, "otherColName", rootRef).getAndAddLastUsedId(3);
+    factory.stopAsync().awaitTerminated();
+
+    InOrder inOrder = inOrder(metaDataWriteInterface, systemConnection);
+    inOrder.verify(metaDataWriteInterface).writeMetaInfo(eq(dsl), isLastRidsStateKey(),
+        eq("inUse"));
+    inOrder.verify(systemConnection).commit();
+    inOrder.verify(metaDataWriteInterface).storeLastRids(dsl, DB_NAME, COL_NAME,
+        ImmutableMap.of(rootRef, 15, childRef, 20));
+    inOrder.verify(metaDataWriteInterface).writeMetaInfo(eq(dsl), isLastRidsStateKey(),
+        eq("stored"));
+    inOrder.verify(systemConnection).commit();
+    //collections are stored in no particular order
+    then(metaDataWriteInterface).should().storeLastRids(dsl, DB_NAME, "otherColName",
+        ImmutableMap.of(rootRef, 2));
+  }
+
+  private void givenLastRidsState(Optional<String> state) {
+    given(metaDataReadInterface.readKv(eq(dsl), isLastRidsStateKey())).willReturn(state);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addStoredDocPart(TableRef tableRef, int lastRid) {
+    MetaDocPartRecord<Object> record = mock(MetaDocPartRecord.class);
+    given(record.getDatabase()).willReturn(DB_NAME);
+    given(record.getCollection()).willReturn(COL_NAME);
+    given(record.getTableRefValue(tableRefFactory)).willReturn(tableRef);
+    given(record.getLastRid()).willReturn(lastRid);
+    storedDocParts.add(record);
+  }
+
+  private void givenLastRowIdUsed(TableRef tableRef, int lastRowIdUsed) {
+    given(readInterface.getLastRowIdUsed(any(DSLContext.class), any(MetaDatabase.class),
+        any(MetaCollection.class), isDocPart(tableRef))).willReturn(lastRowIdUsed);
+  }
+
+  private static MetaInfoKey isLastRidsStateKey() {
+    return argThat(key -> key != null && "rid.lastRidsState".equals(key.getKeyName()));
+  }
+
+  private static MetaDocPart isDocPart(TableRef tableRef) {
+    return argThat(docPart -> docPart != null && tableRef.equals(docPart.getTableRef()));
+  }
+}
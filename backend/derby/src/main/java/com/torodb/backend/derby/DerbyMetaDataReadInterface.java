@@ -153,6 +153,11 @@ public class DerbyMetaDataReadInterface extends AbstractMetaDataReadInterface {
     return "SELECT 0 FROM SYSIBM.SYSDUMMY1 WHERE ? IS NOT NULL AND ? IS NOT NULL AND ? IS NOT NULL";
   }
 
+  @Override
+  protected String getReadDocPartTableSizeStatement() {
+    return "SELECT 0 FROM SYSIBM.SYSDUMMY1 WHERE ? IS NOT NULL AND ? IS NOT NULL";
+  }
+
   @Override
   protected String getReadIndexSizeStatement(
       String schemaName, String tableName, String indexName) {
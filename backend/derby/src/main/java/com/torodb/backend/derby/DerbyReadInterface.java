@@ -19,11 +19,13 @@
 package com.torodb.backend.derby;
 
 import com.torodb.backend.AbstractReadInterface;
+import com.torodb.backend.BackendConfig;
 import com.torodb.backend.InternalField;
 import com.torodb.backend.SqlHelper;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidSortSpec;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import org.jooq.Converter;
@@ -44,8 +46,10 @@ public class DerbyReadInterface extends AbstractReadInterface {
   @Inject
   public DerbyReadInterface(DerbyMetaDataReadInterface metaDataReadInterface,
       DerbyDataTypeProvider dataTypeProvider,
-      DerbyErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
-    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory);
+      DerbyErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      BackendConfig backendConfig) {
+    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory,
+        backendConfig);
     this.metaDataReadInterface = metaDataReadInterface;
   }
 
@@ -75,6 +79,60 @@ public class DerbyReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  @Override
+  protected String getReadCollectionDidsWithConditionStatement(String schemaName,
+      String rootTableName, String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition)
+        .append(" ORDER BY \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getReadSortedCollectionDidsWithConditionStatement(String schemaName,
+      String rootTableName, String condition, DidSortSpec sortSpec) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition)
+        .append(" ORDER BY ");
+    for (DidSortSpec.SortField sortField : sortSpec.getFields()) {
+      sb.append('"')
+          .append(sortField.getField().getIdentifier())
+          .append(sortField.isAscending() ? "\" ASC NULLS FIRST," : "\" DESC NULLS LAST,");
+    }
+    sb.append('"')
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    if (sortSpec.getSkip() > 0) {
+      sb.append(" OFFSET ")
+          .append(sortSpec.getSkip())
+          .append(" ROWS");
+    }
+    if (sortSpec.getLimit() > 0) {
+      sb.append(" FETCH FIRST ")
+          .append(sortSpec.getLimit())
+          .append(" ROWS ONLY");
+    }
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadCollectionDidsWithFieldInStatement(String schemaName,
       String rootTableName, Stream<Tuple2<String, Integer>> valuesCountList) {
@@ -166,6 +224,20 @@ public class DerbyReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  @Override
+  protected String getReadCountWithConditionStatement(String schemaName, String rootTableName,
+      String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT COUNT(1) FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition);
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
       Collection<Integer> dids) {
@@ -67,6 +67,28 @@ public class DerbyWriteInterface extends AbstractWriteInterface {
     return statement;
   }
 
+  @Override
+  protected String getUpdateDocPartRowStatement(String schemaName, MetaDocPart metaDocPart,
+      List<MetaField> metaFields) {
+    StringBuilder sb = new StringBuilder()
+        .append("UPDATE \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(metaDocPart.getIdentifier())
+        .append("\" SET ");
+    for (MetaField metaField : metaFields) {
+      sb.append("\"")
+          .append(metaField.getIdentifier())
+          .append("\" = ?,");
+    }
+    sb.setCharAt(sb.length() - 1, ' ');
+    sb.append("WHERE \"")
+        .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append("\" = ?");
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getInsertDocPartDataStatement(String schemaName, MetaDocPart metaDocPart,
       Iterator<MetaField> metaFieldIterator, Iterator<MetaScalar> metaScalarIterator,
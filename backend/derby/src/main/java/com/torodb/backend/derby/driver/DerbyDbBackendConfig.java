@@ -97,6 +97,16 @@ public class DerbyDbBackendConfig implements BackendConfig {
     return delegate.includeForeignKeys();
   }
 
+  @Override
+  public int getCursorFetchSize() {
+    return delegate.getCursorFetchSize();
+  }
+
+  @Override
+  public boolean isCountEstimateEnabled() {
+    return delegate.isCountEstimateEnabled();
+  }
+
   @Override
   public ThreadFactory getThreadFactory() {
     return delegate.getThreadFactory();
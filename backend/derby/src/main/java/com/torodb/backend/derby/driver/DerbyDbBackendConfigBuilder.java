@@ -99,6 +99,18 @@ public class DerbyDbBackendConfigBuilder implements BackendConfigBuilder {
     delegate.setIncludeForeignKeys(includeForeignKeys);
     return this;
   }
+
+  @Override
+  public DerbyDbBackendConfigBuilder setCursorFetchSize(int cursorFetchSize) {
+    delegate.setCursorFetchSize(cursorFetchSize);
+    return this;
+  }
+
+  @Override
+  public DerbyDbBackendConfigBuilder setCountEstimateEnabled(boolean countEstimateEnabled) {
+    delegate.setCountEstimateEnabled(countEstimateEnabled);
+    return this;
+  }
   
   @Override
   public DerbyDbBackendConfig build() {
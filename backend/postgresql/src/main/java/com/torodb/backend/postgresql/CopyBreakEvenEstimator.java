@@ -0,0 +1,146 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Decides whether a doc part data should be inserted with COPY or with the default batched
+ * INSERT, learning the break-even number of rows from the observed insert latencies.
+ *
+ * <p>The cost of each strategy is modelled as a fixed overhead plus a cost per row, fitted by
+ * least squares over exponentially decayed observations. COPY has a higher fixed cost and a
+ * lower cost per row, so the break-even point is where both lines cross. Until both models are
+ * fitted the {@link #DEFAULT_BREAK_EVEN default break-even} is used. To keep both models fed,
+ * one of each {@link #EXPLORATION_PERIOD} decisions whose size is close to the break-even point
+ * uses the other strategy.
+ */
+@ThreadSafe
+class CopyBreakEvenEstimator {
+
+  static final int DEFAULT_BREAK_EVEN = 10;
+  static final int MIN_BREAK_EVEN = 2;
+  static final int MAX_BREAK_EVEN = 1000;
+  static final int EXPLORATION_PERIOD = 32;
+  /**
+   * The factor applied to the previous observations each time a new one is recorded.
+   */
+  private static final double DECAY = 0.98;
+  /**
+   * The min (decayed) number of observations needed to trust a model.
+   */
+  private static final double MIN_SAMPLES = 8;
+
+  private final LinearCostModel defaultModel = new LinearCostModel();
+  private final LinearCostModel copyModel = new LinearCostModel();
+  private final PostgreSqlMetrics metrics;
+  private int breakEven = DEFAULT_BREAK_EVEN;
+  private int decisions = 0;
+
+  CopyBreakEvenEstimator(PostgreSqlMetrics metrics) {
+    this.metrics = metrics;
+    metrics.getInsertCopyBreakEven().setValue(breakEven);
+  }
+
+  synchronized int getBreakEven() {
+    return breakEven;
+  }
+
+  /**
+   * Returns true iff the given number of rows should be inserted using COPY.
+   */
+  synchronized boolean useCopy(int rows) {
+    boolean useCopy = rows >= breakEven;
+    decisions++;
+    if (decisions % EXPLORATION_PERIOD == 0 && rows >= MIN_BREAK_EVEN
+        && rows * 4 >= breakEven && rows <= breakEven * 4) {
+      useCopy = !useCopy;
+    }
+    return useCopy;
+  }
+
+  synchronized void recordDefault(int rows, long nanos) {
+    defaultModel.record(rows, nanos);
+    updateBreakEven();
+  }
+
+  synchronized void recordCopy(int rows, long nanos) {
+    copyModel.record(rows, nanos);
+    updateBreakEven();
+  }
+
+  private void updateBreakEven() {
+    if (!defaultModel.isFitted() || !copyModel.isFitted()) {
+      return;
+    }
+    double slopeDiff = defaultModel.getCostPerRow() - copyModel.getCostPerRow();
+    long newBreakEven;
+    if (slopeDiff <= 0) {
+      newBreakEven = MAX_BREAK_EVEN;
+    } else {
+      newBreakEven = Math.round(
+          (copyModel.getFixedCost() - defaultModel.getFixedCost()) / slopeDiff);
+    }
+    breakEven = (int) Math.max(MIN_BREAK_EVEN, Math.min(MAX_BREAK_EVEN, newBreakEven));
+    metrics.getInsertCopyBreakEven().setValue(breakEven);
+  }
+
+  private static class LinearCostModel {
+
+    private double count;
+    private double sumX;
+    private double sumY;
+    private double sumXx;
+    private double sumXy;
+    private double fixedCost;
+    private double costPerRow;
+    private boolean fitted;
+
+    void record(int rows, long nanos) {
+      count = count * DECAY + 1;
+      sumX = sumX * DECAY + rows;
+      sumY = sumY * DECAY + nanos;
+      sumXx = sumXx * DECAY + (double) rows * rows;
+      sumXy = sumXy * DECAY + (double) rows * nanos;
+
+      double denominator = count * sumXx - sumX * sumX;
+      if (count < MIN_SAMPLES || denominator <= 1e-9 * count * sumXx) {
+        //all observations have (almost) the same number of rows
+        return;
+      }
+      costPerRow = (count * sumXy - sumX * sumY) / denominator;
+      fixedCost = (sumY - costPerRow * sumX) / count;
+      fitted = true;
+    }
+
+    boolean isFitted() {
+      return fitted;
+    }
+
+    double getFixedCost() {
+      return fixedCost;
+    }
+
+    double getCostPerRow() {
+      return costPerRow;
+    }
+  }
+
+}
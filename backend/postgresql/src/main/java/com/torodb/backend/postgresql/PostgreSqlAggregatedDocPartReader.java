@@ -0,0 +1,461 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql;
+
+import com.google.common.base.Preconditions;
+import com.torodb.backend.DataTypeProvider;
+import com.torodb.backend.ErrorHandler.Context;
+import com.torodb.backend.InternalField;
+import com.torodb.backend.TableRefComparator;
+import com.torodb.backend.udt.Decimal128UDT;
+import com.torodb.backend.udt.MongoTimestampUDT;
+import com.torodb.backend.udt.record.Decimal128Record;
+import com.torodb.backend.udt.record.MongoTimestampRecord;
+import com.torodb.common.util.HexUtils;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.d2r.IllegalDocPartRowException;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import org.jooq.Converter;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+
+/**
+ * Reads the doc parts of a collection with a single statement that returns one row per document.
+ *
+ * <p>The first column of each row contains the root doc part row and each other column contains
+ * all the rows of one nested doc part for that document, aggregated server side with
+ * {@code json_agg} in a lateral subquery. Each doc part row is encoded as a JSON object whose
+ * keys are {@code f1}, {@code f2}... in the order the internal fields, the scalars and the
+ * fields of the doc part are selected. Values whose JSON representation would not be exact are
+ * encoded with a representation that is decoded here before using the same converters used to
+ * read result sets. Times are the exception, they are decoded directly to keep their fractional
+ * seconds.
+ */
+@Singleton
+public class PostgreSqlAggregatedDocPartReader {
+
+  private static final String ROOT_ALIAS = "r";
+  private static final String CHILD_ALIAS_PREFIX = "t";
+  private static final String LATERAL_ALIAS_PREFIX = "l";
+  private static final String AGGREGATED_COLUMN = "agg";
+
+  private static final String SECS = MongoTimestampUDT.SECS.getName();
+  private static final String COUNTER = MongoTimestampUDT.COUNTER.getName();
+  private static final String DECIMAL_VALUE = Decimal128UDT.VALUE.getName();
+  private static final String DECIMAL_INFINITY = Decimal128UDT.IS_INFINITY.getName();
+  private static final String DECIMAL_NAN = Decimal128UDT.IS_NaN.getName();
+  private static final String DECIMAL_NEGATIVE_ZERO = Decimal128UDT.IS_NEGATIVE_ZERO.getName();
+
+  private final PostgreSqlMetaDataReadInterface metaDataReadInterface;
+  private final DataTypeProvider dataTypeProvider;
+  private final PostgreSqlErrorHandler errorHandler;
+
+  @Inject
+  public PostgreSqlAggregatedDocPartReader(PostgreSqlMetaDataReadInterface metaDataReadInterface,
+      PostgreSqlDataTypeProvider dataTypeProvider, PostgreSqlErrorHandler errorHandler) {
+    this.metaDataReadInterface = metaDataReadInterface;
+    this.dataTypeProvider = dataTypeProvider;
+    this.errorHandler = errorHandler;
+  }
+
+  /**
+   * Returns the doc part results of the given documents, sorted as
+   * {@link TableRefComparator.MetaDocPart#DESC}.
+   */
+  public List<DocPartResult> read(Connection connection, MetaDatabase metaDatabase,
+      MetaCollection metaCollection, Collection<Integer> dids) throws SQLException {
+    List<MetaDocPart> metaDocParts = metaCollection.streamContainedMetaDocParts()
+        .sorted(TableRefComparator.MetaDocPart.DESC)
+        .collect(Collectors.toList());
+    MetaDocPart rootDocPart = metaDocParts.get(metaDocParts.size() - 1);
+    Preconditions.checkState(rootDocPart.getTableRef().isRoot(),
+        "The last doc part of a collection must be the root one");
+    List<MetaDocPart> childDocParts = metaDocParts.subList(0, metaDocParts.size() - 1);
+
+    List<List<JsonObject>> rows = new ArrayList<>(metaDocParts.size());
+    for (int index = 0; index < metaDocParts.size(); index++) {
+      rows.add(new ArrayList<>());
+    }
+    List<JsonObject> rootRows = rows.get(rows.size() - 1);
+
+    String statement = getStatement(metaDatabase, rootDocPart, childDocParts);
+    try (PreparedStatement ps = connection.prepareStatement(statement)) {
+      ps.setArray(1, connection.createArrayOf("integer", dids.toArray()));
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          rootRows.add((JsonObject) readJson(rs.getString(1)));
+          for (int index = 0; index < childDocParts.size(); index++) {
+            String aggregated = rs.getString(index + 2);
+            if (aggregated != null) {
+              List<JsonObject> childRows = rows.get(index);
+              for (JsonValue childRow : (JsonArray) readJson(aggregated)) {
+                childRows.add((JsonObject) childRow);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    List<DocPartResult> result = new ArrayList<>(metaDocParts.size());
+    for (int index = 0; index < metaDocParts.size(); index++) {
+      result.add(new JsonDocPartResult(metaDocParts.get(index), rows.get(index)));
+    }
+    return result;
+  }
+
+  private JsonStructure readJson(String json) {
+    try (JsonReader reader = Json.createReader(new StringReader(json))) {
+      return reader.read();
+    }
+  }
+
+  String getStatement(MetaDatabase metaDatabase, MetaDocPart rootDocPart,
+      List<MetaDocPart> childDocParts) {
+    String didColumn = metaDataReadInterface.getMetaDocPartTable().DID.getName();
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT row_to_json(");
+    appendRow(sb, ROOT_ALIAS, rootDocPart);
+    sb.append(')');
+    for (int index = 0; index < childDocParts.size(); index++) {
+      sb.append(",\"")
+          .append(LATERAL_ALIAS_PREFIX)
+          .append(index)
+          .append("\".\"")
+          .append(AGGREGATED_COLUMN)
+          .append('"');
+    }
+    sb.append(" FROM \"")
+        .append(metaDatabase.getIdentifier())
+        .append("\".\"")
+        .append(rootDocPart.getIdentifier())
+        .append("\" AS \"")
+        .append(ROOT_ALIAS)
+        .append('"');
+    for (int index = 0; index < childDocParts.size(); index++) {
+      MetaDocPart childDocPart = childDocParts.get(index);
+      String alias = CHILD_ALIAS_PREFIX + index;
+      sb.append(" CROSS JOIN LATERAL (SELECT json_agg(");
+      appendRow(sb, alias, childDocPart);
+      sb.append(" ORDER BY ");
+      for (InternalField<?> internalField : metaDataReadInterface.getReadInternalFields(
+          childDocPart)) {
+        appendColumn(sb, alias, internalField.getName());
+        sb.append(',');
+      }
+      sb.setCharAt(sb.length() - 1, ')');
+      sb.append(" AS \"")
+          .append(AGGREGATED_COLUMN)
+          .append("\" FROM \"")
+          .append(metaDatabase.getIdentifier())
+          .append("\".\"")
+          .append(childDocPart.getIdentifier())
+          .append("\" AS \"")
+          .append(alias)
+          .append("\" WHERE ");
+      appendColumn(sb, alias, didColumn);
+      sb.append(" = ");
+      appendColumn(sb, ROOT_ALIAS, didColumn);
+      sb.append(") AS \"")
+          .append(LATERAL_ALIAS_PREFIX)
+          .append(index)
+          .append('"');
+    }
+    sb.append(" WHERE ");
+    appendColumn(sb, ROOT_ALIAS, didColumn);
+    sb.append(" = ANY(?)");
+    return sb.toString();
+  }
+
+  private void appendRow(StringBuilder sb, String alias, MetaDocPart metaDocPart) {
+    sb.append("ROW(");
+    for (InternalField<?> internalField : metaDataReadInterface.getInternalFields(metaDocPart)) {
+      appendColumn(sb, alias, internalField.getName());
+      sb.append(',');
+    }
+    metaDocPart.streamScalars().forEach(metaScalar -> {
+      appendEncodedColumn(sb, alias, metaScalar.getIdentifier(), metaScalar.getType());
+      sb.append(',');
+    });
+    metaDocPart.streamFields().forEach(metaField -> {
+      appendEncodedColumn(sb, alias, metaField.getIdentifier(), metaField.getType());
+      sb.append(',');
+    });
+    sb.setCharAt(sb.length() - 1, ')');
+  }
+
+  private void appendColumn(StringBuilder sb, String alias, String column) {
+    sb.append('"')
+        .append(alias)
+        .append("\".\"")
+        .append(column)
+        .append('"');
+  }
+
+  private void appendEncodedColumn(StringBuilder sb, String alias, String column,
+      FieldType fieldType) {
+    switch (fieldType) {
+      case DOUBLE:
+        sb.append("encode(float8send(");
+        appendColumn(sb, alias, column);
+        sb.append("),'hex')");
+        break;
+      case BINARY:
+      case MONGO_OBJECT_ID:
+        sb.append("encode(");
+        appendColumn(sb, alias, column);
+        sb.append(",'hex')");
+        break;
+      case DATE:
+        sb.append('(');
+        appendColumn(sb, alias, column);
+        sb.append(" - DATE '1970-01-01')");
+        break;
+      case INSTANT:
+        sb.append("(extract(epoch FROM ");
+        appendColumn(sb, alias, column);
+        sb.append(") * 1000000)::int8");
+        break;
+      default:
+        appendColumn(sb, alias, column);
+        break;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  KvValue<?> decode(JsonValue jsonValue, FieldType fieldType) {
+    if (jsonValue == null || jsonValue.getValueType() == JsonValue.ValueType.NULL) {
+      return null;
+    }
+    Object databaseValue;
+    switch (fieldType) {
+      case BOOLEAN:
+      case NULL:
+      case CHILD:
+      case MIN_KEY:
+      case MAX_KEY:
+      case UNDEFINED:
+        databaseValue = jsonValue.getValueType() == JsonValue.ValueType.TRUE;
+        break;
+      case INTEGER:
+        databaseValue = ((JsonNumber) jsonValue).intValueExact();
+        break;
+      case LONG:
+        databaseValue = ((JsonNumber) jsonValue).longValueExact();
+        break;
+      case DOUBLE:
+        databaseValue = Double.longBitsToDouble(
+            Long.parseUnsignedLong(((JsonString) jsonValue).getString(), 16));
+        break;
+      case STRING:
+      case JAVASCRIPT:
+      case DEPRECATED:
+        databaseValue = ((JsonString) jsonValue).getString();
+        break;
+      case BINARY:
+      case MONGO_OBJECT_ID:
+        databaseValue = HexUtils.hex2Bytes(((JsonString) jsonValue).getString());
+        break;
+      case DATE:
+        databaseValue = Date.valueOf(LocalDate.ofEpochDay(
+            ((JsonNumber) jsonValue).longValueExact()));
+        break;
+      case TIME:
+        //java.sql.Time drops the fractional seconds, so the value is not converted from it
+        return new LocalTimeKvTime(LocalTime.parse(((JsonString) jsonValue).getString()));
+      case INSTANT: {
+        long micros = ((JsonNumber) jsonValue).longValueExact();
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1000));
+        timestamp.setNanos((int) Math.floorMod(micros, 1000000) * 1000);
+        databaseValue = timestamp;
+        break;
+      }
+      case MONGO_TIME_STAMP: {
+        JsonObject object = (JsonObject) jsonValue;
+        databaseValue = new MongoTimestampRecord(object.getInt(SECS), object.getInt(COUNTER));
+        break;
+      }
+      case DECIMAL128: {
+        JsonObject object = (JsonObject) jsonValue;
+        databaseValue = new Decimal128Record(
+            object.isNull(DECIMAL_VALUE) ? null
+                : object.getJsonNumber(DECIMAL_VALUE).bigDecimalValue(),
+            object.getBoolean(DECIMAL_INFINITY),
+            object.getBoolean(DECIMAL_NAN),
+            object.getBoolean(DECIMAL_NEGATIVE_ZERO));
+        break;
+      }
+      case JAVASCRIPT_WITH_SCOPE:
+      case MONGO_REGEX:
+      case MONGO_DB_POINTER:
+        databaseValue = jsonValue.toString();
+        break;
+      default:
+        throw new AssertionError("Unexpected field type " + fieldType);
+    }
+    Converter<Object, KvValue<?>> converter = (Converter<Object, KvValue<?>>) dataTypeProvider
+        .getDataType(fieldType).getConverter();
+    return converter.from(databaseValue);
+  }
+
+  private class JsonDocPartResult implements DocPartResult {
+
+    private final MetaDocPart metaDocPart;
+    private final Iterator<JsonObject> rows;
+
+    private JsonDocPartResult(MetaDocPart metaDocPart, List<JsonObject> rows) {
+      this.metaDocPart = metaDocPart;
+      this.rows = rows.iterator();
+    }
+
+    @Override
+    public MetaDocPart getMetaDocPart() {
+      return metaDocPart;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return rows.hasNext();
+    }
+
+    @Override
+    public DocPartResultRow next() {
+      if (!rows.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return new JsonDocPartResultRow(metaDocPart, rows.next());
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private class JsonDocPartResultRow implements DocPartResultRow {
+
+    private final JsonObject row;
+    private final int did;
+    private final int rid;
+    private final int pid;
+    private final Integer seq;
+    private final int firstUserColumnIndex;
+
+    private JsonDocPartResultRow(MetaDocPart metaDocPart, JsonObject row) {
+      this.row = row;
+
+      Integer didTemp = null;
+      Integer ridTemp = null;
+      Integer pidTemp = null;
+      Integer seqTemp = null;
+      int columnIndex = 1;
+      for (InternalField<?> internalField : metaDataReadInterface.getInternalFields(
+          metaDocPart)) {
+        JsonValue value = row.get(getKey(columnIndex));
+        Integer intValue = value instanceof JsonNumber ? ((JsonNumber) value).intValueExact()
+            : null;
+        if (internalField.isDid()) {
+          didTemp = intValue;
+        } else if (internalField.isRid()) {
+          ridTemp = intValue;
+        } else if (internalField.isPid()) {
+          pidTemp = intValue;
+        } else if (internalField.isSeq()) {
+          seqTemp = intValue;
+        }
+        columnIndex++;
+      }
+      if (didTemp == null) {
+        throw new IllegalDocPartRowException(null, ridTemp, pidTemp, seqTemp,
+            "did was not found for doc part " + metaDocPart.getTableRef());
+      }
+
+      this.did = didTemp;
+      this.rid = ridTemp == null ? didTemp : ridTemp;
+      this.pid = pidTemp == null ? didTemp : pidTemp;
+      this.seq = seqTemp;
+      this.firstUserColumnIndex = columnIndex;
+    }
+
+    private String getKey(int columnIndex) {
+      return "f" + columnIndex;
+    }
+
+    @Override
+    public int getDid() {
+      return did;
+    }
+
+    @Override
+    public int getRid() {
+      return rid;
+    }
+
+    @Override
+    public int getPid() {
+      return pid;
+    }
+
+    @Override
+    public Integer getSeq() {
+      return seq;
+    }
+
+    @Override
+    public KvValue<?> getUserValue(int fieldIndex, FieldType fieldType) {
+      try {
+        return decode(row.get(getKey(fieldIndex + firstUserColumnIndex)), fieldType);
+      } catch (ClassCastException | ArithmeticException | IllegalArgumentException ex) {
+        throw errorHandler.handleException(Context.FETCH, new SQLException(
+            "Illegal aggregated value for a " + fieldType + " column", ex));
+      }
+    }
+  }
+}
@@ -21,6 +21,7 @@ package com.torodb.backend.postgresql;
 import com.google.inject.Injector;
 import com.torodb.backend.AbstractBackendBundle;
 import com.torodb.backend.BackendConfig;
+import com.torodb.backend.BackendLoggerFactory;
 import com.torodb.backend.DbBackendService;
 import com.torodb.backend.postgresql.guice.PostgreSqlBackendModule;
 import com.torodb.core.backend.BackendBundle;
@@ -30,18 +31,22 @@ import com.torodb.core.backend.SnapshotUpdater;
 import com.torodb.core.d2r.IdentifierFactory;
 import com.torodb.core.d2r.ReservedIdGenerator;
 import com.torodb.core.dsl.backend.BackendTransactionJobFactory;
+import org.apache.logging.log4j.Logger;
 
 /**
  * A {@link BackendBundle} that uses PostgresSql.
  */
 public class PostgreSqlBackendBundle extends AbstractBackendBundle {
 
+  private static final Logger LOGGER = BackendLoggerFactory.get(PostgreSqlBackendBundle.class);
+
   private final DbBackendService lowLevelService;
   private final BackendService backendService;
   private final ReservedIdGenerator reservedIdGenerator;
   private final SnapshotUpdater snapshotUpdater;
   private final IdentifierFactory identifierFactory;
   private final BackendTransactionJobFactory backendTransactionJobFactory;
+  private final PostgreSqlParallelDocPartFetcher parallelDocPartFetcher;
 
   @SuppressWarnings("checkstyle:JavadocMethod")
   public PostgreSqlBackendBundle(BackendConfig config) {
@@ -54,6 +59,27 @@ public class PostgreSqlBackendBundle extends AbstractBackendBundle {
     this.snapshotUpdater = injector.getInstance(SnapshotUpdater.class);
     this.identifierFactory = injector.getInstance(IdentifierFactory.class);
     this.backendTransactionJobFactory = injector.getInstance(BackendTransactionJobFactory.class);
+    this.parallelDocPartFetcher = injector.getInstance(PostgreSqlParallelDocPartFetcher.class);
+  }
+
+  @Override
+  protected void postDependenciesStartUp() throws Exception {
+    super.postDependenciesStartUp();
+
+    LOGGER.debug("Starting parallel doc part fetcher");
+    parallelDocPartFetcher.startAsync();
+    parallelDocPartFetcher.awaitRunning();
+    LOGGER.debug("Parallel doc part fetcher started");
+  }
+
+  @Override
+  protected void preDependenciesShutDown() throws Exception {
+    LOGGER.debug("Shutting down parallel doc part fetcher");
+    parallelDocPartFetcher.stopAsync();
+    parallelDocPartFetcher.awaitTerminated();
+    LOGGER.debug("Parallel doc part fetcher shutted down");
+
+    super.preDependenciesShutDown();
   }
 
   @Override
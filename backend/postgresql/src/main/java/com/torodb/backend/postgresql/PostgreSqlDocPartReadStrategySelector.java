@@ -0,0 +1,81 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Singleton;
+
+/**
+ * Decides which {@link PostgreSqlDocPartReadStrategy} is used to read each collection.
+ *
+ * <p>Collections use {@link #getDefaultStrategy() the default strategy} unless another one has
+ * been selected for them, which makes it possible to compare both strategies on the same data.
+ */
+@Singleton
+@ThreadSafe
+public class PostgreSqlDocPartReadStrategySelector {
+
+  private final ConcurrentMap<Tuple2<String, String>, PostgreSqlDocPartReadStrategy> strategies =
+      new ConcurrentHashMap<>();
+  private volatile PostgreSqlDocPartReadStrategy defaultStrategy =
+      PostgreSqlDocPartReadStrategy.PER_TABLE;
+
+  @Nonnull
+  public PostgreSqlDocPartReadStrategy getStrategy(MetaDatabase metaDatabase,
+      MetaCollection metaCollection) {
+    return strategies.getOrDefault(
+        new Tuple2<>(metaDatabase.getName(), metaCollection.getName()), defaultStrategy);
+  }
+
+  @Nonnull
+  public PostgreSqlDocPartReadStrategy getDefaultStrategy() {
+    return defaultStrategy;
+  }
+
+  public void setDefaultStrategy(@Nonnull PostgreSqlDocPartReadStrategy defaultStrategy) {
+    Preconditions.checkArgument(defaultStrategy != null, "The default strategy cannot be null");
+    this.defaultStrategy = defaultStrategy;
+  }
+
+  /**
+   * Selects the strategy used to read the given collection.
+   */
+  public void setStrategy(String database, String collection,
+      @Nonnull PostgreSqlDocPartReadStrategy strategy) {
+    Preconditions.checkArgument(strategy != null, "The strategy cannot be null");
+    strategies.put(new Tuple2<>(database, collection), strategy);
+  }
+
+  /**
+   * Makes the given collection use the default strategy again.
+   */
+  public void resetStrategy(String database, String collection) {
+    strategies.remove(new Tuple2<>(database, collection));
+  }
+}
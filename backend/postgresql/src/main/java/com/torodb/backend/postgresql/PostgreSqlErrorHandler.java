@@ -29,6 +29,7 @@ import static com.torodb.backend.ErrorHandler.Context.DROP_SCHEMA;
 import static com.torodb.backend.ErrorHandler.Context.DROP_TABLE;
 import static com.torodb.backend.ErrorHandler.Context.INSERT;
 import static com.torodb.backend.ErrorHandler.Context.META_INSERT;
+import static com.torodb.backend.ErrorHandler.Context.UPDATE;
 
 import com.torodb.backend.AbstractErrorHandler;
 import com.torodb.core.exceptions.user.UniqueIndexViolationException;
@@ -63,9 +64,10 @@ public class PostgreSqlErrorHandler extends AbstractErrorHandler {
             ADD_COLUMN, CREATE_INDEX, DROP_SCHEMA,
             DROP_TABLE, DROP_INDEX, META_INSERT),
         /**
-         * Duplicate key value in unique index on insert
+         * Duplicate key value in unique index on insert or update
          */
-        userRule("23505", b -> new UniqueIndexViolationException(b.getMessage(), b), INSERT)
+        userRule("23505", b -> new UniqueIndexViolationException(b.getMessage(), b), INSERT,
+            UPDATE)
     );
   }
 }
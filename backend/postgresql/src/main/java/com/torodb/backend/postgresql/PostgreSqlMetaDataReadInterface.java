@@ -162,6 +162,11 @@ public class PostgreSqlMetaDataReadInterface extends AbstractMetaDataReadInterfa
         + " WHERE doc_part.database = ? AND schemaname = ? AND doc_part.collection = ?";
   }
 
+  @Override
+  protected String getReadDocPartTableSizeStatement() {
+    return "SELECT pg_relation_size((quote_ident(?) || '.' || quote_ident(?))::regclass)";
+  }
+
   @Override
   protected String getReadIndexSizeStatement(
       String schemaName, String tableName, String indexName) {
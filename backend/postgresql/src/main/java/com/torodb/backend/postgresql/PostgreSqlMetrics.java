@@ -20,6 +20,7 @@ package com.torodb.backend.postgresql;
 
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
+import com.torodb.core.metrics.SettableGauge;
 import com.torodb.core.metrics.ToroMetricRegistry;
 
 import javax.inject.Inject;
@@ -33,6 +34,7 @@ public final class PostgreSqlMetrics {
   private final Meter insertFields;
   private final Meter insertDefault;
   private final Meter insertCopy;
+  private final SettableGauge<Integer> insertCopyBreakEven;
 
   @Inject
   public PostgreSqlMetrics(ToroMetricRegistry parentRegistry) {
@@ -42,6 +44,7 @@ public final class PostgreSqlMetrics {
     insertFields = registry.meter("insertFields");
     insertDefault = registry.meter("insertDefault");
     insertCopy = registry.meter("insertCopy");
+    insertCopyBreakEven = registry.gauge("insertCopyBreakEven");
   }
 
   public Timer getInsertDocPartDataTimer() {
@@ -64,4 +67,11 @@ public final class PostgreSqlMetrics {
     return insertCopy;
   }
 
+  /**
+   * The min number of rows a doc part data must have to be inserted using COPY.
+   */
+  public SettableGauge<Integer> getInsertCopyBreakEven() {
+    return insertCopyBreakEven;
+  }
+
 }
@@ -0,0 +1,67 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql;
+
+import com.torodb.backend.BackendConfig;
+import com.torodb.backend.DbBackendService;
+import com.torodb.backend.ParallelDocPartFetcher;
+import com.torodb.core.annotations.TorodbIdleService;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A {@link ParallelDocPartFetcher} that shares snapshots using {@code pg_export_snapshot()} and
+ * {@code SET TRANSACTION SNAPSHOT}.
+ */
+@Singleton
+public class PostgreSqlParallelDocPartFetcher extends ParallelDocPartFetcher {
+
+  @Inject
+  public PostgreSqlParallelDocPartFetcher(@TorodbIdleService ThreadFactory threadFactory,
+      DbBackendService dbBackendService, PostgreSqlErrorHandler errorHandler,
+      ConcurrentToolsFactory concurrentToolsFactory, BackendConfig backendConfig) {
+    super(threadFactory, dbBackendService, errorHandler, concurrentToolsFactory,
+        maxHelpersFor(backendConfig.getReservedReadPoolSize()));
+  }
+
+  @Override
+  protected String exportSnapshot(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT pg_export_snapshot()")) {
+      resultSet.next();
+      return resultSet.getString(1);
+    }
+  }
+
+  @Override
+  protected void importSnapshot(Connection connection, String snapshotId) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+    }
+  }
+}
@@ -19,18 +19,27 @@
 package com.torodb.backend.postgresql;
 
 import com.torodb.backend.AbstractReadInterface;
+import com.torodb.backend.BackendConfig;
 import com.torodb.backend.InternalField;
 import com.torodb.backend.SqlHelper;
+import com.torodb.backend.SqlHelper.SetupPreparedStatement;
 import com.torodb.backend.tables.MetaDocPartTable.DocPartTableFields;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidSortSpec;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
-import org.jooq.Converter;
+import org.jooq.DSLContext;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -40,13 +49,49 @@ import javax.inject.Singleton;
 public class PostgreSqlReadInterface extends AbstractReadInterface {
 
   private final PostgreSqlMetaDataReadInterface metaDataReadInterface;
+  private final PostgreSqlParallelDocPartFetcher parallelDocPartFetcher;
+  private final PostgreSqlDocPartReadStrategySelector readStrategySelector;
+  private final PostgreSqlAggregatedDocPartReader aggregatedDocPartReader;
 
   @Inject
   public PostgreSqlReadInterface(PostgreSqlMetaDataReadInterface metaDataReadInterface,
       PostgreSqlDataTypeProvider dataTypeProvider,
-      PostgreSqlErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory) {
-    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory);
+      PostgreSqlErrorHandler errorhandler, SqlHelper sqlHelper, TableRefFactory tableRefFactory,
+      PostgreSqlParallelDocPartFetcher parallelDocPartFetcher,
+      PostgreSqlDocPartReadStrategySelector readStrategySelector,
+      PostgreSqlAggregatedDocPartReader aggregatedDocPartReader, BackendConfig backendConfig) {
+    super(metaDataReadInterface, dataTypeProvider, errorhandler, sqlHelper, tableRefFactory,
+        backendConfig);
     this.metaDataReadInterface = metaDataReadInterface;
+    this.parallelDocPartFetcher = parallelDocPartFetcher;
+    this.readStrategySelector = readStrategySelector;
+    this.aggregatedDocPartReader = aggregatedDocPartReader;
+  }
+
+  @Override
+  public List<DocPartResult> getCollectionResultSets(DSLContext dsl, MetaDatabase metaDatabase,
+      MetaCollection metaCollection, Collection<Integer> dids) throws SQLException {
+    if (readStrategySelector.getStrategy(metaDatabase, metaCollection)
+        != PostgreSqlDocPartReadStrategy.AGGREGATED) {
+      return super.getCollectionResultSets(dsl, metaDatabase, metaCollection, dids);
+    }
+    Connection connection = dsl.configuration().connectionProvider().acquire();
+    try {
+      return aggregatedDocPartReader.read(connection, metaDatabase, metaCollection, dids);
+    } finally {
+      dsl.configuration().connectionProvider().release(connection);
+    }
+  }
+
+  @Override
+  protected List<DocPartResult> getDocPartResults(Connection connection,
+      List<Tuple2<MetaDocPart, String>> docPartStatements,
+      SetupPreparedStatement statementSetup) throws SQLException {
+    if (parallelDocPartFetcher.isWorthy(connection, docPartStatements.size())) {
+      return parallelDocPartFetcher.fetch(connection, docPartStatements, statementSetup,
+          this::createDocPartResult);
+    }
+    return super.getDocPartResults(connection, docPartStatements, statementSetup);
   }
 
   @Override
@@ -73,6 +118,60 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  @Override
+  protected String getReadCollectionDidsWithConditionStatement(String schemaName,
+      String rootTableName, String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition)
+        .append(" ORDER BY \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    String statement = sb.toString();
+    return statement;
+  }
+
+  @Override
+  protected String getReadSortedCollectionDidsWithConditionStatement(String schemaName,
+      String rootTableName, String condition, DidSortSpec sortSpec) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT \"")
+        .append(DocPartTableFields.DID.fieldName)
+        .append("\" FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition)
+        .append(" ORDER BY ");
+    for (DidSortSpec.SortField sortField : sortSpec.getFields()) {
+      //the column collation and the null placement of the indexes are used, so an index on the
+      //sort column can serve the sort
+      sb.append('"')
+          .append(sortField.getField().getIdentifier())
+          .append(sortField.isAscending() ? "\" ASC NULLS FIRST," : "\" DESC NULLS LAST,");
+    }
+    sb.append('"')
+        .append(DocPartTableFields.DID.fieldName)
+        .append('"');
+    if (sortSpec.getLimit() > 0) {
+      sb.append(" LIMIT ")
+          .append(sortSpec.getLimit());
+    }
+    if (sortSpec.getSkip() > 0) {
+      sb.append(" OFFSET ")
+          .append(sortSpec.getSkip());
+    }
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getReadCollectionDidsWithFieldInStatement(
       String schemaName, String rootTableName, Stream<Tuple2<String, Integer>> valuesCountList) {
@@ -164,6 +263,27 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
     return statement;
   }
 
+  @Override
+  protected String getEstimateCountAllStatement() {
+    return "SELECT c.reltuples::bigint FROM pg_catalog.pg_class c"
+        + " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace"
+        + " WHERE n.nspname = ? AND c.relname = ?";
+  }
+
+  @Override
+  protected String getReadCountWithConditionStatement(String schemaName, String rootTableName,
+      String condition) {
+    StringBuilder sb = new StringBuilder()
+        .append("SELECT COUNT(1) FROM \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(rootTableName)
+        .append("\" WHERE ")
+        .append(condition);
+    String statement = sb.toString();
+    return statement;
+  }
+
   @Override
   protected String getDocPartStatament(MetaDatabase metaDatabase, MetaDocPart metaDocPart,
       Collection<Integer> dids) {
@@ -194,14 +314,7 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
         .append(metaDocPart.getIdentifier())
         .append("\" WHERE \"")
         .append(metaDataReadInterface.getMetaDocPartTable().DID.getName())
-        .append("\" IN (");
-    Converter<?, Integer> converter =
-        metaDataReadInterface.getMetaDocPartTable().DID.getDataType().getConverter();
-    for (Integer requestedDoc : dids) {
-      sb.append(converter.to(requestedDoc))
-          .append(',');
-    }
-    sb.setCharAt(sb.length() - 1, ')');
+        .append("\" = ANY(?)");
     if (!metaDocPart.getTableRef().isRoot()) {
       sb.append(" ORDER BY ");
       Collection<InternalField<?>> internalFieldsIt =
@@ -217,6 +330,12 @@ public class PostgreSqlReadInterface extends AbstractReadInterface {
     return sb.toString();
   }
 
+  @Override
+  protected void setDocPartStatementParameters(PreparedStatement ps, Collection<Integer> dids)
+      throws SQLException {
+    ps.setArray(1, ps.getConnection().createArrayOf("integer", dids.toArray()));
+  }
+
   @Override
   protected String getLastRowIdUsedStatement(MetaDatabase metaDatabase, MetaDocPart metaDocPart) {
     TableRef tableRef = metaDocPart.getTableRef();
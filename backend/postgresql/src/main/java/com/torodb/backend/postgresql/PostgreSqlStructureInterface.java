@@ -108,9 +108,11 @@ public class PostgreSqlStructureInterface extends AbstractStructureInterface {
         .append(".")
         .append("\"").append(tableName).append("\"")
         .append(" (");
+    // Nulls are placed as the read interface sorts them, so the index can serve sorts on both
+    // directions
     for (Tuple2<String, Boolean> columnEntry : columnList) {
       sb.append("\"").append(columnEntry.v1()).append("\" ")
-          .append(columnEntry.v2() ? "ASC," : "DESC,");
+          .append(columnEntry.v2() ? "ASC NULLS FIRST," : "DESC NULLS LAST,");
     }
     sb.setCharAt(sb.length() - 1, ')');
     String statement = sb.toString();
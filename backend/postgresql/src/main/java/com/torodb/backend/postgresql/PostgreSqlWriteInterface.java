@@ -25,11 +25,13 @@ import com.torodb.backend.ErrorHandler;
 import com.torodb.backend.ErrorHandler.Context;
 import com.torodb.backend.InternalField;
 import com.torodb.backend.SqlHelper;
+import com.torodb.backend.postgresql.converters.PostgreSqlValueToBinaryCopyConverter;
 import com.torodb.backend.postgresql.converters.PostgreSqlValueToCopyConverter;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer.CopySinkException;
 import com.torodb.backend.tables.MetaDocPartTable;
 import com.torodb.core.d2r.DocPartData;
 import com.torodb.core.d2r.DocPartRow;
-import com.torodb.core.exceptions.SystemException;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -40,16 +42,18 @@ import org.apache.logging.log4j.Logger;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.postgresql.copy.CopyManager;
 
-import java.io.EOFException;
-import java.io.IOException;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -58,11 +62,24 @@ import javax.inject.Singleton;
 public class PostgreSqlWriteInterface extends AbstractWriteInterface {
 
   private static final Logger LOGGER = BackendLoggerFactory.get(PostgreSqlWriteInterface.class);
+  /**
+   * The max number of bytes (or chars on text COPY) kept in memory before they are sent to the
+   * server.
+   */
+  private static final int COPY_BUFFER_SIZE = 65536;
+  private static final int COPY_BUFFER_POOL_SIZE = 32;
 
   private final PostgreSqlMetaDataReadInterface postgreSqlMetaDataReadInterface;
   private final ErrorHandler errorHandler;
   private final SqlHelper sqlHelper;
   private final PostgreSqlMetrics metrics;
+  private final CopyBreakEvenEstimator copyBreakEvenEstimator;
+  /**
+   * Buffers used to send binary COPY data, shared between concurrent inserts so at most
+   * {@link #COPY_BUFFER_POOL_SIZE} of them are kept while idle.
+   */
+  private final BlockingQueue<byte[]> copyBufferPool =
+      new ArrayBlockingQueue<>(COPY_BUFFER_POOL_SIZE);
 
   @Inject
   public PostgreSqlWriteInterface(PostgreSqlMetaDataReadInterface metaDataReadInterface,
@@ -74,6 +91,7 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     this.errorHandler = errorHandler;
     this.sqlHelper = sqlHelper;
     this.metrics = metrics;
+    this.copyBreakEvenEstimator = new CopyBreakEvenEstimator(metrics);
   }
 
   @Override
@@ -86,16 +104,17 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
         .append(tableName)
         .append("\" WHERE \"")
         .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
-        .append("\" IN (");
-    for (Integer did : dids) {
-      sb.append(did)
-          .append(',');
-    }
-    sb.setCharAt(sb.length() - 1, ')');
+        .append("\" = ANY(?)");
     String statement = sb.toString();
     return statement;
   }
 
+  @Override
+  protected void setDeleteDocPartsParameters(PreparedStatement ps, Collection<Integer> dids)
+      throws SQLException {
+    ps.setArray(1, ps.getConnection().createArrayOf("integer", dids.toArray()));
+  }
+
   @Override
   public void insertDocPartData(DSLContext dsl, String schemaName, DocPartData docPartData) throws
       UserException {
@@ -109,20 +128,20 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
 
     try (Timer.Context ctx = metrics.getInsertDocPartDataTimer().time()) {
 
-      int maxCappedSize = 10;
-      int cappedSize = Math.min(docPartData.rowCount(), maxCappedSize);
-
-      if (cappedSize < maxCappedSize) { //there are not enough elements on the insert => fallback
+      int rowCount = docPartData.rowCount();
+      if (!copyBreakEvenEstimator.useCopy(rowCount)) {
         if (LOGGER.isTraceEnabled()) {
           LOGGER.trace("The insert window is not big enough to use copy (the limit is {}, the real "
               + "size is {}).",
-              maxCappedSize,
-              cappedSize);
+              copyBreakEvenEstimator.getBreakEven(),
+              rowCount);
         }
 
         metrics.getInsertDefault().mark();
 
+        long start = System.nanoTime();
         super.insertDocPartData(dsl, schemaName, docPartData);
+        copyBreakEvenEstimator.recordDefault(rowCount, System.nanoTime() - start);
       } else {
         Connection connection = dsl.configuration().connectionProvider().acquire();
         try {
@@ -135,22 +154,17 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
           } else {
             try {
               metrics.getInsertCopy().mark();
+              long start = System.nanoTime();
               copyInsertDocPartData(
                   connection.unwrap(PGConnection.class),
                   schemaName,
                   docPartData
               );
+              copyBreakEvenEstimator.recordCopy(rowCount, System.nanoTime() - start);
             } catch (DataAccessException ex) {
               throw errorHandler.handleUserException(Context.INSERT, ex);
             } catch (SQLException ex) {
               throw errorHandler.handleUserException(Context.INSERT, ex);
-            } catch (IOException ex) {
-              if (ex instanceof EOFException && ex.getMessage() == null) {
-                LOGGER.debug(ex);
-                ex = new EOFException("End of file while COPYing data");
-              }
-
-              throw new SystemException(ex);
             }
           }
         } catch (SQLException ex) {
@@ -165,33 +179,127 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
   private void copyInsertDocPartData(
       PGConnection connection,
       String schemaName,
-      DocPartData docPartData) throws SQLException, IOException {
+      DocPartData docPartData) throws SQLException {
+    if (isBinaryCopySupported(docPartData)) {
+      binaryCopyInsertDocPartData(connection, schemaName, docPartData);
+    } else {
+      textCopyInsertDocPartData(connection, schemaName, docPartData);
+    }
+  }
+
+  /**
+   * Returns true iff all columns of the given doc part data can be sent using the binary COPY
+   * format.
+   */
+  protected boolean isBinaryCopySupported(DocPartData docPartData) {
+    Iterator<MetaScalar> metaScalarIterator = docPartData.orderedMetaScalarIterator();
+    while (metaScalarIterator.hasNext()) {
+      if (!PostgreSqlValueToBinaryCopyConverter.isSupported(metaScalarIterator.next().getType())) {
+        return false;
+      }
+    }
+    Iterator<MetaField> metaFieldIterator = docPartData.orderedMetaFieldIterator();
+    while (metaFieldIterator.hasNext()) {
+      if (!PostgreSqlValueToBinaryCopyConverter.isSupported(metaFieldIterator.next().getType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void binaryCopyInsertDocPartData(
+      PGConnection connection,
+      String schemaName,
+      DocPartData docPartData) throws SQLException {
+
+    final CopyManager copyManager = connection.getCopyAPI();
+    final MetaDocPart metaDocPart = docPartData.getMetaDocPart();
+    Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
+        .getInternalFields(metaDocPart);
+    final int fieldCount = internalFields.size() + docPartData.scalarColumnsCount()
+        + docPartData.fieldColumnsCount();
+    final String copyStatement = getCopyInsertDocPartDataStatement(
+        schemaName, docPartData, metaDocPart, internalFields) + " (FORMAT binary)";
+
+    CopyIn copyIn = copyManager.copyIn(copyStatement);
+    byte[] array = borrowCopyBuffer();
+    try {
+      BinaryCopyBuffer buffer = new BinaryCopyBuffer(array, copyIn::writeToCopy);
+      buffer.startCopy();
+      for (DocPartRow tableRow : docPartData) {
+        addValuesToBinaryCopy(buffer, fieldCount, tableRow, internalFields);
+      }
+      buffer.endCopy();
+      buffer.flush();
+      copyIn.endCopy();
+    } catch (CopySinkException ex) {
+      throw ex.getCause();
+    } finally {
+      cancelIfActive(copyIn);
+      releaseCopyBuffer(array);
+    }
+  }
+
+  private void textCopyInsertDocPartData(
+      PGConnection connection,
+      String schemaName,
+      DocPartData docPartData) throws SQLException {
 
-    final int maxBatchSize = 1024;
     final CopyManager copyManager = connection.getCopyAPI();
     final MetaDocPart metaDocPart = docPartData.getMetaDocPart();
     Collection<InternalField<?>> internalFields = postgreSqlMetaDataReadInterface
         .getInternalFields(metaDocPart);
-    final StringBuilder sb = new StringBuilder(65536);
+    final StringBuilder sb = new StringBuilder(COPY_BUFFER_SIZE);
     final String copyStatement = getCopyInsertDocPartDataStatement(
         schemaName, docPartData, metaDocPart, internalFields);
 
-    Iterator<DocPartRow> docPartRowIterator = docPartData.iterator();
-    int docCounter = 0;
-    while (docPartRowIterator.hasNext()) {
-      DocPartRow tableRow = docPartRowIterator.next();
-      docCounter++;
+    CopyIn copyIn = copyManager.copyIn(copyStatement);
+    try {
+      for (DocPartRow tableRow : docPartData) {
+        addValuesToCopy(sb, tableRow, internalFields);
+        assert sb.length() != 0;
 
-      addValuesToCopy(sb, tableRow, internalFields);
-      assert sb.length() != 0;
+        if (sb.length() >= COPY_BUFFER_SIZE) {
+          writeToCopy(copyIn, sb);
+        }
+      }
+      writeToCopy(copyIn, sb);
+      copyIn.endCopy();
+    } finally {
+      cancelIfActive(copyIn);
+    }
+  }
 
-      if (docCounter % maxBatchSize == 0 || !docPartRowIterator.hasNext()) {
-        executeCopy(copyManager, copyStatement, sb);
-        sb.setLength(0);
+  private void writeToCopy(CopyIn copyIn, StringBuilder sb) throws SQLException {
+    if (sb.length() > 0) {
+      byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+      copyIn.writeToCopy(data, 0, data.length);
+      sb.setLength(0);
+    }
+  }
+
+  private void cancelIfActive(CopyIn copyIn) {
+    if (copyIn.isActive()) {
+      try {
+        copyIn.cancelCopy();
+      } catch (SQLException ex) {
+        LOGGER.debug("Error while cancelling a failed COPY", ex);
       }
     }
   }
 
+  private byte[] borrowCopyBuffer() {
+    byte[] buffer = copyBufferPool.poll();
+    if (buffer == null) {
+      buffer = new byte[COPY_BUFFER_SIZE];
+    }
+    return buffer;
+  }
+
+  private void releaseCopyBuffer(byte[] buffer) {
+    copyBufferPool.offer(buffer);
+  }
+
   protected String getCopyInsertDocPartDataStatement(String schemaName, DocPartData docPartData,
       final MetaDocPart metaDocPart, Collection<InternalField<?>> internalFields) {
     final StringBuilder copyStatementBuilder = new StringBuilder();
@@ -256,38 +364,58 @@ public class PostgreSqlWriteInterface extends AbstractWriteInterface {
     sb.append('\t');
   }
 
-  private void executeCopy(CopyManager copyManager, String copyStatement, final StringBuilder sb)
-      throws SQLException, IOException {
-    Reader reader = new StringBuilderReader(sb);
-
-    copyManager.copyIn(copyStatement, reader);
-  }
-
-  private static class StringBuilderReader extends Reader {
-
-    private final StringBuilder sb;
-    private int readerIndex = 0;
-
-    public StringBuilderReader(StringBuilder sb) {
-      this.sb = sb;
-    }
-
-    @Override
-    public int read(char[] cbuf, int off, int len) throws IOException {
-      if (readerIndex == sb.length()) {
-        return -1;
+  private void addValuesToBinaryCopy(
+      BinaryCopyBuffer buffer,
+      int fieldCount,
+      DocPartRow docPartRow,
+      Collection<InternalField<?>> internalFields) {
+    buffer.startTuple(fieldCount);
+    for (InternalField<?> internalField : internalFields) {
+      Object internalValue = internalField.getValue(docPartRow);
+      if (internalValue == null) {
+        buffer.writeNullField();
+      } else {
+        buffer.writeIntField((Integer) internalValue);
       }
-      int newReaderIndex = Math.min(sb.length(), readerIndex + len);
-      sb.getChars(readerIndex, newReaderIndex, cbuf, off);
-      int diff = newReaderIndex - readerIndex;
-      readerIndex = newReaderIndex;
-      return diff;
     }
+    for (KvValue<?> value : docPartRow.getScalarValues()) {
+      addValueToBinaryCopy(buffer, value);
+    }
+    for (KvValue<?> value : docPartRow.getFieldValues()) {
+      addValueToBinaryCopy(buffer, value);
+    }
+  }
 
-    @Override
-    public void close() {
+  protected void addValueToBinaryCopy(BinaryCopyBuffer buffer, KvValue<?> value) {
+    if (value != null) {
+      value.accept(PostgreSqlValueToBinaryCopyConverter.INSTANCE, buffer);
+    } else {
+      buffer.writeNullField();
     }
+  }
 
+  @Override
+  protected String getUpdateDocPartRowStatement(String schemaName, MetaDocPart metaDocPart,
+      List<MetaField> metaFields) {
+    StringBuilder sb = new StringBuilder()
+        .append("UPDATE \"")
+        .append(schemaName)
+        .append("\".\"")
+        .append(metaDocPart.getIdentifier())
+        .append("\" SET ");
+    for (MetaField metaField : metaFields) {
+      sb.append("\"")
+          .append(metaField.getIdentifier())
+          .append("\" = ")
+          .append(sqlHelper.getPlaceholder(metaField.getType()))
+          .append(',');
+    }
+    sb.setCharAt(sb.length() - 1, ' ');
+    sb.append("WHERE \"")
+        .append(MetaDocPartTable.DocPartTableFields.DID.fieldName)
+        .append("\" = ?");
+    String statement = sb.toString();
+    return statement;
   }
 
   @Override
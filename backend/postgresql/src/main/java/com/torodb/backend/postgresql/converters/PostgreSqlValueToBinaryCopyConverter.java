@@ -0,0 +1,240 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql.converters;
+
+import com.google.common.collect.Sets;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.backend.postgresql.converters.util.SqlEscaper;
+import com.torodb.common.util.TextEscaper;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.kvdocument.values.KvArray;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDeprecated;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoDbPointer;
+import com.torodb.kvdocument.values.KvMongoJavascript;
+import com.torodb.kvdocument.values.KvMongoJavascriptWithScope;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoRegex;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvString;
+import com.torodb.kvdocument.values.KvTime;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValueVisitor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Writes values on the PostgreSQL binary COPY format.
+ *
+ * <p>Only the types whose columns use a built-in PostgreSQL type are supported. The ones stored
+ * as composite types or as jsonb must be copied using the {@link PostgreSqlValueToCopyConverter
+ * text format}.
+ */
+public class PostgreSqlValueToBinaryCopyConverter
+    implements KvValueVisitor<Void, BinaryCopyBuffer> {
+
+  public static final PostgreSqlValueToBinaryCopyConverter INSTANCE =
+      new PostgreSqlValueToBinaryCopyConverter();
+
+  private static final TextEscaper ESCAPER = SqlEscaper.INSTANCE;
+
+  private static final Set<FieldType> SUPPORTED_TYPES = Sets.immutableEnumSet(EnumSet.of(
+      FieldType.BINARY,
+      FieldType.BOOLEAN,
+      FieldType.CHILD,
+      FieldType.DATE,
+      FieldType.DEPRECATED,
+      FieldType.DOUBLE,
+      FieldType.INSTANT,
+      FieldType.INTEGER,
+      FieldType.JAVASCRIPT,
+      FieldType.LONG,
+      FieldType.MAX_KEY,
+      FieldType.MIN_KEY,
+      FieldType.MONGO_OBJECT_ID,
+      FieldType.NULL,
+      FieldType.STRING,
+      FieldType.TIME,
+      FieldType.UNDEFINED
+  ));
+
+  /**
+   * PostgreSQL dates are stored as days since 2000-01-01.
+   */
+  private static final long POSTGRES_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+  /**
+   * PostgreSQL timestamps are stored as microseconds since 2000-01-01 00:00:00 UTC.
+   */
+  private static final long POSTGRES_EPOCH_SECOND = POSTGRES_EPOCH_DAY * 24 * 60 * 60;
+
+  PostgreSqlValueToBinaryCopyConverter() {}
+
+  public static boolean isSupported(FieldType fieldType) {
+    return SUPPORTED_TYPES.contains(fieldType);
+  }
+
+  @Override
+  public Void visit(KvBoolean value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(value.getValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvNull value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(true);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvArray value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Ouch this should not occur");
+  }
+
+  @Override
+  public Void visit(KvInteger value, BinaryCopyBuffer arg) {
+    arg.writeIntField(value.intValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvLong value, BinaryCopyBuffer arg) {
+    arg.writeLongField(value.longValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDouble value, BinaryCopyBuffer arg) {
+    arg.writeDoubleField(value.doubleValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvString value, BinaryCopyBuffer arg) {
+    arg.writeStringField(ESCAPER.escape(value.getValue()));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoObjectId value, BinaryCopyBuffer arg) {
+    arg.writeBytesField(value.getArrayValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvBinary value, BinaryCopyBuffer arg) {
+    arg.writeBytesField(value.getByteSource().read());
+    return null;
+  }
+
+  @Override
+  public Void visit(KvInstant value, BinaryCopyBuffer arg) {
+    Instant instant = value.getValue();
+    arg.writeLongField((instant.getEpochSecond() - POSTGRES_EPOCH_SECOND) * 1_000_000L
+        + instant.getNano() / 1_000);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvDate value, BinaryCopyBuffer arg) {
+    arg.writeIntField((int) (value.getValue().toEpochDay() - POSTGRES_EPOCH_DAY));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvTime value, BinaryCopyBuffer arg) {
+    arg.writeLongField(value.getValue().toNanoOfDay() / 1_000);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoTimestamp value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Mongo timestamps must be copied as text");
+  }
+
+  @Override
+  public Void visit(KvDocument value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Ouch this should not occur");
+  }
+
+  @Override
+  public Void visit(KvDecimal128 value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Decimal128 values must be copied as text");
+  }
+
+  @Override
+  public Void visit(KvMongoJavascript value, BinaryCopyBuffer arg) {
+    arg.writeStringField(ESCAPER.escape(value.getValue()));
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoJavascriptWithScope value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Javascript with scope values must be copied as "
+        + "text");
+  }
+
+  @Override
+  public Void visit(KvMinKey value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(false);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMaxKey value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(true);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvUndefined value, BinaryCopyBuffer arg) {
+    arg.writeBooleanField(true);
+    return null;
+  }
+
+  @Override
+  public Void visit(KvMongoRegex value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Mongo regex values must be copied as text");
+  }
+
+  @Override
+  public Void visit(KvMongoDbPointer value, BinaryCopyBuffer arg) {
+    throw new UnsupportedOperationException("Mongo DB pointer values must be copied as text");
+  }
+
+  @Override
+  public Void visit(KvDeprecated value, BinaryCopyBuffer arg) {
+    arg.writeStringField(value.toString());
+    return null;
+  }
+}
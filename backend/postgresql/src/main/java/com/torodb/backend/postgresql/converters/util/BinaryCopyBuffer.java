@@ -0,0 +1,194 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql.converters.util;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A byte buffer that writes the PostgreSQL binary COPY format.
+ *
+ * <p>All numbers are written in network byte order. The buffer never grows: its content is sent
+ * to the sink each time it is full and when {@link #flush()} is called, so the memory used does
+ * not depend on the size of the rows.
+ */
+@NotThreadSafe
+public class BinaryCopyBuffer {
+
+  /**
+   * The smallest buffer, big enough to keep the header or any fixed size value.
+   */
+  public static final int MIN_BOUNDED_CAPACITY = 64;
+
+  private static final byte[] SIGNATURE = new byte[] {
+      'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+
+  private final byte[] buffer;
+  private int count;
+  private final CopySink sink;
+
+  public BinaryCopyBuffer(byte[] buffer, CopySink sink) {
+    Preconditions.checkArgument(buffer.length >= MIN_BOUNDED_CAPACITY,
+        "The buffer must have at least %s bytes", MIN_BOUNDED_CAPACITY);
+    this.buffer = buffer;
+    this.sink = sink;
+  }
+
+  /**
+   * Discards the pending content of the buffer and writes the binary COPY header.
+   */
+  public void startCopy() {
+    count = 0;
+    writeBytes(SIGNATURE);
+    writeInt(0); //flags
+    writeInt(0); //header extension length
+  }
+
+  public void endCopy() {
+    writeShort((short) -1);
+  }
+
+  public void startTuple(int fieldCount) {
+    writeShort((short) fieldCount);
+  }
+
+  public void writeNullField() {
+    writeInt(-1);
+  }
+
+  public void writeBooleanField(boolean value) {
+    writeInt(1);
+    ensureCapacity(1);
+    buffer[count++] = (byte) (value ? 1 : 0);
+  }
+
+  public void writeIntField(int value) {
+    writeInt(4);
+    writeInt(value);
+  }
+
+  public void writeLongField(long value) {
+    writeInt(8);
+    writeLong(value);
+  }
+
+  public void writeDoubleField(double value) {
+    writeLongField(Double.doubleToLongBits(value));
+  }
+
+  public void writeBytesField(byte[] value) {
+    writeInt(value.length);
+    writeBytes(value);
+  }
+
+  public void writeStringField(String value) {
+    writeBytesField(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Sends the pending content to the sink.
+   *
+   * @throws CopySinkException if the sink fails
+   */
+  public void flush() {
+    if (count > 0) {
+      try {
+        sink.write(buffer, 0, count);
+      } catch (SQLException ex) {
+        throw new CopySinkException(ex);
+      }
+      count = 0;
+    }
+  }
+
+  private void writeShort(short value) {
+    ensureCapacity(2);
+    buffer[count++] = (byte) (value >>> 8);
+    buffer[count++] = (byte) value;
+  }
+
+  private void writeInt(int value) {
+    ensureCapacity(4);
+    buffer[count++] = (byte) (value >>> 24);
+    buffer[count++] = (byte) (value >>> 16);
+    buffer[count++] = (byte) (value >>> 8);
+    buffer[count++] = (byte) value;
+  }
+
+  private void writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  private void writeBytes(byte[] value) {
+    int offset = 0;
+    while (offset < value.length) {
+      if (count == buffer.length) {
+        flush();
+      }
+      int length = Math.min(value.length - offset, buffer.length - count);
+      System.arraycopy(value, offset, buffer, count, length);
+      count += length;
+      offset += length;
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (count + extra > buffer.length) {
+      flush();
+    }
+  }
+
+  /**
+   * The destination of the content of the buffer, usually a
+   * {@link org.postgresql.copy.CopyIn}.
+   */
+  @FunctionalInterface
+  public interface CopySink {
+
+    void write(byte[] data, int offset, int length) throws SQLException;
+  }
+
+  /**
+   * Thrown when the sink of a buffer fails.
+   */
+  public static class CopySinkException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CopySinkException(SQLException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+      return (SQLException) super.getCause();
+    }
+  }
+
+}
@@ -30,13 +30,16 @@ import com.torodb.backend.StructureInterface;
 import com.torodb.backend.WriteInterface;
 import com.torodb.backend.guice.BackendModule;
 import com.torodb.backend.meta.SchemaUpdater;
+import com.torodb.backend.postgresql.PostgreSqlAggregatedDocPartReader;
 import com.torodb.backend.postgresql.PostgreSqlDataTypeProvider;
 import com.torodb.backend.postgresql.PostgreSqlDbBackend;
+import com.torodb.backend.postgresql.PostgreSqlDocPartReadStrategySelector;
 import com.torodb.backend.postgresql.PostgreSqlErrorHandler;
 import com.torodb.backend.postgresql.PostgreSqlIdentifierConstraints;
 import com.torodb.backend.postgresql.PostgreSqlMetaDataReadInterface;
 import com.torodb.backend.postgresql.PostgreSqlMetaDataWriteInterface;
 import com.torodb.backend.postgresql.PostgreSqlMetrics;
+import com.torodb.backend.postgresql.PostgreSqlParallelDocPartFetcher;
 import com.torodb.backend.postgresql.PostgreSqlReadInterface;
 import com.torodb.backend.postgresql.PostgreSqlStructureInterface;
 import com.torodb.backend.postgresql.PostgreSqlWriteInterface;
@@ -116,6 +119,15 @@ public class PostgreSqlBackendModule extends PrivateModule {
         .to(PostgreSqlStructureInterface.class);
     expose(StructureInterface.class);
 
+    bind(PostgreSqlParallelDocPartFetcher.class)
+        .in(Singleton.class);
+    expose(PostgreSqlParallelDocPartFetcher.class);
+    bind(PostgreSqlAggregatedDocPartReader.class)
+        .in(Singleton.class);
+    bind(PostgreSqlDocPartReadStrategySelector.class)
+        .in(Singleton.class);
+    expose(PostgreSqlDocPartReadStrategySelector.class);
+
     bind(PostgreSqlReadInterface.class)
         .in(Singleton.class);
     bind(ReadInterface.class)
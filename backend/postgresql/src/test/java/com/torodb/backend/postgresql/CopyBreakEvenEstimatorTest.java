@@ -0,0 +1,97 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CopyBreakEvenEstimatorTest {
+
+  private CopyBreakEvenEstimator estimator;
+
+  @Before
+  public void setUp() {
+    estimator = new CopyBreakEvenEstimator(new PostgreSqlMetrics(new DisabledMetricRegistry()));
+  }
+
+  @Test
+  public void testDefaultBreakEvenIsUsedUntilBothModelsAreFitted() {
+    for (int rows = 1; rows <= 20; rows++) {
+      estimator.recordDefault(rows, 1000 + 100 * rows);
+    }
+    assertEquals(CopyBreakEvenEstimator.DEFAULT_BREAK_EVEN, estimator.getBreakEven());
+    assertTrue(estimator.useCopy(CopyBreakEvenEstimator.DEFAULT_BREAK_EVEN));
+    assertFalse(estimator.useCopy(CopyBreakEvenEstimator.DEFAULT_BREAK_EVEN - 1));
+  }
+
+  @Test
+  public void testBreakEvenIsWhereBothCostsCross() {
+    recordCosts(1000, 100, 5000, 20);
+
+    //1000 + 100 * rows = 5000 + 20 * rows
+    assertEquals(50, estimator.getBreakEven());
+    assertTrue(estimator.useCopy(50));
+    assertFalse(estimator.useCopy(49));
+  }
+
+  @Test
+  public void testBreakEvenIsBounded() {
+    recordCosts(1000, 20, 5000, 100);
+    assertEquals(CopyBreakEvenEstimator.MAX_BREAK_EVEN, estimator.getBreakEven());
+
+    recordCosts(5000, 100, 1000, 20);
+    assertEquals(CopyBreakEvenEstimator.MIN_BREAK_EVEN, estimator.getBreakEven());
+  }
+
+  @Test
+  public void testSizesCloseToTheBreakEvenAreExplored() {
+    int breakEven = CopyBreakEvenEstimator.DEFAULT_BREAK_EVEN;
+    for (int i = 1; i < CopyBreakEvenEstimator.EXPLORATION_PERIOD; i++) {
+      assertTrue(estimator.useCopy(breakEven));
+    }
+    assertFalse(estimator.useCopy(breakEven));
+  }
+
+  @Test
+  public void testSizesFarFromTheBreakEvenAreNotExplored() {
+    int rows = CopyBreakEvenEstimator.DEFAULT_BREAK_EVEN * 4 + 1;
+    for (int i = 0; i < CopyBreakEvenEstimator.EXPLORATION_PERIOD * 2; i++) {
+      assertTrue(estimator.useCopy(rows));
+    }
+  }
+
+  /**
+   * Records enough observations with different sizes to fit the models of both strategies with
+   * the given linear costs.
+   */
+  private void recordCosts(long defaultFixed, long defaultPerRow, long copyFixed,
+      long copyPerRow) {
+    for (int i = 0; i < 200; i++) {
+      int rows = 1 + i % 100;
+      estimator.recordDefault(rows, defaultFixed + defaultPerRow * rows);
+      estimator.recordCopy(rows, copyFixed + copyPerRow * rows);
+    }
+  }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.postgresql;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteSource;
+import com.torodb.backend.udt.Decimal128UDT;
+import com.torodb.backend.udt.MongoTimestampUDT;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.kvdocument.values.KvBinary;
+import com.torodb.kvdocument.values.KvBinary.KvBinarySubtype;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDate;
+import com.torodb.kvdocument.values.KvDecimal128;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInstant;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvMongoJavascript;
+import com.torodb.kvdocument.values.KvMongoObjectId;
+import com.torodb.kvdocument.values.KvMongoTimestamp;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvTime;
+import com.torodb.kvdocument.values.KvUndefined;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.ByteSourceKvBinary;
+import com.torodb.kvdocument.values.heap.DefaultKvMongoTimestamp;
+import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.LocalDateKvDate;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+/**
+ * Encodes each scalar type as the aggregated statement returns it and checks that it is decoded
+ * back to the same value.
+ */
+@RunWith(Parameterized.class)
+public class PostgreSqlAggregatedDocPartReaderTest {
+
+  private static final PostgreSqlAggregatedDocPartReader reader =
+      new PostgreSqlAggregatedDocPartReader(mock(PostgreSqlMetaDataReadInterface.class),
+          new PostgreSqlDataTypeProvider(), mock(PostgreSqlErrorHandler.class));
+
+  @Parameterized.Parameter(0)
+  public String label;
+
+  @Parameterized.Parameter(1)
+  public FieldType fieldType;
+
+  @Parameterized.Parameter(2)
+  public KvValue<?> value;
+
+  @Parameterized.Parameters(name = "{index} - {0}")
+  public static Collection<Object[]> data() throws Exception {
+    return Arrays.asList(new Object[][] {
+        {"TrueBoolean", FieldType.BOOLEAN, KvBoolean.TRUE},
+        {"FalseBoolean", FieldType.BOOLEAN, KvBoolean.FALSE},
+        {"Null", FieldType.NULL, KvNull.getInstance()},
+        {"MinKey", FieldType.MIN_KEY, KvMinKey.getInstance()},
+        {"MaxKey", FieldType.MAX_KEY, KvMaxKey.getInstance()},
+        {"Undefined", FieldType.UNDEFINED, KvUndefined.getInstance()},
+        {"Integer", FieldType.INTEGER, KvInteger.of(-3421)},
+        {"Long", FieldType.LONG, KvLong.of(Long.MAX_VALUE)},
+        {"Double", FieldType.DOUBLE, KvDouble.of(0.1)},
+        {"NegativeDouble", FieldType.DOUBLE, KvDouble.of(-1.0E-300)},
+        {"String", FieldType.STRING, new StringKvString("a \"quoted\"\n string")},
+        {"Javascript", FieldType.JAVASCRIPT, KvMongoJavascript.of("function() {}")},
+        {
+            "Binary",
+            FieldType.BINARY,
+            new ByteSourceKvBinary(KvBinarySubtype.MONGO_GENERIC, (byte) 0,
+                ByteSource.wrap(new byte[] {0, 1, (byte) 0xfe, (byte) 0xff}))
+        },
+        {
+            "MongoObjectId",
+            FieldType.MONGO_OBJECT_ID,
+            new ByteArrayKvMongoObjectId(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 0xa, 0xb, 0xc})
+        },
+        {"Date", FieldType.DATE, new LocalDateKvDate(LocalDate.of(2000, Month.JANUARY, 2))},
+        {
+            "DateBeforeEpoch",
+            FieldType.DATE,
+            new LocalDateKvDate(LocalDate.of(1969, Month.DECEMBER, 31))
+        },
+        {
+            "Instant",
+            FieldType.INSTANT,
+            new InstantKvInstant(LocalDateTime.of(2000, Month.JANUARY, 1, 0, 0, 1, 123456000)
+                .toInstant(ZoneOffset.UTC))
+        },
+        {"Time", FieldType.TIME, new LocalTimeKvTime(LocalTime.of(12, 34, 56))},
+        {
+            "TimeWithFractionalSeconds",
+            FieldType.TIME,
+            new LocalTimeKvTime(LocalTime.of(23, 59, 59, 999999000))
+        },
+        {"MongoTimestamp", FieldType.MONGO_TIME_STAMP, new DefaultKvMongoTimestamp(1234, 5)},
+        {"Decimal128", FieldType.DECIMAL128, KvDecimal128.of(new BigDecimal("-12.345"))},
+        {"Decimal128Infinity", FieldType.DECIMAL128, KvDecimal128.getInfinity()},
+        {"Decimal128NaN", FieldType.DECIMAL128, KvDecimal128.getNan()},
+    });
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    assertEquals(value, reader.decode(encode(fieldType, value), fieldType));
+  }
+
+  @Test
+  public void nullIsDecodedAsMissing() {
+    assertEquals(null, reader.decode(JsonValue.NULL, fieldType));
+  }
+
+  /**
+   * Returns the JSON value the aggregated statement returns for a column that stores the given
+   * value.
+   */
+  private static JsonValue encode(FieldType fieldType, KvValue<?> value) throws IOException {
+    JsonArrayBuilder builder = Json.createArrayBuilder();
+    switch (fieldType) {
+      case BOOLEAN:
+        builder.add(((KvBoolean) value).getPrimitiveValue());
+        break;
+      case NULL:
+      case MIN_KEY:
+      case MAX_KEY:
+      case UNDEFINED:
+        builder.add(true);
+        break;
+      case INTEGER:
+        builder.add(((KvInteger) value).getValue());
+        break;
+      case LONG:
+        builder.add(((KvLong) value).getValue());
+        break;
+      case DOUBLE:
+        builder.add(String.format("%016x",
+            Double.doubleToRawLongBits(((KvDouble) value).getValue())));
+        break;
+      case STRING:
+      case JAVASCRIPT:
+        builder.add((String) value.getValue());
+        break;
+      case BINARY:
+        builder.add(BaseEncoding.base16().lowerCase().encode(
+            ((KvBinary) value).getByteSource().getDelegate().read()));
+        break;
+      case MONGO_OBJECT_ID:
+        builder.add(BaseEncoding.base16().lowerCase().encode(
+            ((KvMongoObjectId) value).getArrayValue()));
+        break;
+      case DATE:
+        builder.add(((KvDate) value).getValue().toEpochDay());
+        break;
+      case INSTANT: {
+        Instant instant = ((KvInstant) value).getValue();
+        builder.add(instant.getEpochSecond() * 1000000 + instant.getNano() / 1000);
+        break;
+      }
+      case TIME:
+        builder.add(((KvTime) value).getValue().format(DateTimeFormatter.ISO_LOCAL_TIME));
+        break;
+      case MONGO_TIME_STAMP: {
+        KvMongoTimestamp timestamp = (KvMongoTimestamp) value;
+        builder.add(Json.createObjectBuilder()
+            .add(MongoTimestampUDT.SECS.getName(), timestamp.getSecondsSinceEpoch())
+            .add(MongoTimestampUDT.COUNTER.getName(), timestamp.getOrdinal()));
+        break;
+      }
+      case DECIMAL128: {
+        KvDecimal128 decimal = (KvDecimal128) value;
+        JsonObjectBuilder object = Json.createObjectBuilder();
+        if (decimal.isInfinite() || decimal.isNaN()) {
+          object.addNull(Decimal128UDT.VALUE.getName());
+        } else {
+          object.add(Decimal128UDT.VALUE.getName(), decimal.getBigDecimal());
+        }
+        builder.add(object
+            .add(Decimal128UDT.IS_INFINITY.getName(), decimal.isInfinite() && !decimal.isNaN())
+            .add(Decimal128UDT.IS_NaN.getName(), decimal.isNaN())
+            .add(Decimal128UDT.IS_NEGATIVE_ZERO.getName(), decimal.isNegativeZero()));
+        break;
+      }
+      default:
+        throw new AssertionError("Unexpected field type " + fieldType);
+    }
+    try (JsonReader jsonReader = Json.createReader(new StringReader(
+        builder.build().toString()))) {
+      return jsonReader.readArray().get(0);
+    }
+  }
+}
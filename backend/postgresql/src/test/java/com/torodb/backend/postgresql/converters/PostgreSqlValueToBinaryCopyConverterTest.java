@@ -0,0 +1,111 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.backend.postgresql.converters;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.io.BaseEncoding;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvMaxKey;
+import com.torodb.kvdocument.values.KvMinKey;
+import com.torodb.kvdocument.values.KvNull;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.LocalDateKvDate;
+import com.torodb.kvdocument.values.heap.LocalTimeKvTime;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+
+@RunWith(Parameterized.class)
+public class PostgreSqlValueToBinaryCopyConverterTest {
+
+  private static final PostgreSqlValueToBinaryCopyConverter visitor =
+      PostgreSqlValueToBinaryCopyConverter.INSTANCE;
+
+  @Parameterized.Parameter(0)
+  public String label;
+
+  @Parameterized.Parameter(1)
+  public KvValue<?> value;
+
+  @Parameterized.Parameter(2)
+  public String expectedHex;
+
+  @Parameterized.Parameters(name = "{index} - {0}")
+  public static Collection<Object[]> data() throws Exception {
+    return Arrays.asList(new Object[][] {
+        {"TrueBoolean", KvBoolean.TRUE, "0000000101"},
+        {"FalseBoolean", KvBoolean.FALSE, "0000000100"},
+        {"Null", KvNull.getInstance(), "0000000101"},
+        {"MinKey", KvMinKey.getInstance(), "0000000100"},
+        {"MaxKey", KvMaxKey.getInstance(), "0000000101"},
+        {"PositiveInteger", KvInteger.of(123), "000000040000007B"},
+        {"NegativeInteger", KvInteger.of(-3421), "00000004FFFFF2A3"},
+        {"PositiveLong", KvLong.of(123456789L), "0000000800000000075BCD15"},
+        {"PositiveDouble", KvDouble.of(4.5), "000000084012000000000000"},
+        {"NormalString", new StringKvString("simple"), "0000000673696D706C65"},
+        {"StringWithZero", new StringKvString("a\u0000"), "00000003610130"},
+        {
+            "MongoObjectId",
+            new ByteArrayKvMongoObjectId(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 0xa, 0xb, 0xc}),
+            "0000000C0102030405060708090A0B0C"
+        },
+        {"Date", new LocalDateKvDate(LocalDate.of(2000, Month.JANUARY, 2)), "0000000400000001"},
+        {
+            "DateBeforeEpoch",
+            new LocalDateKvDate(LocalDate.of(1999, Month.DECEMBER, 31)),
+            "00000004FFFFFFFF"
+        },
+        {
+            "DateTime",
+            new InstantKvInstant(LocalDateTime.of(2000, Month.JANUARY, 1, 0, 0, 1)
+                .toInstant(ZoneOffset.UTC)),
+            "0000000800000000000F4240"
+        },
+        {"Time", new LocalTimeKvTime(LocalTime.of(0, 0, 1)), "0000000800000000000F4240"},
+    });
+  }
+
+  @Test
+  public void test() {
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    BinaryCopyBuffer buffer = new BinaryCopyBuffer(
+        new byte[BinaryCopyBuffer.MIN_BOUNDED_CAPACITY], written::write);
+    value.accept(visitor, buffer);
+    buffer.flush();
+    assertEquals(expectedHex, BaseEncoding.base16().encode(written.toByteArray()));
+  }
+}
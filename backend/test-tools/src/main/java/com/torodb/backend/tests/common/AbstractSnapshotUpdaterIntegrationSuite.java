@@ -0,0 +1,542 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.backend.tests.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+
+import com.torodb.backend.BackendConfig;
+import com.torodb.backend.MetaDataReadInterface;
+import com.torodb.backend.MetaDataWriteInterface;
+import com.torodb.backend.SqlHelper;
+import com.torodb.backend.SqlInterface;
+import com.torodb.backend.StructureInterface;
+import com.torodb.backend.exceptions.InvalidDatabaseSchemaException;
+import com.torodb.backend.meta.SchemaUpdater;
+import com.torodb.backend.meta.SchemaValidator;
+import com.torodb.backend.meta.SnapshotUpdaterImpl;
+import com.torodb.backend.tables.MetaCollectionTable;
+import com.torodb.backend.tables.MetaDatabaseTable;
+import com.torodb.backend.tables.MetaDocPartIndexColumnTable;
+import com.torodb.backend.tables.MetaDocPartIndexTable;
+import com.torodb.backend.tables.MetaDocPartTable;
+import com.torodb.backend.tables.MetaFieldTable;
+import com.torodb.backend.tables.MetaIndexFieldTable;
+import com.torodb.backend.tables.MetaIndexTable;
+import com.torodb.backend.tables.MetaScalarTable;
+import com.torodb.backend.tables.records.MetaCollectionRecord;
+import com.torodb.backend.tables.records.MetaDatabaseRecord;
+import com.torodb.backend.tables.records.MetaDocPartIndexColumnRecord;
+import com.torodb.backend.tables.records.MetaDocPartIndexRecord;
+import com.torodb.backend.tables.records.MetaDocPartRecord;
+import com.torodb.backend.tables.records.MetaFieldRecord;
+import com.torodb.backend.tables.records.MetaIndexFieldRecord;
+import com.torodb.backend.tables.records.MetaIndexRecord;
+import com.torodb.backend.tables.records.MetaScalarRecord;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.exceptions.user.UserException;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldIndexOrdering;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPartIndexColumn;
+import com.torodb.core.transaction.metainf.ImmutableMetaIdentifiedDocPartIndex;
+import com.torodb.core.transaction.metainf.ImmutableMetaIndex;
+import com.torodb.core.transaction.metainf.ImmutableMetaIndexField;
+import com.torodb.core.transaction.metainf.ImmutableMetaSnapshot;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDocPartIndexColumn;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaIdentifiedDocPartIndex;
+import com.torodb.core.transaction.metainf.MetaIndexField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.core.transaction.metainf.MetaSnapshot;
+import com.torodb.core.transaction.metainf.MetainfoRepository;
+import com.torodb.core.transaction.metainf.MetainfoRepository.SnapshotStage;
+import com.torodb.core.transaction.metainf.impl.metainfo.mvcc.MvccMetainfoRepository;
+import org.jooq.DSLContext;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that {@link SnapshotUpdaterImpl} loads the same snapshot that was stored and that the
+ * one obtained by querying the meta tables database by database, collection by collection and
+ * doc part by doc part, as the updater used to do.
+ */
+public abstract class AbstractSnapshotUpdaterIntegrationSuite {
+
+  private SqlInterface sqlInterface;
+
+  private DatabaseTestContext dbTestContext;
+
+  private ExecutorService validatorExecutor;
+
+  private TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+
+  @Before
+  public void setUp() throws Exception {
+    dbTestContext = getDatabaseTestContext();
+    sqlInterface = dbTestContext.getSqlInterface();
+    dbTestContext.setupDatabase();
+    validatorExecutor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    validatorExecutor.shutdownNow();
+    dbTestContext.tearDownDatabase();
+  }
+
+  protected abstract DatabaseTestContext getDatabaseTestContext();
+
+  @Test
+  public void snapshotShouldMatchNestedQueriesSnapshot() throws Exception {
+    /* Given */
+    ImmutableMetaSnapshot storedSnapshot = createMetaSnapshot();
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext ->
+        storeMetaSnapshot(dslContext, storedSnapshot));
+
+    /* When */
+    MetainfoRepository metainfoRepository = new MvccMetainfoRepository();
+    createSnapshotUpdater().updateSnapshot(metainfoRepository);
+
+    /* Then */
+    ImmutableMetaSnapshot loadedSnapshot;
+    try (SnapshotStage stage = metainfoRepository.startSnapshotStage()) {
+      loadedSnapshot = stage.createImmutableSnapshot();
+    }
+    List<String> nestedQueriesSnapshot = new ArrayList<>();
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext ->
+        nestedQueriesSnapshot.addAll(describeWithNestedQueries(dslContext)));
+
+    assertEquals(nestedQueriesSnapshot, describe(loadedSnapshot));
+    assertEquals(describe(storedSnapshot), describe(loadedSnapshot));
+  }
+
+  @Test(expected = InvalidDatabaseSchemaException.class)
+  public void snapshotShouldFailWhenTableHasNoDocPart() throws Exception {
+    /* Given */
+    ImmutableMetaSnapshot storedSnapshot = createMetaSnapshot();
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      storeMetaSnapshot(dslContext, storedSnapshot);
+      sqlInterface.getStructureInterface().createRootDocPartTable(dslContext, "snapshot_db2",
+          "orphan", tableRefFactory.createRoot());
+    });
+
+    /* When */
+    createSnapshotUpdater().updateSnapshot(new MvccMetainfoRepository());
+  }
+
+  @Test
+  public void schemaValidatorShouldFindStoredStructure() throws Exception {
+    /* Given */
+    ImmutableMetaSnapshot storedSnapshot = createMetaSnapshot();
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext ->
+        storeMetaSnapshot(dslContext, storedSnapshot));
+
+    dbTestContext.executeOnDbConnectionWithDslContext(dslContext -> {
+      /* When */
+      SchemaValidator schemaValidator = new SchemaValidator(dslContext, "snapshot_db1", "db1");
+
+      /* Then */
+      String scalarIdentifier = sqlInterface.getIdentifierConstraints()
+          .getScalarIdentifier(FieldType.STRING);
+
+      assertTrue(schemaValidator.existsTable("col1"));
+      assertTrue(schemaValidator.existsTable("col1_items"));
+      assertTrue(schemaValidator.existsTable("col1_items_tags"));
+      assertFalse(schemaValidator.existsTable("col1_unknown"));
+      assertTrue(schemaValidator.existsColumn("col1", "name_s"));
+      assertTrue(schemaValidator.existsColumn("col1_items_tags", scalarIdentifier));
+      assertFalse(schemaValidator.existsColumn("col1", "unknown_s"));
+      assertTrue(schemaValidator.existsColumnWithType("col1", "age_i",
+          sqlInterface.getDataTypeProvider().getDataType(FieldType.INTEGER)));
+      assertFalse(schemaValidator.existsColumnWithType("col1", "age_i",
+          sqlInterface.getDataTypeProvider().getDataType(FieldType.STRING)));
+      assertTrue(schemaValidator.existsIndex("col1_name_age_idx"));
+      assertTrue(schemaValidator.existsIndexColumn("col1_name_age_idx", 1, "age_i"));
+      assertTrue(schemaValidator.existsIndex("col1_items_price_idx"));
+      assertFalse(schemaValidator.existsIndexColumn("col1_items_price_idx", 0, "name_s"));
+    });
+  }
+
+  private SnapshotUpdaterImpl createSnapshotUpdater() {
+    BackendConfig backendConfig = mock(BackendConfig.class);
+    given(backendConfig.getReservedReadPoolSize())
+        .willReturn(2);
+    ConcurrentToolsFactory concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    given(concurrentToolsFactory.createExecutorServiceWithMaxThreads(anyString(), anyInt()))
+        .willReturn(validatorExecutor);
+    SqlHelper sqlHelper = new SqlHelper(sqlInterface.getDataTypeProvider(),
+        sqlInterface.getErrorHandler());
+
+    return new SnapshotUpdaterImpl(sqlInterface, sqlHelper, mock(SchemaUpdater.class),
+        tableRefFactory, backendConfig, concurrentToolsFactory);
+  }
+
+  /**
+   * Two databases that share a collection name, one of them with a collection nested three
+   * levels deep whose doc parts have fields, scalars and doc part indexes, plus collection indexes
+   * on more than one doc part.
+   */
+  private ImmutableMetaSnapshot createMetaSnapshot() {
+    TableRef rootTableRef = tableRefFactory.createRoot();
+    TableRef itemsTableRef = tableRefFactory.createChild(rootTableRef, "items");
+    TableRef tagsTableRef = tableRefFactory.createChild(itemsTableRef, "tags");
+
+    ImmutableMetaCollection nestedCollection = new ImmutableMetaCollection.Builder("col1", "col1")
+        .put(new ImmutableMetaDocPart.Builder(rootTableRef, "col1")
+            .putField("name", "name_s", FieldType.STRING)
+            .putField("age", "age_i", FieldType.INTEGER)
+            .put(new ImmutableMetaIdentifiedDocPartIndex.Builder("col1_name_age_idx", false)
+                .add(new ImmutableMetaDocPartIndexColumn(0, "name_s", FieldIndexOrdering.ASC))
+                .add(new ImmutableMetaDocPartIndexColumn(1, "age_i", FieldIndexOrdering.DESC))))
+        .put(new ImmutableMetaDocPart.Builder(itemsTableRef, "col1_items")
+            .putField("price", "price_i", FieldType.INTEGER)
+            .putScalar(FieldType.STRING, scalarIdentifier(FieldType.STRING))
+            .put(new ImmutableMetaIdentifiedDocPartIndex.Builder("col1_items_price_idx", true)
+                .add(new ImmutableMetaDocPartIndexColumn(0, "price_i", FieldIndexOrdering.ASC))))
+        .put(new ImmutableMetaDocPart.Builder(tagsTableRef, "col1_items_tags")
+            .putScalar(FieldType.STRING, scalarIdentifier(FieldType.STRING))
+            .putScalar(FieldType.INTEGER, scalarIdentifier(FieldType.INTEGER)))
+        .put(new ImmutableMetaIndex.Builder("name_age", false)
+            .add(new ImmutableMetaIndexField(0, rootTableRef, "name", FieldIndexOrdering.ASC))
+            .add(new ImmutableMetaIndexField(1, rootTableRef, "age", FieldIndexOrdering.DESC)))
+        .put(new ImmutableMetaIndex.Builder("items_price", true)
+            .add(new ImmutableMetaIndexField(0, itemsTableRef, "price", FieldIndexOrdering.ASC)))
+        .build();
+    ImmutableMetaCollection flatCollection = new ImmutableMetaCollection.Builder("col2", "col2")
+        .put(new ImmutableMetaDocPart.Builder(rootTableRef, "col2")
+            .putField("name", "name_s", FieldType.STRING))
+        .build();
+    ImmutableMetaCollection otherDatabaseCollection =
+        new ImmutableMetaCollection.Builder("col1", "col1")
+            .put(new ImmutableMetaDocPart.Builder(rootTableRef, "col1")
+                .putField("name", "name_s", FieldType.STRING))
+            .put(new ImmutableMetaIndex.Builder("name", false)
+                .add(new ImmutableMetaIndexField(0, rootTableRef, "name", FieldIndexOrdering.ASC)))
+            .build();
+
+    return new ImmutableMetaSnapshot.Builder()
+        .put(new ImmutableMetaDatabase.Builder("db1", "snapshot_db1")
+            .put(nestedCollection)
+            .put(flatCollection))
+        .put(new ImmutableMetaDatabase.Builder("db2", "snapshot_db2")
+            .put(otherDatabaseCollection))
+        .build();
+  }
+
+  private String scalarIdentifier(FieldType fieldType) {
+    return sqlInterface.getIdentifierConstraints().getScalarIdentifier(fieldType);
+  }
+
+  private void storeMetaSnapshot(DSLContext dslContext, MetaSnapshot snapshot) {
+    StructureInterface structureInterface = sqlInterface.getStructureInterface();
+    MetaDataWriteInterface metaDataWriteInterface = sqlInterface.getMetaDataWriteInterface();
+
+    snapshot.streamMetaDatabases().forEach(database -> {
+      structureInterface.createSchema(dslContext, database.getIdentifier());
+      metaDataWriteInterface.addMetaDatabase(dslContext, database);
+
+      database.streamMetaCollections().forEach(collection -> {
+        metaDataWriteInterface.addMetaCollection(dslContext, database, collection);
+
+        collection.streamContainedMetaDocParts()
+            .sorted(Comparator.comparingInt(
+                (MetaDocPart docPart) -> docPart.getTableRef().getDepth()))
+            .forEachOrdered(docPart -> storeMetaDocPart(dslContext, database, collection,
+                docPart));
+
+        collection.streamContainedMetaIndexes().forEach(index -> {
+          metaDataWriteInterface.addMetaIndex(dslContext, database, collection, index);
+          Iterator<? extends MetaIndexField> indexFields = index.iteratorFields();
+          while (indexFields.hasNext()) {
+            metaDataWriteInterface.addMetaIndexField(dslContext, database, collection, index,
+                indexFields.next());
+          }
+        });
+      });
+    });
+  }
+
+  private void storeMetaDocPart(DSLContext dslContext, MetaDatabase database,
+      MetaCollection collection, MetaDocPart docPart) {
+    StructureInterface structureInterface = sqlInterface.getStructureInterface();
+    MetaDataWriteInterface metaDataWriteInterface = sqlInterface.getMetaDataWriteInterface();
+    String schemaName = database.getIdentifier();
+    TableRef tableRef = docPart.getTableRef();
+
+    if (tableRef.isRoot()) {
+      structureInterface.createRootDocPartTable(dslContext, schemaName, docPart.getIdentifier(),
+          tableRef);
+    } else {
+      structureInterface.createDocPartTable(dslContext, schemaName, docPart.getIdentifier(),
+          tableRef, collection.getMetaDocPartByTableRef(tableRef.getParent().get())
+              .getIdentifier());
+    }
+    metaDataWriteInterface.addMetaDocPart(dslContext, database, collection, docPart);
+
+    docPart.streamFields().forEach(field -> {
+      structureInterface.addColumnToDocPartTable(dslContext, schemaName, docPart.getIdentifier(),
+          field.getIdentifier(), sqlInterface.getDataTypeProvider().getDataType(field.getType()));
+      metaDataWriteInterface.addMetaField(dslContext, database, collection, docPart, field);
+    });
+    docPart.streamScalars().forEach(scalar -> {
+      structureInterface.addColumnToDocPartTable(dslContext, schemaName, docPart.getIdentifier(),
+          scalar.getIdentifier(), sqlInterface.getDataTypeProvider().getDataType(scalar.getType()));
+      metaDataWriteInterface.addMetaScalar(dslContext, database, collection, docPart, scalar);
+    });
+    docPart.streamIndexes().forEach(docPartIndex -> {
+      List<MetaDocPartIndexColumn> columns = docPartIndex.streamColumns()
+          .sorted(Comparator.comparing(MetaDocPartIndexColumn::getPosition))
+          .collect(Collectors.toList());
+      try {
+        structureInterface.createIndex(dslContext, docPartIndex.getIdentifier(), schemaName,
+            docPart.getIdentifier(), columns.stream()
+                .map(column -> new Tuple2<>(column.getIdentifier(),
+                    column.getOrdering().isAscending()))
+                .collect(Collectors.toList()),
+            docPartIndex.isUnique());
+      } catch (UserException ex) {
+        throw new RuntimeException("Wrong test invocation", ex);
+      }
+      metaDataWriteInterface.addMetaDocPartIndex(dslContext, database, collection, docPart,
+          docPartIndex);
+      for (MetaDocPartIndexColumn column : columns) {
+        metaDataWriteInterface.addMetaDocPartIndexColumn(dslContext, database, collection,
+            docPart, docPartIndex, column);
+      }
+    });
+  }
+
+  /**
+   * Reads the meta tables with one query per database, collection, doc part and index, the way
+   * {@link SnapshotUpdaterImpl} loaded them before reading each meta table only once.
+   */
+  private List<String> describeWithNestedQueries(DSLContext dsl) {
+    MetaDataReadInterface metaDataReadInterface = sqlInterface.getMetaDataReadInterface();
+    MetaDatabaseTable<MetaDatabaseRecord> databaseTable =
+        metaDataReadInterface.getMetaDatabaseTable();
+    MetaCollectionTable<MetaCollectionRecord> collectionTable =
+        metaDataReadInterface.getMetaCollectionTable();
+    MetaDocPartTable<Object, MetaDocPartRecord<Object>> docPartTable =
+        metaDataReadInterface.getMetaDocPartTable();
+    MetaFieldTable<Object, MetaFieldRecord<Object>> fieldTable =
+        metaDataReadInterface.getMetaFieldTable();
+    MetaScalarTable<Object, MetaScalarRecord<Object>> scalarTable =
+        metaDataReadInterface.getMetaScalarTable();
+    MetaDocPartIndexTable<Object, MetaDocPartIndexRecord<Object>> docPartIndexTable =
+        metaDataReadInterface.getMetaDocPartIndexTable();
+    MetaDocPartIndexColumnTable<Object, MetaDocPartIndexColumnRecord<Object>> columnTable =
+        metaDataReadInterface.getMetaDocPartIndexColumnTable();
+    MetaIndexTable<MetaIndexRecord> indexTable = metaDataReadInterface.getMetaIndexTable();
+    MetaIndexFieldTable<Object, MetaIndexFieldRecord<Object>> indexFieldTable =
+        metaDataReadInterface.getMetaIndexFieldTable();
+
+    List<String> description = new ArrayList<>();
+    for (MetaDatabaseRecord database : dsl.selectFrom(databaseTable).fetch()) {
+      String db = database.getName();
+      description.add(describeDatabase(db, database.getIdentifier()));
+
+      for (MetaCollectionRecord collection : dsl.selectFrom(collectionTable)
+          .where(collectionTable.DATABASE.eq(db))
+          .fetch()) {
+        String col = collection.getName();
+        description.add(describeCollection(db, col, collection.getIdentifier()));
+
+        for (MetaDocPartRecord<Object> docPart : dsl.selectFrom(docPartTable)
+            .where(docPartTable.DATABASE.eq(db)
+                .and(docPartTable.COLLECTION.eq(col)))
+            .fetch()) {
+          TableRef tableRef = docPart.getTableRefValue(tableRefFactory);
+          description.add(describeDocPart(db, col, tableRef, docPart.getIdentifier()));
+
+          for (MetaFieldRecord<Object> field : dsl.selectFrom(fieldTable)
+              .where(fieldTable.DATABASE.eq(db)
+                  .and(fieldTable.COLLECTION.eq(col))
+                  .and(fieldTable.TABLE_REF.eq(docPart.getTableRef())))
+              .fetch()) {
+            description.add(describeField(db, col, tableRef, field.getName(), field.getType(),
+                field.getIdentifier()));
+          }
+
+          for (MetaScalarRecord<Object> scalar : dsl.selectFrom(scalarTable)
+              .where(scalarTable.DATABASE.eq(db)
+                  .and(scalarTable.COLLECTION.eq(col))
+                  .and(scalarTable.TABLE_REF.eq(docPart.getTableRef())))
+              .fetch()) {
+            description.add(describeScalar(db, col, tableRef, scalar.getType(),
+                scalar.getIdentifier()));
+          }
+
+          for (MetaDocPartIndexRecord<Object> docPartIndex : dsl.selectFrom(docPartIndexTable)
+              .where(docPartIndexTable.DATABASE.eq(db)
+                  .and(docPartIndexTable.COLLECTION.eq(col))
+                  .and(docPartIndexTable.TABLE_REF.eq(docPart.getTableRef())))
+              .fetch()) {
+            List<String> columns = dsl.selectFrom(columnTable)
+                .where(columnTable.DATABASE.eq(db)
+                    .and(columnTable.INDEX_IDENTIFIER.eq(docPartIndex.getIdentifier())))
+                .orderBy(columnTable.POSITION)
+                .fetch()
+                .map(column -> describeDocPartIndexColumn(column.getPosition(),
+                    column.getIdentifier(), column.getOrdering()));
+            description.add(describeDocPartIndex(db, col, tableRef, docPartIndex.getIdentifier(),
+                docPartIndex.getUnique(), columns));
+          }
+        }
+
+        for (MetaIndexRecord index : dsl.selectFrom(indexTable)
+            .where(indexTable.DATABASE.eq(db)
+                .and(indexTable.COLLECTION.eq(col)))
+            .fetch()) {
+          List<String> fields = dsl.selectFrom(indexFieldTable)
+              .where(indexFieldTable.DATABASE.eq(db)
+                  .and(indexFieldTable.COLLECTION.eq(col))
+                  .and(indexFieldTable.INDEX.eq(index.getName())))
+              .orderBy(indexFieldTable.POSITION)
+              .fetch()
+              .map(field -> describeIndexField(field.getPosition(),
+                  field.getTableRefValue(tableRefFactory), field.getName(),
+                  field.getOrdering()));
+          description.add(describeIndex(db, col, index.getName(), index.getUnique(), fields));
+        }
+      }
+    }
+    Collections.sort(description);
+    return description;
+  }
+
+  private List<String> describe(MetaSnapshot snapshot) {
+    List<String> description = new ArrayList<>();
+    snapshot.streamMetaDatabases().forEach(database -> {
+      String db = database.getName();
+      description.add(describeDatabase(db, database.getIdentifier()));
+
+      database.streamMetaCollections().forEach(collection -> {
+        String col = collection.getName();
+        description.add(describeCollection(db, col, collection.getIdentifier()));
+
+        collection.streamContainedMetaDocParts().forEach(docPart -> {
+          TableRef tableRef = docPart.getTableRef();
+          description.add(describeDocPart(db, col, tableRef, docPart.getIdentifier()));
+          for (MetaField field : docPart.streamFields().collect(Collectors.toList())) {
+            description.add(describeField(db, col, tableRef, field.getName(), field.getType(),
+                field.getIdentifier()));
+          }
+          for (MetaScalar scalar : docPart.streamScalars().collect(Collectors.toList())) {
+            description.add(describeScalar(db, col, tableRef, scalar.getType(),
+                scalar.getIdentifier()));
+          }
+          for (MetaIdentifiedDocPartIndex docPartIndex : docPart.streamIndexes()
+              .collect(Collectors.toList())) {
+            List<String> columns = docPartIndex.streamColumns()
+                .sorted(Comparator.comparing(MetaDocPartIndexColumn::getPosition))
+                .map(column -> describeDocPartIndexColumn(column.getPosition(),
+                    column.getIdentifier(), column.getOrdering()))
+                .collect(Collectors.toList());
+            description.add(describeDocPartIndex(db, col, tableRef, docPartIndex.getIdentifier(),
+                docPartIndex.isUnique(), columns));
+          }
+        });
+
+        collection.streamContainedMetaIndexes().forEach(index -> {
+          List<MetaIndexField> indexFields = new ArrayList<>();
+          index.iteratorFields().forEachRemaining(indexFields::add);
+          List<String> fields = indexFields.stream()
+              .sorted(Comparator.comparing(MetaIndexField::getPosition))
+              .map(field -> describeIndexField(field.getPosition(), field.getTableRef(),
+                  field.getFieldName(), field.getOrdering()))
+              .collect(Collectors.toList());
+          description.add(describeIndex(db, col, index.getName(), index.isUnique(), fields));
+        });
+      });
+    });
+    Collections.sort(description);
+    return description;
+  }
+
+  private String describeDatabase(String db, String identifier) {
+    return "database " + db + " -> " + identifier;
+  }
+
+  private String describeCollection(String db, String col, String identifier) {
+    return "collection " + db + "." + col + " -> " + identifier;
+  }
+
+  private String describeDocPart(String db, String col, TableRef tableRef, String identifier) {
+    return "doc part " + db + "." + col + ".[" + tableRef + "] -> " + identifier;
+  }
+
+  private String describeField(String db, String col, TableRef tableRef, String name,
+      FieldType type, String identifier) {
+    return "field " + db + "." + col + ".[" + tableRef + "]." + name + " (type:" + type
+        + ") -> " + identifier;
+  }
+
+  private String describeScalar(String db, String col, TableRef tableRef, FieldType type,
+      String identifier) {
+    return "scalar " + db + "." + col + ".[" + tableRef + "][] (type:" + type + ") -> "
+        + identifier;
+  }
+
+  private String describeDocPartIndex(String db, String col, TableRef tableRef,
+      String identifier, boolean unique, List<String> columns) {
+    return "doc part index " + db + "." + col + ".[" + tableRef + "] -> " + identifier
+        + " (unique:" + unique + ") " + columns;
+  }
+
+  private String describeDocPartIndexColumn(int position, String identifier,
+      FieldIndexOrdering ordering) {
+    return position + ":" + identifier + " " + ordering;
+  }
+
+  private String describeIndex(String db, String col, String name, boolean unique,
+      List<String> fields) {
+    return "index " + db + "." + col + "." + name + " (unique:" + unique + ") " + fields;
+  }
+
+  private String describeIndexField(int position, TableRef tableRef, String name,
+      FieldIndexOrdering ordering) {
+    return position + ":[" + tableRef + "]." + name + " " + ordering;
+  }
+
+}
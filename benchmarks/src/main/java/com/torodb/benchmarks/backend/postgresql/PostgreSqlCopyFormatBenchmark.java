@@ -0,0 +1,151 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks.backend.postgresql;
+
+import com.torodb.backend.postgresql.converters.PostgreSqlValueToBinaryCopyConverter;
+import com.torodb.backend.postgresql.converters.PostgreSqlValueToCopyConverter;
+import com.torodb.backend.postgresql.converters.util.BinaryCopyBuffer;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDouble;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvLong;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ByteArrayKvMongoObjectId;
+import com.torodb.kvdocument.values.heap.InstantKvInstant;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how many rows per second can be encoded using the text and the binary COPY formats.
+ *
+ * <p>Only the client side encoding is measured, which is the cost the binary format removes. Both
+ * formats use a buffer of {@link #BUFFER_SIZE} characters or bytes, like
+ * {@link com.torodb.backend.postgresql.PostgreSqlWriteInterface}, and hand their content to a
+ * sink that only counts it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PostgreSqlCopyFormatBenchmark {
+
+  private static final int ROWS = 100_000;
+  private static final int BUFFER_SIZE = 65536;
+
+  private List<List<KvValue<?>>> rows;
+  private StringBuilder textBuffer;
+  private byte[] binaryArray;
+  private long sinkBytes;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(0);
+    rows = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      byte[] objectId = new byte[12];
+      random.nextBytes(objectId);
+      List<KvValue<?>> row = new ArrayList<>();
+      row.add(new ByteArrayKvMongoObjectId(objectId));
+      row.add(KvInteger.of(random.nextInt()));
+      row.add(KvLong.of(random.nextLong()));
+      row.add(KvDouble.of(random.nextDouble()));
+      row.add(KvBoolean.from(random.nextBoolean()));
+      row.add(new StringKvString("name\t" + random.nextInt(1000) + "\\ with some text"));
+      row.add(new InstantKvInstant(Instant.ofEpochMilli(random.nextInt())));
+      row.add(null);
+      rows.add(row);
+    }
+    textBuffer = new StringBuilder(BUFFER_SIZE);
+    binaryArray = new byte[BUFFER_SIZE];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long textCopy() {
+    StringBuilder sb = textBuffer;
+    sb.setLength(0);
+    sinkBytes = 0;
+    for (List<KvValue<?>> row : rows) {
+      for (KvValue<?> value : row) {
+        if (value == null) {
+          sb.append("\\N");
+        } else {
+          value.accept(PostgreSqlValueToCopyConverter.INSTANCE, sb);
+        }
+        sb.append('\t');
+      }
+      sb.setCharAt(sb.length() - 1, '\n');
+      if (sb.length() >= BUFFER_SIZE) {
+        flushText(sb);
+      }
+    }
+    flushText(sb);
+    return sinkBytes;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public long binaryCopy() {
+    sinkBytes = 0;
+    BinaryCopyBuffer buffer = new BinaryCopyBuffer(binaryArray, this::countBytes);
+    buffer.startCopy();
+    for (List<KvValue<?>> row : rows) {
+      buffer.startTuple(row.size());
+      for (KvValue<?> value : row) {
+        if (value == null) {
+          buffer.writeNullField();
+        } else {
+          value.accept(PostgreSqlValueToBinaryCopyConverter.INSTANCE, buffer);
+        }
+      }
+    }
+    buffer.endCopy();
+    buffer.flush();
+    return sinkBytes;
+  }
+
+  private void flushText(StringBuilder sb) {
+    //the driver encodes the text payload before sending it
+    sinkBytes += sb.toString().getBytes(StandardCharsets.UTF_8).length;
+    sb.setLength(0);
+  }
+
+  private void countBytes(byte[] data, int offset, int length) {
+    sinkBytes += length;
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.benchmarks.d2r;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.d2r.impl.MetaDocPartBuilder;
+import com.torodb.core.d2r.impl.PrimitiveR2DTranslator;
+import com.torodb.core.d2r.impl.R2DTranslatorImpl;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how many deeply nested documents per second {@link R2DTranslatorImpl} and
+ * {@link PrimitiveR2DTranslator} translate.
+ *
+ * <p>Each document is <code>{name: ..., l1: [{x: ..., l2: [{x: ..., l3: [...]}, ...]}, ...]}
+ * </code>, with {@link #FAN_OUT} elements on each array.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class R2DTranslatorBenchmark {
+
+  private static final int DOCUMENTS = 1000;
+  private static final int FAN_OUT = 4;
+  private static final boolean IS_ARRAY = true;
+
+  @Param({"default", "primitive"})
+  private String translatorName;
+
+  private R2DTranslator translator;
+  private MetaDocPartBuilder rootBuilder;
+  private MetaDocPartBuilder level1Builder;
+  private MetaDocPartBuilder level2Builder;
+  private MetaDocPartBuilder level3Builder;
+  private List<DocPartResult> results;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    switch (translatorName) {
+      case "default":
+        translator = new R2DTranslatorImpl();
+        break;
+      case "primitive":
+        translator = new PrimitiveR2DTranslator();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown translator " + translatorName);
+    }
+
+    TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+    TableRef rootRef = tableRefFactory.createRoot();
+    TableRef level1Ref = tableRefFactory.createChild(rootRef, "l1");
+    TableRef level2Ref = tableRefFactory.createChild(level1Ref, "l2");
+    TableRef level3Ref = tableRefFactory.createChild(level2Ref, "l3");
+
+    rootBuilder = new MetaDocPartBuilder(rootRef);
+    rootBuilder.addMetaField("name", "name_s", FieldType.STRING);
+    rootBuilder.addMetaField("l1", "l1_e", FieldType.CHILD);
+    level1Builder = new MetaDocPartBuilder(level1Ref);
+    level1Builder.addMetaField("x", "x_i", FieldType.INTEGER);
+    level1Builder.addMetaField("l2", "l2_e", FieldType.CHILD);
+    level2Builder = new MetaDocPartBuilder(level2Ref);
+    level2Builder.addMetaField("x", "x_i", FieldType.INTEGER);
+    level2Builder.addMetaField("l3", "l3_e", FieldType.CHILD);
+    level3Builder = new MetaDocPartBuilder(level3Ref);
+    level3Builder.addMetaScalar("v_i", FieldType.INTEGER);
+
+    int rid = DOCUMENTS;
+    for (int did = 0; did < DOCUMENTS; did++) {
+      rootBuilder.addRow(did, null, did, null, "doc" + did, IS_ARRAY);
+      for (int i = 0; i < FAN_OUT; i++) {
+        int rid1 = ++rid;
+        level1Builder.addRow(did, did, rid1, i, i, IS_ARRAY);
+        for (int j = 0; j < FAN_OUT; j++) {
+          int rid2 = ++rid;
+          level2Builder.addRow(did, rid1, rid2, j, j, IS_ARRAY);
+          for (int k = 0; k < FAN_OUT; k++) {
+            level3Builder.addRow(did, rid2, ++rid, k, k);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The results are consumed by the translation, so each invocation needs new ones.
+   */
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    results = Lists.newArrayList(level3Builder.getResultSet(), level2Builder.getResultSet(),
+        level1Builder.getResultSet(), rootBuilder.getResultSet());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DOCUMENTS)
+  public List<ToroDocument> translate() {
+    List<ToroDocument> documents = translator.translate(results.iterator());
+    if (documents.size() != DOCUMENTS) {
+      throw new AssertionError("Expected " + DOCUMENTS + " documents but " + documents.size()
+          + " were translated");
+    }
+    return documents;
+  }
+}
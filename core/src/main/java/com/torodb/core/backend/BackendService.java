@@ -38,6 +38,15 @@ public interface BackendService extends Service {
   public CompletableFuture<Empty> disableDataImportMode(MetaDatabase metaDb)
       throws RollbackException;
 
+  /**
+   * Executes the jobs started by a previous call to {@link #disableDataImportMode(MetaDatabase)}
+   * that did not finish, for instance because the process was stopped while indexes were being
+   * created.
+   *
+   * @return a completed future if there are no unfinished jobs on the given database
+   */
+  public CompletableFuture<Empty> resumeDataImportModeJobs(MetaDatabase metaDb);
+
   /**
    * Sets the backend on a state where inserts are faster.
    *
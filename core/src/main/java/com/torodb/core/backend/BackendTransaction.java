@@ -19,8 +19,11 @@
 package com.torodb.core.backend;
 
 import com.google.common.collect.Multimap;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidSortSpec;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.InvalidDatabaseException;
+import com.torodb.core.language.Projection;
 import com.torodb.core.transaction.metainf.MetaCollection;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
@@ -39,17 +42,62 @@ public interface BackendTransaction extends AutoCloseable {
 
   public long countAll(MetaDatabase db, MetaCollection col);
 
+  /**
+   * Returns the number of documents on the collection, which may be an estimation if the backend
+   * is configured to use them.
+   */
+  public long estimateCountAll(MetaDatabase db, MetaCollection col);
+
+  /**
+   * Returns the number of documents that fulfill the given predicate.
+   *
+   * The predicate is evaluated by the backend in a single query and no document is read.
+   */
+  public long countByPredicate(MetaDatabase db, MetaCollection col, DidPredicate predicate);
+
   public long getCollectionSize(MetaDatabase db, MetaCollection col);
 
   public long getDocumentsSize(MetaDatabase db, MetaCollection col);
 
   public BackendCursor fetch(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor);
 
+  /**
+   * Like {@link #fetch(MetaDatabase, MetaCollection, Cursor)}, but only the doc parts and fields
+   * that store top level attributes included by the given projection are read.
+   */
+  public BackendCursor fetch(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor,
+      Projection projection);
+
   public BackendCursor findAll(MetaDatabase db, MetaCollection col);
 
   public BackendCursor findByField(MetaDatabase db, MetaCollection col,
       MetaDocPart docPart, MetaField field, KvValue<?> value);
 
+  /**
+   * Return a cursor that iterates over all documents that fulfill the given predicate.
+   *
+   * The predicate is evaluated by the backend in a single query that selects the dids of the
+   * matching documents.
+   *
+   * @param db
+   * @param col
+   * @param predicate
+   * @return
+   */
+  public BackendCursor findByPredicate(MetaDatabase db, MetaCollection col,
+      DidPredicate predicate);
+
+  /**
+   * Like {@link #findByPredicate(MetaDatabase, MetaCollection, DidPredicate)}, but the dids are
+   * iterated in the order and within the window specified by the given sort spec.
+   *
+   * <p>The documents returned by the {@link BackendCursor#asDocPartResultCursor() doc part cursor}
+   * are not guaranteed to follow that order, so callers that need it should fetch the dids
+   * returned by the {@link BackendCursor#asDidCursor() did cursor}.
+   */
+  public BackendCursor findByPredicate(MetaDatabase db, MetaCollection col,
+      DidPredicate predicate, DidSortSpec sortSpec);
+
   /**
    * Return a cursor that iterates over all documents that fulfill the query.
    *
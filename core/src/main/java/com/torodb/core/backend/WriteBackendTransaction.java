@@ -33,6 +33,7 @@ import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 import com.torodb.kvdocument.values.KvValue;
 
 import java.util.Collection;
+import java.util.Map;
 
 public interface WriteBackendTransaction extends BackendTransaction {
   
@@ -145,6 +146,26 @@ public interface WriteBackendTransaction extends BackendTransaction {
 
   public void deleteDids(MetaDatabase db, MetaCollection col, Collection<Integer> dids);
 
+  /**
+   * Sets the given fields of the row that a document has on a doc part in place.
+   *
+   * <p>Fields that are not on the given map are not modified. A null value sets the column of its
+   * field to null.
+   *
+   * @param db        the database that contains the given collection
+   * @param col       the collection that contains the given doc part
+   * @param docPart   the doc part that contains the row. It must be the root doc part or one
+   *                  whose rows are subdocuments reached from the root only through object keys,
+   *                  so it contains at most one row of each document. All given fields must have
+   *                  been added to it before
+   * @param did       the did of the document whose row is updated
+   * @param newValues the new values of the fields to modify. It must not be empty
+   * @return true iff the row was found and updated
+   * @throws UserException
+   */
+  public boolean updateDocPartRow(MetaDatabase db, MetaCollection col, MetaDocPart docPart,
+      int did, Map<MetaField, KvValue<?>> newValues) throws UserException;
+
   /**
    * Create a logical index on doc part. If not yet existing, a physical index will be created for
    * each existent and future doc part fields and scalars that satisfy logical index definition.
@@ -0,0 +1,207 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.backend.query;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.filter.ComparisonOperator;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A predicate on the relational model that selects the dids of the documents that fulfill it.
+ *
+ * <p>Predicates are the result of planning a {@link com.torodb.core.language.filter.Filter}
+ * against the metainformation of a collection, so each leaf references a concrete
+ * {@link MetaDocPart} and {@link MetaField}. A document fulfills a leaf predicate if at least one
+ * of the rows it has on the referenced doc part fulfills the condition. Leafs never evaluate to
+ * unknown, so they can be safely negated.
+ */
+public interface DidPredicate {
+
+  public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg);
+
+  public static enum Constant implements DidPredicate {
+    TRUE,
+    FALSE;
+
+    public static Constant of(boolean value) {
+      return value ? TRUE : FALSE;
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+  @Immutable
+  public static class And implements DidPredicate {
+
+    private final ImmutableList<DidPredicate> children;
+
+    public And(List<? extends DidPredicate> children) {
+      this.children = ImmutableList.copyOf(children);
+    }
+
+    public ImmutableList<DidPredicate> getChildren() {
+      return children;
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+  @Immutable
+  public static class Or implements DidPredicate {
+
+    private final ImmutableList<DidPredicate> children;
+
+    public Or(List<? extends DidPredicate> children) {
+      this.children = ImmutableList.copyOf(children);
+    }
+
+    public ImmutableList<DidPredicate> getChildren() {
+      return children;
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+  @Immutable
+  public static class Not implements DidPredicate {
+
+    private final DidPredicate child;
+
+    public Not(DidPredicate child) {
+      this.child = child;
+    }
+
+    public DidPredicate getChild() {
+      return child;
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+  /**
+   * A leaf predicate that evaluates a column of a doc part table.
+   */
+  public abstract static class FieldPredicate implements DidPredicate {
+
+    private final MetaDocPart docPart;
+    private final MetaField field;
+
+    public FieldPredicate(@Nonnull MetaDocPart docPart, @Nonnull MetaField field) {
+      assert docPart.getMetaFieldByIdentifier(field.getIdentifier()) != null;
+      this.docPart = docPart;
+      this.field = field;
+    }
+
+    @Nonnull
+    public MetaDocPart getDocPart() {
+      return docPart;
+    }
+
+    @Nonnull
+    public MetaField getField() {
+      return field;
+    }
+  }
+
+  @Immutable
+  public static class Compare extends FieldPredicate {
+
+    private final ComparisonOperator operator;
+    private final KvValue<?> value;
+
+    public Compare(MetaDocPart docPart, MetaField field, ComparisonOperator operator,
+        KvValue<?> value) {
+      super(docPart, field);
+      this.operator = operator;
+      this.value = value;
+    }
+
+    public ComparisonOperator getOperator() {
+      return operator;
+    }
+
+    public KvValue<?> getValue() {
+      return value;
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+  @Immutable
+  public static class In extends FieldPredicate {
+
+    private final ImmutableList<KvValue<?>> values;
+
+    public In(MetaDocPart docPart, MetaField field, Collection<KvValue<?>> values) {
+      super(docPart, field);
+      assert !values.isEmpty();
+      this.values = ImmutableList.copyOf(values);
+    }
+
+    public ImmutableList<KvValue<?>> getValues() {
+      return values;
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+  /**
+   * A leaf predicate that is fulfilled when the referenced column is not null.
+   */
+  @Immutable
+  public static class NotNull extends FieldPredicate {
+
+    public NotNull(MetaDocPart docPart, MetaField field) {
+      super(docPart, field);
+    }
+
+    @Override
+    public <R, A> R accept(DidPredicateVisitor<R, A> visitor, A arg) {
+      return visitor.visit(this, arg);
+    }
+  }
+
+}
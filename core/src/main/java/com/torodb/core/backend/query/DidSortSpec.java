@@ -0,0 +1,90 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.core.backend.query;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.transaction.metainf.MetaField;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The order and the window of the dids a did-selecting query returns.
+ *
+ * <p>Like {@link DidPredicate predicates}, it is the result of planning a
+ * {@link com.torodb.core.language.SortSpec} against the metainformation of a collection, so each
+ * sort field references a concrete {@link MetaField} of the root doc part. Documents that do not
+ * have a value on a sort field are sorted before the ones that have it, as if their value were
+ * lower than any other. Strings are sorted using the collation of their column, so indexes on
+ * the sort fields can be used to evaluate the sort.
+ */
+@Immutable
+public class DidSortSpec {
+
+  private final ImmutableList<SortField> fields;
+  private final long skip;
+  private final long limit;
+
+  public DidSortSpec(@Nonnull List<SortField> fields, long skip, long limit) {
+    this.fields = ImmutableList.copyOf(fields);
+    this.skip = skip;
+    this.limit = limit;
+  }
+
+  @Nonnull
+  public ImmutableList<SortField> getFields() {
+    return fields;
+  }
+
+  public long getSkip() {
+    return skip;
+  }
+
+  /**
+   * Returns the max number of dids to return or 0 if there is no limit.
+   */
+  public long getLimit() {
+    return limit;
+  }
+
+  @Immutable
+  public static class SortField {
+
+    private final MetaField field;
+    private final boolean ascending;
+
+    public SortField(@Nonnull MetaField field, boolean ascending) {
+      this.field = field;
+      this.ascending = ascending;
+    }
+
+    @Nonnull
+    public MetaField getField() {
+      return field;
+    }
+
+    public boolean isAscending() {
+      return ascending;
+    }
+  }
+}
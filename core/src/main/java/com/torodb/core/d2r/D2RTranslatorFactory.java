@@ -21,8 +21,16 @@ package com.torodb.core.d2r;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 
-@FunctionalInterface
 public interface D2RTranslatorFactory {
 
   public D2RTranslator createTranslator(MetaDatabase database, MutableMetaCollection collection);
+
+  /**
+   * Creates a translator that is expected to translate the given number of documents.
+   *
+   * <p>The expected number of documents is only used as a hint to reserve the rids of the root
+   * doc part in a single block. Translating more or less documents is allowed.
+   */
+  public D2RTranslator createTranslator(MetaDatabase database, MutableMetaCollection collection,
+      int expectedDocuments);
 }
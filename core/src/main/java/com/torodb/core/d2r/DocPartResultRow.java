@@ -37,6 +37,28 @@ public interface DocPartResultRow {
   @Nullable
   public Integer getSeq();
 
+  /**
+   * Returns true iff this row has a seq, which happens when it represents an element of an
+   * array.
+   */
+  public default boolean hasSeq() {
+    return getSeq() != null;
+  }
+
+  /**
+   * Returns the seq of this row without boxing it.
+   *
+   * @throws IllegalStateException if this row has no seq
+   * @see #hasSeq()
+   */
+  public default int getSeqValue() throws IllegalStateException {
+    Integer seq = getSeq();
+    if (seq == null) {
+      throw new IllegalStateException("The row has no seq");
+    }
+    return seq;
+  }
+
   public KvValue<?> getUserValue(int fieldIndex, FieldType fieldType);
 
 }
@@ -72,6 +72,12 @@ public class MemoryRidGenerator extends AbstractService implements ReservedIdGen
       return rid.getAndIncrement();
     }
 
+    @Override
+    public int reserveRids(TableRef tableRef, int count) {
+      AtomicInteger rid = map.computeIfAbsent(tableRef, tr -> new AtomicInteger(0));
+      return rid.getAndAdd(count);
+    }
+
     @Override
     public void setNextRid(TableRef tableRef, int nextRid) {
       AtomicInteger rid = map.computeIfAbsent(tableRef, tr -> new AtomicInteger(0));
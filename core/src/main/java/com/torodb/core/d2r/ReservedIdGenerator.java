@@ -33,6 +33,16 @@ public interface ReservedIdGenerator extends Service {
 
     int nextRid(TableRef tableRef);
 
+    /**
+     * Reserves a contiguous block of rids on the given doc part.
+     *
+     * @param tableRef the doc part whose rids are reserved
+     * @param count    the number of rids to reserve, which must be positive
+     * @return the first rid of the block. The block contains the rids from the returned one
+     *         (inclusive) to the returned one plus {@code count} (exclusive)
+     */
+    int reserveRids(TableRef tableRef, int count);
+
     void setNextRid(TableRef tableRef, int nextRid);
 
   }
@@ -29,22 +29,59 @@ import com.torodb.core.transaction.metainf.MutableMetaDocPart;
 
 public class CollectionMetaInfo {
 
+  /**
+   * The maximum number of rids reserved at once when the number of rows is not known.
+   */
+  private static final int MAX_RID_BLOCK_SIZE = 1024;
+
   private final MetaDatabase metaDatabase;
   private final MutableMetaCollection metaCollection;
   private final IdentifierFactory identifierFactory;
   private final DocPartRidGenerator docPartRidGenerator;
+  private final int expectedDocuments;
 
   public CollectionMetaInfo(MetaDatabase metaDatabase, MutableMetaCollection metaCollection,
       IdentifierFactory identifierFactory, ReservedIdGenerator ridGenerator) {
+    this(metaDatabase, metaCollection, identifierFactory, ridGenerator, 0);
+  }
+
+  /**
+   * @param expectedDocuments the number of documents that are expected to be translated or 0 if
+   *                          it is unknown
+   */
+  public CollectionMetaInfo(MetaDatabase metaDatabase, MutableMetaCollection metaCollection,
+      IdentifierFactory identifierFactory, ReservedIdGenerator ridGenerator,
+      int expectedDocuments) {
     this.metaDatabase = metaDatabase;
     this.metaCollection = metaCollection;
     this.identifierFactory = identifierFactory;
     this.docPartRidGenerator = ridGenerator.getDocPartRidGenerator(metaDatabase.getName(),
         metaCollection.getName());
+    this.expectedDocuments = expectedDocuments;
+  }
+
+  /**
+   * Returns the number of rids that should be reserved on the next block of the given doc part.
+   *
+   * <p>The first block of the root doc part has as many rids as expected documents. Other blocks
+   * double the rids already reserved (up to {@link #MAX_RID_BLOCK_SIZE}), so the rids that are
+   * reserved but not used are always less than the used ones.
+   *
+   * @param tableRef     the doc part
+   * @param reservedRids the number of rids already reserved on the doc part by this translation
+   */
+  public int getRowIdBlockSize(TableRef tableRef, int reservedRids) {
+    if (reservedRids == 0 && tableRef.isRoot() && expectedDocuments > 0) {
+      return expectedDocuments;
+    }
+    return Math.max(1, Math.min(reservedRids, MAX_RID_BLOCK_SIZE));
   }
 
-  public int getNextRowId(TableRef tableRef) {
-    return docPartRidGenerator.nextRid(tableRef);
+  /**
+   * Reserves a contiguous block of rids on the given doc part and returns the first one.
+   */
+  public int reserveRowIds(TableRef tableRef, int count) {
+    return docPartRidGenerator.reserveRids(tableRef, count);
   }
 
   public MutableMetaDocPart findMetaDocPart(TableRef tableRef) {
@@ -24,11 +24,27 @@ import com.torodb.core.d2r.D2RTranslator;
 import com.torodb.core.d2r.D2RTranslatorFactory;
 import com.torodb.core.d2r.R2DTranslator;
 
+import javax.inject.Singleton;
+
 /**
  *
  */
 public class D2RModule extends PrivateModule {
 
+  private final boolean primitiveR2DTranslator;
+
+  public D2RModule() {
+    this(false);
+  }
+
+  /**
+   * @param primitiveR2DTranslator if {@link PrimitiveR2DTranslator} must be used instead of
+   *                               {@link R2DTranslatorImpl}
+   */
+  public D2RModule(boolean primitiveR2DTranslator) {
+    this.primitiveR2DTranslator = primitiveR2DTranslator;
+  }
+
   @Override
   protected void configure() {
     install(new FactoryModuleBuilder()
@@ -37,8 +53,16 @@ public class D2RModule extends PrivateModule {
     );
     expose(D2RTranslatorFactory.class);
 
-    bind(R2DTranslator.class)
-        .to(R2DTranslatorImpl.class);
+    if (primitiveR2DTranslator) {
+      //a single instance is shared, so its per-thread arenas are reused by every read
+      bind(PrimitiveR2DTranslator.class)
+          .in(Singleton.class);
+      bind(R2DTranslator.class)
+          .to(PrimitiveR2DTranslator.class);
+    } else {
+      bind(R2DTranslator.class)
+          .to(R2DTranslatorImpl.class);
+    }
     expose(R2DTranslator.class);
   }
 
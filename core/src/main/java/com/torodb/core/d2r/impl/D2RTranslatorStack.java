@@ -18,8 +18,8 @@
 
 package com.torodb.core.d2r.impl;
 
-import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
+import com.google.inject.assistedinject.AssistedInject;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.D2RTranslator;
@@ -35,12 +35,19 @@ public class D2RTranslatorStack implements D2RTranslator {
   private final DocPartDataCollection docPartDataCollection;
   private final D2Relational d2Relational;
 
-  @Inject
+  @AssistedInject
   public D2RTranslatorStack(TableRefFactory tableRefFactory, IdentifierFactory identifierFactory,
       ReservedIdGenerator ridGenerator, @Assisted MetaDatabase database,
       @Assisted MutableMetaCollection collection) {
+    this(tableRefFactory, identifierFactory, ridGenerator, database, collection, 0);
+  }
+
+  @AssistedInject
+  public D2RTranslatorStack(TableRefFactory tableRefFactory, IdentifierFactory identifierFactory,
+      ReservedIdGenerator ridGenerator, @Assisted MetaDatabase database,
+      @Assisted MutableMetaCollection collection, @Assisted int expectedDocuments) {
     this.collectionMetaInfo = new CollectionMetaInfo(database, collection, identifierFactory,
-        ridGenerator);
+        ridGenerator, expectedDocuments);
     this.docPartDataCollection = new DocPartDataCollection(collectionMetaInfo);
     this.d2Relational = new D2Relational(tableRefFactory, docPartDataCollection);
   }
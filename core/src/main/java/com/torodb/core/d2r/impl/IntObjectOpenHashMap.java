@@ -0,0 +1,155 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.d2r.impl;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A map from primitive ints to non null objects that uses open addressing with linear probing, so
+ * keys are never boxed and no entry object is allocated.
+ *
+ * <p>Its capacity is kept when it is {@link #clear() cleared}, which makes it suitable to be
+ * reused.
+ */
+@NotThreadSafe
+final class IntObjectOpenHashMap<V> {
+
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private int[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  IntObjectOpenHashMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  IntObjectOpenHashMap(int expectedSize) {
+    Preconditions.checkArgument(expectedSize >= 0, "The expected size must be non negative");
+    allocate(capacityFor(expectedSize));
+  }
+
+  private static int capacityFor(int expectedSize) {
+    long capacity = Math.max(MIN_CAPACITY, (long) expectedSize * 2);
+    if (capacity > MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Integer.highestOneBit((int) capacity - 1) << 1;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  private int slot(int key) {
+    int hash = key * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  V get(int key) {
+    int slot = slot(key);
+    Object value;
+    while ((value = values[slot]) != null) {
+      if (keys[slot] == key) {
+        return (V) value;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Associates the given value with the given key.
+   *
+   * @return the value previously associated with the key or null if there was none
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  V put(int key, V value) {
+    Preconditions.checkArgument(value != null, "Null values are not supported");
+    int slot = slot(key);
+    Object oldValue;
+    while ((oldValue = values[slot]) != null) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return (V) oldValue;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    if (size * 2 > values.length) {
+      grow();
+    }
+    return null;
+  }
+
+  private void grow() {
+    Preconditions.checkState(values.length < MAX_CAPACITY, "The map cannot grow anymore");
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(oldValues.length * 2);
+    for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+      Object value = oldValues[oldSlot];
+      if (value != null) {
+        int slot = slot(oldKeys[oldSlot]);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[oldSlot];
+        values[slot] = value;
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the number of slots this map has, which is kept after it is cleared.
+   */
+  int capacity() {
+    return values.length;
+  }
+
+  void clear() {
+    if (size > 0) {
+      Arrays.fill(values, null);
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,413 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.d2r.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRef;
+import com.torodb.core.d2r.DocPartResult;
+import com.torodb.core.d2r.DocPartResultRow;
+import com.torodb.core.d2r.InternalFields;
+import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.core.transaction.metainf.MetaScalar;
+import com.torodb.kvdocument.values.KvBoolean;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link R2DTranslator} that produces the same documents than {@link R2DTranslatorImpl} but
+ * allocates less.
+ *
+ * <p>The values of nested doc parts are indexed by the rid of their parent row on
+ * {@link IntObjectOpenHashMap int keyed maps}, so did, rid, pid and seq are never boxed. The maps
+ * and the cells that contain the values of each parent row are kept in an arena that is reused by
+ * the next translation executed on the same thread.
+ */
+public class PrimitiveR2DTranslator implements R2DTranslator {
+
+  /**
+   * Maps bigger than this are not reused, to do not retain the memory used by an exceptionally
+   * big translation.
+   */
+  private static final int MAX_RETAINED_MAP_CAPACITY = 1 << 16;
+  private static final int MAX_RETAINED_MAPS = 64;
+  private static final int MAX_RETAINED_CELLS = 1 << 14;
+
+  private final ThreadLocal<TranslationArena> arenas =
+      ThreadLocal.withInitial(TranslationArena::new);
+
+  @Override
+  public List<ToroDocument> translate(Iterator<DocPartResult> docPartResultIt) {
+    TranslationArena arena = arenas.get();
+    try {
+      return translate(docPartResultIt, arena);
+    } finally {
+      arena.clear();
+    }
+  }
+
+  private List<ToroDocument> translate(Iterator<DocPartResult> docPartResultIt,
+      TranslationArena arena) {
+    ImmutableList.Builder<ToroDocument> readedDocuments = ImmutableList.builder();
+
+    LevelCells currentLevel = arena.firstLevel;
+    LevelCells childLevel = arena.secondLevel;
+
+    int previousDepth = -1;
+
+    while (docPartResultIt.hasNext()) {
+      DocPartResult docPartResult = docPartResultIt.next();
+      MetaDocPart metaDocPart = docPartResult.getMetaDocPart();
+      TableRef tableRef = metaDocPart.getTableRef();
+
+      if (previousDepth != -1 && previousDepth != tableRef.getDepth()) {
+        LevelCells previousChildLevel = childLevel;
+        childLevel = currentLevel;
+        currentLevel = previousChildLevel;
+
+        if (!tableRef.isRoot()) {
+          currentLevel.clear();
+        }
+      }
+      previousDepth = tableRef.getDepth();
+
+      IntObjectOpenHashMap<ChildCells> childCells = childLevel.get(tableRef);
+      IntObjectOpenHashMap<ChildCells> currentCells;
+      if (tableRef.isRoot()) {
+        currentCells = null;
+      } else {
+        currentCells = currentLevel.getOrCreate(tableRef.getParent().get());
+      }
+
+      readResult(metaDocPart, tableRef, docPartResult, currentCells, childCells,
+          currentLevel, readedDocuments);
+    }
+
+    return readedDocuments.build();
+  }
+
+  private void readResult(MetaDocPart metaDocPart, TableRef tableRef, DocPartResult docPartResult,
+      @Nullable IntObjectOpenHashMap<ChildCells> currentCells,
+      @Nullable IntObjectOpenHashMap<ChildCells> childCells, LevelCells currentLevel,
+      ImmutableList.Builder<ToroDocument> readedDocuments) {
+    String cellName = getDocPartCellName(tableRef);
+    List<? extends MetaScalar> metaScalars = metaDocPart.streamScalars()
+        .collect(Collectors.toList());
+    List<? extends MetaField> metaFields = metaDocPart.streamFields()
+        .collect(Collectors.toList());
+
+    while (docPartResult.hasNext()) {
+      DocPartResultRow row = docPartResult.next();
+
+      int did = row.getDid();
+      int rid = row.getRid();
+      int pid = row.getPid();
+      boolean hasSeq = row.hasSeq();
+      int seq = hasSeq ? row.getSeqValue() : 0;
+
+      ChildCells childCell = childCells == null ? null : childCells.get(rid);
+
+      int fieldIndex = 0;
+      boolean wasScalar = false;
+      for (int i = 0; i < metaScalars.size() && !wasScalar; i++) {
+        assert hasSeq : "found scalar value outside of an array";
+
+        MetaScalar metaScalar = metaScalars.get(i);
+        KvValue<?> value = row.getUserValue(fieldIndex, metaScalar.getType());
+        fieldIndex++;
+
+        if (value != null) {
+          if (metaScalar.getType() == FieldType.CHILD) {
+            value = getChildValue(value, cellName, childCell);
+          }
+          addValue(currentCells, currentLevel, cellName, pid, hasSeq, seq, value);
+          wasScalar = true;
+        }
+      }
+
+      if (wasScalar) {
+        continue;
+      }
+
+      KvDocument.Builder documentBuilder = new KvDocument.Builder();
+      for (int i = 0; i < metaFields.size(); i++) {
+        MetaField metaField = metaFields.get(i);
+        KvValue<?> value = row.getUserValue(fieldIndex, metaField.getType());
+        fieldIndex++;
+        if (value != null) {
+          if (metaField.getType() == FieldType.CHILD) {
+            value = getChildValue(value, metaField.getName(), childCell);
+          }
+          documentBuilder.putValue(metaField.getName(), value);
+        }
+      }
+
+      if (tableRef.isRoot()) {
+        readedDocuments.add(new ToroDocument(did, documentBuilder.build()));
+      } else {
+        addValue(currentCells, currentLevel, cellName, pid, hasSeq, seq,
+            documentBuilder.build());
+      }
+    }
+  }
+
+  private KvValue<?> getChildValue(KvValue<?> value, String key, @Nullable ChildCells childCell) {
+    KvBoolean child = (KvBoolean) value;
+    if (child.getValue() == InternalFields.CHILD_ARRAY_VALUE) {
+      List<KvValue<?>> elements;
+      if (childCell == null || (elements = childCell.getElements(key)) == null) {
+        return new ListKvArray(ImmutableList.of());
+      }
+      return new ListKvArray(elements);
+    } else {
+      assert childCell != null : "found a child document without values";
+      return childCell.getValue(key);
+    }
+  }
+
+  private void addValue(IntObjectOpenHashMap<ChildCells> currentCells, LevelCells currentLevel,
+      String cellName, int pid, boolean hasSeq, int seq, KvValue<?> value) {
+    ChildCells cell = currentCells.get(pid);
+    if (cell == null) {
+      cell = currentLevel.newCell();
+      currentCells.put(pid, cell);
+    }
+    if (hasSeq) {
+      cell.setElement(cellName, seq, value);
+    } else {
+      cell.setValue(cellName, value);
+    }
+  }
+
+  private String getDocPartCellName(TableRef tableRef) {
+    while (tableRef.isInArray()) {
+      tableRef = tableRef.getParent().get();
+    }
+    return tableRef.getName();
+  }
+
+  /**
+   * The objects a thread reuses between translations.
+   */
+  private static class TranslationArena {
+
+    private final ArrayDeque<IntObjectOpenHashMap<ChildCells>> freeMaps = new ArrayDeque<>();
+    private final ArrayDeque<ChildCells> freeCells = new ArrayDeque<>();
+    private final LevelCells firstLevel = new LevelCells(this);
+    private final LevelCells secondLevel = new LevelCells(this);
+
+    private IntObjectOpenHashMap<ChildCells> takeMap() {
+      IntObjectOpenHashMap<ChildCells> map = freeMaps.poll();
+      if (map == null) {
+        map = new IntObjectOpenHashMap<>();
+      }
+      return map;
+    }
+
+    private void releaseMap(IntObjectOpenHashMap<ChildCells> map) {
+      if (map.capacity() <= MAX_RETAINED_MAP_CAPACITY && freeMaps.size() < MAX_RETAINED_MAPS) {
+        map.clear();
+        freeMaps.push(map);
+      }
+    }
+
+    private ChildCells takeCell() {
+      ChildCells cell = freeCells.poll();
+      if (cell == null) {
+        cell = new ChildCells();
+      }
+      return cell;
+    }
+
+    private void releaseCell(ChildCells cell) {
+      if (freeCells.size() < MAX_RETAINED_CELLS) {
+        cell.clear();
+        freeCells.push(cell);
+      }
+    }
+
+    private void clear() {
+      firstLevel.clear();
+      secondLevel.clear();
+    }
+  }
+
+  /**
+   * The cells of the rows of a depth level, grouped by the table of the rows and indexed by their
+   * rid.
+   */
+  private static class LevelCells {
+
+    private final TranslationArena arena;
+    private final Map<TableRef, IntObjectOpenHashMap<ChildCells>> cellsByTable = new HashMap<>();
+    private final ArrayList<ChildCells> usedCells = new ArrayList<>();
+
+    private LevelCells(TranslationArena arena) {
+      this.arena = arena;
+    }
+
+    @Nullable
+    private IntObjectOpenHashMap<ChildCells> get(TableRef tableRef) {
+      return cellsByTable.get(tableRef);
+    }
+
+    private IntObjectOpenHashMap<ChildCells> getOrCreate(TableRef tableRef) {
+      IntObjectOpenHashMap<ChildCells> cells = cellsByTable.get(tableRef);
+      if (cells == null) {
+        cells = arena.takeMap();
+        cellsByTable.put(tableRef, cells);
+      }
+      return cells;
+    }
+
+    private ChildCells newCell() {
+      ChildCells cell = arena.takeCell();
+      usedCells.add(cell);
+      return cell;
+    }
+
+    private void clear() {
+      for (IntObjectOpenHashMap<ChildCells> cells : cellsByTable.values()) {
+        arena.releaseMap(cells);
+      }
+      cellsByTable.clear();
+      for (int i = 0; i < usedCells.size(); i++) {
+        arena.releaseCell(usedCells.get(i));
+      }
+      usedCells.clear();
+    }
+  }
+
+  /**
+   * The values of the children of a row, indexed by the name of the attribute that contains
+   * them.
+   *
+   * <p>A row has very few children, so they are stored in arrays that are searched linearly.
+   * Each slot contains either a single value or the list of elements of an array. Lists are
+   * never reused, as they end up in the translated documents.
+   */
+  private static class ChildCells {
+
+    private static final int INITIAL_SIZE = 4;
+
+    private String[] names = new String[INITIAL_SIZE];
+    private Object[] values = new Object[INITIAL_SIZE];
+    private int size = 0;
+
+    private int indexOf(String name) {
+      for (int i = 0; i < size; i++) {
+        String otherName = names[i];
+        if (otherName == name || otherName.equals(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private int indexOfOrAdd(String name) {
+      int index = indexOf(name);
+      if (index < 0) {
+        if (size == names.length) {
+          names = Arrays.copyOf(names, size * 2);
+          values = Arrays.copyOf(values, size * 2);
+        }
+        index = size;
+        names[index] = name;
+        size++;
+      }
+      return index;
+    }
+
+    private void setValue(String name, KvValue<?> value) {
+      values[indexOfOrAdd(name)] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void setElement(String name, int seq, KvValue<?> value) {
+      int index = indexOfOrAdd(name);
+      Object slotValue = values[index];
+      List<KvValue<?>> elements;
+      if (slotValue instanceof List) {
+        elements = (List<KvValue<?>>) slotValue;
+      } else {
+        elements = new ArrayList<>();
+        values[index] = elements;
+      }
+      final int elementsSize = elements.size();
+      if (seq < elementsSize) {
+        elements.set(seq, value);
+      } else {
+        for (int i = elementsSize; i < seq; i++) {
+          elements.add(null);
+        }
+        elements.add(value);
+      }
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private KvValue<?> getValue(String name) {
+      int index = indexOf(name);
+      if (index < 0) {
+        return null;
+      }
+      Object slotValue = values[index];
+      if (slotValue instanceof List) {
+        return ((List<KvValue<?>>) slotValue).get(0);
+      }
+      return (KvValue<?>) slotValue;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private List<KvValue<?>> getElements(String name) {
+      int index = indexOf(name);
+      if (index < 0) {
+        return null;
+      }
+      Object slotValue = values[index];
+      if (slotValue instanceof List) {
+        return (List<KvValue<?>>) slotValue;
+      }
+      return ImmutableList.of((KvValue<?>) slotValue);
+    }
+
+    private void clear() {
+      Arrays.fill(names, 0, size, null);
+      Arrays.fill(values, 0, size, null);
+      size = 0;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.core.language;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Specifies the top level attributes that must be read from the documents.
+ *
+ * <p>Projections work with top level granularity: when an attribute is included, all the values
+ * it contains are included too. A projection can either include only the given attributes or
+ * include all attributes except the given ones.
+ */
+@Immutable
+public class Projection {
+
+  private static final Projection ALL = new Projection(false, ImmutableSet.of());
+
+  private final boolean inclusive;
+  private final ImmutableSet<String> keys;
+
+  private Projection(boolean inclusive, ImmutableSet<String> keys) {
+    this.inclusive = inclusive;
+    this.keys = keys;
+  }
+
+  /**
+   * Returns the projection that includes all attributes.
+   */
+  @Nonnull
+  public static Projection all() {
+    return ALL;
+  }
+
+  /**
+   * Returns a projection that only includes the given top level attributes.
+   */
+  @Nonnull
+  public static Projection including(@Nonnull Collection<String> keys) {
+    return new Projection(true, ImmutableSet.copyOf(keys));
+  }
+
+  /**
+   * Returns a projection that includes all top level attributes except the given ones.
+   */
+  @Nonnull
+  public static Projection excluding(@Nonnull Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return ALL;
+    }
+    return new Projection(false, ImmutableSet.copyOf(keys));
+  }
+
+  /**
+   * Returns true iff this projection includes all attributes.
+   */
+  public boolean isAll() {
+    return !inclusive && keys.isEmpty();
+  }
+
+  public boolean isInclusive() {
+    return inclusive;
+  }
+
+  @Nonnull
+  public ImmutableSet<String> getKeys() {
+    return keys;
+  }
+
+  /**
+   * Returns true iff the top level attribute with the given name is included by this projection.
+   */
+  public boolean isIncluded(@Nonnull String key) {
+    return inclusive == keys.contains(key);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(inclusive, keys);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    Projection other = (Projection) obj;
+    return inclusive == other.inclusive && keys.equals(other.keys);
+  }
+
+  @Override
+  public String toString() {
+    if (isAll()) {
+      return "{all}";
+    }
+    return (inclusive ? "{include " : "{exclude ") + keys + '}';
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.core.language;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Specifies the order in which the documents of a query are returned and the window of them that
+ * is returned.
+ */
+@Immutable
+public class SortSpec {
+
+  private static final SortSpec NONE = new SortSpec(ImmutableList.of(), 0, 0);
+
+  private final ImmutableList<SortKey> keys;
+  private final long skip;
+  private final long limit;
+
+  private SortSpec(ImmutableList<SortKey> keys, long skip, long limit) {
+    this.keys = keys;
+    this.skip = skip;
+    this.limit = limit;
+  }
+
+  /**
+   * Returns the spec that does not sort, skip or limit documents.
+   */
+  @Nonnull
+  public static SortSpec none() {
+    return NONE;
+  }
+
+  /**
+   * Creates a new spec.
+   *
+   * @param keys  the keys to sort by, in order of precedence. If empty, the order is unspecified
+   * @param skip  the number of documents to skip
+   * @param limit the max number of documents to return or 0 if there is no limit
+   */
+  @Nonnull
+  public static SortSpec of(@Nonnull List<SortKey> keys, long skip, long limit) {
+    Preconditions.checkArgument(skip >= 0, "skip must be non negative");
+    Preconditions.checkArgument(limit >= 0, "limit must be non negative");
+    if (keys.isEmpty() && skip == 0 && limit == 0) {
+      return NONE;
+    }
+    return new SortSpec(ImmutableList.copyOf(keys), skip, limit);
+  }
+
+  @Nonnull
+  public ImmutableList<SortKey> getKeys() {
+    return keys;
+  }
+
+  public long getSkip() {
+    return skip;
+  }
+
+  /**
+   * Returns the max number of documents to return or 0 if there is no limit.
+   */
+  public long getLimit() {
+    return limit;
+  }
+
+  /**
+   * Returns true iff this spec does not sort, skip or limit documents.
+   */
+  public boolean isNone() {
+    return this == NONE;
+  }
+
+  /**
+   * Returns a spec that skips and limits like this one, but that does not sort.
+   */
+  @Nonnull
+  public SortSpec withoutKeys() {
+    return of(ImmutableList.of(), skip, limit);
+  }
+
+  @Override
+  public String toString() {
+    return "{keys: " + keys + ", skip: " + skip + ", limit: " + limit + '}';
+  }
+
+  @Immutable
+  public static class SortKey {
+
+    private final AttributeReference attRef;
+    private final boolean ascending;
+
+    public SortKey(@Nonnull AttributeReference attRef, boolean ascending) {
+      this.attRef = attRef;
+      this.ascending = ascending;
+    }
+
+    @Nonnull
+    public AttributeReference getAttributeReference() {
+      return attRef;
+    }
+
+    public boolean isAscending() {
+      return ascending;
+    }
+
+    @Override
+    public String toString() {
+      return attRef + (ascending ? " asc" : " desc");
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.language.filter;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A filter that is fulfilled when all its children are fulfilled.
+ */
+@Immutable
+public class AndFilter implements Filter {
+
+  private final ImmutableList<Filter> children;
+
+  public AndFilter(List<? extends Filter> children) {
+    this.children = ImmutableList.copyOf(children);
+  }
+
+  public ImmutableList<Filter> getChildren() {
+    return children;
+  }
+
+  @Override
+  public <R, A> R accept(FilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public int hashCode() {
+    return 29 * 3 + children.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    return children.equals(((AndFilter) obj).children);
+  }
+
+  @Override
+  public String toString() {
+    return "{$and: [" + Joiner.on(", ").join(children) + "]}";
+  }
+
+}
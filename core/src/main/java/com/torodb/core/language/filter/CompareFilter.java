@@ -0,0 +1,91 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.language.filter;
+
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A filter that compares the value of an attribute with a constant.
+ *
+ * <p>Like on MongoDB, only values of the same type are compared, so a document whose attribute has
+ * a different type than the constant never fulfills this filter, except when the operator is
+ * {@link ComparisonOperator#NE}.
+ */
+@Immutable
+public class CompareFilter extends AttributeFilter {
+
+  @Nonnull
+  private final ComparisonOperator operator;
+  @Nonnull
+  private final KvValue<?> value;
+
+  public CompareFilter(@Nonnull AttributeReference attRef, @Nonnull ComparisonOperator operator,
+      @Nonnull KvValue<?> value) {
+    super(attRef);
+    this.operator = operator;
+    this.value = value;
+  }
+
+  @Nonnull
+  public ComparisonOperator getOperator() {
+    return operator;
+  }
+
+  @Nonnull
+  public KvValue<?> getValue() {
+    return value;
+  }
+
+  @Override
+  public <R, A> R accept(FilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getAttributeReference(), operator, value);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    CompareFilter other = (CompareFilter) obj;
+    return operator == other.operator
+        && getAttributeReference().equals(other.getAttributeReference())
+        && value.equals(other.value);
+  }
+
+  @Override
+  public String toString() {
+    return "{" + getAttributeReference() + ": {" + operator + ": " + value + "}}";
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.language.filter;
+
+/**
+ * The operators that can be used to compare an attribute with a value.
+ */
+public enum ComparisonOperator {
+  EQ("="),
+  NE("<>"),
+  GT(">"),
+  GTE(">="),
+  LT("<"),
+  LTE("<=");
+
+  private final String symbol;
+
+  private ComparisonOperator(String symbol) {
+    this.symbol = symbol;
+  }
+
+  /**
+   * @return the symbol that represents this operator on SQL
+   */
+  public String getSymbol() {
+    return symbol;
+  }
+
+  /**
+   * Returns true iff the result of comparing two values with {@link Comparable#compareTo(Object)}
+   * fulfills this operator.
+   */
+  public boolean evaluate(int comparison) {
+    switch (this) {
+      case EQ:
+        return comparison == 0;
+      case NE:
+        return comparison != 0;
+      case GT:
+        return comparison > 0;
+      case GTE:
+        return comparison >= 0;
+      case LT:
+        return comparison < 0;
+      case LTE:
+        return comparison <= 0;
+      default:
+        throw new AssertionError("Unexpected operator " + this);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.language.filter;
+
+import com.torodb.core.language.AttributeReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A filter that is fulfilled when the referenced attribute exists (or does not exist, if
+ * {@link #isExists()} is false), whatever its value is.
+ */
+@Immutable
+public class ExistsFilter extends AttributeFilter {
+
+  private final boolean exists;
+
+  public ExistsFilter(@Nonnull AttributeReference attRef, boolean exists) {
+    super(attRef);
+    this.exists = exists;
+  }
+
+  public boolean isExists() {
+    return exists;
+  }
+
+  @Override
+  public <R, A> R accept(FilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public int hashCode() {
+    return 59 * getAttributeReference().hashCode() + (exists ? 1 : 0);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    ExistsFilter other = (ExistsFilter) obj;
+    return exists == other.exists
+        && getAttributeReference().equals(other.getAttributeReference());
+  }
+
+  @Override
+  public String toString() {
+    return "{" + getAttributeReference() + ": {$exists: " + exists + "}}";
+  }
+
+}
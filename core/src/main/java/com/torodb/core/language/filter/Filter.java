@@ -0,0 +1,33 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.language.filter;
+
+/**
+ * A condition that documents of a collection may or may not fulfill.
+ *
+ * <p>Filters are expressed in terms of {@link com.torodb.core.language.AttributeReference
+ * attribute references}, so they are independent of the relational layout used to store the
+ * documents. Each backend is responsible to translate them into its own query language.
+ */
+public interface Filter {
+
+  public <R, A> R accept(FilterVisitor<R, A> visitor, A arg);
+
+}
@@ -0,0 +1,77 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.core.language.filter;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A filter that is fulfilled when the value of an attribute is equal to one of the given values.
+ */
+@Immutable
+public class InFilter extends AttributeFilter {
+
+  private final ImmutableList<KvValue<?>> values;
+
+  public InFilter(@Nonnull AttributeReference attRef, @Nonnull Collection<KvValue<?>> values) {
+    super(attRef);
+    this.values = ImmutableList.copyOf(values);
+  }
+
+  public ImmutableList<KvValue<?>> getValues() {
+    return values;
+  }
+
+  @Override
+  public <R, A> R accept(FilterVisitor<R, A> visitor, A arg) {
+    return visitor.visit(this, arg);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getAttributeReference(), values);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    InFilter other = (InFilter) obj;
+    return getAttributeReference().equals(other.getAttributeReference())
+        && values.equals(other.values);
+  }
+
+  @Override
+  public String toString() {
+    return "{" + getAttributeReference() + ": {$in: " + values + "}}";
+  }
+
+}
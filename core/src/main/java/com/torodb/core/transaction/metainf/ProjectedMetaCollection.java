@@ -0,0 +1,228 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.core.transaction.metainf;
+
+import com.torodb.core.TableRef;
+import com.torodb.core.language.Projection;
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A read only view of a {@link MetaCollection} that only contains the doc parts and fields that
+ * store the attributes included by a {@link Projection}.
+ *
+ * <p>The root doc part is always contained, but it only contains the fields whose name is
+ * included by the projection. Other doc parts are contained iff the top level attribute they
+ * descend from is included. As readers iterate the fields of the doc parts to build their
+ * queries and to read the results, reading with this view does not fetch the excluded tables and
+ * columns.
+ */
+public class ProjectedMetaCollection implements MetaCollection {
+
+  private final MetaCollection delegate;
+  private final Projection projection;
+
+  private ProjectedMetaCollection(MetaCollection delegate, Projection projection) {
+    this.delegate = delegate;
+    this.projection = projection;
+  }
+
+  /**
+   * Returns a view of the given collection that only contains what the projection includes, or
+   * the same collection if the projection includes everything.
+   */
+  @Nonnull
+  public static MetaCollection project(@Nonnull MetaCollection col,
+      @Nonnull Projection projection) {
+    if (projection.isAll()) {
+      return col;
+    }
+    return new ProjectedMetaCollection(col, projection);
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public String getIdentifier() {
+    return delegate.getIdentifier();
+  }
+
+  @Override
+  public Stream<? extends MetaDocPart> streamContainedMetaDocParts() {
+    return delegate.streamContainedMetaDocParts()
+        .filter(this::isIncluded)
+        .map(this::project);
+  }
+
+  @Override
+  public MetaDocPart getMetaDocPartByIdentifier(String docPartId) {
+    return project(delegate.getMetaDocPartByIdentifier(docPartId));
+  }
+
+  @Override
+  public MetaDocPart getMetaDocPartByTableRef(TableRef tableRef) {
+    return project(delegate.getMetaDocPartByTableRef(tableRef));
+  }
+
+  @Override
+  public Stream<? extends MetaIndex> streamContainedMetaIndexes() {
+    return delegate.streamContainedMetaIndexes();
+  }
+
+  @Override
+  public MetaIndex getMetaIndexByName(String indexName) {
+    return delegate.getMetaIndexByName(indexName);
+  }
+
+  @Override
+  public List<Tuple2<MetaIndex, List<String>>> getMissingIndexesForNewField(
+      MutableMetaDocPart docPart, MetaField newField) {
+    return delegate.getMissingIndexesForNewField(docPart, newField);
+  }
+
+  @Override
+  public ImmutableMetaCollection immutableCopy() {
+    ImmutableMetaCollection.Builder builder = new ImmutableMetaCollection.Builder(getName(),
+        getIdentifier());
+    streamContainedMetaDocParts().forEach(docPart -> builder.put(docPart.immutableCopy()));
+    delegate.immutableCopy().streamContainedMetaIndexes().forEach(builder::put);
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    return defautToString();
+  }
+
+  private boolean isIncluded(MetaDocPart docPart) {
+    TableRef tableRef = docPart.getTableRef();
+    if (tableRef.isRoot()) {
+      return true;
+    }
+    while (!tableRef.getParent().get().isRoot()) {
+      tableRef = tableRef.getParent().get();
+    }
+    return projection.isIncluded(tableRef.getName());
+  }
+
+  @Nullable
+  private MetaDocPart project(@Nullable MetaDocPart docPart) {
+    if (docPart == null || !isIncluded(docPart)) {
+      return null;
+    }
+    if (!docPart.getTableRef().isRoot()) {
+      return docPart;
+    }
+    return new ProjectedRootMetaDocPart(docPart);
+  }
+
+  private class ProjectedRootMetaDocPart implements MetaDocPart {
+
+    private final MetaDocPart delegate;
+
+    private ProjectedRootMetaDocPart(MetaDocPart delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public TableRef getTableRef() {
+      return delegate.getTableRef();
+    }
+
+    @Override
+    public String getIdentifier() {
+      return delegate.getIdentifier();
+    }
+
+    @Override
+    public Stream<? extends MetaField> streamFields() {
+      return delegate.streamFields()
+          .filter(this::isIncluded);
+    }
+
+    @Override
+    public MetaField getMetaFieldByIdentifier(String fieldId) {
+      MetaField field = delegate.getMetaFieldByIdentifier(fieldId);
+      return field != null && isIncluded(field) ? field : null;
+    }
+
+    @Override
+    public Stream<? extends MetaField> streamMetaFieldByName(String fieldName) {
+      if (!projection.isIncluded(fieldName)) {
+        return Stream.empty();
+      }
+      return delegate.streamMetaFieldByName(fieldName);
+    }
+
+    @Override
+    public MetaField getMetaFieldByNameAndType(String fieldName, FieldType type) {
+      if (!projection.isIncluded(fieldName)) {
+        return null;
+      }
+      return delegate.getMetaFieldByNameAndType(fieldName, type);
+    }
+
+    @Override
+    public Stream<? extends MetaScalar> streamScalars() {
+      return delegate.streamScalars();
+    }
+
+    @Override
+    public Stream<? extends MetaIdentifiedDocPartIndex> streamIndexes() {
+      return delegate.streamIndexes();
+    }
+
+    @Override
+    public MetaIdentifiedDocPartIndex getMetaDocPartIndexByIdentifier(String indexId) {
+      return delegate.getMetaDocPartIndexByIdentifier(indexId);
+    }
+
+    @Override
+    public ImmutableMetaDocPart immutableCopy() {
+      ImmutableMetaDocPart copy = delegate.immutableCopy();
+      ImmutableMetaDocPart.Builder builder = new ImmutableMetaDocPart.Builder(
+          copy.getTableRef(), copy.getIdentifier());
+      copy.streamFields()
+          .filter(this::isIncluded)
+          .forEach(builder::put);
+      copy.streamScalars().forEach(builder::put);
+      copy.streamIndexes().forEach(builder::put);
+      return builder.build();
+    }
+
+    @Override
+    public String toString() {
+      return defautToString();
+    }
+
+    private boolean isIncluded(MetaField field) {
+      return projection.isIncluded(field.getName());
+    }
+  }
+}
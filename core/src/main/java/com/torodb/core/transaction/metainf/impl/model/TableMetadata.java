@@ -44,6 +44,10 @@ public class TableMetadata {
   private final List<MetaField> orderedFields;
   private final List<MetaScalar> orderedScalars;
 
+  private int nextRid;
+  private int ridBlockEnd;
+  private int reservedRids;
+
   public TableMetadata(CollectionMetaInfo collectionMetaInfo, TableRef tableRef) {
     this.collectionMetaInfo = collectionMetaInfo;
     this.tableRef = tableRef;
@@ -66,8 +70,20 @@ public class TableMetadata {
     return orderedScalars;
   }
 
+  /**
+   * Returns the rid of the next row of this doc part.
+   *
+   * <p>Rids are reserved in blocks, so most of the rows get their rid without contention with
+   * other translations.
+   */
   protected int getNextRowId() {
-    return collectionMetaInfo.getNextRowId(tableRef);
+    if (nextRid == ridBlockEnd) {
+      int blockSize = collectionMetaInfo.getRowIdBlockSize(tableRef, reservedRids);
+      nextRid = collectionMetaInfo.reserveRowIds(tableRef, blockSize);
+      ridBlockEnd = nextRid + blockSize;
+      reservedRids += blockSize;
+    }
+    return nextRid++;
   }
 
   protected int findFieldPosition(String key, FieldType type) {
@@ -0,0 +1,79 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.core.util;
+
+import com.torodb.core.document.ToroDocument;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.SortSpec.SortKey;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * Sorts in memory documents by the keys of a {@link SortSpec}, following the same semantics the
+ * SQL backends use: documents without the key go first, strings are compared by their chars and
+ * ties are broken by did.
+ */
+public class SortSpecComparator implements Comparator<ToroDocument> {
+
+  private final SortSpec sortSpec;
+
+  private SortSpecComparator(SortSpec sortSpec) {
+    this.sortSpec = sortSpec;
+  }
+
+  public static Comparator<ToroDocument> create(SortSpec sortSpec) {
+    return new SortSpecComparator(sortSpec);
+  }
+
+  @Override
+  public int compare(ToroDocument doc1, ToroDocument doc2) {
+    for (SortKey key : sortSpec.getKeys()) {
+      int result = compare(
+          AttributeRefKvDocResolver.resolve(key.getAttributeReference(), doc1.getRoot()),
+          AttributeRefKvDocResolver.resolve(key.getAttributeReference(), doc2.getRoot()));
+      if (result != 0) {
+        return key.isAscending() ? result : -result;
+      }
+    }
+    return Integer.compare(doc1.getId(), doc2.getId());
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private int compare(Optional<KvValue<?>> value1, Optional<KvValue<?>> value2) {
+    if (!value1.isPresent() || !value2.isPresent()) {
+      return Boolean.compare(value1.isPresent(), value2.isPresent());
+    }
+    FieldType type1 = FieldType.from(value1.get().getType());
+    FieldType type2 = FieldType.from(value2.get().getType());
+    if (type1 != type2) {
+      return type1.compareTo(type2);
+    }
+    Object object1 = value1.get().getValue();
+    Object object2 = value2.get().getValue();
+    if (!(object1 instanceof Comparable) || !(object2 instanceof Comparable)) {
+      return 0;
+    }
+    return ((Comparable) object1).compareTo(object2);
+  }
+}
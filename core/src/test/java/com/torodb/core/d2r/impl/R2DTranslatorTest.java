@@ -34,13 +34,32 @@ import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.kvdocument.values.KvNull;
 import com.torodb.kvdocument.values.KvValue;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+@RunWith(Parameterized.class)
 public class R2DTranslatorTest {
 
+  @Parameter(0)
+  public String translatorName;
+  @Parameter(1)
+  public R2DTranslator r2dTranslator;
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(
+        new Object[] {"default", new R2DTranslatorImpl()},
+        new Object[] {"primitive", new PrimitiveR2DTranslator()}
+    );
+  }
+
   private TableRefFactory fact = new TableRefFactoryImpl();
   private TableRef rootRef = fact.createRoot();
 
@@ -59,7 +78,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -80,7 +98,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -101,7 +118,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -123,7 +139,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -145,7 +160,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Collections.singletonList(root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     ToroDocument[] readedDocuments = r2dTranslator.translate(lst.iterator()).toArray(
         new ToroDocument[0]);
     assertEquals(2, readedDocuments.length);
@@ -183,7 +197,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Lists.newArrayList(secondLevel, root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -220,7 +233,6 @@ public class R2DTranslatorTest {
 
     List<DocPartResult> lst = Lists.newArrayList(secondLevel, root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -283,7 +295,6 @@ public class R2DTranslatorTest {
         secondLevel,
         root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -337,7 +348,6 @@ public class R2DTranslatorTest {
         secondLevel,
         root);
 
-    R2DTranslator r2dTranslator = new R2DTranslatorImpl();
     Collection<ToroDocument> readedDocuments = r2dTranslator.translate(lst.iterator());
     assertEquals(1, readedDocuments.size());
     KvDocument doc = readedDocuments.iterator().next().getRoot();
@@ -353,4 +363,41 @@ public class R2DTranslatorTest {
     KvDocument doc2 = (KvDocument) kvValueSecond;
     assertEquals("myhome", doc2.get("address").getValue());
   }
+
+  /*
+   * Document 1: { "name" : "jero", "numbers" : [4, 8] } Document 2: { "name" : "john", "numbers" :
+   * [15] }
+   */
+  @Test
+  public void readMultipleDocumentsWithInnerArray() {
+    MetaDocPartBuilder builder = new MetaDocPartBuilder(rootRef);
+    builder.addMetaField("name", "name_s", FieldType.STRING);
+    builder.addMetaField("numbers", "numbers_e", FieldType.CHILD);
+    builder.addRow(1, null, 1, null, "jero", IsArray);
+    builder.addRow(2, null, 2, null, "john", IsArray);
+    MockedDocPartResult root = builder.getResultSet();
+
+    TableRef secondRef = fact.createChild(rootRef, "numbers");
+    MetaDocPartBuilder secondBuilder = new MetaDocPartBuilder(secondRef);
+    secondBuilder.addMetaScalar("v_i", FieldType.INTEGER);
+    secondBuilder.addRow(1, 1, 20, 0, 4);
+    secondBuilder.addRow(1, 1, 21, 1, 8);
+    secondBuilder.addRow(2, 2, 22, 0, 15);
+    MockedDocPartResult secondLevel = secondBuilder.getResultSet();
+
+    List<DocPartResult> lst = Lists.newArrayList(secondLevel, root);
+
+    ToroDocument[] readedDocuments = r2dTranslator.translate(lst.iterator()).toArray(
+        new ToroDocument[0]);
+    assertEquals(2, readedDocuments.length);
+
+    KvArray array1 = (KvArray) readedDocuments[0].getRoot().get("numbers");
+    assertEquals(2, array1.size());
+    assertEquals(4, array1.get(0).getValue());
+    assertEquals(8, array1.get(1).getValue());
+
+    KvArray array2 = (KvArray) readedDocuments[1].getRoot().get("numbers");
+    assertEquals(1, array2.size());
+    assertEquals(15, array2.get(0).getValue());
+  }
 }
@@ -0,0 +1,117 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.core.transaction.metainf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.language.Projection;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ProjectedMetaCollectionTest {
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private TableRef rootRef;
+  private TableRef subDocRef;
+  private TableRef subSubDocRef;
+  private TableRef otherSubDocRef;
+  private ImmutableMetaCollection col;
+
+  @Before
+  public void setUp() {
+    rootRef = tableRefFactory.createRoot();
+    subDocRef = tableRefFactory.createChild(rootRef, "a");
+    subSubDocRef = tableRefFactory.createChild(subDocRef, "b");
+    otherSubDocRef = tableRefFactory.createChild(rootRef, "c");
+
+    col = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+            .put(new ImmutableMetaField("_id", "_id_x", FieldType.INTEGER))
+            .put(new ImmutableMetaField("a", "a_e", FieldType.CHILD))
+            .put(new ImmutableMetaField("c", "c_e", FieldType.CHILD))
+            .put(new ImmutableMetaField("d", "d_s", FieldType.STRING)))
+        .put(new ImmutableMetaDocPart.Builder(subDocRef, "col_a")
+            .put(new ImmutableMetaField("b", "b_e", FieldType.CHILD)))
+        .put(new ImmutableMetaDocPart.Builder(subSubDocRef, "col_a_b")
+            .put(new ImmutableMetaField("x", "x_i", FieldType.INTEGER)))
+        .put(new ImmutableMetaDocPart.Builder(otherSubDocRef, "col_c")
+            .put(new ImmutableMetaField("y", "y_i", FieldType.INTEGER)))
+        .build();
+  }
+
+  @Test
+  public void allReturnsTheSameCollection() {
+    assertSame(col, ProjectedMetaCollection.project(col, Projection.all()));
+  }
+
+  @Test
+  public void inclusionSkipsUnreferencedDocParts() {
+    MetaCollection projected = ProjectedMetaCollection.project(col,
+        Projection.including(ImmutableList.of("_id", "a")));
+
+    assertEquals(ImmutableSet.of("col", "col_a", "col_a_b"), getDocPartIdentifiers(projected));
+    assertNull(projected.getMetaDocPartByTableRef(otherSubDocRef));
+    assertNotNull(projected.getMetaDocPartByTableRef(subSubDocRef));
+
+    MetaDocPart root = projected.getMetaDocPartByTableRef(rootRef);
+    assertEquals(ImmutableSet.of("_id", "a"),
+        root.streamFields().map(MetaField::getName).collect(Collectors.toSet()));
+    assertNull(root.getMetaFieldByNameAndType("d", FieldType.STRING));
+    assertNull(root.getMetaFieldByIdentifier("c_e"));
+  }
+
+  @Test
+  public void exclusionKeepsTheOtherAttributes() {
+    MetaCollection projected = ProjectedMetaCollection.project(col,
+        Projection.excluding(Collections.singleton("a")));
+
+    assertEquals(ImmutableSet.of("col", "col_c"), getDocPartIdentifiers(projected));
+    assertEquals(3, projected.getMetaDocPartByTableRef(rootRef).streamFields().count());
+  }
+
+  @Test
+  public void immutableCopyIsProjected() {
+    ImmutableMetaCollection copy = ProjectedMetaCollection.project(col,
+        Projection.including(Collections.singleton("d")))
+        .immutableCopy();
+
+    assertEquals(Collections.singleton("col"), getDocPartIdentifiers(copy));
+    assertEquals(1, copy.getMetaDocPartByTableRef(rootRef).streamFields().count());
+  }
+
+  private Set<String> getDocPartIdentifiers(MetaCollection col) {
+    return col.streamContainedMetaDocParts()
+        .map(MetaDocPart::getIdentifier)
+        .collect(Collectors.toSet());
+  }
+}
@@ -18,12 +18,17 @@
 
 package com.torodb.mongodb.commands.impl.aggregation;
 
+import com.torodb.core.language.filter.Filter;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
+import com.torodb.mongodb.commands.impl.general.FilterParser;
 import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
 import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
+import com.torodb.mongowp.exceptions.CommandFailed;
+import com.torodb.torod.TorodTransaction;
 
 import javax.inject.Singleton;
 
@@ -36,10 +41,27 @@ public class CountImplementation implements ReadTorodbCommandImpl<CountArgument,
   @Override
   public Status<Long> apply(Request req, Command<? super CountArgument, ? super Long> command,
       CountArgument arg, MongodTransaction context) {
-    return Status.ok(
-        context.getTorodTransaction()
-            .countAll(req.getDatabase(), arg.getCollection())
-    );
+    TorodTransaction transaction = context.getTorodTransaction();
+    BsonDocument query = arg.getQuery();
+
+    long count;
+    if (query == null || query.size() == 0) {
+      count = transaction.estimateCountAll(req.getDatabase(), arg.getCollection());
+    } else {
+      Filter filter;
+      try {
+        filter = FilterParser.parse("count", query);
+      } catch (CommandFailed ex) {
+        return Status.from(ex);
+      }
+      count = transaction.count(req.getDatabase(), arg.getCollection(), filter);
+    }
+
+    count = Math.max(0, count - arg.getSkip());
+    if (arg.getLimit() != 0) {
+      count = Math.min(count, Math.abs(arg.getLimit()));
+    }
+    return Status.ok(count);
   }
 
 }
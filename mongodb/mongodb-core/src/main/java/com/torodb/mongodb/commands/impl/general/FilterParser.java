@@ -0,0 +1,196 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.mongodb.commands.impl.general;
+
+import com.google.common.base.Splitter;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.filter.AndFilter;
+import com.torodb.core.language.filter.CompareFilter;
+import com.torodb.core.language.filter.ComparisonOperator;
+import com.torodb.core.language.filter.ExistsFilter;
+import com.torodb.core.language.filter.Filter;
+import com.torodb.core.language.filter.InFilter;
+import com.torodb.core.language.filter.OrFilter;
+import com.torodb.kvdocument.conversion.mongowp.MongoWpConverter;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.exceptions.CommandFailed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates a MongoDB query document into a {@link Filter}.
+ *
+ * <p>Supported operators are <em>$and</em>, <em>$or</em>, <em>$eq</em>, <em>$ne</em>,
+ * <em>$gt</em>, <em>$gte</em>, <em>$lt</em>, <em>$lte</em>, <em>$in</em> and <em>$exists</em>.
+ * Comparisons with arrays are not supported. As {@link AttrRefHelper} does, a document value that
+ * does not contain operators is treated as a reference to its inner attributes.
+ */
+public class FilterParser {
+
+  private FilterParser() {
+  }
+
+  public static Filter parse(String commandName, BsonDocument query) throws CommandFailed {
+    return and(parseDocument(commandName, query));
+  }
+
+  private static List<Filter> parseDocument(String commandName, BsonDocument query)
+      throws CommandFailed {
+    List<Filter> result = new ArrayList<>(query.size());
+    for (Entry<?> entry : query) {
+      String key = entry.getKey();
+      switch (key) {
+        case "$and":
+          result.add(and(parseJunction(commandName, key, entry.getValue())));
+          break;
+        case "$or":
+          result.add(or(parseJunction(commandName, key, entry.getValue())));
+          break;
+        default:
+          if (key.startsWith("$")) {
+            throw new CommandFailed(commandName, "Operator " + key
+                + " is not supported right now");
+          }
+          parseAttribute(commandName, append(AttributeReference.EMPTY_REFERENCE, key), entry
+              .getValue(), result);
+      }
+    }
+    return result;
+  }
+
+  private static List<Filter> parseJunction(String commandName, String operator,
+      BsonValue<?> value) throws CommandFailed {
+    if (!value.isArray() || value.asArray().asList().isEmpty()) {
+      throw new CommandFailed(commandName, operator + " must be a nonempty array");
+    }
+    List<Filter> result = new ArrayList<>();
+    for (BsonValue<?> element : value.asArray()) {
+      if (!element.isDocument()) {
+        throw new CommandFailed(commandName, operator + " entries must be documents");
+      }
+      result.add(and(parseDocument(commandName, element.asDocument())));
+    }
+    return result;
+  }
+
+  private static void parseAttribute(String commandName, AttributeReference attRef,
+      BsonValue<?> value, List<Filter> result) throws CommandFailed {
+    if (value.isArray()) {
+      throw new CommandFailed(commandName, "Filters with arrays are not supported right now");
+    }
+    if (!value.isDocument()) {
+      result.add(new CompareFilter(attRef, ComparisonOperator.EQ, translate(commandName, value)));
+      return;
+    }
+    BsonDocument doc = value.asDocument();
+    if (doc.size() == 0) {
+      throw new CommandFailed(commandName, "Filters with empty documents are not supported right "
+          + "now");
+    }
+    if (doc.getFirstEntry().getKey().startsWith("$")) {
+      for (Entry<?> entry : doc) {
+        result.add(parseOperator(commandName, attRef, entry.getKey(), entry.getValue()));
+      }
+    } else {
+      for (Entry<?> entry : doc) {
+        parseAttribute(commandName, append(attRef, entry.getKey()), entry.getValue(), result);
+      }
+    }
+  }
+
+  private static Filter parseOperator(String commandName, AttributeReference attRef,
+      String operator, BsonValue<?> value) throws CommandFailed {
+    switch (operator) {
+      case "$eq":
+        return new CompareFilter(attRef, ComparisonOperator.EQ, translate(commandName, value));
+      case "$ne":
+        return new CompareFilter(attRef, ComparisonOperator.NE, translate(commandName, value));
+      case "$gt":
+        return new CompareFilter(attRef, ComparisonOperator.GT, translate(commandName, value));
+      case "$gte":
+        return new CompareFilter(attRef, ComparisonOperator.GTE, translate(commandName, value));
+      case "$lt":
+        return new CompareFilter(attRef, ComparisonOperator.LT, translate(commandName, value));
+      case "$lte":
+        return new CompareFilter(attRef, ComparisonOperator.LTE, translate(commandName, value));
+      case "$in": {
+        if (!value.isArray()) {
+          throw new CommandFailed(commandName, "$in needs an array");
+        }
+        List<KvValue<?>> values = new ArrayList<>();
+        for (BsonValue<?> element : value.asArray()) {
+          values.add(translate(commandName, element));
+        }
+        return new InFilter(attRef, values);
+      }
+      case "$exists":
+        return new ExistsFilter(attRef, isTrue(value));
+      default:
+        throw new CommandFailed(commandName, "Operator " + operator
+            + " is not supported right now");
+    }
+  }
+
+  private static KvValue<?> translate(String commandName, BsonValue<?> value)
+      throws CommandFailed {
+    if (value.isArray() || value.isDocument()) {
+      throw new CommandFailed(commandName, "Filters that compare with arrays or documents are not "
+          + "supported right now");
+    }
+    return MongoWpConverter.translate(value);
+  }
+
+  private static boolean isTrue(BsonValue<?> value) {
+    if (value.isBoolean()) {
+      return value.asBoolean().getPrimitiveValue();
+    }
+    if (value.isNumber()) {
+      return value.asNumber().intValue() != 0;
+    }
+    return !value.isNull();
+  }
+
+  private static AttributeReference append(AttributeReference attRef, String path) {
+    List<AttributeReference.Key<?>> keys = new ArrayList<>();
+    for (String subKey : Splitter.on('.').split(path)) {
+      keys.add(new AttributeReference.ObjectKey(subKey));
+    }
+    return attRef.append(keys);
+  }
+
+  private static Filter and(List<Filter> filters) {
+    if (filters.size() == 1) {
+      return filters.get(0);
+    }
+    return new AndFilter(filters);
+  }
+
+  private static Filter or(List<Filter> filters) {
+    if (filters.size() == 1) {
+      return filters.get(0);
+    }
+    return new OrFilter(filters);
+  }
+
+}
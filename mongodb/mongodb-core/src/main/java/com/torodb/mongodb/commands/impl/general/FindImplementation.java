@@ -18,36 +18,48 @@
 
 package com.torodb.mongodb.commands.impl.general;
 
+import com.google.common.base.Splitter;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.language.AttributeReference;
-import com.torodb.core.language.AttributeReference.Builder;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.SortSpec.SortKey;
+import com.torodb.core.language.filter.Filter;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.kvdocument.conversion.mongowp.ToBsonDocumentTranslator;
 import com.torodb.kvdocument.values.KvDocument;
-import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.commands.impl.ReadTorodbCommandImpl;
 import com.torodb.mongodb.commands.pojos.CursorResult;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
+import com.torodb.mongodb.core.MongodConnection;
 import com.torodb.mongodb.core.MongodTransaction;
 import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
+import com.torodb.mongowp.exceptions.BadValueException;
 import com.torodb.mongowp.exceptions.CommandFailed;
+import com.torodb.torod.SortTooBigException;
 import com.torodb.torod.TorodTransaction;
+import com.torodb.torod.cursors.TorodCursor;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
 public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, FindResult> {
 
+  private static final int DEFAULT_BATCH_SIZE = 101;
+
   private final Logger logger;
 
   @Inject
@@ -61,31 +73,20 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
       MongodTransaction context) {
     logFindCommand(arg);
 
-    BsonDocument filter = arg.getFilter();
-
-    Cursor<BsonDocument> cursor;
-
-    switch (filter.size()) {
-      case 0: {
-        cursor = context.getTorodTransaction().findAll(req.getDatabase(), arg.getCollection())
-            .asDocCursor()
-            .transform(t -> t.getRoot())
-            .transform(ToBsonDocumentTranslator.getInstance());
-        break;
-      }
-      case 1: {
-        try {
-          cursor = getByAttributeCursor(context.getTorodTransaction(), req.getDatabase(), arg
-              .getCollection(), filter)
-              .transform(ToBsonDocumentTranslator.getInstance());
-        } catch (CommandFailed ex) {
-          return Status.from(ex);
-        }
-        break;
-      }
-      default: {
-        return Status.from(ErrorCode.COMMAND_FAILED, "The given query is not supported right now");
-      }
+    String database = req.getDatabase();
+    String collection = arg.getCollection();
+
+    Filter filter;
+    Projection projection;
+    SortSpec sortSpec;
+    try {
+      filter = parseFilter(arg.getFilter());
+      projection = parseProjection(arg.getProjection());
+      sortSpec = parseSortSpec(arg);
+    } catch (CommandFailed ex) {
+      return Status.from(ex);
+    } catch (BadValueException ex) {
+      return Status.from(ex);
     }
 
     if (Long.valueOf(arg.getBatchSize()) > (long) Integer.MAX_VALUE) {
@@ -93,25 +94,111 @@ public class FindImplementation implements ReadTorodbCommandImpl<FindArgument, F
           + Integer.MAX_VALUE + " is supported");
     }
 
-    OptionalLong batchSize = arg.getEffectiveBatchSize();
-    List<BsonDocument> batch = cursor.getNextBatch(batchSize.isPresent() ? (int) batchSize
-        .getAsLong() : 101);
-    cursor.close();
+    OptionalLong effectiveBatchSize = arg.getEffectiveBatchSize();
+    int batchSize = effectiveBatchSize.isPresent() ? (int) effectiveBatchSize.getAsLong() :
+        DEFAULT_BATCH_SIZE;
+
+    //a server cursor is only opened when the results could not fit on the first batch, as each
+    //one holds a connection until it is exhausted, killed or evicted
+    boolean fitsOnFirstBatch = arg.getLimit() > 0 && arg.getLimit() <= batchSize;
+    try {
+      if (!arg.isWantMore() || fitsOnFirstBatch) {
+        Cursor<BsonDocument> cursor = createCursor(context.getTorodTransaction(), database,
+            collection, filter, projection, sortSpec);
+        List<BsonDocument> batch = cursor.getNextBatch(batchSize);
+        cursor.close();
+
+        return Status.ok(new FindResult(CursorResult.createSingleBatchCursor(database,
+            collection, batch.iterator())));
+      }
+
+      MongodConnection connection = context.getConnection();
+      CursorResult<BsonDocument> cursorResult = connection.getServer().getCursorRegistry()
+          .openCursor(connection, connection.getTorodConnection().getServer(), database,
+              collection, batchSize, trans -> createCursor(trans, database, collection, filter,
+                  projection, sortSpec));
+
+      return Status.ok(new FindResult(cursorResult));
+    } catch (SortTooBigException ex) {
+      return Status.from(ErrorCode.OPERATION_FAILED, ex.getMessage());
+    }
+  }
 
-    return Status.ok(new FindResult(CursorResult.createSingleBatchCursor(req.getDatabase(), arg
-        .getCollection(), batch.iterator())));
+  /**
+   * Returns the parsed filter or null if the given filter matches all documents.
+   */
+  @Nullable
+  private Filter parseFilter(BsonDocument filter) throws CommandFailed {
+    if (filter.size() == 0) {
+      return null;
+    }
+    return FilterParser.parse("find", filter);
+  }
 
+  /**
+   * Returns the parsed projection or {@link Projection#all()} if there is no projection.
+   */
+  private Projection parseProjection(@Nullable BsonDocument projection) throws CommandFailed {
+    if (projection == null || projection.size() == 0) {
+      return Projection.all();
+    }
+    return ProjectionParser.parse("find", projection);
   }
 
-  private Cursor<KvDocument> getByAttributeCursor(TorodTransaction transaction, String db,
-      String col, BsonDocument filter) throws CommandFailed {
+  /**
+   * Returns the sort, skip and limit the find has to apply.
+   *
+   * <p>Sorts that use <em>$meta</em> or <em>$natural</em> are not supported and are rejected
+   * like any other sort whose keys are not sorted by a positive or negative number.
+   */
+  private SortSpec parseSortSpec(FindArgument arg) throws CommandFailed, BadValueException {
+    if (arg.getSkip() < 0 || arg.getLimit() < 0) {
+      throw new CommandFailed("find", "Negative skip and limit values are not supported");
+    }
+    List<SortKey> keys = new ArrayList<>();
+    BsonDocument sort = arg.getSort();
+    if (sort != null) {
+      for (Entry<?> entry : sort) {
+        if (entry.getKey().startsWith("$")) {
+          throw new BadValueException("Sorts by " + entry.getKey() + " are not supported");
+        }
+        if (!entry.getValue().isNumber()) {
+          throw new BadValueException("Sorts that are not by a number, like the one on "
+              + entry.getKey() + ", are not supported");
+        }
+        double direction = entry.getValue().asNumber().doubleValue();
+        if (direction == 0 || Double.isNaN(direction)) {
+          throw new BadValueException("Bad sort specification: the sort on " + entry.getKey()
+              + " must be positive or negative");
+        }
+        keys.add(new SortKey(createAttRef(entry.getKey()), direction > 0));
+      }
+    }
+    return SortSpec.of(keys, arg.getSkip(), arg.getLimit());
+  }
 
-    Builder refBuilder = new AttributeReference.Builder();
-    KvValue<?> kvValue = AttrRefHelper.calculateValueAndAttRef(filter, refBuilder);
+  private AttributeReference createAttRef(String path) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String subKey : Splitter.on('.').split(path)) {
+      builder.addObjectKey(subKey);
+    }
+    return builder.build();
+  }
 
-    return transaction.findByAttRef(db, col, refBuilder.build(), kvValue)
-        .asDocCursor()
+  private Cursor<BsonDocument> createCursor(TorodTransaction transaction, String db,
+      String col, @Nullable Filter filter, Projection projection, SortSpec sortSpec) {
+    TorodCursor torodCursor;
+    if (filter == null) {
+      torodCursor = transaction.findAll(db, col, sortSpec);
+    } else {
+      torodCursor = transaction.findByFilter(db, col, filter, sortSpec);
+    }
+    if (!projection.isAll()) {
+      torodCursor = transaction.fetch(db, col, torodCursor.asDidCursor(), projection);
+    }
+    Cursor<KvDocument> cursor = torodCursor.asDocCursor()
         .transform(t -> t.getRoot());
+    return cursor.transform(ToBsonDocumentTranslator.getInstance());
   }
 
   private void logFindCommand(FindArgument arg) {
@@ -0,0 +1,60 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.mongodb.commands.impl.general;
+
+import com.torodb.mongodb.commands.impl.ConnectionTorodbCommandImpl;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreArgument;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreResult;
+import com.torodb.mongodb.core.MongodConnection;
+import com.torodb.mongowp.ErrorCode;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.commands.Command;
+import com.torodb.mongowp.commands.Request;
+
+import java.util.Optional;
+
+public class GetMoreImplementation
+    extends ConnectionTorodbCommandImpl<GetMoreArgument, GetMoreResult> {
+
+  /**
+   * The batch size used when the client does not specify one. MongoDB limits these batches by
+   * size instead, but documents are not serialized at this point.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  @Override
+  public Status<GetMoreResult> apply(Request req,
+      Command<? super GetMoreArgument, ? super GetMoreResult> command, GetMoreArgument arg,
+      MongodConnection context) {
+    int batchSize = arg.getBatchSize() > 0 ? arg.getBatchSize() : DEFAULT_BATCH_SIZE;
+
+    Optional<CursorResult<BsonDocument>> batch = context.getServer().getCursorRegistry()
+        .getMore(arg.getCursorId(), req.getDatabase(), arg.getCollection(), batchSize);
+
+    if (!batch.isPresent()) {
+      return Status.from(ErrorCode.CURSOR_NOT_FOUND, "Cursor not found, cursor id: "
+          + arg.getCursorId());
+    }
+    return Status.ok(new GetMoreResult(batch.get()));
+  }
+
+}
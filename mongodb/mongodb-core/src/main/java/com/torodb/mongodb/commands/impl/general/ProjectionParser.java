@@ -0,0 +1,103 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.mongodb.commands.impl.general;
+
+import com.torodb.core.language.Projection;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.exceptions.CommandFailed;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Translates a MongoDB projection document into a {@link Projection}.
+ *
+ * <p>Projections are evaluated with top level granularity, so including <em>a.b</em> includes
+ * the whole <em>a</em> attribute and excluding <em>a.b</em> excludes nothing. Projection
+ * operators like <em>$slice</em>, <em>$elemMatch</em> or <em>$meta</em> are not supported and
+ * make the whole projection to be ignored. In both cases the returned projection includes, at
+ * least, what the client asked for.
+ */
+public class ProjectionParser {
+
+  private static final String ID_KEY = "_id";
+
+  private ProjectionParser() {
+  }
+
+  public static Projection parse(String commandName, BsonDocument projection)
+      throws CommandFailed {
+    Set<String> included = new HashSet<>();
+    Set<String> excluded = new HashSet<>();
+    boolean idExcluded = false;
+    boolean dottedExclusion = false;
+    for (Entry<?> entry : projection) {
+      String key = entry.getKey();
+      BsonValue<?> value = entry.getValue();
+      if (value.isDocument() || key.startsWith("$")) {
+        return Projection.all();
+      }
+      int dotIndex = key.indexOf('.');
+      String topLevelKey = dotIndex < 0 ? key : key.substring(0, dotIndex);
+      if (isTrue(value)) {
+        included.add(topLevelKey);
+      } else if (key.equals(ID_KEY)) {
+        idExcluded = true;
+      } else if (dotIndex < 0) {
+        excluded.add(topLevelKey);
+      } else {
+        dottedExclusion = true;
+      }
+    }
+    boolean idIncluded = included.remove(ID_KEY);
+
+    if (!included.isEmpty()) {
+      if (!excluded.isEmpty() || dottedExclusion) {
+        throw new CommandFailed(commandName,
+            "Projection cannot have a mix of inclusion and exclusion.");
+      }
+      if (!idExcluded) {
+        included.add(ID_KEY);
+      }
+      return Projection.including(included);
+    }
+    if (idIncluded && excluded.isEmpty() && !dottedExclusion) {
+      included.add(ID_KEY);
+      return Projection.including(included);
+    }
+    if (idExcluded) {
+      excluded.add(ID_KEY);
+    }
+    return Projection.excluding(excluded);
+  }
+
+  private static boolean isTrue(BsonValue<?> value) {
+    if (value.isBoolean()) {
+      return value.asBoolean().getPrimitiveValue();
+    }
+    if (value.isNumber()) {
+      return value.asNumber().doubleValue() != 0;
+    }
+    return true;
+  }
+}
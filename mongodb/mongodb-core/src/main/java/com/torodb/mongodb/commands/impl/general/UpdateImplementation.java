@@ -128,19 +128,14 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
             Stream<KvDocument> updatedCandidates = candidatesbatchStream
                 .map(candidates -> {
                   updateStatus.increaseCandidates(candidates.size());
-                  context.getTorodTransaction().delete(req.getDatabase(), arg.getCollection(),
-                      candidates);
-                  return candidates;
-                })
-                .flatMap(l -> l.stream())
-                .map(candidate -> {
                   try {
-                    updateStatus.increaseUpdated();
-                    return update(updateAction, candidate);
+                    return updateBatch(context.getTorodTransaction(), req.getDatabase(),
+                        arg.getCollection(), updateAction, candidates, updateStatus);
                   } catch (UserException userException) {
                     throw new UserWrappedException(userException);
                   }
-                });
+                })
+                .flatMap(l -> l.stream());
             context.getTorodTransaction().insert(req.getDatabase(), arg.getCollection(),
                 updatedCandidates);
           } catch (UserWrappedException userWrappedException) {
@@ -204,6 +199,31 @@ public class UpdateImplementation implements WriteTorodbCommandImpl<UpdateArgume
     }
   }
 
+  /**
+   * Updates a batch of candidates, modifying them in place when possible.
+   *
+   * @return the new version of the candidates that could not be updated in place, which have been
+   *         deleted and must be inserted again
+   */
+  private List<KvDocument> updateBatch(SharedWriteTorodTransaction transaction, String db,
+      String col, UpdateAction updateAction, List<ToroDocument> candidates,
+      UpdateStatus updateStatus) throws UserException {
+    List<ToroDocument> toDelete = new ArrayList<>();
+    List<KvDocument> toInsert = new ArrayList<>();
+    for (ToroDocument candidate : candidates) {
+      KvDocument updated = update(updateAction, candidate);
+      updateStatus.increaseUpdated();
+      if (!transaction.updateInPlace(db, col, candidate, updated)) {
+        toDelete.add(candidate);
+        toInsert.add(updated);
+      }
+    }
+    if (!toDelete.isEmpty()) {
+      transaction.delete(db, col, toDelete);
+    }
+    return toInsert;
+  }
+
   protected KvDocument update(UpdateAction updateAction, ToroDocument candidate) throws
       UpdateException {
     UpdatedToroDocumentBuilder builder =
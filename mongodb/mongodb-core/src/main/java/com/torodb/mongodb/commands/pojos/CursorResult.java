@@ -40,18 +40,32 @@ public abstract class CursorResult<E> {
   private static final LongField ID_FIELD = new LongField("id");
   private static final StringField NAMESPACE_FIELD = new StringField("ns");
   private static final ArrayField FIRST_BATCH_FIELD = new ArrayField("firstBatch");
+  private static final ArrayField NEXT_BATCH_FIELD = new ArrayField("nextBatch");
 
   public BsonDocument marshall(Function<E, ? extends BsonValue<?>> transformation) {
+    return marshall(transformation, FIRST_BATCH_FIELD);
+  }
+
+  /**
+   * Marshalls this cursor as the reply of a {@code getMore} command, where the batch is stored on
+   * the {@code nextBatch} field.
+   */
+  public BsonDocument marshallAsNextBatch(Function<E, ? extends BsonValue<?>> transformation) {
+    return marshall(transformation, NEXT_BATCH_FIELD);
+  }
+
+  private BsonDocument marshall(Function<E, ? extends BsonValue<?>> transformation,
+      ArrayField batchField) {
     BsonArrayBuilder array = new BsonArrayBuilder();
-    Iterator<E> firstBatch = getFirstBatch();
-    while (firstBatch.hasNext()) {
-      array.add(transformation.apply(firstBatch.next()));
+    Iterator<E> batch = getFirstBatch();
+    while (batch.hasNext()) {
+      array.add(transformation.apply(batch.next()));
     }
 
     return new BsonDocumentBuilder()
         .append(ID_FIELD, getCursorId())
         .append(NAMESPACE_FIELD, getDatabase() + '.' + getCollection())
-        .append(FIRST_BATCH_FIELD, array.build())
+        .append(batchField, array.build())
         .build();
   }
 
@@ -64,9 +78,26 @@ public abstract class CursorResult<E> {
     return new DefaultCursorResult<>(db, col, 0, stream.iterator());
   }
 
+  public static <E> CursorResult<E> createCursor(String db, String col, long cursorId,
+      Iterator<E> firstBatch) {
+    return new DefaultCursorResult<>(db, col, cursorId, firstBatch);
+  }
+
   public static <E> CursorResult<E> unmarshall(BsonDocument doc,
       Function<BsonValue<?>, E> transformation)
       throws BadValueException, TypesMismatchException, NoSuchKeyException {
+    return unmarshall(doc, transformation, FIRST_BATCH_FIELD);
+  }
+
+  public static <E> CursorResult<E> unmarshallNextBatch(BsonDocument doc,
+      Function<BsonValue<?>, E> transformation)
+      throws BadValueException, TypesMismatchException, NoSuchKeyException {
+    return unmarshall(doc, transformation, NEXT_BATCH_FIELD);
+  }
+
+  private static <E> CursorResult<E> unmarshall(BsonDocument doc,
+      Function<BsonValue<?>, E> transformation, ArrayField batchField)
+      throws BadValueException, TypesMismatchException, NoSuchKeyException {
 
     String ns = BsonReaderTool.getString(doc, NAMESPACE_FIELD);
     int dotIndex = ns.indexOf('.');
@@ -83,7 +114,7 @@ public abstract class CursorResult<E> {
     }
 
     ArrayList<E> list = new ArrayList<>();
-    for (BsonValue<?> element : BsonReaderTool.getArray(doc, FIRST_BATCH_FIELD)) {
+    for (BsonValue<?> element : BsonReaderTool.getArray(doc, batchField)) {
       list.add(transformation.apply(element));
     }
 
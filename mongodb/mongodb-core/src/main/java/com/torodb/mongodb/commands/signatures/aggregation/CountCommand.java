@@ -65,7 +65,7 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
 
   @Override
   public BsonDocument marshallArg(CountArgument request) {
-    throw new UnsupportedOperationException("Not supported yet."); //TODO
+    return request.marshall();
   }
 
   @Override
@@ -88,7 +88,7 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
 
   public static class CountArgument {
 
-    private final BsonDocument query; //TODO(gortiz) parse query
+    private final BsonDocument query;
     private final String collection;
     @Nullable
     private final String hint;
@@ -147,6 +147,7 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
     private static final LongField LIMIT_FIELD = new LongField("limit");
     private static final DocField QUERY_FIELD = new DocField("query");
     private static final String HINT_FIELD_NAME = "hint";
+    private static final StringField HINT_FIELD = new StringField(HINT_FIELD_NAME);
 
     public static CountArgument unmarshall(BsonDocument doc) throws TypesMismatchException,
         BadValueException, NoSuchKeyException {
@@ -189,6 +190,24 @@ public class CountCommand extends AbstractNotAliasableCommand<CountArgument, Lon
 
       return new CountArgument(collection, query, hint, limit, skip);
     }
+
+    private BsonDocument marshall() {
+      BsonDocumentBuilder builder = new BsonDocumentBuilder()
+          .append(COUNT_FIELD, collection);
+      if (query != null && !query.isEmpty()) {
+        builder.append(QUERY_FIELD, query);
+      }
+      if (limit != 0) {
+        builder.append(LIMIT_FIELD, limit);
+      }
+      if (skip != 0) {
+        builder.append(SKIP_FIELD, skip);
+      }
+      if (hint != null) {
+        builder.append(HINT_FIELD, hint);
+      }
+      return builder.build();
+    }
   }
 
 }
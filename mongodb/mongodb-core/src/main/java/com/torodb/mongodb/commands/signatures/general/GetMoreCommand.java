@@ -0,0 +1,183 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.mongodb.commands.signatures.general;
+
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreArgument;
+import com.torodb.mongodb.commands.signatures.general.GetMoreCommand.GetMoreResult;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.MarshalException;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.FailedToParseException;
+import com.torodb.mongowp.exceptions.MongoException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.IntField;
+import com.torodb.mongowp.fields.LongField;
+import com.torodb.mongowp.fields.NumberField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Returns the next batch of a cursor that has been previously opened by a {@code find} command.
+ */
+public class GetMoreCommand extends AbstractNotAliasableCommand<GetMoreArgument, GetMoreResult> {
+
+  public static final GetMoreCommand INSTANCE = new GetMoreCommand();
+  private static final String COMMAND_NAME = "getMore";
+  private static final Function<BsonDocument, BsonDocument> IDENTITY = (o) -> o;
+  private static final Function<BsonValue<?>, BsonDocument> DOWN_CAST = (o) -> o.asDocument();
+
+  private GetMoreCommand() {
+    super(COMMAND_NAME);
+  }
+
+  @Override
+  public boolean isSlaveOk() {
+    return true;
+  }
+
+  @Override
+  public Class<? extends GetMoreArgument> getArgClass() {
+    return GetMoreArgument.class;
+  }
+
+  @Override
+  public GetMoreArgument unmarshallArg(BsonDocument requestDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException, FailedToParseException {
+    return GetMoreArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(GetMoreArgument request) throws MarshalException {
+    return request.marshall();
+  }
+
+  @Override
+  public Class<? extends GetMoreResult> getResultClass() {
+    return GetMoreResult.class;
+  }
+
+  @Override
+  public GetMoreResult unmarshallResult(BsonDocument resultDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException, FailedToParseException, MongoException {
+    return GetMoreResult.unmarshall(resultDoc);
+  }
+
+  @Override
+  public BsonDocument marshallResult(GetMoreResult result) throws MarshalException {
+    return result.marshall();
+  }
+
+  public static class GetMoreArgument {
+
+    private static final NumberField<?> CURSOR_ID_FIELD = new NumberField<>(COMMAND_NAME);
+    private static final LongField CURSOR_ID_LONG_FIELD = new LongField(COMMAND_NAME);
+    private static final StringField COLLECTION_FIELD = new StringField("collection");
+    private static final NumberField<?> BATCH_SIZE_FIELD = new NumberField<>("batchSize");
+    private static final IntField BATCH_SIZE_INT_FIELD = new IntField("batchSize");
+
+    private final long cursorId;
+    private final String collection;
+    private final int batchSize;
+
+    public GetMoreArgument(long cursorId, @Nonnull String collection,
+        @Nonnegative int batchSize) {
+      this.cursorId = cursorId;
+      this.collection = collection;
+      this.batchSize = batchSize;
+    }
+
+    public long getCursorId() {
+      return cursorId;
+    }
+
+    @Nonnull
+    public String getCollection() {
+      return collection;
+    }
+
+    /**
+     * Returns the max number of documents to return or 0 if the default batch size should be used.
+     */
+    @Nonnegative
+    public int getBatchSize() {
+      return batchSize;
+    }
+
+    private static GetMoreArgument unmarshall(BsonDocument requestDoc)
+        throws TypesMismatchException, NoSuchKeyException, BadValueException {
+      long cursorId = BsonReaderTool.getNumeric(requestDoc, CURSOR_ID_FIELD).longValue();
+      if (cursorId == 0) {
+        throw new BadValueException("Cursor id must not be 0");
+      }
+      String collection = BsonReaderTool.getString(requestDoc, COLLECTION_FIELD);
+      long batchSize = BsonReaderTool.getNumeric(requestDoc, BATCH_SIZE_FIELD,
+          DefaultBsonValues.INT32_ZERO).longValue();
+      if (batchSize < 0 || batchSize > Integer.MAX_VALUE) {
+        throw new BadValueException("Batch size for getMore must be a non negative integer");
+      }
+
+      return new GetMoreArgument(cursorId, collection, (int) batchSize);
+    }
+
+    private BsonDocument marshall() {
+      BsonDocumentBuilder builder = new BsonDocumentBuilder()
+          .append(CURSOR_ID_LONG_FIELD, cursorId)
+          .append(COLLECTION_FIELD, collection);
+      if (batchSize > 0) {
+        builder.append(BATCH_SIZE_INT_FIELD, batchSize);
+      }
+      return builder.build();
+    }
+  }
+
+  public static class GetMoreResult {
+
+    private final CursorResult<BsonDocument> cursor;
+
+    public GetMoreResult(CursorResult<BsonDocument> cursor) {
+      this.cursor = cursor;
+    }
+
+    public CursorResult<BsonDocument> getCursor() {
+      return cursor;
+    }
+
+    private static GetMoreResult unmarshall(BsonDocument resultDoc) throws BadValueException,
+        TypesMismatchException, NoSuchKeyException {
+      return new GetMoreResult(CursorResult.unmarshallNextBatch(resultDoc, DOWN_CAST));
+    }
+
+    private BsonDocument marshall() {
+      return cursor.marshallAsNextBatch(IDENTITY);
+    }
+  }
+
+}
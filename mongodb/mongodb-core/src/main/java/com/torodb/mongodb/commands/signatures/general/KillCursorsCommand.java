@@ -0,0 +1,198 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.mongodb.commands.signatures.general;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand.KillCursorsArgument;
+import com.torodb.mongodb.commands.signatures.general.KillCursorsCommand.KillCursorsResult;
+import com.torodb.mongowp.bson.BsonArray;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.commands.MarshalException;
+import com.torodb.mongowp.commands.impl.AbstractNotAliasableCommand;
+import com.torodb.mongowp.exceptions.BadValueException;
+import com.torodb.mongowp.exceptions.FailedToParseException;
+import com.torodb.mongowp.exceptions.MongoException;
+import com.torodb.mongowp.exceptions.NoSuchKeyException;
+import com.torodb.mongowp.exceptions.TypesMismatchException;
+import com.torodb.mongowp.fields.ArrayField;
+import com.torodb.mongowp.fields.StringField;
+import com.torodb.mongowp.utils.BsonArrayBuilder;
+import com.torodb.mongowp.utils.BsonDocumentBuilder;
+import com.torodb.mongowp.utils.BsonReaderTool;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Closes the given cursors, releasing the resources they hold on the server.
+ */
+public class KillCursorsCommand
+    extends AbstractNotAliasableCommand<KillCursorsArgument, KillCursorsResult> {
+
+  public static final KillCursorsCommand INSTANCE = new KillCursorsCommand();
+  private static final String COMMAND_NAME = "killCursors";
+
+  private KillCursorsCommand() {
+    super(COMMAND_NAME);
+  }
+
+  @Override
+  public boolean isSlaveOk() {
+    return true;
+  }
+
+  @Override
+  public Class<? extends KillCursorsArgument> getArgClass() {
+    return KillCursorsArgument.class;
+  }
+
+  @Override
+  public KillCursorsArgument unmarshallArg(BsonDocument requestDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException, FailedToParseException {
+    return KillCursorsArgument.unmarshall(requestDoc);
+  }
+
+  @Override
+  public BsonDocument marshallArg(KillCursorsArgument request) throws MarshalException {
+    return request.marshall();
+  }
+
+  @Override
+  public Class<? extends KillCursorsResult> getResultClass() {
+    return KillCursorsResult.class;
+  }
+
+  @Override
+  public KillCursorsResult unmarshallResult(BsonDocument resultDoc) throws BadValueException,
+      TypesMismatchException, NoSuchKeyException, FailedToParseException, MongoException {
+    return KillCursorsResult.unmarshall(resultDoc);
+  }
+
+  @Override
+  public BsonDocument marshallResult(KillCursorsResult result) throws MarshalException {
+    return result.marshall();
+  }
+
+  private static List<Long> readCursorIds(BsonDocument doc, ArrayField field)
+      throws TypesMismatchException, NoSuchKeyException, BadValueException {
+    BsonArray array = BsonReaderTool.getArray(doc, field);
+    ImmutableList.Builder<Long> cursorIds = ImmutableList.builder();
+    for (BsonValue<?> value : array) {
+      if (!value.isNumber()) {
+        throw new BadValueException("The field " + field.getFieldName() + " should only "
+            + "contain cursor ids, but a " + value + " was found");
+      }
+      cursorIds.add(value.asNumber().longValue());
+    }
+    return cursorIds.build();
+  }
+
+  private static BsonArray writeCursorIds(List<Long> cursorIds) {
+    BsonArrayBuilder builder = new BsonArrayBuilder(cursorIds.size());
+    for (Long cursorId : cursorIds) {
+      builder.add(cursorId);
+    }
+    return builder.build();
+  }
+
+  public static class KillCursorsArgument {
+
+    private static final StringField COLLECTION_FIELD = new StringField(COMMAND_NAME);
+    private static final ArrayField CURSORS_FIELD = new ArrayField("cursors");
+
+    private final String collection;
+    private final List<Long> cursorIds;
+
+    public KillCursorsArgument(@Nonnull String collection, @Nonnull List<Long> cursorIds) {
+      this.collection = collection;
+      this.cursorIds = ImmutableList.copyOf(cursorIds);
+    }
+
+    @Nonnull
+    public String getCollection() {
+      return collection;
+    }
+
+    @Nonnull
+    public List<Long> getCursorIds() {
+      return cursorIds;
+    }
+
+    private static KillCursorsArgument unmarshall(BsonDocument requestDoc)
+        throws TypesMismatchException, NoSuchKeyException, BadValueException {
+      String collection = BsonReaderTool.getString(requestDoc, COLLECTION_FIELD);
+      List<Long> cursorIds = readCursorIds(requestDoc, CURSORS_FIELD);
+      if (cursorIds.isEmpty()) {
+        throw new BadValueException("Must specify at least one cursor id in: " + requestDoc);
+      }
+      return new KillCursorsArgument(collection, cursorIds);
+    }
+
+    private BsonDocument marshall() {
+      return new BsonDocumentBuilder()
+          .append(COLLECTION_FIELD, collection)
+          .append(CURSORS_FIELD, writeCursorIds(cursorIds))
+          .build();
+    }
+  }
+
+  public static class KillCursorsResult {
+
+    private static final ArrayField CURSORS_KILLED_FIELD = new ArrayField("cursorsKilled");
+    private static final ArrayField CURSORS_NOT_FOUND_FIELD = new ArrayField("cursorsNotFound");
+
+    private final List<Long> cursorsKilled;
+    private final List<Long> cursorsNotFound;
+
+    public KillCursorsResult(@Nonnull List<Long> cursorsKilled,
+        @Nonnull List<Long> cursorsNotFound) {
+      this.cursorsKilled = ImmutableList.copyOf(cursorsKilled);
+      this.cursorsNotFound = ImmutableList.copyOf(cursorsNotFound);
+    }
+
+    @Nonnull
+    public List<Long> getCursorsKilled() {
+      return cursorsKilled;
+    }
+
+    @Nonnull
+    public List<Long> getCursorsNotFound() {
+      return cursorsNotFound;
+    }
+
+    private static KillCursorsResult unmarshall(BsonDocument resultDoc)
+        throws TypesMismatchException, NoSuchKeyException, BadValueException {
+      return new KillCursorsResult(
+          readCursorIds(resultDoc, CURSORS_KILLED_FIELD),
+          readCursorIds(resultDoc, CURSORS_NOT_FOUND_FIELD)
+      );
+    }
+
+    private BsonDocument marshall() {
+      return new BsonDocumentBuilder()
+          .append(CURSORS_KILLED_FIELD, writeCursorIds(cursorsKilled))
+          .append(CURSORS_NOT_FOUND_FIELD, writeCursorIds(cursorsNotFound))
+          .build();
+    }
+  }
+
+}
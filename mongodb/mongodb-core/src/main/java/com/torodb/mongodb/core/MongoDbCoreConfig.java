@@ -45,16 +45,26 @@ public class MongoDbCoreConfig extends BundleConfigImpl {
   private final CommandClassifier commandClassifier;
   private final Optional<ToroMetricRegistry> metricRegistry;
   private final LoggerFactory loggerFactory;
+  private final int maxServerCursors;
 
   public MongoDbCoreConfig(TorodBundle torodBundle, CommandLibrary commandsLibrary,
       CommandClassifier commandClassifier, Optional<ToroMetricRegistry> metricRegistry,
       LoggerFactory loggerFactory, Injector essentialInjector, Supervisor supervisor) {
+    this(torodBundle, commandsLibrary, commandClassifier, metricRegistry, loggerFactory,
+        essentialInjector, supervisor, MongodServerConfig.DEFAULT_MAX_SERVER_CURSORS);
+  }
+
+  public MongoDbCoreConfig(TorodBundle torodBundle, CommandLibrary commandsLibrary,
+      CommandClassifier commandClassifier, Optional<ToroMetricRegistry> metricRegistry,
+      LoggerFactory loggerFactory, Injector essentialInjector, Supervisor supervisor,
+      int maxServerCursors) {
     super(essentialInjector, supervisor);
     this.torodBundle = torodBundle;
     this.commandsLibrary = commandsLibrary;
     this.commandClassifier = commandClassifier;
     this.metricRegistry = metricRegistry;
     this.loggerFactory = loggerFactory;
+    this.maxServerCursors = maxServerCursors;
   }
 
   @SuppressWarnings("checkstyle:LineLength")
@@ -97,7 +107,8 @@ public class MongoDbCoreConfig extends BundleConfigImpl {
         metricRegistry,
         lf,
         bundleConfig.getEssentialInjector(),
-        bundleConfig.getSupervisor()
+        bundleConfig.getSupervisor(),
+        mongodServerConfig.getMaxServerCursors()
     );
   }
 
@@ -121,4 +132,11 @@ public class MongoDbCoreConfig extends BundleConfigImpl {
     return loggerFactory;
   }
 
+  /**
+   * Returns the max number of cursors that can be open on the server at the same time.
+   */
+  public int getMaxServerCursors() {
+    return maxServerCursors;
+  }
+
 }
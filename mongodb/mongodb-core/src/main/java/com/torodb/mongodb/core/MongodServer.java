@@ -29,7 +29,10 @@ import com.torodb.mongodb.language.ObjectIdFactory;
 import com.torodb.torod.TorodServer;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -37,6 +40,8 @@ import javax.inject.Singleton;
 @Singleton
 public class MongodServer extends IdleTorodbService {
 
+  private static final long CURSOR_CLEAN_UP_PERIOD_SECONDS = 30;
+
   private final LoggerFactory loggerFactory;
   private final Logger logger;
   private final TorodServer torodServer;
@@ -44,6 +49,9 @@ public class MongodServer extends IdleTorodbService {
   private final CommandClassifier commandsExecutorClassifier;
   private final MongodMetrics metrics;
   private final ObjectIdFactory objectIdFactory;
+  private final ServerCursorRegistry cursorRegistry;
+  private final ThreadFactory threadFactory;
+  private ScheduledExecutorService cursorCleaner;
 
   @Inject
   public MongodServer(@TorodbIdleService ThreadFactory threadFactory,
@@ -51,8 +59,10 @@ public class MongodServer extends IdleTorodbService {
       TorodServer torodServer,
       CommandClassifier commandsExecutorClassifier,
       MongodMetrics metrics,
-      ObjectIdFactory objectIdFactory) {
+      ObjectIdFactory objectIdFactory,
+      ServerCursorRegistry cursorRegistry) {
     super(threadFactory);
+    this.threadFactory = threadFactory;
     this.loggerFactory = loggerFactory;
     this.logger = loggerFactory.apply(this.getClass());
     this.torodServer = torodServer;
@@ -63,6 +73,7 @@ public class MongodServer extends IdleTorodbService {
     this.commandsExecutorClassifier = commandsExecutorClassifier;
     this.metrics = metrics;
     this.objectIdFactory = objectIdFactory;
+    this.cursorRegistry = cursorRegistry;
   }
 
   public TorodServer getTorodServer() {
@@ -84,16 +95,28 @@ public class MongodServer extends IdleTorodbService {
     return objectIdFactory;
   }
 
+  public ServerCursorRegistry getCursorRegistry() {
+    return cursorRegistry;
+  }
+
   @Override
   protected void startUp() throws Exception {
     logger.debug("Waiting for Torod server to be running");
     torodServer.awaitRunning();
+    //idle cursors must release their connections even if no client uses the registry
+    cursorCleaner = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    cursorCleaner.scheduleWithFixedDelay(cursorRegistry::cleanUp, CURSOR_CLEAN_UP_PERIOD_SECONDS,
+        CURSOR_CLEAN_UP_PERIOD_SECONDS, TimeUnit.SECONDS);
     logger.debug("MongodServer ready to run");
   }
 
   @Override
   protected void shutDown() throws Exception {
+    if (cursorCleaner != null) {
+      cursorCleaner.shutdownNow();
+    }
     openConnections.invalidateAll();
+    cursorRegistry.killAllCursors();
   }
 
   public CommandClassifier getCommandsExecutorClassifier() {
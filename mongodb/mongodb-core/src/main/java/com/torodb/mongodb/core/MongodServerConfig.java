@@ -27,18 +27,49 @@ import com.torodb.mongowp.MongoServerConfig;
  */
 public class MongodServerConfig implements MongoServerConfig {
 
+  /**
+   * The max number of server cursors used when none is given, calculated for the default reserved
+   * read pool size.
+   */
+  public static final int DEFAULT_MAX_SERVER_CURSORS = maxServerCursorsFor(10);
+
   private final HostAndPort hostAndPort;
+  private final int maxServerCursors;
 
   public MongodServerConfig(HostAndPort hostAndPort) {
+    this(hostAndPort, DEFAULT_MAX_SERVER_CURSORS);
+  }
+
+  /**
+   * @param maxServerCursors the max number of cursors that can be open on the server at the same
+   *                         time. Each one holds a connection of the read pool, so it should be
+   *                         calculated with {@link #maxServerCursorsFor(int)}
+   */
+  public MongodServerConfig(HostAndPort hostAndPort, int maxServerCursors) {
     this.hostAndPort = hostAndPort;
+    this.maxServerCursors = maxServerCursors;
     Preconditions.checkArgument(hostAndPort.hasPort(),
         "The host and port of a given mongod server must have a port");
+    Preconditions.checkArgument(maxServerCursors > 0,
+        "The max number of server cursors must be positive");
+  }
+
+  /**
+   * Returns the max number of server cursors that can be open without starving the queries that
+   * use a read pool of the given size, which is the half of it.
+   */
+  public static int maxServerCursorsFor(int reservedReadPoolSize) {
+    return Math.max(1, reservedReadPoolSize / 2);
   }
 
   public HostAndPort getHostAndPort() {
     return hostAndPort;
   }
 
+  public int getMaxServerCursors() {
+    return maxServerCursors;
+  }
+
   @Override
   public int getPort() {
     return hostAndPort.getPort();
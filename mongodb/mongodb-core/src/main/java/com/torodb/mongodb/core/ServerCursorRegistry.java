@@ -0,0 +1,374 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.mongodb.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.logging.LoggerFactory;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.torod.TorodConnection;
+import com.torodb.torod.TorodServer;
+import com.torodb.torod.TorodTransaction;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Keeps the cursors whose results do not fit on a single batch open between requests, so clients
+ * can consume them with {@code getMore} instead of re-executing the query.
+ *
+ * <p>Each server cursor owns its own {@link TorodConnection} and read only
+ * {@link TorodTransaction}, which are closed once the cursor is exhausted, killed or evicted
+ * because it was idle for more than the configured timeout or because the connection that opened
+ * it opened more cursors than allowed.
+ *
+ * <p>As each open cursor holds a connection of the read pool and an open transaction, the idle
+ * timeout is much shorter than the one used by MongoDB and the number of cursors open on the
+ * whole server is also limited. When this limit is reached, the least recently used cursor is
+ * closed before a new one is registered, so idle clients cannot starve the read pool.
+ *
+ * <p>Like on MongoDB, cursors can be read or killed from any connection, as drivers that use a
+ * connection pool usually send the {@code getMore} on a different connection than the query. The
+ * connection that opened each cursor is only used to limit the cursors each connection can open.
+ * Idle cursors are evicted when the registry is used and each time {@link #cleanUp()} is called.
+ */
+@ThreadSafe
+public class ServerCursorRegistry {
+
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  public static final int DEFAULT_MAX_CURSORS_PER_CONNECTION = 100;
+
+  private final Logger logger;
+  private final Cache<Long, ServerCursor> cursors;
+  private final int maxCursorsPerConnection;
+  private final int maxCursors;
+  private final Ticker ticker;
+
+  public ServerCursorRegistry(LoggerFactory loggerFactory, int maxCursors) {
+    this(loggerFactory, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_MAX_CURSORS_PER_CONNECTION,
+        maxCursors);
+  }
+
+  public ServerCursorRegistry(LoggerFactory loggerFactory, long idleTimeoutMillis,
+      int maxCursorsPerConnection, int maxCursors) {
+    this(loggerFactory, idleTimeoutMillis, maxCursorsPerConnection, maxCursors,
+        Ticker.systemTicker());
+  }
+
+  ServerCursorRegistry(LoggerFactory loggerFactory, long idleTimeoutMillis,
+      int maxCursorsPerConnection, int maxCursors, Ticker ticker) {
+    Preconditions.checkArgument(idleTimeoutMillis > 0, "The idle timeout must be positive");
+    Preconditions.checkArgument(maxCursorsPerConnection > 0,
+        "The max number of cursors per connection must be positive");
+    Preconditions.checkArgument(maxCursors > 0, "The max number of cursors must be positive");
+    this.logger = loggerFactory.apply(this.getClass());
+    this.maxCursorsPerConnection = maxCursorsPerConnection;
+    this.maxCursors = maxCursors;
+    this.ticker = ticker;
+    this.cursors = CacheBuilder.newBuilder()
+        .expireAfterAccess(idleTimeoutMillis, TimeUnit.MILLISECONDS)
+        .ticker(ticker)
+        .removalListener(this::onCursorRemoved)
+        .build();
+  }
+
+  /**
+   * Opens a cursor on its own read only transaction and returns its first batch.
+   *
+   * <p>If the cursor is exhausted by the first batch, all its resources are released and the
+   * returned cursor id is 0. Otherwise the cursor is registered and its id is returned. If the
+   * max number of cursors would be exceeded, the least recently used cursors are closed before
+   * the new one is opened.
+   *
+   * @param owner         the connection that opened the cursor
+   * @param torodServer   the server used to open the cursor connection
+   * @param database      the database the cursor iterates on
+   * @param collection    the collection the cursor iterates on
+   * @param batchSize     the max number of documents on the first batch
+   * @param cursorFactory a function that creates the cursor on the given transaction
+   */
+  public CursorResult<BsonDocument> openCursor(MongodConnection owner, TorodServer torodServer,
+      String database, String collection, int batchSize,
+      Function<TorodTransaction, Cursor<BsonDocument>> cursorFactory) {
+    cursors.cleanUp();
+    //the limits are enforced before the new cursor takes its connection from the read pool
+    evictExceedingCursors(owner.getConnectionId());
+
+    TorodConnection torodConnection = torodServer.openConnection();
+    TorodTransaction transaction = null;
+    Cursor<BsonDocument> cursor = null;
+    ServerCursor serverCursor;
+    List<BsonDocument> firstBatch;
+    try {
+      transaction = torodConnection.openReadOnlyTransaction();
+      cursor = cursorFactory.apply(transaction);
+      serverCursor = new ServerCursor(newCursorId(), owner.getConnectionId(), database,
+          collection, torodConnection, transaction, cursor, ticker);
+      firstBatch = serverCursor.getNextBatch(batchSize);
+    } catch (RuntimeException | Error ex) {
+      close(torodConnection, transaction, cursor);
+      throw ex;
+    }
+
+    if (!serverCursor.hasNext()) {
+      serverCursor.close();
+      return CursorResult.createCursor(database, collection, 0, firstBatch.iterator());
+    }
+
+    synchronized (this) {
+      evictExceedingCursors(owner.getConnectionId());
+      cursors.put(serverCursor.getCursorId(), serverCursor);
+    }
+
+    return CursorResult.createCursor(database, collection, serverCursor.getCursorId(),
+        firstBatch.iterator());
+  }
+
+  /**
+   * Returns the next batch of the given cursor or an empty optional if there is no cursor with
+   * the given id on the given namespace.
+   *
+   * <p>The returned cursor id is 0 if the cursor has been exhausted, in which case it is also
+   * closed.
+   */
+  public Optional<CursorResult<BsonDocument>> getMore(long cursorId, String database,
+      String collection, int batchSize) {
+    cursors.cleanUp();
+
+    ServerCursor serverCursor = cursors.getIfPresent(cursorId);
+    if (serverCursor == null || !serverCursor.getDatabase().equals(database)
+        || !serverCursor.getCollection().equals(collection)) {
+      return Optional.empty();
+    }
+
+    List<BsonDocument> batch;
+    boolean exhausted;
+    try {
+      batch = serverCursor.getNextBatch(batchSize);
+      exhausted = !serverCursor.hasNext();
+    } catch (RuntimeException | Error ex) {
+      cursors.invalidate(cursorId);
+      throw ex;
+    }
+    if (batch == null) {
+      return Optional.empty();
+    }
+    if (exhausted) {
+      cursors.invalidate(cursorId);
+    }
+
+    return Optional.of(CursorResult.createCursor(database, collection,
+        exhausted ? 0 : cursorId, batch.iterator()));
+  }
+
+  /**
+   * Returns the number of documents that have been returned by the given cursor or an empty
+   * optional if there is no cursor with the given id.
+   */
+  public Optional<Integer> getReturnedCount(long cursorId) {
+    ServerCursor serverCursor = cursors.getIfPresent(cursorId);
+    if (serverCursor == null) {
+      return Optional.empty();
+    }
+    return Optional.of(serverCursor.getReturnedCount());
+  }
+
+  /**
+   * Closes the cursor with the given id.
+   *
+   * @return true iff there was a cursor with the given id
+   */
+  public boolean killCursor(long cursorId) {
+    if (cursors.getIfPresent(cursorId) == null) {
+      return false;
+    }
+    cursors.invalidate(cursorId);
+    return true;
+  }
+
+  public void killAllCursors() {
+    cursors.invalidateAll();
+  }
+
+  /**
+   * Closes the cursors that have been idle for longer than the idle timeout.
+   */
+  public void cleanUp() {
+    cursors.cleanUp();
+  }
+
+  /**
+   * Returns the number of open cursors.
+   */
+  public long size() {
+    cursors.cleanUp();
+    return cursors.size();
+  }
+
+  private synchronized void evictExceedingCursors(int connectionId) {
+    List<ServerCursor> lruCursors = cursors.asMap().values().stream()
+        .sorted(Comparator.comparingLong(ServerCursor::getLastUseNanos))
+        .collect(Collectors.toList());
+
+    List<ServerCursor> connectionCursors = lruCursors.stream()
+        .filter(cursor -> cursor.getConnectionId() == connectionId)
+        .collect(Collectors.toList());
+    int toEvict = connectionCursors.size() - maxCursorsPerConnection + 1;
+    for (int i = 0; i < toEvict; i++) {
+      ServerCursor evicted = connectionCursors.get(i);
+      logger.debug("Connection {} has too many open cursors. Cursor {} will be closed",
+          connectionId, evicted.getCursorId());
+      cursors.invalidate(evicted.getCursorId());
+      lruCursors.remove(evicted);
+    }
+
+    toEvict = lruCursors.size() - maxCursors + 1;
+    for (int i = 0; i < toEvict; i++) {
+      ServerCursor evicted = lruCursors.get(i);
+      logger.debug("There are too many open cursors. Cursor {} of connection {} will be closed",
+          evicted.getCursorId(), evicted.getConnectionId());
+      cursors.invalidate(evicted.getCursorId());
+    }
+  }
+
+  private long newCursorId() {
+    long cursorId;
+    do {
+      cursorId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    } while (cursors.getIfPresent(cursorId) != null);
+    return cursorId;
+  }
+
+  private void onCursorRemoved(RemovalNotification<Long, ServerCursor> notification) {
+    ServerCursor serverCursor = notification.getValue();
+    if (serverCursor != null) {
+      logger.trace("Closing cursor {} ({})", notification.getKey(), notification.getCause());
+      serverCursor.close();
+    }
+  }
+
+  private static void close(TorodConnection torodConnection, TorodTransaction transaction,
+      Cursor<BsonDocument> cursor) {
+    try {
+      if (cursor != null) {
+        cursor.close();
+      }
+      if (transaction != null) {
+        transaction.close();
+      }
+    } finally {
+      torodConnection.close();
+    }
+  }
+
+  private static class ServerCursor {
+
+    private final long cursorId;
+    private final int connectionId;
+    private final String database;
+    private final String collection;
+    private final TorodConnection torodConnection;
+    private final TorodTransaction transaction;
+    private final Cursor<BsonDocument> cursor;
+    private final Ticker ticker;
+    private volatile long lastUseNanos;
+    private int returnedCount;
+    private boolean closed;
+
+    ServerCursor(long cursorId, int connectionId, String database, String collection,
+        TorodConnection torodConnection, TorodTransaction transaction,
+        Cursor<BsonDocument> cursor, Ticker ticker) {
+      this.cursorId = cursorId;
+      this.connectionId = connectionId;
+      this.database = database;
+      this.collection = collection;
+      this.torodConnection = torodConnection;
+      this.transaction = transaction;
+      this.cursor = cursor;
+      this.ticker = ticker;
+      this.lastUseNanos = ticker.read();
+    }
+
+    long getCursorId() {
+      return cursorId;
+    }
+
+    int getConnectionId() {
+      return connectionId;
+    }
+
+    String getDatabase() {
+      return database;
+    }
+
+    String getCollection() {
+      return collection;
+    }
+
+    long getLastUseNanos() {
+      return lastUseNanos;
+    }
+
+    synchronized int getReturnedCount() {
+      return returnedCount;
+    }
+
+    /**
+     * Returns the next batch or null if the cursor has been closed, which can happen when it is
+     * evicted while a client is reading it.
+     */
+    @Nullable
+    synchronized List<BsonDocument> getNextBatch(int batchSize) {
+      if (closed) {
+        return null;
+      }
+      lastUseNanos = ticker.read();
+      List<BsonDocument> batch = cursor.getNextBatch(batchSize);
+      returnedCount += batch.size();
+      return batch;
+    }
+
+    synchronized boolean hasNext() {
+      return !closed && cursor.hasNext();
+    }
+
+    synchronized void close() {
+      if (!closed) {
+        closed = true;
+        ServerCursorRegistry.close(torodConnection, transaction, cursor);
+      }
+    }
+  }
+
+}
@@ -24,6 +24,7 @@ import com.torodb.mongodb.commands.CommandClassifier;
 import com.torodb.mongodb.core.MongoDbCoreConfig;
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.core.ServerCursorRegistry;
 import com.torodb.mongodb.language.ObjectIdFactory;
 import com.torodb.mongowp.commands.CommandLibrary;
 import com.torodb.torod.TorodServer;
@@ -55,5 +56,9 @@ public class MongodCoreModule extends PrivateModule {
 
     bind(MongodMetrics.class)
         .in(Singleton.class);
+
+    bind(ServerCursorRegistry.class)
+        .toInstance(new ServerCursorRegistry(config.getLoggerFactory(),
+            config.getMaxServerCursors()));
   }
 }
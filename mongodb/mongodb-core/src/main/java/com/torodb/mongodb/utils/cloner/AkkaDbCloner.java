@@ -52,6 +52,8 @@ import com.torodb.core.transaction.RollbackException;
 import com.torodb.mongodb.commands.pojos.CollectionOptions;
 import com.torodb.mongodb.commands.pojos.CursorResult;
 import com.torodb.mongodb.commands.pojos.index.IndexOptions;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
 import com.torodb.mongodb.commands.signatures.admin.CreateCollectionCommand;
 import com.torodb.mongodb.commands.signatures.admin.CreateCollectionCommand.CreateCollectionArgument;
 import com.torodb.mongodb.commands.signatures.admin.CreateIndexesCommand;
@@ -69,11 +71,14 @@ import com.torodb.mongodb.utils.DbCloner;
 import com.torodb.mongodb.utils.ListCollectionsRequester;
 import com.torodb.mongodb.utils.ListIndexesRequester;
 import com.torodb.mongodb.utils.NamespaceUtil;
+import com.torodb.mongodb.utils.cloner.DbClonerMetrics.CollectionProgress;
 import com.torodb.mongowp.Status;
 import com.torodb.mongowp.WriteConcern;
 import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
 import com.torodb.mongowp.client.core.MongoClient;
 import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.client.core.MongoConnection.RemoteCommandResponse;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.Request;
 import com.torodb.mongowp.commands.impl.CollectionCommandArgument;
@@ -89,14 +94,19 @@ import org.apache.logging.log4j.Logger;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
@@ -111,28 +121,49 @@ import java.util.function.Function;
  * transactional policy allow only one transaction, the concurrent policy allow just one thread and
  * the commit policy only commit once all work is done, then the cloning is done on an ACID
  * transactional way.
+ * <p>
+ * Collections are cloned concurrently, biggest first, even if they belong to different databases
+ * that are being cloned at the same time. The number of collections that are cloned at the same
+ * time bounds the memory used to buffer documents and the number of insert tasks is shared by all
+ * of them, so it bounds the number of backend connections used to insert cloned documents.
  */
 @Beta
 public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
 
   private final Logger logger;
   /**
-   * The number of parallel task that can be used to clone each collection.
+   * The number of parallel task that can be used to clone each collection. The same number of
+   * insert transactions are shared by all the collections that are cloned at the same time.
    */
   private final int maxParallelInsertTasks;
   /**
-   * The size of the buffer where documents are stored before being balanced between the insert
-   * phases.
+   * The number of collections that can be cloned at the same time.
+   */
+  private final int maxParallelCollections;
+  /**
+   * The size of the buffer where documents of each collection are stored before being balanced
+   * between the insert phases.
    */
   private final int cursorBatchBufferSize;
   private final CommitHeuristic commitHeuristic;
   private final Clock clock;
   private final Retrier retrier;
+  private final DbClonerMetrics metrics;
+  private final Semaphore insertPermits;
+  private final ExecutorService collectionExecutor;
 
+  /**
+   * @param maxParallelInsertTasks the number of insert transactions that can be executed at the
+   *                               same time
+   * @param maxParallelCollections the number of collections that can be cloned at the same time
+   * @param cursorBatchBufferSize  the number of documents that can be buffered by all the
+   *                               collections that are cloned at the same time
+   */
   public AkkaDbCloner(ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
-      int maxParallelInsertTasks, int cursorBatchBufferSize,
-      CommitHeuristic commitHeuristic, Clock clock, Retrier retrier, LoggerFactory loggerFactory) {
+      int maxParallelInsertTasks, int maxParallelCollections, int cursorBatchBufferSize,
+      CommitHeuristic commitHeuristic, Clock clock, Retrier retrier, DbClonerMetrics metrics,
+      LoggerFactory loggerFactory) {
     super(threadFactory,
         () -> concurrentToolsFactory.createExecutorService(
             "db-cloner", false),
@@ -143,12 +174,19 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     this.maxParallelInsertTasks = maxParallelInsertTasks;
     Preconditions.checkArgument(maxParallelInsertTasks >= 1, "The number of parallel insert "
         + "tasks level must be higher than 0, but " + maxParallelInsertTasks + " was used");
-    this.cursorBatchBufferSize = cursorBatchBufferSize;
+    this.maxParallelCollections = maxParallelCollections;
+    Preconditions.checkArgument(maxParallelCollections >= 1, "The number of parallel collections "
+        + "must be higher than 0, but " + maxParallelCollections + " was used");
     Preconditions.checkArgument(cursorBatchBufferSize >= 1, "cursorBatchBufferSize must be "
         + "higher than 0, but " + cursorBatchBufferSize + " was used");
+    this.cursorBatchBufferSize = Math.max(1, cursorBatchBufferSize / maxParallelCollections);
     this.commitHeuristic = commitHeuristic;
     this.clock = clock;
     this.retrier = retrier;
+    this.metrics = metrics;
+    this.insertPermits = new Semaphore(maxParallelInsertTasks, true);
+    this.collectionExecutor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "db-cloner-collection", maxParallelCollections);
   }
 
   @Override
@@ -194,7 +232,7 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     
     try (MongoConnection remoteConnection = remoteClient.openConnection()) {
       if (opts.isCloneData()) {
-        cloneData(collsToClone, remoteConnection, dstDb, localServer, opts);
+        cloneData(collsToClone, remoteClient, remoteConnection, dstDb, localServer, opts);
       }
       if (opts.isCloneIndexes()) {
         cloneIndexes(collsToClone, remoteConnection, dstDb, localServer, opts);
@@ -217,31 +255,88 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     }
   }
 
-  private void cloneData(List<Entry> collsToClone, MongoConnection remoteConnection, String dstDb,
-      MongodServer localServer, CloneOptions opts) throws MongoException {
+  /**
+   * Clones the data of the given collections, biggest first and up to
+   * {@link #maxParallelCollections} at the same time (counting the ones of other databases that
+   * are being cloned concurrently).
+   *
+   * <p>Once a collection fails, the ones that have not been started are skipped. This method
+   * returns once all started collections have finished.
+   */
+  private void cloneData(List<Entry> collsToClone, MongoClient remoteClient,
+      MongoConnection remoteConnection, String dstDb, MongodServer localServer,
+      CloneOptions opts) {
 
     String fromDb = opts.getDbToClone();
     Materializer materializer = ActorMaterializer.create(getActorSystem());
-    
-    for (Entry entry : collsToClone) {
-      logger.info("Cloning collection data {}.{} into {}.{}",
-          fromDb, entry.getCollectionName(), dstDb,
-          entry.getCollectionName());
 
-      try {
-        cloneCollection(localServer, remoteConnection, dstDb,
-            opts, materializer, entry);
-      } catch (CompletionException completionException) {
-        Throwable cause = completionException.getCause();
-        if (cause instanceof RollbackException) {
-          throw (RollbackException) cause;
+    List<Pair<Entry, Long>> sortedColls = new ArrayList<>(collsToClone.size());
+    for (Entry entry : collsToClone) {
+      sortedColls.add(new Pair<>(entry,
+          countRemoteDocs(remoteConnection, fromDb, entry.getCollectionName(), opts)));
+    }
+    sortedColls.sort(Comparator.comparing((Pair<Entry, Long> pair) -> pair.second()).reversed());
+
+    metrics.getPendingCollections().inc(sortedColls.size());
+    AtomicBoolean failed = new AtomicBoolean(false);
+    List<CompletableFuture<Void>> collFutures = new ArrayList<>(sortedColls.size());
+    for (Pair<Entry, Long> coll : sortedColls) {
+      collFutures.add(CompletableFuture.runAsync(() -> {
+        metrics.getPendingCollections().dec();
+        if (failed.get()) {
+          return;
+        }
+        try {
+          cloneCollection(localServer, remoteClient, dstDb, opts, materializer, coll.first(),
+              coll.second());
+        } catch (MongoException ex) {
+          failed.set(true);
+          throw new CloningException("Error while cloning " + dstDb + "."
+              + coll.first().getCollectionName(), ex);
+        } catch (RuntimeException | Error ex) {
+          failed.set(true);
+          throw ex;
         }
+      }, collectionExecutor));
+    }
 
-        throw completionException;
+    try {
+      CompletableFuture.allOf(collFutures.toArray(new CompletableFuture<?>[collFutures.size()]))
+          .join();
+    } catch (CompletionException completionException) {
+      Throwable cause = completionException.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       }
+
+      throw completionException;
     }
   }
 
+  /**
+   * Returns the number of documents on the given remote collection or -1 if it cannot be known.
+   */
+  private long countRemoteDocs(MongoConnection remoteConnection, String fromDb, String collection,
+      CloneOptions opts) {
+    try {
+      RemoteCommandResponse<Long> response = remoteConnection.execute(
+          CountCommand.INSTANCE,
+          fromDb,
+          opts.isSlaveOk(),
+          new CountArgument(collection, DefaultBsonValues.EMPTY_DOC, null, 0, 0)
+      );
+      if (response.isOk() && response.getCommandReply().isPresent()) {
+        return response.getCommandReply().get();
+      }
+      logger.debug("It was not possible to count the documents of {}.{}: {}", fromDb,
+          collection, response.getErrorCode());
+    } catch (MongoException | RuntimeException ex) {
+      logger.debug("It was not possible to count the documents of " + fromDb + "." + collection,
+          ex);
+    }
+    return -1;
+  }
+
   private void cloneIndexes(List<Entry> collsToClone, MongoConnection remoteConnection, 
       String dstDb, MongodServer localServer, CloneOptions opts) {
     String fromDb = opts.getDbToClone();
@@ -266,10 +361,28 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   }
 
   private void cloneCollection(MongodServer localServer,
-      MongoConnection remoteConnection, String toDb, CloneOptions opts,
-      Materializer materializer, Entry collToClone) throws MongoException {
+      MongoClient remoteClient, String toDb, CloneOptions opts,
+      Materializer materializer, Entry collToClone, long expectedDocs) throws MongoException {
 
     String collName = collToClone.getCollectionName();
+    logger.info("Cloning collection data {}.{} into {}.{}",
+        opts.getDbToClone(), collName, toDb, collName);
+
+    metrics.getActiveCollections().inc();
+    try (MongoConnection remoteConnection = remoteClient.openConnection();
+        CollectionProgress progress = metrics.startCollection(toDb, collName, expectedDocs)) {
+      cloneCollection(localServer, remoteConnection, toDb, opts, materializer, collName,
+          progress);
+    } finally {
+      metrics.getActiveCollections().dec();
+    }
+    metrics.getClonedCollections().inc();
+  }
+
+  private void cloneCollection(MongodServer localServer,
+      MongoConnection remoteConnection, String toDb, CloneOptions opts,
+      Materializer materializer, String collName, CollectionProgress progress)
+      throws MongoException {
 
     MongoCursor<BsonDocument> cursor = openCursor(remoteConnection, collName, opts);
 
@@ -306,7 +419,7 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
     try {
       source.via(inserterFlow)
           .fold(new Tuple3<>(0, 0, clock.instant()), (acum, batch) ->
-              postInsertFold(toDb, collName, acum, batch))
+              postInsertFold(toDb, collName, progress, acum, batch))
           .toMat(
               Sink.foreach(tuple -> logCollectionCloning(
                   toDb, collName, tuple.t1(), tuple.t2())),
@@ -324,10 +437,13 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   }
 
   private Tuple3<Integer, Integer, Instant> postInsertFold(String toDb,
-      String toCol, Tuple3<Integer, Integer, Instant> acum,
+      String toCol, CollectionProgress progress, Tuple3<Integer, Integer, Instant> acum,
       Pair<Integer, Integer> newBatch) {
     Instant lastLogInstant = acum.t3();
 
+    progress.addClonedDocs(newBatch.first());
+    metrics.getClonedDocs().mark(newBatch.first());
+
     long now = clock.millis();
     long millisSinceLastLog = now - lastLogInstant.toEpochMilli();
     if (shouldLogCollectionCloning(millisSinceLastLog)) {
@@ -382,6 +498,12 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
   private int insertDocuments(MongodServer localServer, String toDb, String collection,
       List<BsonDocument> docsToInsert) throws RollbackException {
 
+    try {
+      insertPermits.acquire();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CloningException("Interrupted while waiting to insert cloned documents", ex);
+    }
     try (WriteMongodTransaction transaction = createWriteMongodTransaction(localServer)) {
 
       Status<InsertResult> insertResult = transaction.execute(
@@ -409,6 +531,8 @@ public class AkkaDbCloner extends ActorSystemTorodbService implements DbCloner {
       return insertedDocs;
     } catch (UserException ex) {
       throw new CloningException("Unexpected error while cloning documents", ex);
+    } finally {
+      insertPermits.release();
     }
   }
 
@@ -0,0 +1,132 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.utils.cloner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.torodb.core.metrics.SettableGauge;
+import com.torodb.core.metrics.ToroMetricRegistry;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+/**
+ * Metrics of the collections cloned by an {@link AkkaDbCloner}.
+ *
+ * <p>Besides the global counters, each collection that is being cloned has its own progress
+ * gauges, which are removed once the collection has been cloned.
+ */
+@ThreadSafe
+public class DbClonerMetrics {
+
+  private final ToroMetricRegistry registry;
+  private final Meter clonedDocs;
+  private final Counter pendingCollections;
+  private final Counter activeCollections;
+  private final Counter clonedCollections;
+
+  @Inject
+  public DbClonerMetrics(ToroMetricRegistry parentRegistry) {
+    registry = parentRegistry.createSubRegistry("DbCloner");
+
+    clonedDocs = registry.meter("clonedDocs");
+    registry.gauge("clonedDocsUnit").setValue("docs");
+
+    pendingCollections = registry.counter("pendingCollections");
+    activeCollections = registry.counter("activeCollections");
+    clonedCollections = registry.counter("clonedCollections");
+  }
+
+  public Meter getClonedDocs() {
+    return clonedDocs;
+  }
+
+  public Counter getPendingCollections() {
+    return pendingCollections;
+  }
+
+  public Counter getActiveCollections() {
+    return activeCollections;
+  }
+
+  public Counter getClonedCollections() {
+    return clonedCollections;
+  }
+
+  /**
+   * Registers the progress gauges of a collection that starts to be cloned.
+   *
+   * @param expectedDocs the number of documents the remote collection had when the cloning was
+   *                     scheduled or a negative number if it is unknown
+   */
+  public CollectionProgress startCollection(String database, String collection,
+      long expectedDocs) {
+    return new CollectionProgress(
+        registry.createSubRegistry("collection", toMetricName(database + '.' + collection)),
+        expectedDocs);
+  }
+
+  /**
+   * Replaces the characters that are not accepted on metric names.
+   */
+  private static String toMetricName(String namespace) {
+    StringBuilder sb = new StringBuilder(namespace.length());
+    namespace.codePoints().forEach(cp -> {
+      if (Character.isJavaIdentifierPart(cp) || cp == '.') {
+        sb.appendCodePoint(cp);
+      } else {
+        sb.append('_');
+      }
+    });
+    return sb.toString();
+  }
+
+  public static class CollectionProgress implements AutoCloseable {
+
+    private static final String CLONED_DOCS = "clonedDocs";
+    private static final String EXPECTED_DOCS = "expectedDocs";
+
+    private final ToroMetricRegistry registry;
+    private final SettableGauge<Long> clonedDocs;
+    private long clonedDocsValue = 0;
+
+    private CollectionProgress(ToroMetricRegistry registry, long expectedDocs) {
+      this.registry = registry;
+      this.clonedDocs = registry.gauge(CLONED_DOCS);
+      this.clonedDocs.setValue(0L);
+      registry.<Long>gauge(EXPECTED_DOCS).setValue(expectedDocs);
+    }
+
+    /**
+     * Adds the given number of cloned documents.
+     *
+     * <p>It must not be called concurrently.
+     */
+    public void addClonedDocs(int docs) {
+      clonedDocsValue += docs;
+      clonedDocs.setValue(clonedDocsValue);
+    }
+
+    @Override
+    public void close() {
+      registry.remove(CLONED_DOCS);
+      registry.remove(EXPECTED_DOCS);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.commands.impl.aggregation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.torodb.core.language.filter.Filter;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
+import com.torodb.mongodb.core.MongodTransaction;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.Request;
+import com.torodb.torod.TorodTransaction;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CountImplementationTest {
+
+  private static final String DB = "aDb";
+  private static final String COL = "aCol";
+
+  private final CountImplementation countImplementation = new CountImplementation();
+  private final Request request = new Request(DB, null, true, null);
+  private TorodTransaction torodTransaction;
+  private MongodTransaction mongodTransaction;
+
+  @Before
+  public void setUp() {
+    torodTransaction = mock(TorodTransaction.class);
+    mongodTransaction = mock(MongodTransaction.class);
+    given(mongodTransaction.getTorodTransaction()).willReturn(torodTransaction);
+  }
+
+  @Test
+  public void testCountWithoutQueryMayUseTheEstimation() {
+    given(torodTransaction.estimateCountAll(DB, COL)).willReturn(10L);
+
+    Status<Long> status = count(DefaultBsonValues.EMPTY_DOC, 0, 0);
+
+    assertEquals(Long.valueOf(10), status.getResult());
+    then(torodTransaction).should(never()).countAll(anyString(), anyString());
+    then(torodTransaction).should(never()).count(anyString(), anyString(), any(Filter.class));
+  }
+
+  @Test
+  public void testFilteredCount() {
+    given(torodTransaction.count(eq(DB), eq(COL), any(Filter.class))).willReturn(7L);
+
+    Status<Long> status = count(aQuery(), 0, 0);
+
+    assertEquals(Long.valueOf(7), status.getResult());
+    then(torodTransaction).should(never()).estimateCountAll(anyString(), anyString());
+    then(torodTransaction).should(never()).countAll(anyString(), anyString());
+  }
+
+  @Test
+  public void testSkipAndLimit() {
+    given(torodTransaction.count(eq(DB), eq(COL), any(Filter.class))).willReturn(10L);
+
+    assertEquals(Long.valueOf(5), count(aQuery(), 5, 3).getResult());
+    assertEquals(Long.valueOf(2), count(aQuery(), 5, 8).getResult());
+    assertEquals(Long.valueOf(7), count(aQuery(), 0, 3).getResult());
+    assertEquals(Long.valueOf(0), count(aQuery(), 5, 20).getResult());
+    assertEquals(Long.valueOf(10), count(aQuery(), 20, 0).getResult());
+  }
+
+  @Test
+  public void testUnsupportedQuery() {
+    BsonDocument query = DefaultBsonValues.newDocument("$where", DefaultBsonValues.newInt(1));
+
+    Status<Long> status = count(query, 0, 0);
+
+    assertFalse(status.isOk());
+    then(torodTransaction).should(never()).count(anyString(), anyString(), any(Filter.class));
+  }
+
+  private Status<Long> count(BsonDocument query, long limit, long skip) {
+    return countImplementation.apply(request, CountCommand.INSTANCE,
+        new CountArgument(COL, query, null, limit, skip), mongodTransaction);
+  }
+
+  private static BsonDocument aQuery() {
+    return DefaultBsonValues.newDocument("a", DefaultBsonValues.newInt(1));
+  }
+}
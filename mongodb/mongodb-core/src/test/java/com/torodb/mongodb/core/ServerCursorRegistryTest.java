@@ -0,0 +1,220 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Iterators;
+import com.torodb.core.cursors.IteratorCursor;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.torod.ReadOnlyTorodTransaction;
+import com.torodb.torod.TorodConnection;
+import com.torodb.torod.TorodServer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ServerCursorRegistryTest {
+
+  private static final String DB = "aDb";
+  private static final String COL = "aCol";
+  private static final long IDLE_TIMEOUT_MILLIS = 1000;
+
+  private final FakeTicker ticker = new FakeTicker();
+  private final List<TorodConnection> openedConnections = new ArrayList<>();
+  private TorodServer torodServer;
+  private ServerCursorRegistry registry;
+
+  @Before
+  public void setUp() {
+    torodServer = mock(TorodServer.class);
+    given(torodServer.openConnection()).willAnswer(invocation -> {
+      TorodConnection connection = mock(TorodConnection.class);
+      given(connection.openReadOnlyTransaction())
+          .willReturn(mock(ReadOnlyTorodTransaction.class));
+      openedConnections.add(connection);
+      return connection;
+    });
+    registry = new ServerCursorRegistry(DefaultLoggerFactory.getInstance(), IDLE_TIMEOUT_MILLIS,
+        2, 3, ticker);
+  }
+
+  @Test
+  public void testExhaustedCursorIsNotRegistered() {
+    CursorResult<BsonDocument> result = openCursor(owner(1), 5, 10);
+
+    assertEquals(0, result.getCursorId());
+    assertEquals(5, count(result));
+    assertEquals(0, registry.size());
+    then(openedConnections.get(0)).should().close();
+  }
+
+  @Test
+  public void testGetMore() {
+    MongodConnection owner = owner(1);
+    CursorResult<BsonDocument> result = openCursor(owner, 5, 2);
+    long cursorId = result.getCursorId();
+
+    assertNotEquals(0, cursorId);
+    assertEquals(1, registry.size());
+    then(openedConnections.get(0)).should(never()).close();
+
+    Optional<CursorResult<BsonDocument>> more = registry.getMore(cursorId, DB, COL, 2);
+    assertTrue(more.isPresent());
+    assertEquals(cursorId, more.get().getCursorId());
+    assertEquals(2, count(more.get()));
+    assertEquals(Optional.of(4), registry.getReturnedCount(cursorId));
+
+    more = registry.getMore(cursorId, DB, COL, 2);
+    assertTrue(more.isPresent());
+    assertEquals(0, more.get().getCursorId());
+    assertEquals(1, count(more.get()));
+    assertEquals(0, registry.size());
+    then(openedConnections.get(0)).should().close();
+  }
+
+  @Test
+  public void testGetMoreOnOtherNamespace() {
+    long cursorId = openCursor(owner(1), 5, 2).getCursorId();
+
+    assertFalse(registry.getMore(cursorId, DB, "otherCol", 2).isPresent());
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testOtherConnectionsCanUseTheCursor() {
+    long cursorId = openCursor(owner(1), 5, 2).getCursorId();
+
+    //pooled drivers may send the getMore on a different connection
+    Optional<CursorResult<BsonDocument>> more = registry.getMore(cursorId, DB, COL, 2);
+    assertTrue(more.isPresent());
+    assertEquals(2, count(more.get()));
+    assertEquals(Optional.of(4), registry.getReturnedCount(cursorId));
+    assertTrue(registry.killCursor(cursorId));
+    assertEquals(0, registry.size());
+    then(openedConnections.get(0)).should().close();
+  }
+
+  @Test
+  public void testKillCursor() {
+    long cursorId = openCursor(owner(1), 5, 2).getCursorId();
+
+    assertTrue(registry.killCursor(cursorId));
+    assertFalse(registry.killCursor(cursorId));
+    assertFalse(registry.getMore(cursorId, DB, COL, 2).isPresent());
+    assertEquals(0, registry.size());
+    then(openedConnections.get(0)).should().close();
+  }
+
+  @Test
+  public void testIdleCursorsAreEvicted() {
+    long idleCursorId = openCursor(owner(1), 5, 2).getCursorId();
+    ticker.advance(IDLE_TIMEOUT_MILLIS / 2);
+    long usedCursorId = openCursor(owner(1), 5, 2).getCursorId();
+    ticker.advance(IDLE_TIMEOUT_MILLIS / 2 + 1);
+    assertTrue(registry.getMore(usedCursorId, DB, COL, 1).isPresent());
+
+    ticker.advance(IDLE_TIMEOUT_MILLIS / 2);
+    registry.cleanUp();
+
+    assertEquals(1, registry.size());
+    assertFalse(registry.getReturnedCount(idleCursorId).isPresent());
+    then(openedConnections.get(0)).should().close();
+    then(openedConnections.get(1)).should(never()).close();
+  }
+
+  @Test
+  public void testMaxCursorsPerConnection() {
+    long firstCursorId = openCursor(owner(1), 5, 2).getCursorId();
+    ticker.advance(1);
+    openCursor(owner(1), 5, 2);
+    ticker.advance(1);
+    openCursor(owner(1), 5, 2);
+
+    assertEquals(2, registry.size());
+    assertFalse(registry.getReturnedCount(firstCursorId).isPresent());
+    then(openedConnections.get(0)).should().close();
+  }
+
+  @Test
+  public void testMaxCursors() {
+    long firstCursorId = openCursor(owner(1), 5, 2).getCursorId();
+    ticker.advance(1);
+    long secondCursorId = openCursor(owner(2), 5, 2).getCursorId();
+    ticker.advance(1);
+    openCursor(owner(3), 5, 2);
+    ticker.advance(1);
+    assertTrue(registry.getMore(firstCursorId, DB, COL, 1).isPresent());
+    ticker.advance(1);
+    openCursor(owner(4), 5, 2);
+
+    assertEquals(3, registry.size());
+    assertTrue(registry.getReturnedCount(firstCursorId).isPresent());
+    assertFalse(registry.getReturnedCount(secondCursorId).isPresent());
+    then(openedConnections.get(1)).should().close();
+  }
+
+  private MongodConnection owner(int connectionId) {
+    MongodConnection connection = mock(MongodConnection.class);
+    given(connection.getConnectionId()).willReturn(connectionId);
+    return connection;
+  }
+
+  private CursorResult<BsonDocument> openCursor(MongodConnection owner, int docs, int batchSize) {
+    List<BsonDocument> result = IntStream.range(0, docs)
+        .mapToObj(i -> DefaultBsonValues.newDocument("_id", DefaultBsonValues.newInt(i)))
+        .collect(Collectors.toList());
+    return registry.openCursor(owner, torodServer, DB, COL, batchSize,
+        trans -> new IteratorCursor<>(result.iterator()));
+  }
+
+  private static int count(CursorResult<BsonDocument> result) {
+    return Iterators.size(result.getFirstBatch());
+  }
+
+  private static class FakeTicker extends Ticker {
+
+    private long nanos = 0;
+
+    private void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
@@ -0,0 +1,308 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.utils.cloner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HostAndPort;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.core.retrier.NeverRetryRetrier;
+import com.torodb.mongodb.commands.pojos.CollectionOptions;
+import com.torodb.mongodb.commands.pojos.CursorResult;
+import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand;
+import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand.ListCollectionsResult;
+import com.torodb.mongodb.commands.signatures.admin.ListCollectionsCommand.ListCollectionsResult.Entry;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand;
+import com.torodb.mongodb.commands.signatures.aggregation.CountCommand.CountArgument;
+import com.torodb.mongodb.commands.signatures.general.InsertCommand;
+import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertArgument;
+import com.torodb.mongodb.commands.signatures.general.InsertCommand.InsertResult;
+import com.torodb.mongodb.core.MongodConnection;
+import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.core.WriteMongodTransaction;
+import com.torodb.mongodb.filters.IndexFilter;
+import com.torodb.mongodb.utils.DbCloner.CloneOptions;
+import com.torodb.mongodb.utils.DbCloner.CloningException;
+import com.torodb.mongowp.ErrorCode;
+import com.torodb.mongowp.MongoVersion;
+import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.client.core.MongoClient;
+import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.client.core.MongoConnection.RemoteCommandResponse;
+import com.torodb.mongowp.commands.Command;
+import com.torodb.mongowp.commands.pojos.IteratorMongoCursor;
+import com.torodb.mongowp.commands.pojos.MongoCursor;
+import com.torodb.torod.CollectionInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class AkkaDbClonerTest {
+
+  private static final String DB = "aDb";
+  private static final int DOCS_PER_COMMIT = 5;
+  private static final long INSERT_MILLIS = 5;
+
+  private final List<ExecutorService> executors = new ArrayList<>();
+  private final List<String> queriedCollections = Collections.synchronizedList(new ArrayList<>());
+  private final Set<String> failingCollections = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger activeInserts = new AtomicInteger();
+  private final AtomicInteger maxActiveInserts = new AtomicInteger();
+  private final AtomicInteger insertedDocs = new AtomicInteger();
+  private ConcurrentToolsFactory concurrentToolsFactory;
+  private CommitHeuristic commitHeuristic;
+  private MongodServer localServer;
+  private AkkaDbCloner cloner;
+
+  @Before
+  public void setUp() throws Exception {
+    concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    given(concurrentToolsFactory.createExecutorService(anyString(), anyBoolean()))
+        .willAnswer(invocation -> register(Executors.newCachedThreadPool()));
+    given(concurrentToolsFactory.createExecutorServiceWithMaxThreads(anyString(), anyInt()))
+        .willAnswer(invocation -> {
+          int maxThreads = invocation.getArgument(1);
+          return register(Executors.newFixedThreadPool(maxThreads));
+        });
+
+    commitHeuristic = mock(CommitHeuristic.class);
+    given(commitHeuristic.getDocumentsPerCommit()).willReturn(DOCS_PER_COMMIT);
+
+    localServer = mockLocalServer();
+  }
+
+  @After
+  public void tearDown() {
+    if (cloner != null) {
+      cloner.stopAsync().awaitTerminated();
+    }
+    executors.forEach(ExecutorService::shutdownNow);
+  }
+
+  @Test
+  public void testBiggestCollectionsAreClonedFirst() throws Exception {
+    Map<String, Integer> collections = new HashMap<>();
+    collections.put("small", 2);
+    collections.put("big", 30);
+    collections.put("medium", 10);
+    MongoClient remoteClient = mockRemoteClient(
+        Arrays.asList("small", "uncountable", "big", "medium"), collections);
+
+    startCloner(1, 1);
+    cloner.cloneDatabase(DB, remoteClient, localServer, cloneOptions());
+
+    //the collection that cannot be counted is cloned last
+    assertEquals(Arrays.asList("big", "medium", "small", "uncountable"), queriedCollections);
+    assertEquals(42 + 1, insertedDocs.get());
+  }
+
+  @Test
+  public void testInsertPermitsAreSharedByAllCollections() throws Exception {
+    List<String> collNames = Arrays.asList("col1", "col2", "col3", "col4");
+    Map<String, Integer> collections = collNames.stream()
+        .collect(Collectors.toMap(collName -> collName, collName -> 40));
+    MongoClient remoteClient = mockRemoteClient(collNames, collections);
+
+    startCloner(2, 3);
+    cloner.cloneDatabase(DB, remoteClient, localServer, cloneOptions());
+
+    assertEquals(160, insertedDocs.get());
+    assertTrue("Up to 2 insert transactions were expected at the same time, but "
+        + maxActiveInserts.get() + " were found", maxActiveInserts.get() <= 2);
+  }
+
+  @Test
+  public void testCollectionsAreSkippedAfterAFailure() throws Exception {
+    Map<String, Integer> collections = ImmutableMap.of("first", 30, "failing", 20, "last", 10);
+    MongoClient remoteClient = mockRemoteClient(
+        Arrays.asList("last", "failing", "first"), collections);
+    failingCollections.add("failing");
+
+    startCloner(1, 1);
+    try {
+      cloner.cloneDatabase(DB, remoteClient, localServer, cloneOptions());
+      fail("A " + CloningException.class.getSimpleName() + " was expected");
+    } catch (CloningException ex) {
+      assertTrue("Unexpected message: " + ex.getMessage(),
+          ex.getMessage().contains(DB + ".failing"));
+    }
+
+    assertEquals(Arrays.asList("first", "failing"), queriedCollections);
+    assertEquals(30, insertedDocs.get());
+  }
+
+  private ExecutorService register(ExecutorService executor) {
+    synchronized (executors) {
+      executors.add(executor);
+    }
+    return executor;
+  }
+
+  private void startCloner(int maxParallelInsertTasks, int maxParallelCollections) {
+    cloner = new AkkaDbCloner(Executors.defaultThreadFactory(), concurrentToolsFactory,
+        maxParallelInsertTasks, maxParallelCollections, 100, commitHeuristic, Clock.systemUTC(),
+        NeverRetryRetrier.getInstance(), new DbClonerMetrics(new DisabledMetricRegistry()),
+        DefaultLoggerFactory.getInstance());
+    cloner.startAsync().awaitRunning();
+  }
+
+  private CloneOptions cloneOptions() {
+    return new CloneOptions(true, false, true, false, DB, Collections.emptySet(), () -> true,
+        collName -> true, mock(IndexFilter.class));
+  }
+
+  /**
+   * Mocks a remote server whose database {@link #DB} contains the given collections.
+   *
+   * @param listedCollections the collections in the order they are listed by the remote server
+   * @param collections       the number of documents of each collection that can be counted
+   */
+  private MongoClient mockRemoteClient(List<String> listedCollections,
+      Map<String, Integer> collections) throws Exception {
+    CollectionOptions collOptions = new CollectionOptions.Builder().build();
+    List<Entry> entries = listedCollections.stream()
+        .map(collName -> new Entry(collName, CollectionInfo.Type.COLLECTION.getValue(),
+            collOptions))
+        .collect(Collectors.toList());
+    RemoteCommandResponse<ListCollectionsResult> listCollectionsResponse = okResponse(
+        new ListCollectionsResult(CursorResult.createSingleBatchCursor(DB, "$cmd.listCollections",
+            entries.iterator())));
+
+    Map<String, RemoteCommandResponse<Long>> countResponses = new HashMap<>();
+    for (Map.Entry<String, Integer> coll : collections.entrySet()) {
+      countResponses.put(coll.getKey(), okResponse(coll.getValue().longValue()));
+    }
+    RemoteCommandResponse<Long> countErrorResponse = errorResponse();
+
+    MongoClient remoteClient = mock(MongoClient.class);
+    MongoConnection remoteConnection = mock(MongoConnection.class);
+    given(remoteClient.isRemote()).willReturn(true);
+    given(remoteClient.getMongoVersion()).willReturn(MongoVersion.V3_2);
+    given(remoteClient.openConnection()).willReturn(remoteConnection);
+    given(remoteConnection.getClientOwner()).willReturn(remoteClient);
+    given(remoteConnection.execute(any(), anyString(), anyBoolean(), any()))
+        .willAnswer(invocation -> {
+          Command<?, ?> command = invocation.getArgument(0);
+          if (command == ListCollectionsCommand.INSTANCE) {
+            return listCollectionsResponse;
+          }
+          if (command == CountCommand.INSTANCE) {
+            //the argument must be sent as the remote server would read it
+            BsonDocument request = CountCommand.INSTANCE.marshallArg(invocation.getArgument(3));
+            CountArgument countArg = CountCommand.INSTANCE.unmarshallArg(request);
+            return countResponses.getOrDefault(countArg.getCollection(), countErrorResponse);
+          }
+          throw new AssertionError("Unexpected remote command " + command.getCommandName());
+        });
+    given(remoteConnection.query(anyString(), anyString(), any(), anyInt(), anyInt(), any(),
+        any(), any()))
+        .willAnswer(invocation -> {
+          String collName = invocation.getArgument(1);
+          return openCursor(collName, collections.getOrDefault(collName, 1));
+        });
+    return remoteClient;
+  }
+
+  private MongoCursor<BsonDocument> openCursor(String collName, int docs) {
+    queriedCollections.add(collName);
+    List<BsonDocument> collDocs = IntStream.range(0, docs)
+        .mapToObj(i -> DefaultBsonValues.newDocument("_id", DefaultBsonValues.newInt(i)))
+        .collect(Collectors.toList());
+    return new IteratorMongoCursor<>(DB, collName, 1, HostAndPort.fromParts("localhost", 27017),
+        collDocs.iterator());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <R> RemoteCommandResponse<R> okResponse(R reply) {
+    RemoteCommandResponse<R> response = mock(RemoteCommandResponse.class);
+    given(response.isOk()).willReturn(true);
+    given(response.getCommandReply()).willReturn(Optional.of(reply));
+    return response;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <R> RemoteCommandResponse<R> errorResponse() {
+    RemoteCommandResponse<R> response = mock(RemoteCommandResponse.class);
+    given(response.isOk()).willReturn(false);
+    given(response.getCommandReply()).willReturn(Optional.empty());
+    return response;
+  }
+
+  private MongodServer mockLocalServer() {
+    MongodServer server = mock(MongodServer.class);
+    MongodConnection connection = mock(MongodConnection.class);
+    WriteMongodTransaction transaction = mock(WriteMongodTransaction.class);
+    given(server.openConnection()).willReturn(connection);
+    given(connection.openWriteTransaction()).willReturn(transaction);
+    given(transaction.getConnection()).willReturn(connection);
+    given(transaction.execute(any(), any(), any())).willAnswer(invocation -> {
+      if (invocation.getArgument(1) != InsertCommand.INSTANCE) {
+        //drop and create collection commands
+        return Status.ok();
+      }
+      return insert(invocation.getArgument(2));
+    });
+    return server;
+  }
+
+  private Status<InsertResult> insert(InsertArgument arg) throws InterruptedException {
+    int active = activeInserts.incrementAndGet();
+    try {
+      maxActiveInserts.accumulateAndGet(active, Math::max);
+      Thread.sleep(INSERT_MILLIS);
+      if (failingCollections.contains(arg.getCollection())) {
+        return Status.from(ErrorCode.OPERATION_FAILED);
+      }
+      insertedDocs.addAndGet(arg.getDocuments().size());
+      return Status.ok(new InsertResult(arg.getDocuments().size()));
+    } finally {
+      activeInserts.decrementAndGet();
+    }
+  }
+
+}
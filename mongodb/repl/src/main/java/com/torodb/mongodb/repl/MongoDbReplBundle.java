@@ -102,7 +102,7 @@ public class MongoDbReplBundle extends AbstractBundle<MongoDbReplExtInt> {
         essentialOverrideModule,
         new HubModule(),
         new MongoDbReplModule(),
-        new OplogApplierServiceModule()
+        new OplogApplierServiceModule(config.getOplogFetchMaxAwait())
     );
     this.replCoordinator = replInjector.getInstance(ReplCoordinator.class);
     this.dbCloner = replInjector.getInstance(Key.get(DbCloner.class, MongoDbRepl.class));
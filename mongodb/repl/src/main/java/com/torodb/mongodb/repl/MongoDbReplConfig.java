@@ -28,6 +28,7 @@ import com.torodb.mongodb.core.MongoDbCoreBundle;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
 import com.torodb.mongowp.client.wrapper.MongoClientConfiguration;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.ThreadFactory;
 
@@ -42,13 +43,14 @@ public class MongoDbReplConfig implements BundleConfig {
   private final ConsistencyHandler consistencyHandler;
   private final Optional<ToroMetricRegistry> metricRegistry;
   private final LoggerFactory loggerFactory;
+  private final Duration oplogFetchMaxAwait;
   private final BundleConfig generalConfig;
 
   public MongoDbReplConfig(MongoDbCoreBundle coreBundle,
       MongoClientConfiguration mongoClientConfiguration, ReplicationFilters userReplFilter,
       String replSetName, ConsistencyHandler consistencyHandler, 
       Optional<ToroMetricRegistry> metricRegistry,
-      LoggerFactory loggerFactory, BundleConfig generalConfig) {
+      LoggerFactory loggerFactory, Duration oplogFetchMaxAwait, BundleConfig generalConfig) {
     this.coreBundle = coreBundle;
     this.mongoClientConfiguration = mongoClientConfiguration;
     this.userReplFilter = userReplFilter;
@@ -56,6 +58,7 @@ public class MongoDbReplConfig implements BundleConfig {
     this.consistencyHandler = consistencyHandler;
     this.metricRegistry = metricRegistry;
     this.loggerFactory = loggerFactory;
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
     this.generalConfig = generalConfig;
   }
 
@@ -87,6 +90,14 @@ public class MongoDbReplConfig implements BundleConfig {
     return loggerFactory;
   }
 
+  /**
+   * Returns the max time a fetch of the remote oplog waits for new entries before it reports that
+   * there are none.
+   */
+  public Duration getOplogFetchMaxAwait() {
+    return oplogFetchMaxAwait;
+  }
+
   @Override
   public Injector getEssentialInjector() {
     return generalConfig.getEssentialInjector();
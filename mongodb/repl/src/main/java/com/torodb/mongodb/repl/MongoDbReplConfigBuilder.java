@@ -24,8 +24,10 @@ import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.metrics.ToroMetricRegistry;
 import com.torodb.mongodb.core.MongoDbCoreBundle;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.ContinuousOplogFetcher;
 import com.torodb.mongowp.client.wrapper.MongoClientConfiguration;
 
+import java.time.Duration;
 import java.util.Optional;
 
 public class MongoDbReplConfigBuilder {
@@ -37,6 +39,7 @@ public class MongoDbReplConfigBuilder {
   private ConsistencyHandler consistencyHandler;
   private Optional<ToroMetricRegistry> metricRegistry;
   private LoggerFactory loggerFactory;
+  private Duration oplogFetchMaxAwait = ContinuousOplogFetcher.DEFAULT_MAX_AWAIT;
   private final BundleConfig generalConfig;
 
   public MongoDbReplConfigBuilder(BundleConfig generalConfig) {
@@ -79,6 +82,11 @@ public class MongoDbReplConfigBuilder {
     return this;
   }
 
+  public MongoDbReplConfigBuilder setOplogFetchMaxAwait(Duration oplogFetchMaxAwait) {
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
+    return this;
+  }
+
   public MongoDbReplConfig build() {
     Preconditions.checkNotNull(coreBundle, "core bundle must be not null");
     Preconditions.checkNotNull(mongoClientConfiguration, "mongo client configuration must be not "
@@ -89,9 +97,13 @@ public class MongoDbReplConfigBuilder {
     Preconditions.checkNotNull(generalConfig, "general config must be not null");
     Preconditions.checkNotNull(metricRegistry, "metric registry must be not null");
     Preconditions.checkNotNull(loggerFactory, "logger factory must be not null");
+    Preconditions.checkNotNull(oplogFetchMaxAwait, "oplog fetch max await must be not null");
+    Preconditions.checkArgument(!oplogFetchMaxAwait.isNegative(), "oplog fetch max await must "
+        + "not be negative");
 
     return new MongoDbReplConfig(coreBundle, mongoClientConfiguration, replicationFilters,
-        replSetName, consistencyHandler, metricRegistry, loggerFactory, generalConfig);
+        replSetName, consistencyHandler, metricRegistry, loggerFactory, oplogFetchMaxAwait,
+        generalConfig);
   }
 
 }
@@ -21,7 +21,9 @@ package com.torodb.mongodb.repl;
 import com.google.common.base.Supplier;
 import com.google.common.net.HostAndPort;
 import com.google.inject.assistedinject.Assisted;
+import com.torodb.core.annotations.ParallelLevel;
 import com.torodb.core.annotations.TorodbRunnableService;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.exceptions.user.UserException;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.services.RunnableTorodbService;
@@ -68,9 +70,15 @@ import com.torodb.torod.TorodServer;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -90,6 +98,8 @@ public class RecoveryService extends RunnableTorodbService {
   private final OplogApplier oplogApplier;
   private final NamespaceFilter namespaceFilter;
   private final IndexFilter indexFilter;
+  private final ConcurrentToolsFactory concurrentToolsFactory;
+  private final int maxParallelDatabases;
 
   @Inject
   public RecoveryService(
@@ -104,6 +114,8 @@ public class RecoveryService extends RunnableTorodbService {
       OplogApplier oplogApplier,
       NamespaceFilter namespaceFilter,
       IndexFilter indexFilter,
+      ConcurrentToolsFactory concurrentToolsFactory,
+      @ParallelLevel int parallelLevel,
       LoggerFactory lf) {
     super(callback, threadFactory);
     this.logger = lf.apply(this.getClass());
@@ -117,6 +129,8 @@ public class RecoveryService extends RunnableTorodbService {
     this.oplogApplier = oplogApplier;
     this.namespaceFilter = namespaceFilter;
     this.indexFilter = indexFilter;
+    this.concurrentToolsFactory = concurrentToolsFactory;
+    this.maxParallelDatabases = Math.max(1, parallelLevel);
   }
 
   @Override
@@ -328,13 +342,50 @@ public class RecoveryService extends RunnableTorodbService {
     return Status.ok();
   }
 
-  private void cloneDatabases(@Nonnull MongoClient remoteClient) throws CloningException,
+  /**
+   * Clones the replicable remote databases, biggest first and several of them at the same time.
+   *
+   * <p>The cloner bounds the number of collections that are cloned at the same time, so databases
+   * that are cloned concurrently share its budget. Once a database fails, the ones that have not
+   * been started are skipped. This method returns once all started databases have finished.
+   */
+  void cloneDatabases(@Nonnull MongoClient remoteClient) throws CloningException,
       MongoException, UserException {
 
-    streamRemoteDatabases(remoteClient)
+    List<String> databaseNames = streamRemoteDatabases(remoteClient)
+        .filter(databaseEntry -> isReplicable(databaseEntry.getName()))
+        .sorted(Comparator.comparingLong(ListDatabasesReply.DatabaseEntry::getSizeOnDisk)
+            .reversed())
         .map(ListDatabasesReply.DatabaseEntry::getName)
-        .filter(this::isReplicable)
-        .forEach(databaseName -> cloneDatabase(databaseName, remoteClient));
+        .collect(Collectors.toList());
+
+    ExecutorService executor = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "recovery-db-cloner", maxParallelDatabases);
+    try {
+      AtomicBoolean failed = new AtomicBoolean(false);
+      CompletableFuture<?>[] databaseFutures = databaseNames.stream()
+          .map(databaseName -> CompletableFuture.runAsync(() -> {
+            if (failed.get()) {
+              return;
+            }
+            try {
+              cloneDatabase(databaseName, remoteClient);
+            } catch (RuntimeException | Error ex) {
+              failed.set(true);
+              throw ex;
+            }
+          }, executor))
+          .toArray(CompletableFuture<?>[]::new);
+      CompletableFuture.allOf(databaseFutures).join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw ex;
+    } finally {
+      executor.shutdown();
+    }
   }
 
   private Stream<ListDatabasesReply.DatabaseEntry> streamRemoteDatabases(MongoClient remoteClient)
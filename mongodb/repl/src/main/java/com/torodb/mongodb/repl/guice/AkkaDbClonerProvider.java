@@ -24,6 +24,7 @@ import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.retrier.Retrier;
 import com.torodb.mongodb.utils.cloner.AkkaDbCloner;
 import com.torodb.mongodb.utils.cloner.CommitHeuristic;
+import com.torodb.mongodb.utils.cloner.DbClonerMetrics;
 import org.apache.logging.log4j.Logger;
 
 import java.time.Clock;
@@ -43,13 +44,14 @@ public class AkkaDbClonerProvider implements Provider<AkkaDbCloner> {
   private final CommitHeuristic commitHeuristic;
   private final Clock clock;
   private final Retrier retrier;
+  private final DbClonerMetrics metrics;
 
   @Inject
   public AkkaDbClonerProvider(ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
       @ParallelLevel int parallelLevel, LoggerFactory lf,
       @DocsPerTransaction int docsPerTransaction,
-      CommitHeuristic commitHeuristic, Clock clock, Retrier retrier) {
+      CommitHeuristic commitHeuristic, Clock clock, Retrier retrier, DbClonerMetrics metrics) {
     this.loggerFactory = lf;
     this.logger = lf.apply(this.getClass());
     this.threadFactory = threadFactory;
@@ -59,6 +61,7 @@ public class AkkaDbClonerProvider implements Provider<AkkaDbCloner> {
     this.clock = clock;
     this.docsPerTransaction = docsPerTransaction;
     this.retrier = retrier;
+    this.metrics = metrics;
   }
 
   @Override
@@ -69,10 +72,12 @@ public class AkkaDbClonerProvider implements Provider<AkkaDbCloner> {
         threadFactory,
         concurrentToolsFactory,
         Math.max(1, parallelLevel - 1),
+        parallelLevel,
         parallelLevel * docsPerTransaction,
         commitHeuristic,
         clock,
         retrier,
+        metrics,
         loggerFactory
     );
   }
@@ -29,9 +29,17 @@ import com.torodb.mongodb.repl.SyncSourceProvider;
 import com.torodb.mongodb.repl.oplogreplier.OplogApplier;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.ContinuousOplogFetcher;
 
+import java.time.Duration;
+
 
 public class OplogApplierServiceModule extends PrivateModule {
-  
+
+  private final Duration oplogFetchMaxAwait;
+
+  public OplogApplierServiceModule(Duration oplogFetchMaxAwait) {
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
+  }
+
   @Override
   protected void configure() {
     expose(OplogApplierService.OplogApplierServiceFactory.class);
@@ -52,6 +60,10 @@ public class OplogApplierServiceModule extends PrivateModule {
     );
     
 
+    bind(Duration.class)
+        .annotatedWith(OplogFetchMaxAwait.class)
+        .toInstance(oplogFetchMaxAwait);
+
     install(new FactoryModuleBuilder()
         .implement(ContinuousOplogFetcher.class, ContinuousOplogFetcher.class)
         .build(ContinuousOplogFetcher.ContinuousOplogFetcherFactory.class)
@@ -24,6 +24,7 @@ import akka.actor.ActorSystem;
 import akka.dispatch.ExecutionContexts;
 import akka.japi.Pair;
 import akka.stream.ActorMaterializer;
+import akka.stream.Attributes;
 import akka.stream.KillSwitch;
 import akka.stream.KillSwitches;
 import akka.stream.Materializer;
@@ -35,8 +36,10 @@ import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.torodb.common.util.Empty;
 import com.torodb.core.Shutdowner;
+import com.torodb.core.annotations.TorodbIdleService;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.concurrent.akka.BatchFlow;
 import com.torodb.core.logging.LoggerFactory;
@@ -51,6 +54,7 @@ import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatchChecker;
 import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatchFilter;
 import com.torodb.mongodb.repl.oplogreplier.fetcher.OplogFetcher;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.PrefetchingOplogFetcher;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 import org.apache.logging.log4j.Logger;
 import scala.concurrent.Await;
@@ -63,6 +67,8 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
@@ -81,12 +87,14 @@ public class DefaultOplogApplier implements OplogApplier {
   private final OplogApplierMetrics metrics;
   private final OplogBatchFilter batchFilter;
   private final OplogBatchChecker batchChecker;
+  private final Executor prefetchExecutor;
 
   @Inject
   public DefaultOplogApplier(BatchLimits batchLimits, OplogManager oplogManager,
       AnalyzedOplogBatchExecutor batchExecutor, BatchAnalyzerFactory batchAnalyzerFactory,
       ConcurrentToolsFactory concurrentToolsFactory, Shutdowner shutdowner, LoggerFactory lf,
-      OplogApplierMetrics metrics, OplogBatchFilter batchFilter, OplogBatchChecker batchChecker) {
+      OplogApplierMetrics metrics, OplogBatchFilter batchFilter, OplogBatchChecker batchChecker,
+      @TorodbIdleService ThreadFactory threadFactory) {
     this.logger = lf.apply(this.getClass());
     this.batchExecutor = batchExecutor;
     this.batchLimits = batchLimits;
@@ -95,17 +103,28 @@ public class DefaultOplogApplier implements OplogApplier {
     this.actorSystem = ActorSystem.create("oplog-applier", null, null,
         ExecutionContexts.fromExecutor(
             concurrentToolsFactory.createExecutorServiceWithMaxThreads(
-                "oplog-applier", 3)
+                "oplog-applier", 4)
         )
     );
     this.metrics = metrics;
     this.batchFilter = batchFilter;
     this.batchChecker = batchChecker;
+    //each fetcher gets its own thread, as the one of a closed fetcher may still be blocked on
+    //its current fetch when the next job starts
+    final ThreadFactory prefetchThreadFactory = new ThreadFactoryBuilder()
+        .setThreadFactory(threadFactory)
+        .setNameFormat("oplog-prefetcher-%d")
+        .build();
+    this.prefetchExecutor = (Runnable command) -> {
+      prefetchThreadFactory.newThread(command).start();
+    };
     shutdowner.addCloseShutdownListener(this);
   }
 
   @Override
-  public ApplyingJob apply(OplogFetcher fetcher, ApplierContext applierContext) {
+  public ApplyingJob apply(OplogFetcher remoteFetcher, ApplierContext applierContext) {
+    OplogFetcher fetcher = new PrefetchingOplogFetcher(remoteFetcher,
+        batchLimits.getMaxPrefetchedBytes(), metrics, prefetchExecutor);
 
     Materializer materializer = ActorMaterializer.create(actorSystem);
 
@@ -123,8 +142,9 @@ public class DefaultOplogApplier implements OplogApplier {
           return analyzedElem;
         })
         .map(this::metricExecution)
+        .via(createCheckpointFlow())
         .toMat(
-            Sink.foreach(this::storeLastAppliedOp),
+            Sink.ignore(),
             (killSwitch, completionStage) -> new Pair<>(killSwitch, completionStage)
         );
 
@@ -228,6 +248,28 @@ public class DefaultOplogApplier implements OplogApplier {
         });
   }
 
+  /**
+   * Creates a flow that stores the last applied operation of each batch.
+   *
+   * <p>The checkpoint is executed on its own thread, so the next batch can be applied while the
+   * previous one is being stored. If the checkpoint is slower than the application, the batches
+   * that arrive meanwhile are conflated and only the last one is stored. The stored operation can
+   * be behind the applied one, but never ahead of it, which is safe as the operations that were
+   * not checkpointed are applied again after a restart.
+   */
+  private Flow<AnalyzedStreamElement, AnalyzedStreamElement, NotUsed> createCheckpointFlow() {
+    return Flow.of(AnalyzedStreamElement.class)
+        .conflate((older, newer) -> {
+          metrics.getCoalescedCheckpoints().mark();
+          return newer;
+        })
+        .async()
+        .via(Flow.of(AnalyzedStreamElement.class)
+            .map(this::storeLastAppliedOp)
+            .withAttributes(Attributes.inputBuffer(1, 1))
+        );
+  }
+
   private AnalyzedStreamElement storeLastAppliedOp(AnalyzedStreamElement streamElement) throws
       OplogManagerPersistException {
     assert !streamElement.rawBatch.isEmpty();
@@ -235,6 +277,7 @@ public class DefaultOplogApplier implements OplogApplier {
     try (WriteOplogTransaction writeTrans = oplogManager.createWriteTransaction()) {
       writeTrans.forceNewValue(lastOp.getHash(), lastOp.getOpTime());
     }
+    metrics.getCheckpoints().mark();
     return streamElement;
   }
 
@@ -266,10 +309,20 @@ public class DefaultOplogApplier implements OplogApplier {
 
     private final int maxSize;
     private final FiniteDuration maxPeriod;
+    private final long maxPrefetchedBytes;
 
     public BatchLimits(int maxSize, java.time.Duration maxPeriod) {
+      this(maxSize, maxPeriod, 64L * 1024 * 1024);
+    }
+
+    /**
+     * @param maxPrefetchedBytes the max estimated size of the fetched operations that can be
+     *                           waiting to be applied
+     */
+    public BatchLimits(int maxSize, java.time.Duration maxPeriod, long maxPrefetchedBytes) {
       this.maxSize = maxSize;
       this.maxPeriod = new FiniteDuration(maxPeriod.toMillis(), TimeUnit.MILLISECONDS);
+      this.maxPrefetchedBytes = maxPrefetchedBytes;
     }
 
     public int getMaxSize() {
@@ -279,6 +332,10 @@ public class DefaultOplogApplier implements OplogApplier {
     public FiniteDuration getMaxPeriod() {
       return maxPeriod;
     }
+
+    public long getMaxPrefetchedBytes() {
+      return maxPrefetchedBytes;
+    }
   }
 
   private static class RawStreamElement {
@@ -22,6 +22,7 @@ import com.google.inject.PrivateModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.filters.ByNamespaceOplogOperationFilter;
@@ -62,7 +63,8 @@ public class DefaultOplogApplierGuiceModule extends PrivateModule {
         .to(DefaultOplogApplier.class)
         .in(Singleton.class);
     bind(DefaultOplogApplier.BatchLimits.class)
-        .toInstance(new DefaultOplogApplier.BatchLimits(1000, Duration.ofSeconds(2)));
+        .toInstance(new DefaultOplogApplier.BatchLimits(1000, Duration.ofSeconds(2),
+            64L * 1024 * 1024));
     bind(OplogApplierMetrics.class)
         .in(Singleton.class);
 
@@ -103,6 +105,14 @@ public class DefaultOplogApplierGuiceModule extends PrivateModule {
         .toInstance(config.getMongoDbCoreBundle().getExternalInterface().getMongodServer());
   }
 
+  @Provides
+  @Singleton
+  public ConcurrentOplogBatchExecutor.LaneHeuristic createLaneHeuristic(
+      ConcurrentToolsFactory concurrentToolsFactory) {
+    return new ConcurrentOplogBatchExecutor.HotNamespaceLaneHeuristic(
+        concurrentToolsFactory.getDefaultMaxThreads(), 0.5, 200);
+  }
+
   @Provides
   public OplogBatchChecker createOplogBatchChecker() {
     return new OplogBatchChecker(new ComplexIdOpChecker());
@@ -20,6 +20,8 @@ package com.torodb.mongodb.repl.oplogreplier;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.torodb.core.metrics.SettableGauge;
 import com.torodb.core.metrics.ToroMetricRegistry;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -32,6 +34,13 @@ public class OplogApplierMetrics {
   private final Meter applied;
   private final Histogram batchSize;
   private final Histogram applicationCost;
+  private final Meter checkpoints;
+  private final Meter coalescedCheckpoints;
+  private final SettableGauge<Integer> prefetchedBatches;
+  private final SettableGauge<Long> prefetchedBytes;
+  private final Histogram prefetchFillLevel;
+  private final Timer prefetchConsumerWait;
+  private final Timer prefetchProducerWait;
 
   @Inject
   public OplogApplierMetrics(ToroMetricRegistry parentRegistry) {
@@ -48,6 +57,16 @@ public class OplogApplierMetrics {
 
     applicationCost = registry.histogram("applicationCost");
     registry.gauge("applicationCostUnit").setValue("microseconds/op");
+
+    checkpoints = registry.meter("checkpoints");
+    coalescedCheckpoints = registry.meter("coalescedCheckpoints");
+
+    prefetchedBatches = registry.gauge("prefetchedBatches");
+    prefetchedBytes = registry.gauge("prefetchedBytes");
+    prefetchFillLevel = registry.histogram("prefetchFillLevel");
+    registry.gauge("prefetchFillLevelUnit").setValue("percentage");
+    prefetchConsumerWait = registry.timer("prefetchConsumerWait");
+    prefetchProducerWait = registry.timer("prefetchProducerWait");
   }
 
   public Histogram getMaxDelay() {
@@ -65,4 +84,56 @@ public class OplogApplierMetrics {
   public Histogram getApplicationCost() {
     return applicationCost;
   }
+
+  /**
+   * The number of times the last applied operation has been stored.
+   */
+  public Meter getCheckpoints() {
+    return checkpoints;
+  }
+
+  /**
+   * The number of batches whose last operation has not been stored because a newer batch was
+   * applied before the previous checkpoint finished.
+   */
+  public Meter getCoalescedCheckpoints() {
+    return coalescedCheckpoints;
+  }
+
+  /**
+   * The number of fetched batches that are waiting to be applied.
+   */
+  public SettableGauge<Integer> getPrefetchedBatches() {
+    return prefetchedBatches;
+  }
+
+  /**
+   * The estimated size in bytes of the fetched batches that are waiting to be applied.
+   */
+  public SettableGauge<Long> getPrefetchedBytes() {
+    return prefetchedBytes;
+  }
+
+  /**
+   * The percentage of the prefetch buffer that is used.
+   */
+  public Histogram getPrefetchFillLevel() {
+    return prefetchFillLevel;
+  }
+
+  /**
+   * The time the applier waits until a new batch is fetched. It grows when replication is limited
+   * by the fetch speed.
+   */
+  public Timer getPrefetchConsumerWait() {
+    return prefetchConsumerWait;
+  }
+
+  /**
+   * The time the prefetcher waits until there is space on its buffer. It grows when replication is
+   * limited by the apply speed.
+   */
+  public Timer getPrefetchProducerWait() {
+    return prefetchProducerWait;
+  }
 }
@@ -19,6 +19,7 @@
 package com.torodb.mongodb.repl.oplogreplier.batch;
 
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.Service;
 import com.torodb.core.exceptions.user.UserException;
@@ -61,6 +62,8 @@ public interface AnalyzedOplogBatchExecutor extends Service,
     private final Histogram cudBatchSize;
     private final Timer cudBatchTimer;
     private final Timer namespaceBatchTimer;
+    private final Meter createOnlyJobs;
+    private final Meter createOnlyFallbacks;
 
     @Inject
     public AnalyzedOplogBatchExecutorMetrics(ToroMetricRegistry parentRegistry) {
@@ -68,6 +71,8 @@ public interface AnalyzedOplogBatchExecutor extends Service,
       this.cudBatchSize = registry.histogram("batchSize");
       this.cudBatchTimer = registry.timer("cudTimer");
       this.namespaceBatchTimer = registry.timer("namespaceTimer");
+      this.createOnlyJobs = registry.meter("createOnlyJobs");
+      this.createOnlyFallbacks = registry.meter("createOnlyFallbacks");
     }
 
     protected ToroMetricRegistry getRegistry() {
@@ -98,6 +103,22 @@ public interface AnalyzedOplogBatchExecutor extends Service,
       return namespaceBatchTimer;
     }
 
+    /**
+     * The number of {@link NamespaceJob#isCreateOnly() create only} namespace jobs that have been
+     * applied without fetching the dids of the documents they replace.
+     */
+    public Meter getCreateOnlyJobs() {
+      return createOnlyJobs;
+    }
+
+    /**
+     * The number of create only namespace jobs that have been applied again fetching the dids,
+     * because some of their documents already existed.
+     */
+    public Meter getCreateOnlyFallbacks() {
+      return createOnlyFallbacks;
+    }
+
     @Nonnull
     private String getMapKey(OplogOperation oplogOp) {
       if (oplogOp instanceof DbCmdOplogOperation) {
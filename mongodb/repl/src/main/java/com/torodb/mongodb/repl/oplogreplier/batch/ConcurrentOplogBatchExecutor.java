@@ -20,6 +20,7 @@ package com.torodb.mongodb.repl.oplogreplier.batch;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.torodb.common.util.Empty;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
@@ -41,11 +42,12 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionException;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.annotation.Nonnegative;
 import javax.inject.Inject;
 
 public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecutor {
@@ -53,17 +55,36 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
   private final StreamExecutor streamExecutor;
   private final ConcurrentOplogBatchExecutorMetrics concurrentMetrics;
   private final SubBatchHeuristic subBatchHeuristic;
+  private final LaneHeuristic laneHeuristic;
+  /**
+   * The connections used by the lanes, which are reused between batches.
+   *
+   * <p>Each hot namespace of a batch uses its own range of connections, as a connection cannot
+   * execute two transactions at the same time. It is only modified by the thread that calls
+   * {@link #execute(CudAnalyzedOplogBatch, ApplierContext)}, before the lane jobs are submitted.
+   */
+  private final List<MongodConnection> laneConnections = new CopyOnWriteArrayList<>();
 
-  @Inject
   public ConcurrentOplogBatchExecutor(OplogOperationApplier oplogOperationApplier,
       MongodServer server, Retrier retrier, ConcurrentToolsFactory concurrentToolsFactory,
       NamespaceJobExecutor namespaceJobExecutor, LoggerFactory lf,
       ConcurrentOplogBatchExecutorMetrics concurrentMetrics, SubBatchHeuristic subBatchHeuristic) {
+    this(oplogOperationApplier, server, retrier, concurrentToolsFactory, namespaceJobExecutor, lf,
+        concurrentMetrics, subBatchHeuristic, (job, batchOps, metrics) -> 1);
+  }
+
+  @Inject
+  public ConcurrentOplogBatchExecutor(OplogOperationApplier oplogOperationApplier,
+      MongodServer server, Retrier retrier, ConcurrentToolsFactory concurrentToolsFactory,
+      NamespaceJobExecutor namespaceJobExecutor, LoggerFactory lf,
+      ConcurrentOplogBatchExecutorMetrics concurrentMetrics, SubBatchHeuristic subBatchHeuristic,
+      LaneHeuristic laneHeuristic) {
     super(concurrentMetrics, oplogOperationApplier, server, retrier, namespaceJobExecutor);
     this.streamExecutor = concurrentToolsFactory.createStreamExecutor(
         lf.apply(this.getClass()), "concurrent-oplog-batch-executor", true);
     this.concurrentMetrics = concurrentMetrics;
     this.subBatchHeuristic = subBatchHeuristic;
+    this.laneHeuristic = laneHeuristic;
   }
 
   @Override
@@ -79,24 +100,48 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     streamExecutor.stopAsync();
     streamExecutor.awaitTerminated();
 
+    laneConnections.forEach(MongodConnection::close);
+    laneConnections.clear();
+
     super.doStop();
   }
 
   @Override
   public void execute(CudAnalyzedOplogBatch cudBatch, ApplierContext context) throws UserException {
     assert isRunning() : "The service is on state " + state() + " instead of RUNNING";
-    List<NamespaceJob> namespaceJobList = cudBatch.streamNamespaceJobs().flatMap(this::split)
+    List<NamespaceJob> namespaceJobs = cudBatch.streamNamespaceJobs()
         .collect(Collectors.toList());
-    concurrentMetrics.getSubBatchSizeMeter().mark(namespaceJobList.size());
-    concurrentMetrics.getSubBatchSizeHistogram().update(namespaceJobList.size());
-
-    Stream<Callable<Empty>> callables = namespaceJobList.stream()
-        .map((Function<NamespaceJob, Callable<Empty>>) (NamespaceJob namespaceJob) -> () -> {
-          execute(namespaceJob, context);
-          return Empty.getInstance();
-        });
+    int batchOps = namespaceJobs.stream()
+        .mapToInt(namespaceJob -> namespaceJob.getJobs().size())
+        .sum();
+
+    List<Callable<Empty>> callables = new ArrayList<>();
+    int subBatches = 0;
+    int usedLaneConnections = 0;
+    for (NamespaceJob namespaceJob : namespaceJobs) {
+      int lanes = laneHeuristic.getLanes(namespaceJob, batchOps, concurrentMetrics);
+      Preconditions.checkState(lanes > 0, "The number of lanes must be positive, but %s was "
+          + "returned", lanes);
+      if (lanes > 1) {
+        subBatches += addLaneCallables(namespaceJob, lanes, usedLaneConnections, context,
+            callables);
+        usedLaneConnections += lanes;
+      } else {
+        List<NamespaceJob> subJobs = split(namespaceJob).collect(Collectors.toList());
+        subBatches += subJobs.size();
+        for (NamespaceJob subJob : subJobs) {
+          callables.add(() -> {
+            execute(subJob, context);
+            return Empty.getInstance();
+          });
+        }
+      }
+    }
+    concurrentMetrics.getSubBatchSizeMeter().mark(subBatches);
+    concurrentMetrics.getSubBatchSizeHistogram().update(subBatches);
+
     try {
-      streamExecutor.execute(callables)
+      streamExecutor.execute(callables.stream())
           .join();
     } catch (CompletionException ex) {
       Throwable cause = ex.getCause();
@@ -109,6 +154,60 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     }
   }
 
+  /**
+   * Partitions the ops of a hot namespace by the hash of their document id.
+   *
+   * <p>Each lane is split on sub batches like any other namespace job. The sub batches of a lane
+   * are executed one after the other with the lane connection, which is reused by the same lane
+   * on the following batches.
+   *
+   * @param firstConnection the index of the first lane connection this namespace can use, as the
+   *                        previous ones are used by other hot namespaces of the same batch
+   * @param callables       the list where the callables of the lanes are added
+   * @return the number of sub batches the lanes have been split on
+   */
+  private int addLaneCallables(NamespaceJob namespaceJob, int lanes, int firstConnection,
+      ApplierContext context, List<Callable<Empty>> callables) {
+    List<List<AnalyzedOp>> laneOps = new ArrayList<>(lanes);
+    for (int i = 0; i < lanes; i++) {
+      laneOps.add(new ArrayList<>(namespaceJob.getJobs().size() / lanes + 1));
+    }
+    for (AnalyzedOp op : namespaceJob.getJobs()) {
+      int lane = Math.floorMod(op.getMongoDocId().hashCode(), lanes);
+      laneOps.get(lane).add(op);
+    }
+
+    while (laneConnections.size() < firstConnection + lanes) {
+      laneConnections.add(getServer().openConnection());
+    }
+
+    concurrentMetrics.getHotNamespaceJobs().mark();
+    int maxLaneSize = laneOps.stream().mapToInt(List::size).max().orElse(0);
+    int avgLaneSize = Math.max(1, namespaceJob.getJobs().size() / lanes);
+    concurrentMetrics.getLaneSkew().update((100 * maxLaneSize) / avgLaneSize);
+
+    int subBatches = 0;
+    for (int i = 0; i < lanes; i++) {
+      List<AnalyzedOp> ops = laneOps.get(i);
+      if (ops.isEmpty()) {
+        continue;
+      }
+      List<NamespaceJob> subJobs = split(new NamespaceJob(namespaceJob.getDatabase(),
+          namespaceJob.getCollection(), ops)).collect(Collectors.toList());
+      subBatches += subJobs.size();
+      MongodConnection connection = laneConnections.get(firstConnection + i);
+      Meter laneMeter = concurrentMetrics.getLaneOps(i);
+      callables.add(() -> {
+        for (NamespaceJob subJob : subJobs) {
+          execute(subJob, context, connection);
+          laneMeter.mark(subJob.getJobs().size());
+        }
+        return Empty.getInstance();
+      });
+    }
+    return subBatches;
+  }
+
   private void execute(NamespaceJob job, ApplierContext applierContext)
       throws OplogManagerPersistException, UserException, NamespaceJobExecutionException {
     assert isRunning() : "The service is not running";
@@ -121,8 +220,8 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     Collection<AnalyzedOp> jobs = namespaceJob.getJobs();
 
     int subBatchSize = subBatchHeuristic.getSubBatchSize(concurrentMetrics);
-
-    assert subBatchSize > 0 : "Sub batch size must be positive";
+    Preconditions.checkState(subBatchSize > 0, "The sub batch size must be positive, but %s was "
+        + "returned", subBatchSize);
 
     Supplier<List<AnalyzedOp>> currentListFactory = () -> new ArrayList<>(subBatchSize);
 
@@ -156,12 +255,18 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
 
     private final Meter subBatchSizeMeter;
     private final Histogram subBatchSizeHistogram;
+    private final Meter hotNamespaceJobs;
+    private final Histogram laneSkew;
+    private final ConcurrentMap<Integer, Meter> laneOps = new ConcurrentHashMap<>();
 
     @Inject
     public ConcurrentOplogBatchExecutorMetrics(ToroMetricRegistry parentRegistry) {
       super(parentRegistry);
       this.subBatchSizeMeter = getRegistry().meter("subBatchSizeMeter");
       this.subBatchSizeHistogram = getRegistry().histogram("subBatchSizeHistogram");
+      this.hotNamespaceJobs = getRegistry().meter("hotNamespaceJobs");
+      this.laneSkew = getRegistry().histogram("laneSkew");
+      getRegistry().gauge("laneSkewUnit").setValue("max lane ops * 100 / average lane ops");
     }
 
     public Meter getSubBatchSizeMeter() {
@@ -171,6 +276,29 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
     public Histogram getSubBatchSizeHistogram() {
       return subBatchSizeHistogram;
     }
+
+    /**
+     * The number of namespace jobs that have been partitioned in lanes.
+     */
+    public Meter getHotNamespaceJobs() {
+      return hotNamespaceJobs;
+    }
+
+    /**
+     * How much bigger the biggest lane is than the average lane, as a percentage.
+     */
+    public Histogram getLaneSkew() {
+      return laneSkew;
+    }
+
+    /**
+     * The ops applied by the given lane.
+     */
+    public Meter getLaneOps(int lane) {
+      return laneOps.computeIfAbsent(lane, l -> getRegistry()
+          .createSubRegistry("lane", Integer.toString(l))
+          .meter("ops"));
+    }
   }
 
   public static interface SubBatchHeuristic {
@@ -181,8 +309,52 @@ public class ConcurrentOplogBatchExecutor extends SimpleAnalyzedOplogBatchExecut
      *
      * @return a positive integer
      */
-    @Nonnegative
     public int getSubBatchSize(ConcurrentOplogBatchExecutorMetrics metrics);
   }
 
+  public static interface LaneHeuristic {
+
+    /**
+     * Returns the number of lanes on which the {@link AnalyzedOp ops} of the given namespace job
+     * must be partitioned or 1 if it must be split on sub batches as usual.
+     *
+     * @param batchOps the number of ops of the whole batch that contains the given job
+     * @return a positive integer
+     */
+    public int getLanes(NamespaceJob job, int batchOps,
+        ConcurrentOplogBatchExecutorMetrics metrics);
+  }
+
+  /**
+   * A {@link LaneHeuristic} that partitions the namespaces that receive most of the ops of a
+   * batch.
+   */
+  public static class HotNamespaceLaneHeuristic implements LaneHeuristic {
+
+    private final int lanes;
+    private final double hotRatio;
+    private final int minOps;
+
+    /**
+     * @param lanes    the number of lanes used by hot namespaces
+     * @param hotRatio the min ratio of the batch ops a namespace must have to be considered hot
+     * @param minOps   the min number of ops a namespace must have to be considered hot
+     */
+    public HotNamespaceLaneHeuristic(int lanes, double hotRatio, int minOps) {
+      this.lanes = lanes;
+      this.hotRatio = hotRatio;
+      this.minOps = minOps;
+    }
+
+    @Override
+    public int getLanes(NamespaceJob job, int batchOps,
+        ConcurrentOplogBatchExecutorMetrics metrics) {
+      int jobOps = job.getJobs().size();
+      if (jobOps < minOps || jobOps < hotRatio * batchOps) {
+        return 1;
+      }
+      return lanes;
+    }
+  }
+
 }
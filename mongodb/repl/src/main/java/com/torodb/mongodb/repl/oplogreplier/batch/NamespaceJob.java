@@ -19,6 +19,7 @@
 package com.torodb.mongodb.repl.oplogreplier.batch;
 
 import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOp;
+import com.torodb.mongodb.repl.oplogreplier.analyzed.AnalyzedOpType;
 
 import java.util.Collection;
 
@@ -49,6 +50,14 @@ public class NamespaceJob {
     return jobs;
   }
 
+  /**
+   * Returns true iff all ops on this job create their documents from scratch, as inserts do, so
+   * they can be applied without reading the documents they could replace.
+   */
+  public boolean isCreateOnly() {
+    return jobs.stream().allMatch(op -> op.getType() == AnalyzedOpType.DELETE_CREATE);
+  }
+
   @Override
   public String toString() {
     return "NamespaceJob on " + database + '.' + collection + ": " + jobs;
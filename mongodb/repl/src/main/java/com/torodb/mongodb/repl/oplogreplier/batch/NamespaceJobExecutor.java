@@ -35,8 +35,12 @@ import com.torodb.mongodb.utils.DefaultIdUtils;
 import com.torodb.mongowp.Status;
 import org.jooq.lambda.tuple.Tuple2;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -66,8 +70,11 @@ public class NamespaceJobExecutor {
     }
     if (errors.isEmpty()) {
       Map<AnalyzedOp, ToroDocument> fetchDocs = fetchDocs(job, transaction, fetchDids);
-      deleteDocs(job, transaction, fetchDids);
-      insertDocs(job, transaction, fetchDocs);
+      Map<AnalyzedOp, KvDocument> docsToInsert = calculateDocsToInsert(job, fetchDocs);
+      Set<AnalyzedOp> updatedInPlace = updateDocsInPlace(job, transaction, fetchDocs,
+          docsToInsert);
+      deleteDocs(job, transaction, fetchDids, updatedInPlace);
+      insertDocs(job, transaction, docsToInsert, updatedInPlace);
     }
 
   }
@@ -146,14 +153,68 @@ public class NamespaceJobExecutor {
         );
   }
 
+  /**
+   * Returns the document each op of the job inserts, in the order of the job.
+   *
+   * <p>Ops that do not insert a document are not included.
+   */
+  private Map<AnalyzedOp, KvDocument> calculateDocsToInsert(NamespaceJob job,
+      Map<AnalyzedOp, ToroDocument> fetchDocs) {
+    Function<AnalyzedOp, KvDocument> getFetchDocFun = createGetFetchDocFun(fetchDocs);
+    Map<AnalyzedOp, KvDocument> result = new LinkedHashMap<>();
+    for (AnalyzedOp op : job.getJobs()) {
+      KvDocument docToInsert = op.calculateDocToInsert(getFetchDocFun);
+      if (docToInsert != null) {
+        result.put(op, docToInsert);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Applies in place the ops that would replace a fetched document by a new version of it, when
+   * the backend can do that without rewriting the whole document.
+   *
+   * @return the ops that have been applied, which must not be deleted nor inserted
+   */
+  private Set<AnalyzedOp> updateDocsInPlace(NamespaceJob job,
+      WriteMongodTransaction transaction, Map<AnalyzedOp, ToroDocument> fetchDocs,
+      Map<AnalyzedOp, KvDocument> docsToInsert) throws UserException {
+    if (fetchDocs.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    Set<AnalyzedOp> result = new HashSet<>();
+    for (AnalyzedOp op : job.getJobs()) {
+      if (!op.deletes()) {
+        continue;
+      }
+      ToroDocument fetchToroDoc = fetchDocs.get(op);
+      if (fetchToroDoc == null) {
+        continue;
+      }
+      KvDocument newDoc = docsToInsert.get(op);
+      if (newDoc == null) {
+        continue;
+      }
+      boolean updated = transaction.getTorodTransaction().updateInPlace(job.getDatabase(),
+          job.getCollection(), fetchToroDoc, newDoc);
+      if (updated) {
+        result.add(op);
+      }
+    }
+    return result;
+  }
+
   private void deleteDocs(NamespaceJob job, WriteMongodTransaction transaction,
-      Map<AnalyzedOp, Integer> fetchDids) {
+      Map<AnalyzedOp, Integer> fetchDids, Set<AnalyzedOp> updatedInPlace) {
     if (fetchDids.isEmpty()) {
       return;
     }
 
     Stream<Integer> didsToDelete = job.getJobs().stream()
         .filter(AnalyzedOp::deletes)
+        .filter(op -> !updatedInPlace.contains(op))
         .map(op -> fetchDids.get(op))
         .filter(did -> did != null);
 
@@ -162,8 +223,18 @@ public class NamespaceJobExecutor {
   }
 
   private void insertDocs(NamespaceJob job, WriteMongodTransaction transaction,
-      Map<AnalyzedOp, ToroDocument> fetchDocs) throws UserException {
-    Function<AnalyzedOp, KvDocument> getFetchDocFun = op -> {
+      Map<AnalyzedOp, KvDocument> docsToInsert, Set<AnalyzedOp> updatedInPlace)
+      throws UserException {
+    Stream<KvDocument> docs = docsToInsert.entrySet().stream()
+        .filter(entry -> !updatedInPlace.contains(entry.getKey()))
+        .map(Map.Entry::getValue);
+
+    transaction.getTorodTransaction().insert(job.getDatabase(), job.getCollection(), docs);
+  }
+
+  private static Function<AnalyzedOp, KvDocument> createGetFetchDocFun(
+      Map<AnalyzedOp, ToroDocument> fetchDocs) {
+    return op -> {
       ToroDocument fetchToroDoc = fetchDocs.get(op);
       if (fetchToroDoc == null) {
         return null;
@@ -171,10 +242,5 @@ public class NamespaceJobExecutor {
         return fetchToroDoc.getRoot();
       }
     };
-    Stream<KvDocument> docsToInsert = job.getJobs().stream()
-        .map(op -> op.calculateDocToInsert(getFetchDocFun))
-        .filter(doc -> doc != null);
-
-    transaction.getTorodTransaction().insert(job.getDatabase(), job.getCollection(), docsToInsert);
   }
 }
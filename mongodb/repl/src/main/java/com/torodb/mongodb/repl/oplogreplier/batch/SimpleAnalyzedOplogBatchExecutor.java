@@ -105,12 +105,22 @@ public class SimpleAnalyzedOplogBatchExecutor extends AbstractService
       MongodConnection connection) throws RollbackException, UserException,
       NamespaceJobExecutionException {
     try (Context timerContext = metrics.getNamespaceBatchTimer().time()) {
-      boolean optimisticDeleteAndCreate = applierContext.isReapplying().orElse(true);
+      //create only jobs are inserted directly, as the unique _id index detects the documents
+      //that already exist and, if there is any, the job is applied again fetching them
+      boolean createOnly = job.isCreateOnly();
+      boolean optimisticDeleteAndCreate = applierContext.isReapplying().orElse(true)
+          || createOnly;
+      if (createOnly) {
+        metrics.getCreateOnlyJobs().mark();
+      }
       try {
         execute(job, applierContext, connection, optimisticDeleteAndCreate);
       } catch (UniqueIndexViolationException ex) {
         assert optimisticDeleteAndCreate : "Unique index violations should not happen when "
             + "pesimistic delete and create is executed";
+        if (createOnly) {
+          metrics.getCreateOnlyFallbacks().mark();
+        }
         execute(job, applierContext, connection, false);
       }
     }
@@ -32,6 +32,7 @@ import com.torodb.mongodb.repl.OplogReader;
 import com.torodb.mongodb.repl.OplogReaderProvider;
 import com.torodb.mongodb.repl.ReplMetrics;
 import com.torodb.mongodb.repl.SyncSourceProvider;
+import com.torodb.mongodb.repl.guice.OplogFetchMaxAwait;
 import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.NormalOplogBatch;
 import com.torodb.mongodb.repl.oplogreplier.NotReadyForMoreOplogBatch;
@@ -49,7 +50,9 @@ import com.torodb.mongowp.exceptions.OplogOperationUnsupported;
 import com.torodb.mongowp.exceptions.OplogStartMissingException;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -59,6 +62,13 @@ import javax.inject.Inject;
 @NotThreadSafe
 public class ContinuousOplogFetcher implements OplogFetcher {
 
+  public static final Duration DEFAULT_MAX_AWAIT = Duration.ofSeconds(5);
+  /**
+   * The time to wait between two requests when the sync source returns an empty batch without
+   * waiting for new entries.
+   */
+  private static final long EMPTY_BATCH_PAUSE_MILLIS = 10;
+
   private final Logger logger;
 
   private final OplogReaderProvider readerProvider;
@@ -66,12 +76,15 @@ public class ContinuousOplogFetcher implements OplogFetcher {
   private final Retrier retrier;
   private final FetcherState state;
   private final ReplMetrics metrics;
+  private final Duration maxAwait;
 
   @Inject
   public ContinuousOplogFetcher(OplogReaderProvider readerProvider,
       SyncSourceProvider syncSourceProvider,
       Retrier retrier, @Assisted long lastFetchedHash, @Assisted OpTime lastFetchedOptime,
-      ReplMetrics metrics, LoggerFactory lf) {
+      ReplMetrics metrics, LoggerFactory lf, @OplogFetchMaxAwait Duration maxAwait) {
+    Preconditions.checkArgument(!maxAwait.isNegative(), "The max await time cannot be negative");
+    this.maxAwait = maxAwait;
     this.logger = lf.apply(this.getClass());
     this.readerProvider = readerProvider;
     this.syncSourceProvider = syncSourceProvider;
@@ -101,14 +114,10 @@ public class ContinuousOplogFetcher implements OplogFetcher {
           state.prepareToFetch();
 
           MongoCursor<OplogOperation> cursor = state.getLastUsedMongoCursor();
-          Batch<OplogOperation> batch = cursor.tryFetchBatch();
+          Batch<OplogOperation> batch = awaitBatch(cursor);
 
           if (batch == null || !batch.hasNext()) {
-            Thread.sleep(1000);
-            batch = cursor.tryFetchBatch();
-            if (batch == null || !batch.hasNext()) {
-              return NotReadyForMoreOplogBatch.getInstance();
-            }
+            return NotReadyForMoreOplogBatch.getInstance();
           }
           List<OplogOperation> fetchedOps = null;
           long fetchTime = 0;
@@ -183,6 +192,39 @@ public class ContinuousOplogFetcher implements OplogFetcher {
     state.close();
   }
 
+  /**
+   * Fetches the next batch from the given cursor, waiting up to {@link #maxAwait} until the sync
+   * source has new entries.
+   *
+   * <p>The oplog cursor is tailable and awaits data, so each request is blocked on the sync source
+   * until it has new entries or its own timeout expires. Requests are repeated until a non empty
+   * batch is returned or the max await time is exceeded. If the sync source answers with an empty
+   * batch without waiting, a short pause is done before the next request.
+   *
+   * @return the first non empty batch or the last (null or empty) batch if the max await time was
+   *         exceeded
+   */
+  @Nullable
+  private Batch<OplogOperation> awaitBatch(MongoCursor<OplogOperation> cursor)
+      throws MongoException, DeadCursorException, InterruptedException {
+    long deadline = System.nanoTime() + maxAwait.toNanos();
+    while (true) {
+      long requestStart = System.nanoTime();
+      Batch<OplogOperation> batch = cursor.tryFetchBatch();
+      if (batch != null && batch.hasNext()) {
+        return batch;
+      }
+      long now = System.nanoTime();
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - now);
+      if (remainingMillis <= 0 || cursor.isClosed() || state.isClosed()) {
+        return batch;
+      }
+      if (TimeUnit.NANOSECONDS.toMillis(now - requestStart) < EMPTY_BATCH_PAUSE_MILLIS) {
+        Thread.sleep(Math.min(EMPTY_BATCH_PAUSE_MILLIS, remainingMillis));
+      }
+    }
+  }
+
   /**
    *
    * @param cursor
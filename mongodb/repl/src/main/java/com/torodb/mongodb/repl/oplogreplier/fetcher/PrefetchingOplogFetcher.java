@@ -0,0 +1,357 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.OplogApplierMetrics;
+import com.torodb.mongodb.repl.oplogreplier.RollbackReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.StopReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatch;
+import com.torodb.mongowp.bson.BsonDocument;
+import com.torodb.mongowp.bson.BsonDocument.Entry;
+import com.torodb.mongowp.bson.BsonValue;
+import com.torodb.mongowp.commands.oplog.DbCmdOplogOperation;
+import com.torodb.mongowp.commands.oplog.DbOplogOperation;
+import com.torodb.mongowp.commands.oplog.DeleteOplogOperation;
+import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
+import com.torodb.mongowp.commands.oplog.NoopOplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogOperationVisitor;
+import com.torodb.mongowp.commands.oplog.UpdateOplogOperation;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An {@link OplogFetcher} that fetches batches from a delegated fetcher on a background thread,
+ * so the next batch is read from the sync source while the previous ones are being applied.
+ *
+ * <p>Fetched batches are stored on a bounded buffer whose size is measured as the estimated BSON
+ * size of the operations it contains. The background thread stops fetching while the buffer is
+ * full, but a batch is always accepted when the buffer is empty, even if it is bigger than the
+ * limit. Consecutive empty batches that are not {@link OplogBatch#isReadyForMore() ready for more}
+ * are stored only once.
+ *
+ * <p>Errors thrown by the delegated fetcher are buffered and rethrown by {@link #fetch()} once the
+ * batches fetched before them have been consumed. The delegated fetcher is only used, and closed,
+ * by the background thread.
+ *
+ * <p>The time the consumer waits for a batch and the time the background thread waits for space on
+ * the buffer are reported as metrics. The first one grows when replication is fetch-bound and the
+ * second one when it is apply-bound.
+ */
+@ThreadSafe
+public class PrefetchingOplogFetcher implements OplogFetcher {
+
+  private final OplogFetcher delegate;
+  private final long maxBufferedBytes;
+  private final OplogApplierMetrics metrics;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final ArrayDeque<BufferedBatch> buffer = new ArrayDeque<>();
+  private long bufferedBytes = 0;
+  private boolean producerFinished = false;
+  private volatile boolean closed = false;
+
+  public PrefetchingOplogFetcher(OplogFetcher delegate, long maxBufferedBytes,
+      OplogApplierMetrics metrics, Executor executor) {
+    Preconditions.checkArgument(maxBufferedBytes > 0, "The max buffered bytes must be positive");
+    this.delegate = delegate;
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.metrics = metrics;
+    executor.execute(this::prefetch);
+  }
+
+  @Override
+  public OplogBatch fetch() throws StopReplicationException, RollbackReplicationException {
+    BufferedBatch buffered;
+    lock.lock();
+    try {
+      if (buffer.isEmpty() && !producerFinished && !closed) {
+        try (Timer.Context ctx = metrics.getPrefetchConsumerWait().time()) {
+          while (buffer.isEmpty() && !producerFinished && !closed) {
+            notEmpty.await();
+          }
+        }
+      }
+      buffered = buffer.poll();
+      if (buffered == null) {
+        return FinishedOplogBatch.getInstance();
+      }
+      bufferedBytes -= buffered.bytes;
+      updateFillMetrics();
+      notFull.signal();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new StopReplicationException("Interrupted while waiting for the next oplog batch", ex);
+    } finally {
+      lock.unlock();
+    }
+    return buffered.get();
+  }
+
+  /**
+   * Marks this fetcher as closed and discards the buffered batches.
+   *
+   * <p>The delegated fetcher is not closed here, as it is not thread safe and may be in use. The
+   * background thread closes it once its current fetch finishes.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      buffer.clear();
+      bufferedBytes = 0;
+      updateFillMetrics();
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void prefetch() {
+    try {
+      boolean finished = false;
+      while (!finished && !closed) {
+        BufferedBatch fetched;
+        try {
+          OplogBatch batch = delegate.fetch();
+          fetched = new BufferedBatch(batch, estimateBytes(batch));
+          finished = batch.isLastOne();
+        } catch (Throwable ex) {
+          fetched = new BufferedBatch(ex);
+          finished = true;
+        }
+        try {
+          offer(fetched);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          forceOffer(new BufferedBatch(new StopReplicationException(
+              "Interrupted while prefetching the remote oplog", ex)));
+          finished = true;
+        }
+      }
+    } finally {
+      try {
+        delegate.close();
+      } finally {
+        lock.lock();
+        try {
+          producerFinished = true;
+          notEmpty.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  private void offer(BufferedBatch fetched) throws InterruptedException {
+    lock.lock();
+    try {
+      if (isFull(fetched) && !closed) {
+        try (Timer.Context ctx = metrics.getPrefetchProducerWait().time()) {
+          while (isFull(fetched) && !closed) {
+            notFull.await();
+          }
+        }
+      }
+      if (closed) {
+        return;
+      }
+      if (fetched.isNotReadyMark()) {
+        BufferedBatch last = buffer.peekLast();
+        if (last != null && last.isNotReadyMark()) {
+          return;
+        }
+      }
+      buffer.add(fetched);
+      bufferedBytes += fetched.bytes;
+      updateFillMetrics();
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds the given batch to the buffer even if it is full.
+   */
+  private void forceOffer(BufferedBatch fetched) {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      buffer.add(fetched);
+      bufferedBytes += fetched.bytes;
+      updateFillMetrics();
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isFull(BufferedBatch fetched) {
+    return !buffer.isEmpty() && bufferedBytes + fetched.bytes > maxBufferedBytes;
+  }
+
+  private void updateFillMetrics() {
+    metrics.getPrefetchedBatches().setValue(buffer.size());
+    metrics.getPrefetchedBytes().setValue(bufferedBytes);
+    metrics.getPrefetchFillLevel().update(bufferedBytes * 100 / maxBufferedBytes);
+  }
+
+  private static long estimateBytes(OplogBatch batch) {
+    long bytes = 0;
+    for (OplogOperation op : batch.getOps()) {
+      bytes += op.accept(SizeEstimator.INSTANCE, null);
+    }
+    return bytes;
+  }
+
+  private static class BufferedBatch {
+
+    @Nullable
+    private final OplogBatch batch;
+    @Nullable
+    private final Throwable error;
+    private final long bytes;
+
+    private BufferedBatch(OplogBatch batch, long bytes) {
+      this.batch = batch;
+      this.error = null;
+      this.bytes = bytes;
+    }
+
+    private BufferedBatch(Throwable error) {
+      this.batch = null;
+      this.error = error;
+      this.bytes = 0;
+    }
+
+    private boolean isNotReadyMark() {
+      return batch != null && batch.isEmpty() && !batch.isReadyForMore() && !batch.isLastOne();
+    }
+
+    private OplogBatch get() throws StopReplicationException, RollbackReplicationException {
+      if (error != null) {
+        if (error instanceof StopReplicationException) {
+          throw (StopReplicationException) error;
+        }
+        if (error instanceof RollbackReplicationException) {
+          throw (RollbackReplicationException) error;
+        }
+        if (error instanceof RuntimeException) {
+          throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+          throw (Error) error;
+        }
+        throw new StopReplicationException("Unexpected error while fetching the remote oplog",
+            error);
+      }
+      assert batch != null;
+      return batch;
+    }
+  }
+
+  /**
+   * Estimates the BSON size of an oplog operation by adding the size of the documents it contains
+   * to a fixed overhead for the common fields (namespace, optime, hash, etc).
+   */
+  private static class SizeEstimator implements OplogOperationVisitor<Long, Void> {
+
+    private static final SizeEstimator INSTANCE = new SizeEstimator();
+    private static final long OP_OVERHEAD = 96;
+    private static final long SCALAR_SIZE = 8;
+
+    @Override
+    public Long visit(DbCmdOplogOperation op, Void arg) {
+      return OP_OVERHEAD + estimate(op.getRequest());
+    }
+
+    @Override
+    public Long visit(DbOplogOperation op, Void arg) {
+      return OP_OVERHEAD;
+    }
+
+    @Override
+    public Long visit(NoopOplogOperation op, Void arg) {
+      return OP_OVERHEAD;
+    }
+
+    @Override
+    public Long visit(DeleteOplogOperation op, Void arg) {
+      return OP_OVERHEAD + estimate(op.getFilter());
+    }
+
+    @Override
+    public Long visit(InsertOplogOperation op, Void arg) {
+      return OP_OVERHEAD + estimate(op.getDocToInsert());
+    }
+
+    @Override
+    public Long visit(UpdateOplogOperation op, Void arg) {
+      return OP_OVERHEAD + estimate(op.getFilter()) + estimate(op.getModification());
+    }
+
+    private static long estimate(@Nullable BsonValue<?> value) {
+      if (value == null) {
+        return 0;
+      }
+      if (value.isDocument()) {
+        return estimate(value.asDocument());
+      }
+      if (value.isArray()) {
+        long size = 5;
+        int index = 0;
+        for (BsonValue<?> element : value.asArray()) {
+          size += 2 + Integer.toString(index).length() + estimate(element);
+          index++;
+        }
+        return size;
+      }
+      if (value.isString()) {
+        return 5 + value.asString().getValue().length();
+      }
+      return SCALAR_SIZE;
+    }
+
+    private static long estimate(@Nullable BsonDocument doc) {
+      if (doc == null) {
+        return 0;
+      }
+      long size = 5;
+      for (Entry<?> entry : doc) {
+        size += 2 + entry.getKey().length() + estimate(entry.getValue());
+      }
+      return size;
+    }
+  }
+}
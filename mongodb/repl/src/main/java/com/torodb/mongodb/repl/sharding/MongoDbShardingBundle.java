@@ -116,6 +116,7 @@ public class MongoDbShardingBundle extends AbstractBundle<MongoDbShardingExtInt>
         generalConf.getUserReplFilter(),
         shardConfig.getConsistencyHandler(),
         generalConf.getLifecycleLoggingFactory(),
+        generalConf.getOplogFetchMaxAwait(),
         generalConf.getEssentialInjector(),
         generalConf.getSupervisor()
     );
@@ -28,6 +28,7 @@ import com.torodb.mongodb.repl.filters.ReplicationFilters;
 import com.torodb.mongowp.client.wrapper.MongoClientConfiguration;
 import com.torodb.torod.TorodBundle;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -40,25 +41,28 @@ public class MongoDbShardingConfig implements BundleConfig  {
   private final ReplicationFilters userReplFilter;
   private final BundleConfig generalConfig;
   private final LoggerFactory lifecycleLoggingFactory;
+  private final Duration oplogFetchMaxAwait;
 
   public MongoDbShardingConfig(TorodBundle torodBundle, ShardConfig singleShard,
       ReplicationFilters userReplFilter, LoggerFactory lifecycleLoggingFactory,
-      BundleConfig generalConfig) {
+      Duration oplogFetchMaxAwait, BundleConfig generalConfig) {
     this.torodBundle = torodBundle;
     this.shardConfigs = Collections.singletonList(singleShard);
     this.userReplFilter = userReplFilter;
     this.generalConfig = generalConfig;
     this.lifecycleLoggingFactory = lifecycleLoggingFactory;
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
     this.unsharded = true;
   }
 
   MongoDbShardingConfig(TorodBundle torodBundle, List<ShardConfig> shardConfigs,
       ReplicationFilters userReplFilter, LoggerFactory lifecycleLoggingFactory,
-      BundleConfig generalConfig) {
+      Duration oplogFetchMaxAwait, BundleConfig generalConfig) {
     this.torodBundle = torodBundle;
     this.shardConfigs = shardConfigs;
     this.userReplFilter = userReplFilter;
     this.lifecycleLoggingFactory = lifecycleLoggingFactory;
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
     this.generalConfig = generalConfig;
     this.unsharded = false;
   }
@@ -84,6 +88,14 @@ public class MongoDbShardingConfig implements BundleConfig  {
     return lifecycleLoggingFactory;
   }
 
+  /**
+   * Returns the max time a fetch of the remote oplog of each shard waits for new entries before
+   * it reports that there are none.
+   */
+  public Duration getOplogFetchMaxAwait() {
+    return oplogFetchMaxAwait;
+  }
+
   @Override
   public Injector getEssentialInjector() {
     return generalConfig.getEssentialInjector();
@@ -24,9 +24,11 @@ import com.torodb.core.bundle.BundleConfigImpl;
 import com.torodb.core.logging.LoggerFactory;
 import com.torodb.core.supervision.Supervisor;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
+import com.torodb.mongodb.repl.oplogreplier.fetcher.ContinuousOplogFetcher;
 import com.torodb.mongodb.repl.sharding.MongoDbShardingConfig.ShardConfig;
 import com.torodb.torod.TorodBundle;
 
+import java.time.Duration;
 import java.util.Objects;
 
 public abstract class MongoDbShardingConfigBuilder {
@@ -34,6 +36,7 @@ public abstract class MongoDbShardingConfigBuilder {
   private TorodBundle torodBundle;
   private ReplicationFilters userReplFilter;
   private LoggerFactory lifecycleLoggerFactory;
+  private Duration oplogFetchMaxAwait = ContinuousOplogFetcher.DEFAULT_MAX_AWAIT;
   private final BundleConfig generalConfig;
 
   protected MongoDbShardingConfigBuilder(BundleConfig generalConfig) {
@@ -68,19 +71,27 @@ public abstract class MongoDbShardingConfigBuilder {
     return this;
   }
 
+  public MongoDbShardingConfigBuilder setOplogFetchMaxAwait(Duration oplogFetchMaxAwait) {
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
+    return this;
+  }
+
   public abstract MongoDbShardingConfigBuilder addShard(ShardConfig config);
 
   protected abstract MongoDbShardingConfig build(TorodBundle torodBundle,
       ReplicationFilters userReplFilter,
       LoggerFactory lifecycleLoggerFactory,
+      Duration oplogFetchMaxAwait,
       BundleConfig generalConfig);
 
   public MongoDbShardingConfig build() {
     Objects.requireNonNull(torodBundle, "The torod bundle must be not null");
     Objects.requireNonNull(userReplFilter, "The user filter must be not null");
     Objects.requireNonNull(lifecycleLoggerFactory, "The lifecycle logger factory must be not null");
+    Objects.requireNonNull(oplogFetchMaxAwait, "The oplog fetch max await must be not null");
 
-    return build(torodBundle, userReplFilter, lifecycleLoggerFactory, generalConfig);
+    return build(torodBundle, userReplFilter, lifecycleLoggerFactory, oplogFetchMaxAwait,
+        generalConfig);
   }
 
 }
@@ -115,6 +115,7 @@ public class MultiShardBundle extends ShardBundle {
         .setMongoClientConfiguration(config.getClientConfig())
         .setReplSetName(config.getReplSetName())
         .setReplicationFilters(config.getUserReplFilter())
+        .setOplogFetchMaxAwait(config.getOplogFetchMaxAwait())
         .setMetricRegistry(shardMetricRegistry)
         .setLoggerFactory(new ComponentLoggerFactory("REPL-" + config.getShardId()))
         .build();
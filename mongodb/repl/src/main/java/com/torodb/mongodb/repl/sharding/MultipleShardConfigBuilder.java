@@ -25,6 +25,7 @@ import com.torodb.core.supervision.Supervisor;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
 import com.torodb.torod.TorodBundle;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -53,7 +54,8 @@ class MultipleShardConfigBuilder extends MongoDbShardingConfigBuilder {
 
   @Override
   protected MongoDbShardingConfig build(TorodBundle torodBundle, ReplicationFilters userReplFilter,
-      LoggerFactory lifecycleLoggerFactory, BundleConfig generalConfig) {
+      LoggerFactory lifecycleLoggerFactory, Duration oplogFetchMaxAwait,
+      BundleConfig generalConfig) {
     if (shardConfigs.isEmpty()) {
       throw new IllegalArgumentException("At least one shard is required");
     }
@@ -63,6 +65,7 @@ class MultipleShardConfigBuilder extends MongoDbShardingConfigBuilder {
         new ArrayList<>(shardConfigs.values()),
         userReplFilter,
         lifecycleLoggerFactory,
+        oplogFetchMaxAwait,
         generalConfig
     );
   }
@@ -27,6 +27,8 @@ import com.torodb.mongodb.repl.filters.ReplicationFilters;
 import com.torodb.mongowp.client.wrapper.MongoClientConfiguration;
 import com.torodb.torod.TorodBundle;
 
+import java.time.Duration;
+
 public class ShardBundleConfig extends BundleConfigImpl {
   private final String shardId;
   private final TorodBundle torodBundle;
@@ -35,11 +37,12 @@ public class ShardBundleConfig extends BundleConfigImpl {
   private final ReplicationFilters userReplFilter;
   private final ConsistencyHandler consistencyHandler;
   private final LoggerFactory lifecycleLoggingFactory;
+  private final Duration oplogFetchMaxAwait;
 
   public ShardBundleConfig(String shardId, TorodBundle torodBundle,
       MongoClientConfiguration clientConfig, String replSetName, ReplicationFilters userReplFilter,
       ConsistencyHandler consistencyHandler, LoggerFactory lifecycleLoggingFactory,
-      Injector essentialInjector, Supervisor supervisor) {
+      Duration oplogFetchMaxAwait, Injector essentialInjector, Supervisor supervisor) {
     super(essentialInjector, supervisor);
     this.shardId = shardId;
     this.torodBundle = torodBundle;
@@ -48,6 +51,7 @@ public class ShardBundleConfig extends BundleConfigImpl {
     this.userReplFilter = userReplFilter;
     this.consistencyHandler = consistencyHandler;
     this.lifecycleLoggingFactory = lifecycleLoggingFactory;
+    this.oplogFetchMaxAwait = oplogFetchMaxAwait;
   }
 
   public String getShardId() {
@@ -78,5 +82,9 @@ public class ShardBundleConfig extends BundleConfigImpl {
     return lifecycleLoggingFactory;
   }
 
+  public Duration getOplogFetchMaxAwait() {
+    return oplogFetchMaxAwait;
+  }
+
 
 }
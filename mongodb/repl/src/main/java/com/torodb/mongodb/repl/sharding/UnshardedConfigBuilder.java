@@ -25,6 +25,8 @@ import com.torodb.core.supervision.Supervisor;
 import com.torodb.mongodb.repl.filters.ReplicationFilters;
 import com.torodb.torod.TorodBundle;
 
+import java.time.Duration;
+
 
 /**
  *
@@ -53,7 +55,8 @@ class UnshardedConfigBuilder extends MongoDbShardingConfigBuilder {
 
   @Override
   protected MongoDbShardingConfig build(TorodBundle torodBundle, ReplicationFilters userReplFilter,
-      LoggerFactory lifecycleLoggerFactory, BundleConfig generalConfig) {
+      LoggerFactory lifecycleLoggerFactory, Duration oplogFetchMaxAwait,
+      BundleConfig generalConfig) {
     if (shardConfig == null) {
       throw new IllegalArgumentException("At least one shard is required");
     }
@@ -63,6 +66,7 @@ class UnshardedConfigBuilder extends MongoDbShardingConfigBuilder {
         shardConfig,
         userReplFilter,
         lifecycleLoggerFactory,
+        oplogFetchMaxAwait,
         generalConfig
     );
   }
@@ -85,6 +85,7 @@ public class UnshardedShardBundle extends ShardBundle {
         .setMongoClientConfiguration(config.getClientConfig())
         .setReplSetName(config.getReplSetName())
         .setReplicationFilters(config.getUserReplFilter())
+        .setOplogFetchMaxAwait(config.getOplogFetchMaxAwait())
         .setMetricRegistry(Optional.empty())
         .setLoggerFactory(new ComponentLoggerFactory("REPL"))
         .build();
@@ -22,6 +22,9 @@ import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.filter.Filter;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.IndexInfo;
@@ -84,6 +87,16 @@ public abstract class TransDecorator<D extends TorodTransaction, C extends Torod
     return decorated.countAll(dbName, colName);
   }
 
+  @Override
+  public long estimateCountAll(String dbName, String colName) {
+    return decorated.estimateCountAll(dbName, colName);
+  }
+
+  @Override
+  public long count(String dbName, String colName, Filter filter) {
+    return decorated.count(dbName, colName, filter);
+  }
+
   @Override
   public long getCollectionSize(String dbName, String colName) {
     return decorated.getCollectionSize(dbName, colName);
@@ -99,6 +112,11 @@ public abstract class TransDecorator<D extends TorodTransaction, C extends Torod
     return decorated.findAll(dbName, colName);
   }
 
+  @Override
+  public TorodCursor findAll(String dbName, String colName, SortSpec sortSpec) {
+    return decorated.findAll(dbName, colName, sortSpec);
+  }
+
   @Override
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
@@ -111,6 +129,17 @@ public abstract class TransDecorator<D extends TorodTransaction, C extends Torod
     return decorated.findByAttRefIn(dbName, colName, attRef, values);
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter) {
+    return decorated.findByFilter(dbName, colName, filter);
+  }
+
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      SortSpec sortSpec) {
+    return decorated.findByFilter(dbName, colName, filter, sortSpec);
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName, String colName,
       AttributeReference attRef,
@@ -123,6 +152,12 @@ public abstract class TransDecorator<D extends TorodTransaction, C extends Torod
     return decorated.fetch(dbName, colName, didCursor);
   }
 
+  @Override
+  public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor,
+      Projection projection) {
+    return decorated.fetch(dbName, colName, didCursor, projection);
+  }
+
   @Override
   public Stream<CollectionInfo> getCollectionsInfo(String dbName) {
     return decorated.getCollectionsInfo(dbName);
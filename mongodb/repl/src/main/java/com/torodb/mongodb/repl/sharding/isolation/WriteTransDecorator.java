@@ -63,6 +63,12 @@ public abstract class WriteTransDecorator<D extends SharedWriteTorodTransaction,
     getDecorated().delete(dbName, colName, cursor);
   }
 
+  @Override
+  public boolean updateInPlace(String dbName, String colName, ToroDocument oldDoc,
+      KvDocument newDoc) throws UserException {
+    return getDecorated().updateInPlace(dbName, colName, oldDoc, newDoc);
+  }
+
   @Override
   public long deleteAll(String dbName, String colName) {
     return getDecorated().deleteAll(dbName, colName);
@@ -22,6 +22,9 @@ import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.filter.Filter;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.mongodb.repl.sharding.isolation.TransDecorator;
 import com.torodb.torod.CollectionInfo;
@@ -81,6 +84,12 @@ public class DbIsolatorTrans<D extends TorodTransaction>
     return super.fetch(convertDatabaseName(dbName), colName, didCursor);
   }
 
+  @Override
+  public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor,
+      Projection projection) {
+    return super.fetch(convertDatabaseName(dbName), colName, didCursor, projection);
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName, String colName,
       AttributeReference attRef,
@@ -94,6 +103,17 @@ public class DbIsolatorTrans<D extends TorodTransaction>
     return super.findByAttRefIn(convertDatabaseName(dbName), colName, attRef, values);
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter) {
+    return super.findByFilter(convertDatabaseName(dbName), colName, filter);
+  }
+
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      SortSpec sortSpec) {
+    return super.findByFilter(convertDatabaseName(dbName), colName, filter, sortSpec);
+  }
+
   @Override
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
@@ -105,6 +125,11 @@ public class DbIsolatorTrans<D extends TorodTransaction>
     return super.findAll(convertDatabaseName(dbName), colName);
   }
 
+  @Override
+  public TorodCursor findAll(String dbName, String colName, SortSpec sortSpec) {
+    return super.findAll(convertDatabaseName(dbName), colName, sortSpec);
+  }
+
   @Override
   public long getDocumentsSize(String dbName, String colName) {
     return super.getDocumentsSize(convertDatabaseName(dbName), colName);
@@ -120,6 +145,16 @@ public class DbIsolatorTrans<D extends TorodTransaction>
     return super.countAll(convertDatabaseName(dbName), colName);
   }
 
+  @Override
+  public long estimateCountAll(String dbName, String colName) {
+    return super.estimateCountAll(convertDatabaseName(dbName), colName);
+  }
+
+  @Override
+  public long count(String dbName, String colName, Filter filter) {
+    return super.count(convertDatabaseName(dbName), colName, filter);
+  }
+
   @Override
   public long getDatabaseSize(String dbName) {
     return super.getDatabaseSize(convertDatabaseName(dbName));
@@ -60,6 +60,12 @@ public class DbIsolatorWriteTrans<D extends SharedWriteTorodTransaction> extends
     getDecorated().delete(convertDatabaseName(dbName), colName, cursor);
   }
 
+  @Override
+  public boolean updateInPlace(String dbName, String colName, ToroDocument oldDoc,
+      KvDocument newDoc) throws UserException {
+    return getDecorated().updateInPlace(convertDatabaseName(dbName), colName, oldDoc, newDoc);
+  }
+
   @Override
   public long deleteAll(String dbName, String colName) {
     return getDecorated().deleteAll(convertDatabaseName(dbName), colName);
@@ -0,0 +1,226 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.mongodb.repl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+
+import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.logging.DefaultLoggerFactory;
+import com.torodb.mongodb.commands.signatures.diagnostic.ListDatabasesCommand;
+import com.torodb.mongodb.commands.signatures.diagnostic.ListDatabasesCommand.ListDatabasesReply;
+import com.torodb.mongodb.core.MongodServer;
+import com.torodb.mongodb.filters.IndexFilter;
+import com.torodb.mongodb.filters.NamespaceFilter;
+import com.torodb.mongodb.repl.RecoveryService.Callback;
+import com.torodb.mongodb.repl.oplogreplier.OplogApplier;
+import com.torodb.mongodb.utils.DbCloner;
+import com.torodb.mongodb.utils.DbCloner.CloningException;
+import com.torodb.mongowp.client.core.MongoClient;
+import com.torodb.mongowp.client.core.MongoClientFactory;
+import com.torodb.mongowp.client.core.MongoConnection;
+import com.torodb.mongowp.client.core.MongoConnection.RemoteCommandResponse;
+import com.torodb.mongowp.commands.tools.Empty;
+import com.torodb.torod.TorodServer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RecoveryServiceTest {
+
+  private final List<String> clonedDatabases = Collections.synchronizedList(new ArrayList<>());
+  private DbCloner cloner;
+  private TorodServer torodServer;
+  private MongodServer mongodServer;
+  private ConcurrentToolsFactory concurrentToolsFactory;
+
+  @Before
+  public void setUp() {
+    cloner = mock(DbCloner.class);
+
+    torodServer = mock(TorodServer.class);
+    given(torodServer.enableDataImportMode(anyString()))
+        .willReturn(CompletableFuture.completedFuture(Empty.getInstance()));
+    given(torodServer.disableDataImportMode(anyString()))
+        .willReturn(CompletableFuture.completedFuture(Empty.getInstance()));
+    mongodServer = mock(MongodServer.class);
+    given(mongodServer.getTorodServer()).willReturn(torodServer);
+
+    concurrentToolsFactory = mock(ConcurrentToolsFactory.class);
+    given(concurrentToolsFactory.createExecutorServiceWithMaxThreads(anyString(), anyInt()))
+        .willAnswer(invocation -> {
+          int maxThreads = invocation.getArgument(1);
+          return Executors.newFixedThreadPool(maxThreads);
+        });
+  }
+
+  @Test
+  public void testBiggestDatabasesAreClonedFirst() throws Exception {
+    givenCloneAnswer(databaseName -> {
+    });
+    MongoClient remoteClient = mockRemoteClient(
+        new ListDatabasesReply.DatabaseEntry("small", 10, false),
+        new ListDatabasesReply.DatabaseEntry("local", 1000, false),
+        new ListDatabasesReply.DatabaseEntry("big", 500, false),
+        new ListDatabasesReply.DatabaseEntry("medium", 100, false)
+    );
+
+    createRecoveryService(1).cloneDatabases(remoteClient);
+
+    assertEquals(Arrays.asList("big", "medium", "small"), clonedDatabases);
+    for (String databaseName : clonedDatabases) {
+      then(torodServer).should().enableDataImportMode(databaseName);
+      then(torodServer).should().disableDataImportMode(databaseName);
+    }
+  }
+
+  @Test
+  public void testDatabasesAreSkippedAfterAFailure() throws Exception {
+    CloningException error = new CloningException("Expected error");
+    givenCloneAnswer(databaseName -> {
+      if (databaseName.equals("failing")) {
+        throw error;
+      }
+    });
+    MongoClient remoteClient = mockRemoteClient(
+        new ListDatabasesReply.DatabaseEntry("last", 100, false),
+        new ListDatabasesReply.DatabaseEntry("failing", 200, false),
+        new ListDatabasesReply.DatabaseEntry("first", 300, false)
+    );
+
+    try {
+      createRecoveryService(1).cloneDatabases(remoteClient);
+      fail("A " + CloningException.class.getSimpleName() + " was expected");
+    } catch (CloningException ex) {
+      assertSame(error, ex);
+    }
+
+    assertEquals(Arrays.asList("first", "failing"), clonedDatabases);
+    then(torodServer).should().disableDataImportMode("failing");
+  }
+
+  @Test
+  public void testErrorIsThrownOnceStartedDatabasesFinish() throws Exception {
+    CloningException error = new CloningException("Expected error");
+    CountDownLatch failed = new CountDownLatch(1);
+    AtomicBoolean slowFinished = new AtomicBoolean(false);
+    givenCloneAnswer(databaseName -> {
+      if (databaseName.equals("failing")) {
+        failed.countDown();
+        throw error;
+      }
+      try {
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        Thread.sleep(50);
+      } catch (InterruptedException ex) {
+        throw new AssertionError(ex);
+      }
+      slowFinished.set(true);
+    });
+    MongoClient remoteClient = mockRemoteClient(
+        new ListDatabasesReply.DatabaseEntry("slow", 200, false),
+        new ListDatabasesReply.DatabaseEntry("failing", 100, false)
+    );
+
+    try {
+      createRecoveryService(2).cloneDatabases(remoteClient);
+      fail("A " + CloningException.class.getSimpleName() + " was expected");
+    } catch (CloningException ex) {
+      assertSame(error, ex);
+    }
+
+    assertTrue("The error was thrown before the started databases finished", slowFinished.get());
+  }
+
+  private RecoveryService createRecoveryService(int parallelLevel) {
+    Callback callback = mock(Callback.class);
+    given(callback.canAcceptWrites(anyString())).willReturn(true);
+
+    return new RecoveryService(
+        Executors.defaultThreadFactory(),
+        callback,
+        mock(OplogManager.class),
+        mock(SyncSourceProvider.class),
+        mock(OplogReaderProvider.class),
+        cloner,
+        mock(MongoClientFactory.class),
+        mongodServer,
+        mock(OplogApplier.class),
+        mock(NamespaceFilter.class),
+        mock(IndexFilter.class),
+        concurrentToolsFactory,
+        parallelLevel,
+        DefaultLoggerFactory.getInstance()
+    );
+  }
+
+  private void givenCloneAnswer(CloneAction action) throws Exception {
+    willAnswer(invocation -> {
+      String databaseName = invocation.getArgument(0);
+      clonedDatabases.add(databaseName);
+      action.cloneDatabase(databaseName);
+      return null;
+    }).given(cloner).cloneDatabase(anyString(), any(), any(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private MongoClient mockRemoteClient(ListDatabasesReply.DatabaseEntry... databases)
+      throws Exception {
+    RemoteCommandResponse<ListDatabasesReply> response = mock(RemoteCommandResponse.class);
+    given(response.isOk()).willReturn(true);
+    given(response.getCommandReply())
+        .willReturn(Optional.of(new ListDatabasesReply(Arrays.asList(databases), 0)));
+
+    MongoClient remoteClient = mock(MongoClient.class);
+    MongoConnection remoteConnection = mock(MongoConnection.class);
+    given(remoteClient.openConnection()).willReturn(remoteConnection);
+    given(remoteConnection.execute(eq(ListDatabasesCommand.INSTANCE), eq("admin"), anyBoolean(),
+        any(Empty.class)))
+        .willReturn(response);
+    return remoteClient;
+  }
+
+  @FunctionalInterface
+  private static interface CloneAction {
+
+    void cloneDatabase(String databaseName);
+  }
+
+}
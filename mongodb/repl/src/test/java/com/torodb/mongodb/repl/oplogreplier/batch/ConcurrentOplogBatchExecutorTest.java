@@ -23,6 +23,7 @@ import static org.mockito.BDDMockito.*;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Lists;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
 import com.torodb.core.concurrent.StreamExecutor;
@@ -47,7 +48,11 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -159,6 +164,149 @@ public class ConcurrentOplogBatchExecutorTest {
     assertEquals(expectedSize, callablesCounter.get());
   }
 
+  @Test
+  public void testExecuteHotNamespace() throws Exception {
+    int lanes = 4;
+    int hotOps = 100;
+    //GIVEN
+    ConcurrentOplogBatchExecutor laneExecutor = new ConcurrentOplogBatchExecutor(applier, server,
+        retrier, concurrentToolsFactory, namespaceJobExecutor, DefaultLoggerFactory.getInstance(),
+        metrics, subBatchHeuristic,
+        new ConcurrentOplogBatchExecutor.HotNamespaceLaneHeuristic(lanes, 0.5, 10));
+    laneExecutor.startAsync();
+    laneExecutor.awaitRunning();
+
+    CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
+    List<NamespaceJob> jobs = Lists.newArrayList(
+        new NamespaceJob("db", "hot", Lists.newArrayList(
+            Stream.iterate(createAnalyzedOp(null), this::createAnalyzedOp)
+                .limit(hotOps)
+                .iterator()
+        )),
+        new NamespaceJob("db", "cold", Lists.newArrayList(createAnalyzedOp(null)))
+    );
+    AtomicInteger callablesCounter = new AtomicInteger(0);
+
+    ApplierContext context = new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(true)
+        .build();
+    Histogram mockHistogram = mock(Histogram.class);
+    Histogram mockSkewHistogram = mock(Histogram.class);
+    Meter mockMeter = mock(Meter.class);
+    Meter mockHotMeter = mock(Meter.class);
+
+    given(batch.streamNamespaceJobs()).willReturn(jobs.stream());
+    given(subBatchHeuristic.getSubBatchSize(any())).willReturn(10);
+    given(server.openConnection()).willReturn(conn);
+    given(metrics.getSubBatchSizeHistogram()).willReturn(mockHistogram);
+    given(metrics.getSubBatchSizeMeter()).willReturn(mockMeter);
+    given(metrics.getHotNamespaceJobs()).willReturn(mockHotMeter);
+    given(metrics.getLaneSkew()).willReturn(mockSkewHistogram);
+    given(metrics.getLaneOps(anyInt())).willReturn(mock(Meter.class));
+    given(streamExecutor.execute(any()))
+        .willAnswer(new Answer<CompletableFuture<?>>() {
+          @Override
+          public CompletableFuture<?> answer(InvocationOnMock invocation) throws Throwable {
+            CompletableFuture<Object> completableFuture = new CompletableFuture<>();
+            completableFuture.complete(new Object());
+
+            Stream<Callable<?>> callables = invocation.getArgument(0);
+            callablesCounter.addAndGet((int) callables.count());
+
+            return completableFuture;
+          }
+        });
+
+    //WHEN
+    laneExecutor.execute(batch, context);
+
+    //THEN
+    //consecutive ids are spread evenly, so each lane has 25 ops that are split on 3 sub batches
+    then(mockHotMeter).should().mark();
+    then(mockHistogram).should().update(lanes * 3 + 1);
+    then(server).should(times(lanes)).openConnection();
+    assertEquals(lanes + 1, callablesCounter.get());
+  }
+
+  @Test
+  public void testExecuteTwoHotNamespaces() throws Exception {
+    int lanes = 4;
+    int hotOps = 200;
+    //GIVEN
+    ConcurrentOplogBatchExecutor laneExecutor = new ConcurrentOplogBatchExecutor(applier, server,
+        retrier, concurrentToolsFactory, namespaceJobExecutor, DefaultLoggerFactory.getInstance(),
+        metrics, subBatchHeuristic,
+        new ConcurrentOplogBatchExecutor.HotNamespaceLaneHeuristic(lanes, 0.5, 200));
+    laneExecutor.startAsync();
+    laneExecutor.awaitRunning();
+
+    CudAnalyzedOplogBatch batch = mock(CudAnalyzedOplogBatch.class);
+    List<NamespaceJob> jobs = Lists.newArrayList(
+        new NamespaceJob("db", "hot1", Lists.newArrayList(
+            Stream.iterate(createAnalyzedOp(null), this::createAnalyzedOp)
+                .limit(hotOps)
+                .iterator()
+        )),
+        new NamespaceJob("db", "hot2", Lists.newArrayList(
+            Stream.iterate(createAnalyzedOp(null), this::createAnalyzedOp)
+                .limit(hotOps)
+                .iterator()
+        ))
+    );
+
+    ApplierContext context = new ApplierContext.Builder()
+        .setReapplying(true)
+        .setUpdatesAsUpserts(true)
+        .build();
+    Map<WriteMongodTransaction, Set<String>> collectionsByConnection = new HashMap<>();
+
+    given(batch.streamNamespaceJobs()).willReturn(jobs.stream());
+    given(subBatchHeuristic.getSubBatchSize(any())).willReturn(10);
+    given(server.openConnection()).willAnswer(invocation -> {
+      MongodConnection laneConn = mock(MongodConnection.class);
+      WriteMongodTransaction laneTrans = mock(WriteMongodTransaction.class);
+      given(laneConn.openWriteTransaction()).willReturn(laneTrans);
+      collectionsByConnection.put(laneTrans, new HashSet<>());
+      return laneConn;
+    });
+    willAnswer(invocation -> {
+      NamespaceJob job = invocation.getArgument(0);
+      WriteMongodTransaction trans = invocation.getArgument(1);
+      collectionsByConnection.get(trans).add(job.getCollection());
+      return null;
+    }).given(namespaceJobExecutor).apply(any(), any(), any(), anyBoolean());
+    given(metrics.getSubBatchSizeHistogram()).willReturn(mock(Histogram.class));
+    given(metrics.getSubBatchSizeMeter()).willReturn(mock(Meter.class));
+    given(metrics.getHotNamespaceJobs()).willReturn(mock(Meter.class));
+    given(metrics.getLaneSkew()).willReturn(mock(Histogram.class));
+    given(metrics.getLaneOps(anyInt())).willReturn(mock(Meter.class));
+    given(metrics.getNamespaceBatchTimer()).willReturn(new Timer());
+    given(metrics.getCreateOnlyJobs()).willReturn(mock(Meter.class));
+    given(streamExecutor.execute(any()))
+        .willAnswer(new Answer<CompletableFuture<?>>() {
+          @Override
+          public CompletableFuture<?> answer(InvocationOnMock invocation) throws Throwable {
+            Stream<Callable<?>> callables = invocation.getArgument(0);
+            for (Callable<?> callable : (Iterable<Callable<?>>) callables::iterator) {
+              callable.call();
+            }
+            return CompletableFuture.completedFuture(new Object());
+          }
+        });
+
+    //WHEN
+    laneExecutor.execute(batch, context);
+
+    //THEN
+    //each hot namespace has its own lane connections, so they can be used at the same time
+    then(server).should(times(2 * lanes)).openConnection();
+    assertEquals(2 * lanes, collectionsByConnection.size());
+    for (Set<String> collections : collectionsByConnection.values()) {
+      assertEquals(1, collections.size());
+    }
+  }
+
   private AnalyzedOp createAnalyzedOp(AnalyzedOp ignored) {
     int id = idFactory++;
     return new DebuggingAnalyzedOp(KvInteger.of(id));
@@ -35,10 +35,12 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.Timer.Context;
 import com.google.common.collect.Lists;
 import com.torodb.core.exceptions.user.DatabaseNotFoundException;
+import com.torodb.core.exceptions.user.UniqueIndexViolationException;
 import com.torodb.core.retrier.AlwaysRetryRetrier;
 import com.torodb.core.retrier.NeverRetryRetrier;
 import com.torodb.core.retrier.Retrier;
@@ -183,6 +185,34 @@ public class SimpleAnalyzedOplogBatchExecutorTest {
         Boolean.class));
   }
 
+  @Test
+  public void testExecute_CreateOnlyNamespaceJob() throws Exception {
+    //GIVEN
+    ApplierContext applierContext = new ApplierContext.Builder()
+        .setReapplying(false)
+        .setUpdatesAsUpserts(true)
+        .build();
+    Context context = mock(Context.class);
+    NamespaceJob job = mock(NamespaceJob.class);
+    Meter createOnlyJobs = mock(Meter.class);
+    Meter createOnlyFallbacks = mock(Meter.class);
+    given(job.isCreateOnly()).willReturn(true);
+    given(metrics.getNamespaceBatchTimer().time()).willReturn(context);
+    given(metrics.getCreateOnlyJobs()).willReturn(createOnlyJobs);
+    given(metrics.getCreateOnlyFallbacks()).willReturn(createOnlyFallbacks);
+    doThrow(new UniqueIndexViolationException("an expected violation"))
+        .when(namespaceJobExecutor).apply(job, writeTrans, applierContext, true);
+
+    //WHEN
+    executor.execute(job, applierContext, conn);
+
+    //THEN
+    then(createOnlyJobs).should().mark();
+    then(createOnlyFallbacks).should().mark();
+    then(namespaceJobExecutor).should().apply(job, writeTrans, applierContext, true);
+    then(namespaceJobExecutor).should().apply(job, writeTrans, applierContext, false);
+  }
+
   @Test
   public void testVisit_SingleOp_Success() throws Exception {
     //GIVEN
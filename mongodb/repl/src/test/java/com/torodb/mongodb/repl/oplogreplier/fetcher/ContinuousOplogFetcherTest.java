@@ -19,6 +19,15 @@
 package com.torodb.mongodb.repl.oplogreplier.fetcher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 
 import com.google.common.net.HostAndPort;
 import com.torodb.core.logging.DefaultLoggerFactory;
@@ -43,16 +52,20 @@ import com.torodb.mongowp.client.core.UnreachableMongoServerException;
 import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
 import com.torodb.mongowp.commands.oplog.OplogOperation;
 import com.torodb.mongowp.commands.oplog.OplogVersion;
+import com.torodb.mongowp.commands.pojos.MongoCursor;
+import com.torodb.mongowp.commands.pojos.MongoCursor.Batch;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -79,7 +92,8 @@ public class ContinuousOplogFetcherTest {
     @Override
     public ContinuousOplogFetcher createFetcher(long lastFetchedHash, OpTime lastFetchedOptime) {
       return new ContinuousOplogFetcher(oplogReaderProvider, syncSourceProvider, retrier,
-          lastFetchedHash, lastFetchedOptime, metrics, DefaultLoggerFactory.getInstance());
+          lastFetchedHash, lastFetchedOptime, metrics, DefaultLoggerFactory.getInstance(),
+          Duration.ofMillis(100));
     }
   };
   private static final OpTimeFactory opTimeFactory = new OpTimeFactory();
@@ -215,6 +229,73 @@ public class ContinuousOplogFetcherTest {
 
   }
 
+  @Test
+  public void testEmptyBatchesAreAwaited() throws Exception {
+    OplogOperation lastFetchedOp = createSimpleInsert(0);
+    OplogOperation newOp = createSimpleInsert(1);
+    Batch<OplogOperation> emptyBatch = createBatch(Collections.emptyList());
+    Batch<OplogOperation> newBatch = createBatch(Collections.singletonList(newOp));
+    MongoCursor<OplogOperation> cursor = mockRemoteOplog(lastFetchedOp);
+    given(cursor.tryFetchBatch()).willReturn(emptyBatch, null, newBatch);
+
+    ContinuousOplogFetcher fetcher = createFetcher(lastFetchedOp, Duration.ofSeconds(10));
+    OplogBatch batch = fetcher.fetch();
+
+    assertEquals(Collections.singletonList(newOp), batch.getOps());
+    then(cursor).should(times(3)).tryFetchBatch();
+  }
+
+  @Test
+  public void testAwaitTimesOut() throws Exception {
+    OplogOperation lastFetchedOp = createSimpleInsert(0);
+    Batch<OplogOperation> emptyBatch = createBatch(Collections.emptyList());
+    MongoCursor<OplogOperation> cursor = mockRemoteOplog(lastFetchedOp);
+    given(cursor.tryFetchBatch()).willReturn(emptyBatch);
+    Duration maxAwait = Duration.ofMillis(100);
+
+    ContinuousOplogFetcher fetcher = createFetcher(lastFetchedOp, maxAwait);
+    long start = System.nanoTime();
+    OplogBatch batch = fetcher.fetch();
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertTrue(batch.getOps().isEmpty());
+    assertFalse(batch.isLastOne());
+    assertFalse(batch.isReadyForMore());
+    assertTrue("The fetch returned after " + elapsedMillis + "ms",
+        elapsedMillis >= maxAwait.toMillis());
+    then(cursor).should(atLeast(2)).tryFetchBatch();
+  }
+
+  private ContinuousOplogFetcher createFetcher(OplogOperation lastFetchedOp, Duration maxAwait) {
+    return new ContinuousOplogFetcher(oplogReaderProvider, syncSourceProvider, retrier,
+        lastFetchedOp.getHash(), lastFetchedOp.getOpTime(), metrics,
+        DefaultLoggerFactory.getInstance(), maxAwait);
+  }
+
+  /**
+   * Mocks a sync source whose oplog cursor starts on the given operation and whose batches must be
+   * stubbed by the caller.
+   */
+  @SuppressWarnings("unchecked")
+  private MongoCursor<OplogOperation> mockRemoteOplog(OplogOperation firstOp) throws Exception {
+    MongoCursor<OplogOperation> cursor = mock(MongoCursor.class);
+    given(cursor.hasNext()).willReturn(true);
+    given(cursor.next()).willReturn(firstOp);
+    OplogReader reader = mock(OplogReader.class);
+    given(reader.queryGte(any())).willReturn(cursor);
+    willReturn(reader).given(oplogReaderProvider).newReader(any(HostAndPort.class));
+    return cursor;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Batch<OplogOperation> createBatch(List<OplogOperation> ops) {
+    Batch<OplogOperation> batch = mock(Batch.class);
+    given(batch.hasNext()).willReturn(!ops.isEmpty());
+    given(batch.asList()).willReturn(ops);
+    given(batch.getFetchTime()).willReturn(System.currentTimeMillis());
+    return batch;
+  }
+
   Stream<OplogOperation> createInsertStream(IntFunction<OplogOperation> intToOplogFun) {
     return IntStream.iterate(0, i -> i + 1)
         .mapToObj(intToOplogFun);
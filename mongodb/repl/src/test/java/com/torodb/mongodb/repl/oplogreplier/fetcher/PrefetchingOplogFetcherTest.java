@@ -0,0 +1,203 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.torodb.mongodb.repl.oplogreplier.fetcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.torodb.core.metrics.DisabledMetricRegistry;
+import com.torodb.mongodb.repl.oplogreplier.FinishedOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.NormalOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.NotReadyForMoreOplogBatch;
+import com.torodb.mongodb.repl.oplogreplier.OpTimeFactory;
+import com.torodb.mongodb.repl.oplogreplier.OplogApplierMetrics;
+import com.torodb.mongodb.repl.oplogreplier.RollbackReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.StopReplicationException;
+import com.torodb.mongodb.repl.oplogreplier.batch.OplogBatch;
+import com.torodb.mongodb.utils.DefaultIdUtils;
+import com.torodb.mongowp.bson.utils.DefaultBsonValues;
+import com.torodb.mongowp.commands.oplog.InsertOplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogOperation;
+import com.torodb.mongowp.commands.oplog.OplogVersion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class PrefetchingOplogFetcherTest {
+
+  private static final OpTimeFactory opTimeFactory = new OpTimeFactory();
+  private final OplogApplierMetrics metrics = new OplogApplierMetrics(
+      new DisabledMetricRegistry());
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testFetchInOrder() throws Exception {
+    List<OplogBatch> batches = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      batches.add(new NormalOplogBatch(Collections.singletonList(createSimpleInsert(i)), true));
+    }
+    batches.add(FinishedOplogBatch.getInstance());
+
+    PrefetchingOplogFetcher fetcher = new PrefetchingOplogFetcher(
+        new ListOplogFetcher(batches), 1, metrics, executor);
+
+    for (int i = 0; i < 100; i++) {
+      OplogBatch batch = fetcher.fetch();
+      assertEquals(1, batch.count());
+      assertEquals(i, batch.getOps().get(0).getHash());
+    }
+    assertTrue(fetcher.fetch().isLastOne());
+    assertTrue(fetcher.fetch().isLastOne());
+  }
+
+  @Test
+  public void testNotReadyMarksAreCoalesced() throws Exception {
+    List<OplogBatch> batches = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      batches.add(NotReadyForMoreOplogBatch.getInstance());
+    }
+    batches.add(new NormalOplogBatch(Collections.singletonList(createSimpleInsert(0)), true));
+    batches.add(FinishedOplogBatch.getInstance());
+
+    ListOplogFetcher delegate = new ListOplogFetcher(batches);
+    PrefetchingOplogFetcher fetcher = new PrefetchingOplogFetcher(
+        delegate, Long.MAX_VALUE, metrics, executor);
+    delegate.awaitFinished();
+
+    OplogBatch batch = fetcher.fetch();
+    assertTrue(batch.isEmpty());
+    assertFalse(batch.isReadyForMore());
+    assertEquals(1, fetcher.fetch().count());
+    assertTrue(fetcher.fetch().isLastOne());
+  }
+
+  @Test(expected = RollbackReplicationException.class)
+  public void testErrorsArePropagated() throws Exception {
+    PrefetchingOplogFetcher fetcher = new PrefetchingOplogFetcher(new OplogFetcher() {
+      @Override
+      public OplogBatch fetch() throws RollbackReplicationException {
+        throw new RollbackReplicationException("expected");
+      }
+
+      @Override
+      public void close() {
+      }
+    }, 1, metrics, executor);
+
+    fetcher.fetch();
+  }
+
+  @Test(expected = AssertionError.class)
+  public void testThrowablesArePropagated() throws Exception {
+    PrefetchingOplogFetcher fetcher = new PrefetchingOplogFetcher(new OplogFetcher() {
+      @Override
+      public OplogBatch fetch() {
+        throw new AssertionError("expected");
+      }
+
+      @Override
+      public void close() {
+      }
+    }, 1, metrics, executor);
+
+    fetcher.fetch();
+  }
+
+  @Test
+  public void testDelegateIsClosedByTheProducer() throws Exception {
+    CountDownLatch closed = new CountDownLatch(1);
+    List<OplogBatch> batches = Collections.singletonList(FinishedOplogBatch.getInstance());
+    PrefetchingOplogFetcher fetcher = new PrefetchingOplogFetcher(
+        new ListOplogFetcher(batches) {
+          @Override
+          public void close() {
+            closed.countDown();
+          }
+        }, 1, metrics, executor);
+
+    assertTrue(fetcher.fetch().isLastOne());
+    fetcher.close();
+    assertTrue(closed.await(10, TimeUnit.SECONDS));
+  }
+
+  private OplogOperation createSimpleInsert(int i) {
+    return new InsertOplogOperation(
+        DefaultBsonValues.newDocument(DefaultIdUtils.ID_KEY, DefaultBsonValues.newInt(i)),
+        "aDb",
+        "aCol",
+        opTimeFactory.newOpTime(i),
+        i,
+        OplogVersion.V1,
+        false);
+  }
+
+  private static class ListOplogFetcher implements OplogFetcher {
+
+    private final Iterator<OplogBatch> iterator;
+    private boolean finished = false;
+
+    public ListOplogFetcher(List<OplogBatch> batches) {
+      this.iterator = batches.iterator();
+    }
+
+    @Override
+    public synchronized OplogBatch fetch() throws StopReplicationException {
+      if (!iterator.hasNext()) {
+        finished = true;
+        notifyAll();
+        return FinishedOplogBatch.getInstance();
+      }
+      OplogBatch batch = iterator.next();
+      if (batch.isLastOne()) {
+        finished = true;
+        notifyAll();
+      }
+      return batch;
+    }
+
+    public synchronized void awaitFinished() throws InterruptedException {
+      while (!finished) {
+        wait();
+      }
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
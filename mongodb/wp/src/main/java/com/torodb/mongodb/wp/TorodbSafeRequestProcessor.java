@@ -24,6 +24,8 @@ import com.torodb.core.retrier.Retrier;
 import com.torodb.core.retrier.RetrierGiveUpException;
 import com.torodb.mongodb.commands.CommandClassifier;
 import com.torodb.mongodb.commands.RequiredTransaction;
+import com.torodb.mongodb.commands.impl.general.GetMoreImplementation;
+import com.torodb.mongodb.commands.pojos.CursorResult;
 import com.torodb.mongodb.commands.signatures.general.FindCommand;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindArgument;
 import com.torodb.mongodb.commands.signatures.general.FindCommand.FindResult;
@@ -32,9 +34,11 @@ import com.torodb.mongodb.core.MongodConnection;
 import com.torodb.mongodb.core.MongodMetrics;
 import com.torodb.mongodb.core.MongodServer;
 import com.torodb.mongodb.core.ReadOnlyMongodTransaction;
+import com.torodb.mongodb.core.ServerCursorRegistry;
 import com.torodb.mongodb.core.WriteMongodTransaction;
 import com.torodb.mongowp.ErrorCode;
 import com.torodb.mongowp.Status;
+import com.torodb.mongowp.bson.BsonDocument;
 import com.torodb.mongowp.bson.utils.DefaultBsonValues;
 import com.torodb.mongowp.commands.Command;
 import com.torodb.mongowp.commands.CommandLibrary;
@@ -53,6 +57,7 @@ import com.torodb.mongowp.messages.utils.IterableDocumentProvider;
 import io.netty.util.AttributeKey;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Optional;
 import java.util.concurrent.Callable;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -192,14 +197,52 @@ public class TorodbSafeRequestProcessor implements SafeRequestProcessor<MongodCo
   public ReplyMessage getMore(MongodConnection connection, Request req, int requestId,
       GetMoreMessage moreMessage)
       throws MongoException {
-    throw new UnsupportedOperationException("Not supported yet.");
+    ServerCursorRegistry cursorRegistry = server.getCursorRegistry();
+    long cursorId = moreMessage.getCursorId();
+    int numberToReturn = Math.abs(moreMessage.getNumberToReturn());
+    int batchSize = numberToReturn > 0 ? numberToReturn : GetMoreImplementation.DEFAULT_BATCH_SIZE;
+
+    Optional<Integer> startingFrom = cursorRegistry.getReturnedCount(cursorId);
+    Optional<CursorResult<BsonDocument>> batch = startingFrom.isPresent()
+        ? cursorRegistry.getMore(cursorId, req.getDatabase(), moreMessage.getCollection(),
+            batchSize)
+        : Optional.empty();
+
+    if (!batch.isPresent()) {
+      return new ReplyMessage(
+          EmptyBsonContext.getInstance(),
+          requestId,
+          true,
+          false,
+          false,
+          false,
+          0,
+          0,
+          IterableDocumentProvider.of(Lists.<BsonDocument>newArrayList())
+      );
+    }
+
+    return new ReplyMessage(
+        EmptyBsonContext.getInstance(),
+        requestId,
+        false,
+        false,
+        false,
+        false,
+        batch.get().getCursorId(),
+        startingFrom.get(),
+        IterableDocumentProvider.of(Lists.newArrayList(batch.get().getFirstBatch()))
+    );
   }
 
   @Override
   public void killCursors(MongodConnection connection, Request req,
       KillCursorsMessage killCursorsMessage)
       throws MongoException {
-    throw new UnsupportedOperationException("Not supported yet.");
+    ServerCursorRegistry cursorRegistry = server.getCursorRegistry();
+    for (long cursorId : killCursorsMessage.getCursorIds()) {
+      cursorRegistry.killCursor(cursorId);
+    }
   }
 
   @Override
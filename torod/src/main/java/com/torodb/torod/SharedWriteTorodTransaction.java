@@ -50,6 +50,19 @@ public interface SharedWriteTorodTransaction extends TorodTransaction {
 
   public void delete(String dbName, String colName, Cursor<Integer> cursor);
 
+  /**
+   * Tries to replace the stored version of a document with a new one by modifying its stored
+   * rows in place.
+   *
+   * @param oldDoc the document as it is stored now
+   * @param newDoc the new version of the document
+   * @return true if the document has been updated or false if it cannot be updated in place, in
+   *         which case the document must be deleted and inserted again, as some of its rows may
+   *         have been modified
+   */
+  public boolean updateInPlace(String dbName, String colName, ToroDocument oldDoc,
+      KvDocument newDoc) throws UserException;
+
   public long deleteAll(String dbName, String colName);
 
   public long deleteByAttRef(String dbName, String colName, AttributeReference attRef,
@@ -0,0 +1,43 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod;
+
+import com.torodb.core.exceptions.ToroRuntimeException;
+
+/**
+ * Thrown when a sort that cannot be evaluated by the backend would need to keep more documents in
+ * memory than allowed.
+ */
+public class SortTooBigException extends ToroRuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long maxDocs;
+
+  public SortTooBigException(long maxDocs) {
+    super("Sort operation would keep more than the maximum of " + maxDocs + " documents in "
+        + "memory. Add a limit or sort by attributes that can be sorted by the backend");
+    this.maxDocs = maxDocs;
+  }
+
+  public long getMaxDocs() {
+    return maxDocs;
+  }
+
+}
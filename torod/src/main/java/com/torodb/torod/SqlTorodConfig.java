@@ -26,15 +26,30 @@ import com.torodb.core.supervision.Supervisor;
 
 public class SqlTorodConfig extends BundleConfigImpl {
   private final BackendBundle backendBundle;
+  private final boolean primitiveR2DTranslator;
 
   public SqlTorodConfig(BackendBundle backendBundle, Injector essentialInjector,
       Supervisor supervisor) {
+    this(backendBundle, essentialInjector, supervisor, false);
+  }
+
+  /**
+   * @param primitiveR2DTranslator if the primitive int map based translator must be used to
+   *                               translate the rows read from the backend to documents
+   */
+  public SqlTorodConfig(BackendBundle backendBundle, Injector essentialInjector,
+      Supervisor supervisor, boolean primitiveR2DTranslator) {
     super(essentialInjector, supervisor);
     this.backendBundle = backendBundle;
+    this.primitiveR2DTranslator = primitiveR2DTranslator;
   }
 
   public BackendBundle getBackendBundle() {
     return backendBundle;
   }
+
+  public boolean isPrimitiveR2DTranslator() {
+    return primitiveR2DTranslator;
+  }
   
 }
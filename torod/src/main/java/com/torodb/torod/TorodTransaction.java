@@ -22,6 +22,9 @@ import com.torodb.core.cursors.Cursor;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.filter.Filter;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.cursors.TorodCursor;
 import org.jooq.lambda.tuple.Tuple2;
@@ -46,18 +49,57 @@ public interface TorodTransaction extends AutoCloseable {
 
   public long countAll(String dbName, String colName);
 
+  /**
+   * Like {@link #countAll(java.lang.String, java.lang.String)}, but the result may be an
+   * estimation if the backend is configured to use them.
+   *
+   * <p>It must only be used where an approximate number is acceptable, like the count command
+   * without a query.
+   */
+  public long estimateCountAll(String dbName, String colName);
+
+  /**
+   * Returns the number of documents that fulfill the given filter, without reading them.
+   */
+  public long count(String dbName, String colName, Filter filter);
+
   public long getCollectionSize(String dbName, String colName);
 
   public long getDocumentsSize(String dbName, String colName);
 
   public TorodCursor findAll(String dbName, String colName);
 
+  /**
+   * Like {@link #findAll(java.lang.String, java.lang.String)}, but the documents are returned in
+   * the order and within the window specified by the given sort spec.
+   *
+   * @throws SortTooBigException if the sort has to be done in memory and it would keep too many
+   *                             documents
+   */
+  public TorodCursor findAll(String dbName, String colName, SortSpec sortSpec);
+
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value);
 
   public TorodCursor findByAttRefIn(String dbName, String colName, AttributeReference attRef,
       Collection<KvValue<?>> values);
 
+  /**
+   * Returns a cursor that iterates over the documents that fulfill the given filter.
+   */
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter);
+
+  /**
+   * Like {@link #findByFilter(java.lang.String, java.lang.String,
+   * com.torodb.core.language.filter.Filter)}, but the documents are returned in the order and
+   * within the window specified by the given sort spec.
+   *
+   * @throws SortTooBigException if the sort has to be done in memory and it would keep too many
+   *                             documents
+   */
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      SortSpec sortSpec);
+
   /**
    * Like {@link #findByAttRefIn(java.lang.String, java.lang.String,
    * com.torodb.core.language.AttributeReference, java.util.Collection)
@@ -70,10 +112,18 @@ public interface TorodTransaction extends AutoCloseable {
 
   /**
    * Given a namespace and a cursor of dids, consumes the cursor and returns a new cursor that fetch
-   * all iterated dids.
+   * all iterated dids. Documents are returned in the same order their dids are iterated.
    */
   public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor);
 
+  /**
+   * Like {@link #fetch(java.lang.String, java.lang.String, com.torodb.core.cursors.Cursor)}, but
+   * the fetched documents only contain the top level attributes included by the given
+   * projection.
+   */
+  public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor,
+      Projection projection);
+
   public Stream<CollectionInfo> getCollectionsInfo(String dbName);
 
   public CollectionInfo getCollectionInfo(String dbName, String colName) throws
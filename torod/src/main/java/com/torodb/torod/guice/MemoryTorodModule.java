@@ -30,6 +30,7 @@ import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.torod.TorodServer;
 import com.torodb.torod.impl.memory.MemoryTorodServer;
+import com.torodb.torod.pipeline.AdaptiveBatchSizers;
 import com.torodb.torod.pipeline.InsertPipeline;
 import com.torodb.torod.pipeline.InsertPipelineFactory;
 import com.torodb.torod.pipeline.impl.SameThreadInsertPipeline;
@@ -63,6 +64,7 @@ public class MemoryTorodModule extends PrivateModule {
       implements InsertPipelineFactory {
 
     private final BackendTransactionJobFactory backendTransactionJobFactory;
+    private final AdaptiveBatchSizers batchSizers = new AdaptiveBatchSizers();
 
     @Inject
     public MemoryInsertPipelineFactory(
@@ -87,7 +89,7 @@ public class MemoryTorodModule extends PrivateModule {
         WriteBackendTransaction backendConnection, boolean concurrent) {
       return new SameThreadInsertPipeline(translatorFactory, metaDb,
           mutableMetaCollection, backendConnection,
-          backendTransactionJobFactory);
+          backendTransactionJobFactory, batchSizers);
     }
 
   }
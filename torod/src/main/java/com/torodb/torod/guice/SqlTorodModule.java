@@ -33,6 +33,7 @@ import com.torodb.core.guice.EssentialToDefaultModule;
 import com.torodb.torod.SqlTorodConfig;
 import com.torodb.torod.TorodServer;
 import com.torodb.torod.impl.sql.SqlTorodServer;
+import com.torodb.torod.pipeline.AdaptiveBatchSizers;
 import com.torodb.torod.pipeline.InsertPipelineFactory;
 import com.torodb.torod.pipeline.impl.AkkaInsertPipelineFactory;
 import com.torodb.torod.pipeline.impl.DefaultInsertPipelineFactory;
@@ -57,7 +58,7 @@ public class SqlTorodModule extends PrivateModule {
 
     install(new EssentialToDefaultModule());
 
-    install(new D2RModule());
+    install(new D2RModule(config.isPrimitiveR2DTranslator()));
 
     install(new FactoryModuleBuilder()
         .implement(SameThreadInsertPipeline.class, SameThreadInsertPipeline.class)
@@ -66,6 +67,8 @@ public class SqlTorodModule extends PrivateModule {
     bind(InsertPipelineFactory.class)
         .to(DefaultInsertPipelineFactory.class)
         .in(Singleton.class);
+    bind(AdaptiveBatchSizers.class)
+        .in(Singleton.class);
 
     bind(TorodServer.class)
         .to(SqlTorodServer.class)
@@ -90,10 +93,11 @@ public class SqlTorodModule extends PrivateModule {
   AkkaInsertPipelineFactory createConcurrentPipelineFactory(
       ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
-      BackendTransactionJobFactory backendTransactionJobFactory) {
+      BackendTransactionJobFactory backendTransactionJobFactory,
+      AdaptiveBatchSizers batchSizers) {
 
     return new AkkaInsertPipelineFactory(threadFactory,
-        concurrentToolsFactory, backendTransactionJobFactory, 100);
+        concurrentToolsFactory, backendTransactionJobFactory, batchSizers);
   }
 
 }
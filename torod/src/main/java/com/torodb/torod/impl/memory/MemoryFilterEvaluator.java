@@ -0,0 +1,104 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.impl.memory;
+
+import com.torodb.core.language.filter.AndFilter;
+import com.torodb.core.language.filter.CompareFilter;
+import com.torodb.core.language.filter.ComparisonOperator;
+import com.torodb.core.language.filter.ExistsFilter;
+import com.torodb.core.language.filter.Filter;
+import com.torodb.core.language.filter.FilterVisitor;
+import com.torodb.core.language.filter.InFilter;
+import com.torodb.core.language.filter.OrFilter;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.Optional;
+
+/**
+ * Evaluates {@link Filter filters} on in memory documents, following the same semantics the SQL
+ * backends use.
+ */
+class MemoryFilterEvaluator implements FilterVisitor<Boolean, KvDocument> {
+
+  private static final MemoryFilterEvaluator INSTANCE = new MemoryFilterEvaluator();
+
+  private MemoryFilterEvaluator() {
+  }
+
+  static boolean evaluate(Filter filter, KvDocument doc) {
+    return filter.accept(INSTANCE, doc);
+  }
+
+  @Override
+  public Boolean visit(AndFilter filter, KvDocument doc) {
+    return filter.getChildren().stream().allMatch(child -> child.accept(this, doc));
+  }
+
+  @Override
+  public Boolean visit(OrFilter filter, KvDocument doc) {
+    return filter.getChildren().stream().anyMatch(child -> child.accept(this, doc));
+  }
+
+  @Override
+  public Boolean visit(CompareFilter filter, KvDocument doc) {
+    Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
+        filter.getAttributeReference(), doc);
+    if (filter.getOperator() == ComparisonOperator.NE) {
+      return !resolved.isPresent() || !resolved.get().equals(filter.getValue());
+    }
+    if (!resolved.isPresent() || FieldType.from(resolved.get().getType()) != FieldType.from(
+        filter.getValue().getType())) {
+      return false;
+    }
+    if (filter.getOperator() == ComparisonOperator.EQ) {
+      return resolved.get().equals(filter.getValue());
+    }
+    return compare(resolved.get(), filter.getValue(), filter.getOperator());
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private boolean compare(KvValue<?> docValue, KvValue<?> filterValue,
+      ComparisonOperator operator) {
+    Object docObject = docValue.getValue();
+    Object filterObject = filterValue.getValue();
+    if (!(docObject instanceof Comparable) || !(filterObject instanceof Comparable)) {
+      return false;
+    }
+    return operator.evaluate(((Comparable) docObject).compareTo(filterObject));
+  }
+
+  @Override
+  public Boolean visit(InFilter filter, KvDocument doc) {
+    Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
+        filter.getAttributeReference(), doc);
+    return resolved.isPresent() && filter.getValues().contains(resolved.get());
+  }
+
+  @Override
+  public Boolean visit(ExistsFilter filter, KvDocument doc) {
+    Optional<KvValue<?>> resolved = AttributeRefKvDocResolver.resolve(
+        filter.getAttributeReference(), doc);
+    return resolved.isPresent() == filter.isExists();
+  }
+
+}
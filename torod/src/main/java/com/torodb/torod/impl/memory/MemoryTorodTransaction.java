@@ -25,8 +25,13 @@ import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.filter.Filter;
 import com.torodb.core.util.AttributeRefKvDocResolver;
+import com.torodb.core.util.SortSpecComparator;
 import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.CollectionInfo.Type;
@@ -89,11 +94,28 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
     return getTransaction().streamCollection(dbName, colName).count();
   }
 
+  @Override
+  public long estimateCountAll(String dbName, String colName) {
+    return countAll(dbName, colName);
+  }
+
+  @Override
+  public long count(String dbName, String colName, Filter filter) {
+    return getTransaction().streamCollection(dbName, colName)
+        .filter(doc -> MemoryFilterEvaluator.evaluate(filter, doc.getRoot()))
+        .count();
+  }
+
   @Override
   public TorodCursor findAll(String dbName, String colName) {
     return createCursor(getTransaction().streamCollection(dbName, colName));
   }
 
+  @Override
+  public TorodCursor findAll(String dbName, String colName, SortSpec sortSpec) {
+    return createCursor(sort(getTransaction().streamCollection(dbName, colName), sortSpec));
+  }
+
   Stream<ToroDocument> streamByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
     return getTransaction().streamCollection(dbName, colName)
@@ -122,6 +144,35 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
     );
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter) {
+    return createCursor(getTransaction().streamCollection(dbName, colName)
+        .filter(doc -> MemoryFilterEvaluator.evaluate(filter, doc.getRoot()))
+    );
+  }
+
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      SortSpec sortSpec) {
+    return createCursor(sort(getTransaction().streamCollection(dbName, colName)
+        .filter(doc -> MemoryFilterEvaluator.evaluate(filter, doc.getRoot())), sortSpec)
+    );
+  }
+
+  private Stream<ToroDocument> sort(Stream<ToroDocument> docs, SortSpec sortSpec) {
+    Stream<ToroDocument> result = docs;
+    if (!sortSpec.getKeys().isEmpty()) {
+      result = result.sorted(SortSpecComparator.create(sortSpec));
+    }
+    if (sortSpec.getSkip() > 0) {
+      result = result.skip(sortSpec.getSkip());
+    }
+    if (sortSpec.getLimit() > 0) {
+      result = result.limit(sortSpec.getLimit());
+    }
+    return result;
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName,
       String colName, AttributeReference attRef, Collection<KvValue<?>> values) {
@@ -136,14 +187,33 @@ public abstract class MemoryTorodTransaction implements TorodTransaction {
 
   @Override
   public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor) {
+    return fetch(dbName, colName, didCursor, Projection.all());
+  }
+
+  @Override
+  public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor,
+      Projection projection) {
     Map<Integer, KvDocument> colData = getTransaction().data.get(dbName, colName);
     return createCursor(didCursor.getRemaining().stream()
         .map(did -> new Tuple2<>(did, colData.get(did)))
         .filter(tuple -> tuple.v2 != null)
-        .map(tuple -> new ToroDocument(tuple.v1, tuple.v2))
+        .map(tuple -> new ToroDocument(tuple.v1, project(tuple.v2, projection)))
     );
   }
 
+  private KvDocument project(KvDocument doc, Projection projection) {
+    if (projection.isAll()) {
+      return doc;
+    }
+    KvDocument.Builder builder = new KvDocument.Builder();
+    for (DocEntry<?> entry : doc) {
+      if (projection.isIncluded(entry.getKey())) {
+        builder.putValue(entry.getKey(), entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
   private TorodCursor createCursor(Stream<ToroDocument> docsStream) {
     return new DocTorodCursor(new IteratorCursor<>(docsStream.iterator()));
   }
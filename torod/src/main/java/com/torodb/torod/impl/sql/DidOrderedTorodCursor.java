@@ -0,0 +1,147 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.torod.impl.sql;
+
+import com.google.common.base.Preconditions;
+import com.torodb.core.cursors.Cursor;
+import com.torodb.core.document.ToroDocument;
+import com.torodb.torod.cursors.TorodCursor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link TorodCursor} whose documents are returned in the same order their dids are iterated
+ * by a did cursor.
+ *
+ * <p>Documents are fetched in batches of dids and each batch is sorted once its documents have
+ * been read, so only a batch of documents needs to be kept in memory.
+ */
+public class DidOrderedTorodCursor implements TorodCursor {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private final Cursor<Integer> didCursor;
+  private final Function<List<Integer>, Cursor<ToroDocument>> fetcher;
+  private DocCursor docCursor;
+  private boolean usedAsDidCursor = false;
+
+  /**
+   * @param didCursor the cursor whose dids are going to be fetched
+   * @param fetcher   a function that returns a cursor that iterates, in any order, over the
+   *                  documents whose dids are the given
+   */
+  public DidOrderedTorodCursor(@Nonnull Cursor<Integer> didCursor,
+      @Nonnull Function<List<Integer>, Cursor<ToroDocument>> fetcher) {
+    this.didCursor = didCursor;
+    this.fetcher = fetcher;
+  }
+
+  @Override
+  public Cursor<ToroDocument> asDocCursor() {
+    Preconditions.checkState(!usedAsDidCursor, "This cursor has already been used as a did cursor");
+
+    if (docCursor == null) {
+      docCursor = new DocCursor();
+    }
+    return docCursor;
+  }
+
+  @Override
+  public Cursor<Integer> asDidCursor() {
+    Preconditions.checkState(docCursor == null, "This cursor has already been used as a doc "
+        + "cursor");
+    usedAsDidCursor = true;
+    return didCursor;
+  }
+
+  private class DocCursor implements Cursor<ToroDocument> {
+
+    private List<ToroDocument> buffer = Collections.emptyList();
+    private int bufferIndex = 0;
+
+    @Override
+    public boolean hasNext() {
+      return bufferIndex < buffer.size() || fillBuffer(BATCH_SIZE);
+    }
+
+    @Override
+    public ToroDocument next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return buffer.get(bufferIndex++);
+    }
+
+    @Override
+    public List<ToroDocument> getNextBatch(int maxSize) {
+      Preconditions.checkArgument(maxSize > 0, "max results must be at least 1, but " + maxSize
+          + " was recived");
+      List<ToroDocument> result = new ArrayList<>(Math.min(maxSize, BATCH_SIZE));
+      while (result.size() < maxSize && hasNext()) {
+        int toCopy = Math.min(maxSize - result.size(), buffer.size() - bufferIndex);
+        result.addAll(buffer.subList(bufferIndex, bufferIndex + toCopy));
+        bufferIndex += toCopy;
+      }
+      return result;
+    }
+
+    /**
+     * Fetches the documents of the next dids until at least one is found or there are no more
+     * dids.
+     *
+     * @return true iff the buffer contains documents to be returned
+     */
+    private boolean fillBuffer(int maxSize) {
+      while (didCursor.hasNext()) {
+        List<Integer> dids = didCursor.getNextBatch(maxSize);
+        List<ToroDocument> docs;
+        try (Cursor<ToroDocument> fetched = fetcher.apply(dids)) {
+          docs = new ArrayList<>(fetched.getRemaining());
+        }
+        if (!docs.isEmpty()) {
+          Map<Integer, Integer> positions = new HashMap<>(dids.size() * 2);
+          for (int i = 0; i < dids.size(); i++) {
+            positions.put(dids.get(i), i);
+          }
+          docs.sort(Comparator.comparing(doc -> positions.get(doc.getId())));
+          buffer = docs;
+          bufferIndex = 0;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public void close() {
+      didCursor.close();
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.impl.sql;
+
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.filter.AndFilter;
+import com.torodb.core.language.filter.AttributeFilter;
+import com.torodb.core.language.filter.CompareFilter;
+import com.torodb.core.language.filter.ComparisonOperator;
+import com.torodb.core.language.filter.ExistsFilter;
+import com.torodb.core.language.filter.Filter;
+import com.torodb.core.language.filter.FilterVisitor;
+import com.torodb.core.language.filter.InFilter;
+import com.torodb.core.language.filter.OrFilter;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Plans a {@link Filter} against the metainformation of a collection, generating the
+ * {@link DidPredicate} the backend has to evaluate to select the dids of the documents that
+ * fulfill the filter.
+ *
+ * <p>Conditions that reference doc parts or fields that do not exist on the collection are
+ * resolved at planning time and constant branches are pruned, so the backend only receives
+ * conditions on existing columns.
+ */
+public class DidPredicatePlanner {
+
+  private final TableRefFactory tableRefFactory;
+
+  public DidPredicatePlanner(TableRefFactory tableRefFactory) {
+    this.tableRefFactory = tableRefFactory;
+  }
+
+  public DidPredicate plan(MetaCollection col, Filter filter) {
+    return filter.accept(new PlannerVisitor(), col);
+  }
+
+  private static DidPredicate and(List<DidPredicate> children) {
+    List<DidPredicate> result = new ArrayList<>(children.size());
+    for (DidPredicate child : children) {
+      if (child == DidPredicate.Constant.FALSE) {
+        return DidPredicate.Constant.FALSE;
+      }
+      if (child != DidPredicate.Constant.TRUE) {
+        result.add(child);
+      }
+    }
+    switch (result.size()) {
+      case 0:
+        return DidPredicate.Constant.TRUE;
+      case 1:
+        return result.get(0);
+      default:
+        return new DidPredicate.And(result);
+    }
+  }
+
+  private static DidPredicate or(List<DidPredicate> children) {
+    List<DidPredicate> result = new ArrayList<>(children.size());
+    for (DidPredicate child : children) {
+      if (child == DidPredicate.Constant.TRUE) {
+        return DidPredicate.Constant.TRUE;
+      }
+      if (child != DidPredicate.Constant.FALSE) {
+        result.add(child);
+      }
+    }
+    switch (result.size()) {
+      case 0:
+        return DidPredicate.Constant.FALSE;
+      case 1:
+        return result.get(0);
+      default:
+        return new DidPredicate.Or(result);
+    }
+  }
+
+  private static DidPredicate not(DidPredicate child) {
+    if (child instanceof DidPredicate.Constant) {
+      return DidPredicate.Constant.of(child == DidPredicate.Constant.FALSE);
+    }
+    if (child instanceof DidPredicate.Not) {
+      return ((DidPredicate.Not) child).getChild();
+    }
+    return new DidPredicate.Not(child);
+  }
+
+  private TableRef extractTableRef(AttributeReference attRef) {
+    TableRef ref = tableRefFactory.createRoot();
+
+    List<Key<?>> keys = attRef.getKeys();
+    for (Key<?> key : keys.subList(0, keys.size() - 1)) {
+      ref = tableRefFactory.createChild(ref, extractKeyName(key));
+    }
+    return ref;
+  }
+
+  private String extractKeyName(Key<?> key) {
+    if (key instanceof ObjectKey) {
+      return ((ObjectKey) key).getKey();
+    } else {
+      throw new IllegalArgumentException("Keys whose type is not object are not valid");
+    }
+  }
+
+  private class PlannerVisitor implements FilterVisitor<DidPredicate, MetaCollection> {
+
+    @Override
+    public DidPredicate visit(AndFilter filter, MetaCollection col) {
+      return and(filter.getChildren().stream()
+          .map(child -> child.accept(this, col))
+          .collect(Collectors.toList()));
+    }
+
+    @Override
+    public DidPredicate visit(OrFilter filter, MetaCollection col) {
+      return or(filter.getChildren().stream()
+          .map(child -> child.accept(this, col))
+          .collect(Collectors.toList()));
+    }
+
+    @Override
+    public DidPredicate visit(CompareFilter filter, MetaCollection col) {
+      if (filter.getOperator() == ComparisonOperator.NE) {
+        return not(compare(col, filter, ComparisonOperator.EQ));
+      }
+      return compare(col, filter, filter.getOperator());
+    }
+
+    private DidPredicate compare(MetaCollection col, CompareFilter filter,
+        ComparisonOperator operator) {
+      MetaDocPart docPart = getDocPart(col, filter);
+      if (docPart == null) {
+        return DidPredicate.Constant.FALSE;
+      }
+      MetaField field = getField(docPart, filter, filter.getValue());
+      if (field == null) {
+        return DidPredicate.Constant.FALSE;
+      }
+      return new DidPredicate.Compare(docPart, field, operator, filter.getValue());
+    }
+
+    @Override
+    public DidPredicate visit(InFilter filter, MetaCollection col) {
+      MetaDocPart docPart = getDocPart(col, filter);
+      if (docPart == null) {
+        return DidPredicate.Constant.FALSE;
+      }
+      Map<MetaField, Collection<KvValue<?>>> valuesByField = new LinkedHashMap<>();
+      for (KvValue<?> value : filter.getValues()) {
+        MetaField field = getField(docPart, filter, value);
+        if (field != null) {
+          valuesByField.computeIfAbsent(field, f -> new ArrayList<>()).add(value);
+        }
+      }
+      return or(valuesByField.entrySet().stream()
+          .map(e -> new DidPredicate.In(docPart, e.getKey(), e.getValue()))
+          .collect(Collectors.toList()));
+    }
+
+    @Override
+    public DidPredicate visit(ExistsFilter filter, MetaCollection col) {
+      MetaDocPart docPart = getDocPart(col, filter);
+      DidPredicate exists;
+      if (docPart == null) {
+        exists = DidPredicate.Constant.FALSE;
+      } else {
+        String fieldName = getFieldName(filter);
+        exists = or(docPart.streamMetaFieldByName(fieldName)
+            .map(field -> new DidPredicate.NotNull(docPart, field))
+            .collect(Collectors.toList()));
+      }
+      return filter.isExists() ? exists : not(exists);
+    }
+
+    private MetaDocPart getDocPart(MetaCollection col, AttributeFilter filter) {
+      return col.getMetaDocPartByTableRef(extractTableRef(filter.getAttributeReference()));
+    }
+
+    private String getFieldName(AttributeFilter filter) {
+      List<Key<?>> keys = filter.getAttributeReference().getKeys();
+      return extractKeyName(keys.get(keys.size() - 1));
+    }
+
+    private MetaField getField(MetaDocPart docPart, AttributeFilter filter, KvValue<?> value) {
+      FieldType fieldType = FieldType.from(value.getType());
+      if (fieldType == FieldType.CHILD) {
+        throw new IllegalArgumentException("Filters that compare with documents or arrays are "
+            + "not supported");
+      }
+      return docPart.getMetaFieldByNameAndType(getFieldName(filter), fieldType);
+    }
+  }
+
+}
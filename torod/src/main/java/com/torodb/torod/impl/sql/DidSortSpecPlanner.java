@@ -0,0 +1,97 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.torod.impl.sql;
+
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidSortSpec;
+import com.torodb.core.language.AttributeReference.Key;
+import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.SortSpec.SortKey;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * Plans a {@link SortSpec} against the metainformation of a collection, generating the
+ * {@link DidSortSpec} the backend has to apply on the did-selecting query.
+ *
+ * <p>Only sorts by top level attributes can be planned and only when the root doc part stores
+ * the attribute on a single field whose type is sorted by the backend as documents are sorted.
+ * Attributes that no document has do not change the order, so they are ignored.
+ */
+public class DidSortSpecPlanner {
+
+  private static final EnumSet<FieldType> SORTABLE_TYPES = EnumSet.of(
+      FieldType.BOOLEAN,
+      FieldType.DATE,
+      FieldType.DOUBLE,
+      FieldType.INSTANT,
+      FieldType.INTEGER,
+      FieldType.LONG,
+      FieldType.MONGO_OBJECT_ID,
+      FieldType.STRING,
+      FieldType.TIME
+  );
+
+  private final TableRefFactory tableRefFactory;
+
+  public DidSortSpecPlanner(TableRefFactory tableRefFactory) {
+    this.tableRefFactory = tableRefFactory;
+  }
+
+  /**
+   * Returns the planned spec or null if the sort cannot be evaluated by the backend.
+   */
+  @Nullable
+  public DidSortSpec plan(MetaCollection col, SortSpec sortSpec) {
+    MetaDocPart rootDocPart = col.getMetaDocPartByTableRef(tableRefFactory.createRoot());
+    List<DidSortSpec.SortField> fields = new ArrayList<>(sortSpec.getKeys().size());
+    for (SortKey sortKey : sortSpec.getKeys()) {
+      List<Key<?>> keys = sortKey.getAttributeReference().getKeys();
+      if (keys.size() != 1 || !(keys.get(0) instanceof ObjectKey)) {
+        return null;
+      }
+      if (rootDocPart == null) {
+        continue;
+      }
+      List<MetaField> candidates = rootDocPart
+          .streamMetaFieldByName(((ObjectKey) keys.get(0)).getKey())
+          .collect(Collectors.toList());
+      if (candidates.isEmpty()) {
+        continue;
+      }
+      if (candidates.size() > 1 || !SORTABLE_TYPES.contains(candidates.get(0).getType())) {
+        return null;
+      }
+      fields.add(new DidSortSpec.SortField(candidates.get(0), sortKey.isAscending()));
+    }
+    return new DidSortSpec(fields, sortSpec.getSkip(), sortSpec.getLimit());
+  }
+}
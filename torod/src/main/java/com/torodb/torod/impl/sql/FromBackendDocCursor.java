@@ -86,12 +86,11 @@ public class FromBackendDocCursor implements Cursor<ToroDocument> {
 
     List<DocPartResult> nextDpBatch = docPartCursor.getNextBatch(maxResults);
 
-    List<ToroDocument> translated = r2dTranslator.translate(
-        nextDpBatch.iterator());
-
-    nextDpBatch.forEach(docPartResult -> docPartResult.close());
-
-    return translated;
+    try {
+      return r2dTranslator.translate(nextDpBatch.iterator());
+    } finally {
+      nextDpBatch.forEach(docPartResult -> docPartResult.close());
+    }
   }
 
   @Override
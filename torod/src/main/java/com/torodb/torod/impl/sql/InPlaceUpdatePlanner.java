@@ -0,0 +1,146 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.impl.sql;
+
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.MetaCollection;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.types.ArrayType;
+import com.torodb.kvdocument.types.DocumentType;
+import com.torodb.kvdocument.types.KvType;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvDocument.DocEntry;
+import com.torodb.kvdocument.values.KvValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Plans the in place update of a document, comparing its stored version with the new one against
+ * the metainformation of its collection.
+ *
+ * <p>Only changes on scalar attributes of the root doc part or of subdocuments reached from the
+ * root only through object keys can be applied in place, as each of those doc parts contains a
+ * single row of the document that can be found by its did. The plan contains, for each doc part
+ * that changes, the map of fields whose columns must be modified, where a null value means that
+ * the column must be set to null. Whenever the structure of the document changes (a subdocument
+ * is added or removed, an array is added, removed or modified or an attribute changes between a
+ * scalar and a subdocument) or a new value needs a doc part or a column that does not exist yet,
+ * the document cannot be updated in place and it has to be deleted and inserted again.
+ */
+public class InPlaceUpdatePlanner {
+
+  private final TableRefFactory tableRefFactory;
+
+  public InPlaceUpdatePlanner(TableRefFactory tableRefFactory) {
+    this.tableRefFactory = tableRefFactory;
+  }
+
+  /**
+   * Returns the fields of each doc part that must be modified to transform the old document into
+   * the new one or null if that cannot be done in place.
+   *
+   * <p>Doc parts whose row does not change are not included, so the returned map is empty if
+   * both documents are stored in the same way. The root doc part, if included, is the first one.
+   */
+  @Nullable
+  public Map<MetaDocPart, Map<MetaField, KvValue<?>>> plan(MetaCollection col, KvDocument oldDoc,
+      KvDocument newDoc) {
+    Map<MetaDocPart, Map<MetaField, KvValue<?>>> result = new LinkedHashMap<>();
+    if (!plan(col, tableRefFactory.createRoot(), oldDoc, newDoc, result)) {
+      return null;
+    }
+    return result;
+  }
+
+  private boolean plan(MetaCollection col, TableRef tableRef, KvDocument oldDoc,
+      KvDocument newDoc, Map<MetaDocPart, Map<MetaField, KvValue<?>>> result) {
+    MetaDocPart docPart = col.getMetaDocPartByTableRef(tableRef);
+    if (docPart == null) {
+      return false;
+    }
+    Map<MetaField, KvValue<?>> docPartPlan = new LinkedHashMap<>();
+    result.put(docPart, docPartPlan);
+
+    for (DocEntry<?> oldEntry : oldDoc) {
+      KvValue<?> oldValue = oldEntry.getValue();
+      KvValue<?> newValue = newDoc.get(oldEntry.getKey());
+      if (newValue != null && sameStoredValue(oldValue, newValue)) {
+        continue;
+      }
+      if (oldValue instanceof KvDocument && newValue instanceof KvDocument) {
+        TableRef childRef = tableRefFactory.createChild(tableRef, oldEntry.getKey());
+        if (!plan(col, childRef, (KvDocument) oldValue, (KvDocument) newValue, result)) {
+          return false;
+        }
+        continue;
+      }
+      if (!isScalar(oldValue.getType())) {
+        return false;
+      }
+      MetaField oldField = docPart.getMetaFieldByNameAndType(oldEntry.getKey(),
+          FieldType.from(oldValue.getType()));
+      if (oldField == null) {
+        return false;
+      }
+      docPartPlan.put(oldField, null);
+    }
+
+    for (DocEntry<?> newEntry : newDoc) {
+      KvValue<?> newValue = newEntry.getValue();
+      KvValue<?> oldValue = oldDoc.get(newEntry.getKey());
+      if (oldValue != null && sameStoredValue(oldValue, newValue)) {
+        continue;
+      }
+      if (oldValue instanceof KvDocument && newValue instanceof KvDocument) {
+        continue; //already planned with the old entries
+      }
+      if (!isScalar(newValue.getType())) {
+        return false;
+      }
+      MetaField newField = docPart.getMetaFieldByNameAndType(newEntry.getKey(),
+          FieldType.from(newValue.getType()));
+      if (newField == null) {
+        return false;
+      }
+      docPartPlan.put(newField, newValue);
+    }
+
+    if (docPartPlan.isEmpty()) {
+      result.remove(docPart);
+    }
+    return true;
+  }
+
+  private boolean sameStoredValue(KvValue<?> oldValue, KvValue<?> newValue) {
+    return FieldType.from(oldValue.getType()) == FieldType.from(newValue.getType())
+        && oldValue.equals(newValue);
+  }
+
+  private boolean isScalar(KvType kvType) {
+    return (kvType != DocumentType.INSTANCE) && !(kvType instanceof ArrayType);
+  }
+
+}
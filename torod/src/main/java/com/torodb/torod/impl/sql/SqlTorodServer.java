@@ -90,6 +90,10 @@ public class SqlTorodServer extends IdleTorodbService implements TorodServer {
   @Override
   protected void startUp() throws Exception {
     backend.awaitRunning();
+
+    ImmutableMetaSnapshot snapshot = internalTransactionManager.takeMetaSnapshot();
+    snapshot.streamMetaDatabases()
+        .forEach(backend::resumeDataImportModeJobs);
   }
 
   @Override
@@ -20,17 +20,25 @@ package com.torodb.torod.impl.sql;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
 import com.torodb.core.TableRef;
 import com.torodb.core.TableRefFactory;
 import com.torodb.core.backend.BackendCursor;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.backend.query.DidSortSpec;
 import com.torodb.core.cursors.Cursor;
 import com.torodb.core.cursors.EmptyCursor;
+import com.torodb.core.cursors.IteratorCursor;
 import com.torodb.core.d2r.R2DTranslator;
+import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.IndexNotFoundException;
 import com.torodb.core.language.AttributeReference;
 import com.torodb.core.language.AttributeReference.Key;
 import com.torodb.core.language.AttributeReference.ObjectKey;
+import com.torodb.core.language.Projection;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.filter.Filter;
 import com.torodb.core.transaction.InternalTransaction;
 import com.torodb.core.transaction.metainf.FieldType;
 import com.torodb.core.transaction.metainf.MetaCollection;
@@ -38,12 +46,15 @@ import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MetaDocPart;
 import com.torodb.core.transaction.metainf.MetaField;
 import com.torodb.core.transaction.metainf.MetaIndex;
+import com.torodb.core.util.SortSpecComparator;
 import com.torodb.kvdocument.values.KvValue;
 import com.torodb.torod.CollectionInfo;
 import com.torodb.torod.CollectionInfo.Type;
 import com.torodb.torod.IndexInfo;
+import com.torodb.torod.SortTooBigException;
 import com.torodb.torod.TorodLoggerFactory;
 import com.torodb.torod.TorodTransaction;
+import com.torodb.torod.cursors.DocTorodCursor;
 import com.torodb.torod.cursors.EmptyTorodCursor;
 import com.torodb.torod.cursors.TorodCursor;
 import org.apache.logging.log4j.Logger;
@@ -51,6 +62,7 @@ import org.jooq.lambda.tuple.Tuple2;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -63,6 +75,10 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     implements TorodTransaction {
 
   private static final Logger LOGGER = TorodLoggerFactory.get(SqlTorodTransaction.class);
+  /**
+   * The max number of documents a sort that cannot be evaluated by the backend can keep in memory.
+   */
+  private static final int MAX_IN_MEMORY_SORTED_DOCS = 100000;
   private boolean closed = false;
   private final SqlTorodConnection connection;
   private final T internalTransaction;
@@ -128,6 +144,35 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     return getInternalTransaction().getBackendTransaction().countAll(db, col);
   }
 
+  @Override
+  public long estimateCountAll(String dbName, String colName) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return 0;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return 0;
+    }
+    return getInternalTransaction().getBackendTransaction().estimateCountAll(db, col);
+  }
+
+  @Override
+  public long count(String dbName, String colName, Filter filter) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return 0;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return 0;
+    }
+    DidPredicate predicate = new DidPredicatePlanner(getConnection().getServer()
+        .getTableRefFactory())
+        .plan(col, filter);
+    return getInternalTransaction().getBackendTransaction().countByPredicate(db, col, predicate);
+  }
+
   @Override
   public long getCollectionSize(String dbName, String colName) {
     MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
@@ -173,6 +218,25 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     );
   }
 
+  @Override
+  public TorodCursor findAll(String dbName, String colName, SortSpec sortSpec) {
+    if (sortSpec.isNone()) {
+      return findAll(dbName, colName);
+    }
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    return findSorted(db, col, DidPredicate.Constant.TRUE, sortSpec);
+  }
+
   @Override
   public TorodCursor findByAttRef(String dbName, String colName, AttributeReference attRef,
       KvValue<?> value) {
@@ -253,6 +317,132 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
     );
   }
 
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter) {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+
+    DidPredicate predicate = new DidPredicatePlanner(getConnection().getServer()
+        .getTableRefFactory())
+        .plan(col, filter);
+    if (predicate == DidPredicate.Constant.FALSE) {
+      LOGGER.trace("Filter " + filter + " cannot be fulfilled on " + dbName + '.' + colName
+          + ". An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    if (predicate == DidPredicate.Constant.TRUE) {
+      return toToroCursor(getInternalTransaction()
+          .getBackendTransaction()
+          .findAll(db, col)
+      );
+    }
+    return toToroCursor(getInternalTransaction()
+        .getBackendTransaction()
+        .findByPredicate(db, col, predicate)
+    );
+  }
+
+  @Override
+  public TorodCursor findByFilter(String dbName, String colName, Filter filter,
+      SortSpec sortSpec) {
+    if (sortSpec.isNone()) {
+      return findByFilter(dbName, colName, filter);
+    }
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      LOGGER.trace("Collection " + dbName + '.' + colName
+          + " does not exist. An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+
+    DidPredicate predicate = new DidPredicatePlanner(getConnection().getServer()
+        .getTableRefFactory())
+        .plan(col, filter);
+    if (predicate == DidPredicate.Constant.FALSE) {
+      LOGGER.trace("Filter " + filter + " cannot be fulfilled on " + dbName + '.' + colName
+          + ". An empty cursor is returned");
+      return new EmptyTorodCursor();
+    }
+    return findSorted(db, col, predicate, sortSpec);
+  }
+
+  private TorodCursor findSorted(MetaDatabase db, MetaCollection col, DidPredicate predicate,
+      SortSpec sortSpec) {
+    DidSortSpecPlanner planner = new DidSortSpecPlanner(getConnection().getServer()
+        .getTableRefFactory());
+    DidSortSpec didSortSpec = planner.plan(col, sortSpec);
+    if (didSortSpec == null) {
+      LOGGER.debug("Sort " + sortSpec + " cannot be evaluated by the backend on "
+          + db.getName() + '.' + col.getName() + ". Documents are going to be sorted in memory");
+      return sortInMemory(db, col, predicate, sortSpec);
+    }
+    Cursor<Integer> didCursor = getInternalTransaction()
+        .getBackendTransaction()
+        .findByPredicate(db, col, predicate, didSortSpec)
+        .asDidCursor();
+    return new DidOrderedTorodCursor(didCursor, createFetcher(db, col, Projection.all()));
+  }
+
+  /**
+   * Sorts in memory the documents that fulfill the predicate, before the skip and the limit of
+   * the sort spec are applied.
+   *
+   * <p>Only the first skip + limit documents are kept while the documents are read. Like on
+   * MongoDB, sorts without limit or whose window is too big are rejected once they need to keep
+   * more than {@link #MAX_IN_MEMORY_SORTED_DOCS} documents.
+   */
+  private TorodCursor sortInMemory(MetaDatabase db, MetaCollection col, DidPredicate predicate,
+      SortSpec sortSpec) {
+    Ordering<ToroDocument> ordering = Ordering.from(SortSpecComparator.create(sortSpec));
+    long windowEnd = Long.MAX_VALUE;
+    if (sortSpec.getLimit() > 0 && sortSpec.getLimit() <= Long.MAX_VALUE - sortSpec.getSkip()) {
+      windowEnd = sortSpec.getSkip() + sortSpec.getLimit();
+    }
+    List<ToroDocument> sorted;
+    try (Cursor<ToroDocument> cursor = toToroCursor(getInternalTransaction()
+        .getBackendTransaction()
+        .findByPredicate(db, col, predicate)
+    ).asDocCursor()) {
+      if (windowEnd <= MAX_IN_MEMORY_SORTED_DOCS) {
+        sorted = ordering.leastOf(cursor, (int) windowEnd);
+      } else {
+        List<ToroDocument> docs = cursor.getNextBatch(MAX_IN_MEMORY_SORTED_DOCS);
+        if (cursor.hasNext()) {
+          throw new SortTooBigException(MAX_IN_MEMORY_SORTED_DOCS);
+        }
+        sorted = ordering.sortedCopy(docs);
+      }
+    }
+    Stream<ToroDocument> window = sorted.stream()
+        .skip(sortSpec.getSkip());
+    if (sortSpec.getLimit() > 0) {
+      window = window.limit(sortSpec.getLimit());
+    }
+    return new DocTorodCursor(new IteratorCursor<>(window.iterator()));
+  }
+
+  private Function<List<Integer>, Cursor<ToroDocument>> createFetcher(MetaDatabase db,
+      MetaCollection col, Projection projection) {
+    return dids -> toToroCursor(getInternalTransaction()
+        .getBackendTransaction()
+        .fetch(db, col, new IteratorCursor<>(dids.iterator()), projection)
+    ).asDocCursor();
+  }
+
   @Override
   public Cursor<Tuple2<Integer, KvValue<?>>> findByAttRefInProjection(String dbName,
       String colName, AttributeReference attRef, Collection<KvValue<?>> values) {
@@ -296,6 +486,12 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
 
   @Override
   public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor) {
+    return fetch(dbName, colName, didCursor, Projection.all());
+  }
+
+  @Override
+  public TorodCursor fetch(String dbName, String colName, Cursor<Integer> didCursor,
+      Projection projection) {
     MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
     if (db == null) {
       LOGGER.trace("Db with name " + dbName + " does not exist. An empty cursor is returned");
@@ -307,10 +503,7 @@ public abstract class SqlTorodTransaction<T extends InternalTransaction>
           + " does not exist. An empty cursor is returned");
       return new EmptyTorodCursor();
     }
-    return toToroCursor(getInternalTransaction()
-        .getBackendTransaction()
-        .fetch(db, col, didCursor)
-    );
+    return new DidOrderedTorodCursor(didCursor, createFetcher(db, col, projection));
   }
 
   private TorodCursor toToroCursor(BackendCursor backendCursor) {
@@ -21,6 +21,7 @@ package com.torodb.torod.impl.sql;
 import com.google.common.base.Preconditions;
 import com.torodb.core.TableRef;
 import com.torodb.core.cursors.Cursor;
+import com.torodb.core.document.ToroDocument;
 import com.torodb.core.exceptions.user.CollectionNotFoundException;
 import com.torodb.core.exceptions.user.DatabaseNotFoundException;
 import com.torodb.core.exceptions.user.UnsupportedCompoundIndexException;
@@ -52,6 +53,7 @@ import org.jooq.lambda.tuple.Tuple3;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -63,6 +65,11 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
     extends SqlTorodTransaction<T>
     implements SharedWriteTorodTransaction {
 
+  /**
+   * The number of dids deleted on each statement when deleting the documents of a cursor.
+   */
+  private static final int DELETE_BATCH_SIZE = 1000;
+
   private final boolean concurrent;
 
   public SqlWriteTorodTransaction(SqlTorodConnection connection, boolean concurrent) {
@@ -102,7 +109,54 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
       return;
     }
 
-    getInternalTransaction().getBackendTransaction().deleteDids(db, col, cursor.getRemaining());
+    deleteDids(db, col, cursor);
+  }
+
+  /**
+   * Deletes the documents whose dids are returned by the given cursor, in batches, so the dids
+   * do not need to be kept in memory at the same time.
+   *
+   * @return the number of deleted documents
+   */
+  private long deleteDids(MetaDatabase db, MetaCollection col, Cursor<Integer> didCursor) {
+    long deleted = 0;
+    while (didCursor.hasNext()) {
+      Collection<Integer> dids = didCursor.getNextBatch(DELETE_BATCH_SIZE);
+      getInternalTransaction().getBackendTransaction().deleteDids(db, col, dids);
+      deleted += dids.size();
+    }
+    return deleted;
+  }
+
+  @Override
+  public boolean updateInPlace(String dbName, String colName, ToroDocument oldDoc,
+      KvDocument newDoc) throws UserException {
+    MetaDatabase db = getInternalTransaction().getMetaSnapshot().getMetaDatabaseByName(dbName);
+    if (db == null) {
+      return false;
+    }
+    MetaCollection col = db.getMetaCollectionByName(colName);
+    if (col == null) {
+      return false;
+    }
+
+    InPlaceUpdatePlanner planner = new InPlaceUpdatePlanner(getConnection().getServer()
+        .getTableRefFactory());
+    Map<MetaDocPart, Map<MetaField, KvValue<?>>> plan = planner.plan(col, oldDoc.getRoot(),
+        newDoc);
+    if (plan == null) {
+      return false;
+    }
+
+    for (Map.Entry<MetaDocPart, Map<MetaField, KvValue<?>>> docPartPlan : plan.entrySet()) {
+      boolean updated = getInternalTransaction().getBackendTransaction()
+          .updateDocPartRow(db, col, docPartPlan.getKey(), oldDoc.getId(),
+              docPartPlan.getValue());
+      if (!updated) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -116,13 +170,11 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
       return 0;
     }
 
-    Collection<Integer> dids = getInternalTransaction().getBackendTransaction()
+    try (Cursor<Integer> dids = getInternalTransaction().getBackendTransaction()
         .findAll(db, col)
-        .asDidCursor()
-        .getRemaining();
-    getInternalTransaction().getBackendTransaction().deleteDids(db, col, dids);
-
-    return dids.size();
+        .asDidCursor()) {
+      return deleteDids(db, col, dids);
+    }
   }
 
   @Override
@@ -150,13 +202,11 @@ public abstract class SqlWriteTorodTransaction<T extends WriteInternalTransactio
       return 0;
     }
 
-    Collection<Integer> dids = getInternalTransaction().getBackendTransaction()
+    try (Cursor<Integer> dids = getInternalTransaction().getBackendTransaction()
         .findByField(db, col, docPart, field, value)
-        .asDidCursor()
-        .getRemaining();
-    getInternalTransaction().getBackendTransaction().deleteDids(db, col, dids);
-
-    return dids.size();
+        .asDidCursor()) {
+      return deleteDids(db, col, dids);
+    }
   }
 
   @Override
@@ -0,0 +1,141 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.pipeline;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Sizes the document batches of the {@link InsertPipeline insert pipelines} from the observed
+ * latency of the backend.
+ *
+ * <p>The pipelines {@link #record(int, long) record} the time the backend spent inserting each
+ * batch. An exponentially weighted average of the cost per document is kept and the next batches
+ * are sized to take the target latency, bounded by the configured minimum and maximum sizes.
+ * Each new size is at most twice and at least half the previous one, so a single slow batch
+ * cannot collapse the batch size.
+ */
+@ThreadSafe
+public class AdaptiveBatchSizer {
+
+  public static final int DEFAULT_INITIAL_BATCH_SIZE = 100;
+  public static final int DEFAULT_MIN_BATCH_SIZE = 10;
+  public static final int DEFAULT_MAX_BATCH_SIZE = 10000;
+  public static final long DEFAULT_TARGET_BATCH_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+  /**
+   * The weight of the last observation on the average cost per document.
+   */
+  private static final double ALPHA = 0.2;
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final long targetBatchNanos;
+  private volatile int batchSize;
+  private double nanosPerDoc = -1;
+
+  public AdaptiveBatchSizer() {
+    this(DEFAULT_INITIAL_BATCH_SIZE, DEFAULT_MIN_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE,
+        DEFAULT_TARGET_BATCH_NANOS);
+  }
+
+  public AdaptiveBatchSizer(int initialBatchSize, int minBatchSize, int maxBatchSize,
+      long targetBatchNanos) {
+    Preconditions.checkArgument(minBatchSize > 0, "The min batch size must be positive");
+    Preconditions.checkArgument(minBatchSize <= maxBatchSize,
+        "The min batch size must not be higher than the max batch size");
+    Preconditions.checkArgument(targetBatchNanos > 0, "The target latency must be positive");
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.targetBatchNanos = targetBatchNanos;
+    this.batchSize = clamp(initialBatchSize);
+  }
+
+  /**
+   * Returns the number of documents the next batch should contain.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Records that the backend needed the given time to insert a batch with the given number of
+   * documents.
+   */
+  public synchronized void record(int docs, long nanos) {
+    if (docs <= 0 || nanos < 0) {
+      return;
+    }
+    double observed = (double) nanos / docs;
+    if (nanosPerDoc < 0) {
+      nanosPerDoc = observed;
+    } else {
+      nanosPerDoc = ALPHA * observed + (1 - ALPHA) * nanosPerDoc;
+    }
+
+    int current = batchSize;
+    long ideal;
+    if (nanosPerDoc <= 0) {
+      ideal = maxBatchSize;
+    } else {
+      ideal = (long) (targetBatchNanos / nanosPerDoc);
+    }
+    ideal = Math.max(current / 2, Math.min(ideal, (long) current * 2));
+    batchSize = clamp(ideal);
+  }
+
+  private int clamp(long size) {
+    return (int) Math.max(minBatchSize, Math.min(maxBatchSize, size));
+  }
+
+  /**
+   * Groups the elements of the given iterator on lists whose size is decided when each one is
+   * created.
+   *
+   * @param batchSize supplies the size of each new list. It is called once per list, so the size
+   *                  of the lists can change as they are consumed
+   */
+  public static <E> Iterator<List<E>> partition(Iterator<E> iterator, IntSupplier batchSize) {
+    return new AbstractIterator<List<E>>() {
+      @Override
+      protected List<E> computeNext() {
+        if (!iterator.hasNext()) {
+          return endOfData();
+        }
+        int size = batchSize.getAsInt();
+        Preconditions.checkState(size > 0, "Batch sizes must be positive, but %s was supplied",
+            size);
+        List<E> batch = new ArrayList<>(Math.min(size, 1024));
+        while (batch.size() < size && iterator.hasNext()) {
+          batch.add(iterator.next());
+        }
+        return batch;
+      }
+    };
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline;
+
+import org.jooq.lambda.tuple.Tuple2;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Keeps one {@link AdaptiveBatchSizer} per collection.
+ *
+ * <p>Insert pipelines are created for each insert, so the sizers must outlive them in order to
+ * keep what has been learned about the latency of each collection between inserts.
+ */
+@ThreadSafe
+public class AdaptiveBatchSizers {
+
+  private final ConcurrentMap<Tuple2<String, String>, AdaptiveBatchSizer> sizers =
+      new ConcurrentHashMap<>();
+  /**
+   * Returns the sizer of the given collection, creating it if it does not exist.
+   */
+  public AdaptiveBatchSizer getSizer(String database, String collection) {
+    return sizers.computeIfAbsent(new Tuple2<>(database, collection),
+        key -> new AdaptiveBatchSizer());
+  }
+
+}
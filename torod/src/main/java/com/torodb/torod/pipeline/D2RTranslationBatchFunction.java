@@ -53,7 +53,8 @@ public class D2RTranslationBatchFunction implements Function<List<KvDocument>, C
   @Override
   public CollectionData apply(List<KvDocument> docs) {
     metaDocCollection.newBatch();
-    D2RTranslator translator = translatorFactory.createTranslator(metaDatabase, metaDocCollection);
+    D2RTranslator translator = translatorFactory.createTranslator(metaDatabase, metaDocCollection,
+        docs.size());
 
     for (KvDocument doc : docs) {
       translator.translate(doc);
@@ -0,0 +1,114 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.pipeline;
+
+import com.torodb.core.d2r.CollectionData;
+import com.torodb.core.d2r.D2RTranslator;
+import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
+import com.torodb.core.transaction.metainf.WrapperMutableMetaCollection;
+import com.torodb.kvdocument.values.KvDocument;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Translates batches of documents against an immutable snapshot of the metainformation of a
+ * collection and its database, so several batches can be translated concurrently.
+ *
+ * <p>Each batch is translated on its own private copy of the snapshot. If the translation needs
+ * to add new doc parts, fields or scalars, the result is discarded and an empty optional is
+ * returned. These batches must be translated again by the single
+ * {@link D2RTranslationBatchFunction} that owns the real metainformation, which applies the
+ * changes in the same order the batches have on the stream. After that,
+ * {@link #refreshSnapshot()} must be called to publish the new metainformation to the next
+ * translations.
+ *
+ * <p>The rids consumed by discarded translations are not reused.
+ */
+@ThreadSafe
+public class SnapshotD2RTranslationFunction
+    implements Function<List<KvDocument>, Optional<CollectionData>> {
+
+  private final D2RTranslatorFactory translatorFactory;
+  private final MetaDatabase metaDatabase;
+  private final MutableMetaCollection metaCollection;
+  private volatile MetaSnapshot snapshot;
+
+  public SnapshotD2RTranslationFunction(D2RTranslatorFactory translatorFactory,
+      MetaDatabase metaDb, MutableMetaCollection metaCol) {
+    this.translatorFactory = translatorFactory;
+    this.metaDatabase = metaDb;
+    this.metaCollection = metaCol;
+    this.snapshot = new MetaSnapshot(metaDb.immutableCopy(), metaCol.immutableCopy());
+  }
+
+  /**
+   * Takes a new snapshot of the metainformation of the collection and its database.
+   *
+   * <p>It must not be called concurrently with modifications of the database or the collection.
+   */
+  public void refreshSnapshot() {
+    snapshot = new MetaSnapshot(metaDatabase.immutableCopy(), metaCollection.immutableCopy());
+  }
+
+  @Override
+  public Optional<CollectionData> apply(List<KvDocument> docs) {
+    MetaSnapshot currentSnapshot = snapshot;
+    WrapperMutableMetaCollection batchCollection = new WrapperMutableMetaCollection(
+        currentSnapshot.collection, col -> {
+        });
+    D2RTranslator translator = translatorFactory.createTranslator(currentSnapshot.database,
+        batchCollection, docs.size());
+
+    for (KvDocument doc : docs) {
+      translator.translate(doc);
+    }
+
+    if (batchCollection.streamModifiedMetaDocParts().findAny().isPresent()) {
+      return Optional.empty();
+    }
+    return Optional.of(translator.getCollectionDataAccumulator());
+  }
+
+  /**
+   * The database and collection copies taken at the same time, so a translation never sees one
+   * of them newer than the other.
+   */
+  @Immutable
+  private static class MetaSnapshot {
+
+    private final ImmutableMetaDatabase database;
+    private final ImmutableMetaCollection collection;
+
+    private MetaSnapshot(ImmutableMetaDatabase database, ImmutableMetaCollection collection) {
+      this.database = database;
+      this.collection = collection;
+    }
+  }
+
+}
@@ -26,10 +26,14 @@ import akka.stream.Materializer;
 import akka.stream.javadsl.Keep;
 import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.torodb.core.backend.WriteBackendTransaction;
 import com.torodb.core.concurrent.ConcurrentToolsFactory;
+import com.torodb.core.d2r.CollectionData;
 import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.d2r.DocPartData;
+import com.torodb.core.dsl.backend.BackendTransactionJob;
 import com.torodb.core.dsl.backend.BackendTransactionJobFactory;
 import com.torodb.core.exceptions.SystemException;
 import com.torodb.core.exceptions.SystemInterruptedException;
@@ -40,14 +44,22 @@ import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
 import com.torodb.torod.TorodLoggerFactory;
+import com.torodb.torod.pipeline.AdaptiveBatchSizer;
+import com.torodb.torod.pipeline.AdaptiveBatchSizers;
 import com.torodb.torod.pipeline.D2RTranslationBatchFunction;
 import com.torodb.torod.pipeline.DefaultToBackendFunction;
 import com.torodb.torod.pipeline.InsertPipeline;
 import com.torodb.torod.pipeline.InsertPipelineFactory;
+import com.torodb.torod.pipeline.SnapshotD2RTranslationFunction;
 import org.apache.logging.log4j.Logger;
+import org.jooq.lambda.tuple.Tuple2;
 import scala.concurrent.Await;
 import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -66,17 +78,19 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
   private ActorSystem actorSystem;
   private Materializer materializer;
   private final BackendTransactionJobFactory factory;
-  private final int docBatch;
+  private final AdaptiveBatchSizers batchSizers;
   private ExecutorService executorService;
+  private ExecutorService d2rExecutorService;
+  private int d2rParallelism;
 
   @Inject
   public AkkaInsertPipelineFactory(ThreadFactory threadFactory,
       ConcurrentToolsFactory concurrentToolsFactory,
-      BackendTransactionJobFactory factory, int docBatch) {
+      BackendTransactionJobFactory factory, AdaptiveBatchSizers batchSizers) {
     super(threadFactory);
     this.concurrentToolsFactory = concurrentToolsFactory;
     this.factory = factory;
-    this.docBatch = docBatch;
+    this.batchSizers = batchSizers;
   }
 
   @Override
@@ -85,6 +99,11 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
         "insert-pipeline",
         true
     );
+    d2rParallelism = concurrentToolsFactory.getDefaultMaxThreads();
+    d2rExecutorService = concurrentToolsFactory.createExecutorServiceWithMaxThreads(
+        "insert-d2r",
+        d2rParallelism
+    );
     actorSystem = ActorSystem.create("insert-pipeline", null, null,
         ExecutionContexts.fromExecutor(executorService)
     );
@@ -108,6 +127,9 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
     if (executorService != null) {
       executorService.shutdown();
     }
+    if (d2rExecutorService != null) {
+      d2rExecutorService.shutdown();
+    }
     LOGGER.debug("Insert pipeline actor system terminated");
   }
 
@@ -132,6 +154,16 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
     private final MetaDatabase metaDb;
     private final MutableMetaCollection mutableMetaCollection;
     private final WriteBackendTransaction backendConnection;
+    /**
+     * Sizes the batches of this pipeline. It is shared by all pipelines that insert on the same
+     * collection.
+     */
+    private final AdaptiveBatchSizer batchSizer;
+    /**
+     * The batch size set by {@link #setDocsBatchLength(int)} or 0 if the size must be decided by
+     * the batch sizer.
+     */
+    private volatile int fixedDocBatch = 0;
 
     public AkkaInsertPipeline(D2RTranslatorFactory translatorFactory, MetaDatabase metaDb,
         MutableMetaCollection mutableMetaCollection, WriteBackendTransaction backendConnection) {
@@ -139,6 +171,7 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
       this.metaDb = metaDb;
       this.mutableMetaCollection = mutableMetaCollection;
       this.backendConnection = backendConnection;
+      this.batchSizer = batchSizers.getSizer(metaDb.getName(), mutableMetaCollection.getName());
     }
 
     @Override
@@ -148,14 +181,29 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
           new D2RTranslationBatchFunction(translatorFactory, metaDb, mutableMetaCollection);
       DefaultToBackendFunction r2BackendFun =
           new DefaultToBackendFunction(factory, metaDb, mutableMetaCollection);
+      SnapshotD2RTranslationFunction snapshotD2rFun =
+          new SnapshotD2RTranslationFunction(translatorFactory, metaDb, mutableMetaCollection);
       try {
-        Source.fromIterator(() -> docs.iterator())
-            .grouped(docBatch)
-            .map(d2rFun::apply)
-            .mapConcat(r2BackendFun::apply)
+        Source.fromIterator(() -> AdaptiveBatchSizer.partition(docs.iterator(),
+            this::getDocsBatchLength))
+            .mapAsync(d2rParallelism, batch -> CompletableFuture.supplyAsync(
+                () -> new Tuple2<>(batch, snapshotD2rFun.apply(batch)),
+                d2rExecutorService))
+            .map(attempt -> {
+              List<KvDocument> batch = attempt.v1();
+              Optional<CollectionData> snapshotData = attempt.v2();
+              if (snapshotData.isPresent()) {
+                return new TranslatedBatch(batch.size(), createInsertJobs(snapshotData.get()));
+              }
+              //the batch changes the metainformation, so it is translated again in order
+              TranslatedBatch result = new TranslatedBatch(batch.size(),
+                  r2BackendFun.apply(d2rFun.apply(batch)));
+              snapshotD2rFun.refreshSnapshot();
+              return result;
+            })
             .async()
             .toMat(
-                Sink.foreach((job) -> job.execute(backendConnection)),
+                Sink.foreach(this::execute),
                 Keep.right())
             .run(materializer)
             .toCompletableFuture()
@@ -174,17 +222,49 @@ public class AkkaInsertPipelineFactory extends IdleTorodbService
       }
     }
 
+    private Iterable<BackendTransactionJob> createInsertJobs(CollectionData collectionData) {
+      List<BackendTransactionJob> jobs = new ArrayList<>();
+      for (DocPartData docPartData : collectionData.orderedDocPartData()) {
+        jobs.add(factory.insert(metaDb, mutableMetaCollection, docPartData));
+      }
+      return jobs;
+    }
+
+    private void execute(TranslatedBatch batch) throws UserException {
+      long start = System.nanoTime();
+      for (BackendTransactionJob job : batch.jobs) {
+        job.execute(backendConnection);
+      }
+      batchSizer.record(batch.docs, System.nanoTime() - start);
+    }
+
     @Override
     public int getDocsBatchLength() {
-      return docBatch;
+      int fixed = fixedDocBatch;
+      if (fixed > 0) {
+        return fixed;
+      }
+      return batchSizer.getBatchSize();
     }
 
     @Override
     public void setDocsBatchLength(int newBatchLength) {
-      throw new UnsupportedOperationException(
-          "Doc batch lenght is not supported on Akka factory yet.");
+      Preconditions.checkArgument(newBatchLength > 0,
+          "The new batch size must be higher than 0, but %s was recived", newBatchLength);
+      this.fixedDocBatch = newBatchLength;
     }
 
   }
 
+  private static class TranslatedBatch {
+
+    private final int docs;
+    private final Iterable<BackendTransactionJob> jobs;
+
+    public TranslatedBatch(int docs, Iterable<BackendTransactionJob> jobs) {
+      this.docs = docs;
+      this.jobs = jobs;
+    }
+  }
+
 }
@@ -19,7 +19,6 @@
 package com.torodb.torod.pipeline.impl;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Iterators;
 import com.google.inject.assistedinject.Assisted;
 import com.torodb.core.backend.WriteBackendTransaction;
 import com.torodb.core.d2r.CollectionData;
@@ -31,6 +30,8 @@ import com.torodb.core.transaction.RollbackException;
 import com.torodb.core.transaction.metainf.MetaDatabase;
 import com.torodb.core.transaction.metainf.MutableMetaCollection;
 import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.torod.pipeline.AdaptiveBatchSizer;
+import com.torodb.torod.pipeline.AdaptiveBatchSizers;
 import com.torodb.torod.pipeline.D2RTranslationBatchFunction;
 import com.torodb.torod.pipeline.DefaultToBackendFunction;
 import com.torodb.torod.pipeline.InsertPipeline;
@@ -51,17 +52,28 @@ public class SameThreadInsertPipeline implements InsertPipeline {
   private final MutableMetaCollection mutableMetaCollection;
   private final WriteBackendTransaction backendConnection;
   private final BackendTransactionJobFactory jobFactory;
-  private int docBatchSize = 100;
+  /**
+   * Sizes the batches of this pipeline. It is shared by all pipelines that insert on the same
+   * collection.
+   */
+  private final AdaptiveBatchSizer batchSizer;
+  /**
+   * The batch size set by {@link #setDocsBatchLength(int)} or 0 if the size must be decided by
+   * the batch sizer.
+   */
+  private int fixedDocBatchSize = 0;
 
   @Inject
   public SameThreadInsertPipeline(@Assisted D2RTranslatorFactory translatorFactory,
       @Assisted MetaDatabase metaDb, @Assisted MutableMetaCollection mutableMetaCollection,
-      @Assisted WriteBackendTransaction backendConnection, BackendTransactionJobFactory factory) {
+      @Assisted WriteBackendTransaction backendConnection, BackendTransactionJobFactory factory,
+      AdaptiveBatchSizers batchSizers) {
     this.translatorFactory = translatorFactory;
     this.metaDb = metaDb;
     this.mutableMetaCollection = mutableMetaCollection;
     this.backendConnection = backendConnection;
     this.jobFactory = factory;
+    this.batchSizer = batchSizers.getSizer(metaDb.getName(), mutableMetaCollection.getName());
   }
 
   @Override
@@ -72,11 +84,13 @@ public class SameThreadInsertPipeline implements InsertPipeline {
         new DefaultToBackendFunction(jobFactory, metaDb, mutableMetaCollection);
 
     try {
-      Iterators.partition(docs.iterator(), docBatchSize)
+      AdaptiveBatchSizer.partition(docs.iterator(), this::getDocsBatchLength)
           .forEachRemaining(list -> {
             CollectionData collData = d2rFun.apply(list);
             Iterable<BackendTransactionJob> jobs = r2BackendFun.apply(collData);
+            long start = System.nanoTime();
             jobs.forEach(Unchecked.consumer(job -> job.execute(backendConnection)));
+            batchSizer.record(list.size(), System.nanoTime() - start);
           });
     } catch (UncheckedException ex) {
       Throwable cause = ex.getCause();
@@ -89,14 +103,17 @@ public class SameThreadInsertPipeline implements InsertPipeline {
 
   @Override
   public int getDocsBatchLength() {
-    return docBatchSize;
+    if (fixedDocBatchSize > 0) {
+      return fixedDocBatchSize;
+    }
+    return batchSizer.getBatchSize();
   }
 
   @Override
   public void setDocsBatchLength(int newBatchLength) {
     Preconditions.checkArgument(newBatchLength > 0,
         "The new batch size must be higher than 0, but %s was recived", newBatchLength);
-    this.docBatchSize = newBatchLength;
+    this.fixedDocBatchSize = newBatchLength;
   }
 
   public static interface Factory {
@@ -0,0 +1,144 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.*;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidPredicate;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.filter.AndFilter;
+import com.torodb.core.language.filter.CompareFilter;
+import com.torodb.core.language.filter.ComparisonOperator;
+import com.torodb.core.language.filter.ExistsFilter;
+import com.torodb.core.language.filter.InFilter;
+import com.torodb.core.language.filter.OrFilter;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.KvValue;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DidPredicatePlannerTest {
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private ImmutableMetaCollection col;
+  private DidPredicatePlanner planner;
+
+  @Before
+  public void setUp() {
+    col = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(tableRefFactory.createRoot(), "col")
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("a", "a_s", FieldType.STRING)
+            .putField("b", "b_e", FieldType.CHILD))
+        .put(new ImmutableMetaDocPart.Builder(tableRefFactory.createChild(
+            tableRefFactory.createRoot(), "b"), "col_b")
+            .putField("c", "c_i", FieldType.INTEGER))
+        .build();
+    planner = new DidPredicatePlanner(tableRefFactory);
+  }
+
+  @Test
+  public void testCompareOnRoot() {
+    DidPredicate predicate = planner.plan(col, new CompareFilter(ref("a"), ComparisonOperator.GT,
+        KvInteger.of(1)));
+
+    assertTrue(predicate instanceof DidPredicate.Compare);
+    DidPredicate.Compare compare = (DidPredicate.Compare) predicate;
+    assertEquals("a_i", compare.getField().getIdentifier());
+    assertEquals(ComparisonOperator.GT, compare.getOperator());
+  }
+
+  @Test
+  public void testCompareOnChild() {
+    DidPredicate predicate = planner.plan(col, new CompareFilter(ref("b", "c"),
+        ComparisonOperator.EQ, KvInteger.of(1)));
+
+    assertTrue(predicate instanceof DidPredicate.Compare);
+    assertEquals("col_b", ((DidPredicate.Compare) predicate).getDocPart().getIdentifier());
+  }
+
+  @Test
+  public void testCompareWithoutColumn() {
+    assertEquals(DidPredicate.Constant.FALSE, planner.plan(col, new CompareFilter(ref("x"),
+        ComparisonOperator.EQ, KvInteger.of(1))));
+    assertEquals(DidPredicate.Constant.FALSE, planner.plan(col, new CompareFilter(ref("x", "y"),
+        ComparisonOperator.EQ, KvInteger.of(1))));
+  }
+
+  @Test
+  public void testNotEquals() {
+    DidPredicate predicate = planner.plan(col, new CompareFilter(ref("a"), ComparisonOperator.NE,
+        KvInteger.of(1)));
+    assertTrue(predicate instanceof DidPredicate.Not);
+
+    assertEquals(DidPredicate.Constant.TRUE, planner.plan(col, new CompareFilter(ref("x"),
+        ComparisonOperator.NE, KvInteger.of(1))));
+  }
+
+  @Test
+  public void testInGroupsByType() {
+    DidPredicate predicate = planner.plan(col, new InFilter(ref("a"),
+        Lists.<KvValue<?>>newArrayList(KvInteger.of(1), new StringKvString("one"),
+            KvInteger.of(2))));
+
+    assertTrue(predicate instanceof DidPredicate.Or);
+    assertEquals(2, ((DidPredicate.Or) predicate).getChildren().size());
+  }
+
+  @Test
+  public void testExists() {
+    DidPredicate predicate = planner.plan(col, new ExistsFilter(ref("a"), true));
+    assertTrue(predicate instanceof DidPredicate.Or);
+
+    assertEquals(DidPredicate.Constant.TRUE, planner.plan(col, new ExistsFilter(ref("x"), false)));
+  }
+
+  @Test
+  public void testConstantsArePruned() {
+    DidPredicate predicate = planner.plan(col, new AndFilter(Lists.newArrayList(
+        new CompareFilter(ref("a"), ComparisonOperator.EQ, KvInteger.of(1)),
+        new OrFilter(Lists.newArrayList(
+            new ExistsFilter(ref("x"), false),
+            new CompareFilter(ref("a"), ComparisonOperator.EQ, KvInteger.of(2))
+        ))
+    )));
+    assertTrue(predicate instanceof DidPredicate.Compare);
+
+    assertEquals(DidPredicate.Constant.FALSE, planner.plan(col, new AndFilter(Lists.newArrayList(
+        new CompareFilter(ref("a"), ComparisonOperator.EQ, KvInteger.of(1)),
+        new CompareFilter(ref("x"), ComparisonOperator.EQ, KvInteger.of(1))
+    ))));
+  }
+
+  private AttributeReference ref(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+}
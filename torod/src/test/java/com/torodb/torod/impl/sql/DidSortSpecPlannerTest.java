@@ -0,0 +1,105 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.backend.query.DidSortSpec;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.language.AttributeReference;
+import com.torodb.core.language.SortSpec;
+import com.torodb.core.language.SortSpec.SortKey;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DidSortSpecPlannerTest {
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private ImmutableMetaCollection col;
+  private DidSortSpecPlanner planner;
+
+  @Before
+  public void setUp() {
+    col = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(tableRefFactory.createRoot(), "col")
+            .putField("ts", "ts_t", FieldType.INSTANT)
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("a", "a_s", FieldType.STRING)
+            .putField("b", "b_e", FieldType.CHILD))
+        .build();
+    planner = new DidSortSpecPlanner(tableRefFactory);
+  }
+
+  @Test
+  public void testSingleTypedRootField() {
+    DidSortSpec sortSpec = planner.plan(col, SortSpec.of(
+        ImmutableList.of(new SortKey(ref("ts"), false), new SortKey(ref("missing"), true)),
+        5, 10));
+
+    assertNotNull(sortSpec);
+    assertEquals(1, sortSpec.getFields().size());
+    assertEquals("ts_t", sortSpec.getFields().get(0).getField().getIdentifier());
+    assertFalse(sortSpec.getFields().get(0).isAscending());
+    assertEquals(5, sortSpec.getSkip());
+    assertEquals(10, sortSpec.getLimit());
+  }
+
+  @Test
+  public void testSeveralTypesAreNotPlanned() {
+    assertNull(planner.plan(col, SortSpec.of(
+        ImmutableList.of(new SortKey(ref("a"), true)), 0, 0)));
+  }
+
+  @Test
+  public void testChildrenAreNotPlanned() {
+    assertNull(planner.plan(col, SortSpec.of(
+        ImmutableList.of(new SortKey(ref("b"), true)), 0, 0)));
+    assertNull(planner.plan(col, SortSpec.of(
+        ImmutableList.of(new SortKey(ref("b", "c"), true)), 0, 0)));
+  }
+
+  @Test
+  public void testWithoutKeys() {
+    DidSortSpec sortSpec = planner.plan(col, SortSpec.of(
+        ImmutableList.of(new SortKey(ref("a"), true)), 3, 0).withoutKeys());
+
+    assertNotNull(sortSpec);
+    assertTrue(sortSpec.getFields().isEmpty());
+    assertEquals(3, sortSpec.getSkip());
+  }
+
+  private AttributeReference ref(String... keys) {
+    AttributeReference.Builder builder = new AttributeReference.Builder();
+    for (String key : keys) {
+      builder.addObjectKey(key);
+    }
+    return builder.build();
+  }
+}
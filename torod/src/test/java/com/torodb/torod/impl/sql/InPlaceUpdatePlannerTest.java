@@ -0,0 +1,203 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.impl.sql;
+
+import static org.junit.Assert.*;
+
+import com.torodb.core.TableRef;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaCollection;
+import com.torodb.core.transaction.metainf.ImmutableMetaDocPart;
+import com.torodb.core.transaction.metainf.MetaDocPart;
+import com.torodb.core.transaction.metainf.MetaField;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.kvdocument.values.KvInteger;
+import com.torodb.kvdocument.values.heap.ListKvArray;
+import com.torodb.kvdocument.values.heap.StringKvString;
+import com.torodb.kvdocument.values.KvValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class InPlaceUpdatePlannerTest {
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private ImmutableMetaCollection col;
+  private MetaDocPart root;
+  private MetaDocPart child;
+  private InPlaceUpdatePlanner planner;
+
+  @Before
+  public void setUp() {
+    TableRef rootRef = tableRefFactory.createRoot();
+    TableRef childRef = tableRefFactory.createChild(rootRef, "b");
+    col = new ImmutableMetaCollection.Builder("col", "col")
+        .put(new ImmutableMetaDocPart.Builder(rootRef, "col")
+            .putField("a", "a_i", FieldType.INTEGER)
+            .putField("a", "a_s", FieldType.STRING)
+            .putField("c", "c_i", FieldType.INTEGER)
+            .putField("b", "b_e", FieldType.CHILD))
+        .put(new ImmutableMetaDocPart.Builder(childRef, "col_b")
+            .putField("c", "c_i", FieldType.INTEGER)
+            .putField("d", "d_s", FieldType.STRING))
+        .build();
+    planner = new InPlaceUpdatePlanner(tableRefFactory);
+    root = col.getMetaDocPartByTableRef(rootRef);
+    child = col.getMetaDocPartByTableRef(childRef);
+  }
+
+  @Test
+  public void testSameDocument() {
+    KvDocument doc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .build();
+
+    Map<MetaDocPart, Map<MetaField, KvValue<?>>> plan = planner.plan(col, doc, doc);
+
+    assertNotNull(plan);
+    assertTrue(plan.isEmpty());
+  }
+
+  @Test
+  public void testScalarChange() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .putValue("c", 2)
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("a", 3)
+        .putValue("c", 2)
+        .build();
+
+    Map<MetaDocPart, Map<MetaField, KvValue<?>>> docPartsPlan = planner.plan(col, oldDoc,
+        newDoc);
+
+    assertNotNull(docPartsPlan);
+    assertEquals(Collections.singleton(root), docPartsPlan.keySet());
+    Map<MetaField, KvValue<?>> plan = docPartsPlan.get(root);
+    assertEquals(1, plan.size());
+    MetaField field = plan.keySet().iterator().next();
+    assertEquals("a_i", field.getIdentifier());
+    assertEquals(newDoc.get("a"), plan.get(field));
+  }
+
+  @Test
+  public void testTypeChangeAndRemoval() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .putValue("c", 2)
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("a", "one")
+        .build();
+
+    Map<MetaDocPart, Map<MetaField, KvValue<?>>> docPartsPlan = planner.plan(col, oldDoc,
+        newDoc);
+
+    assertNotNull(docPartsPlan);
+    Map<MetaField, KvValue<?>> plan = docPartsPlan.get(root);
+    assertEquals(3, plan.size());
+    assertTrue(plan.containsKey(root.getMetaFieldByIdentifier("a_i")));
+    assertNull(plan.get(root.getMetaFieldByIdentifier("a_i")));
+    assertTrue(plan.containsKey(root.getMetaFieldByIdentifier("c_i")));
+    assertNull(plan.get(root.getMetaFieldByIdentifier("c_i")));
+    assertEquals(newDoc.get("a"), plan.get(root.getMetaFieldByIdentifier("a_s")));
+  }
+
+  @Test
+  public void testNewColumnRequired() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .putValue("x", 1)
+        .build();
+
+    assertNull(planner.plan(col, oldDoc, newDoc));
+  }
+
+  @Test
+  public void testSubdocumentScalarChange() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .putValue("b", new KvDocument.Builder().putValue("c", 1).build())
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("a", 2)
+        .putValue("b", new KvDocument.Builder().putValue("d", "two").build())
+        .build();
+
+    Map<MetaDocPart, Map<MetaField, KvValue<?>>> plan = planner.plan(col, oldDoc, newDoc);
+
+    assertNotNull(plan);
+    assertEquals(2, plan.size());
+    assertEquals(root, plan.keySet().iterator().next());
+    assertEquals(KvInteger.of(2), plan.get(root).get(root.getMetaFieldByIdentifier("a_i")));
+    Map<MetaField, KvValue<?>> childPlan = plan.get(child);
+    assertEquals(2, childPlan.size());
+    assertTrue(childPlan.containsKey(child.getMetaFieldByIdentifier("c_i")));
+    assertNull(childPlan.get(child.getMetaFieldByIdentifier("c_i")));
+    assertEquals(new StringKvString("two"),
+        childPlan.get(child.getMetaFieldByIdentifier("d_s")));
+  }
+
+  @Test
+  public void testSubdocumentAdded() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("a", 1)
+        .putValue("b", new KvDocument.Builder().putValue("c", 1).build())
+        .build();
+
+    assertNull(planner.plan(col, oldDoc, newDoc));
+  }
+
+  @Test
+  public void testSubdocumentReplacedByScalar() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("b", new KvDocument.Builder().putValue("c", 1).build())
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("b", 1)
+        .build();
+
+    assertNull(planner.plan(col, oldDoc, newDoc));
+  }
+
+  @Test
+  public void testArrayChange() {
+    KvDocument oldDoc = new KvDocument.Builder()
+        .putValue("b", new ListKvArray(Collections.<KvValue<?>>singletonList(KvInteger.of(1))))
+        .build();
+    KvDocument newDoc = new KvDocument.Builder()
+        .putValue("b", new ListKvArray(Collections.<KvValue<?>>singletonList(KvInteger.of(2))))
+        .build();
+
+    assertNull(planner.plan(col, oldDoc, newDoc));
+  }
+
+}
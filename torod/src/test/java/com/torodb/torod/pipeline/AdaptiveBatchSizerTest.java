@@ -0,0 +1,84 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.pipeline;
+
+import static org.junit.Assert.*;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AdaptiveBatchSizerTest {
+
+  @Test
+  public void testGrowsWhenBatchesAreFast() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 10, 1000, 1000000);
+
+    sizer.record(100, 1000);
+
+    assertEquals(200, sizer.getBatchSize());
+    for (int i = 0; i < 10; i++) {
+      sizer.record(sizer.getBatchSize(), sizer.getBatchSize() * 10);
+    }
+    assertEquals(1000, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testShrinksWhenBatchesAreSlow() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 10, 1000, 1000000);
+
+    sizer.record(100, 100000000);
+
+    assertEquals(50, sizer.getBatchSize());
+    for (int i = 0; i < 10; i++) {
+      sizer.record(sizer.getBatchSize(), sizer.getBatchSize() * 1000000L);
+    }
+    assertEquals(10, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testConvergesToTargetLatency() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 10, 10000, 1000000);
+
+    for (int i = 0; i < 50; i++) {
+      sizer.record(sizer.getBatchSize(), sizer.getBatchSize() * 2048L);
+    }
+
+    assertEquals(488, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testPartition() {
+    AtomicInteger nextSize = new AtomicInteger(1);
+    Iterator<List<Integer>> it = AdaptiveBatchSizer.partition(
+        Lists.newArrayList(1, 2, 3, 4, 5, 6, 7).iterator(),
+        () -> nextSize.getAndIncrement());
+
+    assertEquals(Lists.newArrayList(1), it.next());
+    assertEquals(Lists.newArrayList(2, 3), it.next());
+    assertEquals(Lists.newArrayList(4, 5, 6), it.next());
+    assertEquals(Lists.newArrayList(7), it.next());
+    assertFalse(it.hasNext());
+  }
+
+}
@@ -81,7 +81,7 @@ public class D2RTranslationBatchFunctionTest {
     given(translator.getCollectionDataAccumulator())
         .willReturn(colData);
 
-    given(translatorFactory.createTranslator(metaDb, batchMetaCol))
+    given(translatorFactory.createTranslator(metaDb, batchMetaCol, 2))
         .willReturn(translator);
 
     List<KvDocument> docs = Lists.newArrayList(doc1, doc2);
@@ -97,7 +97,7 @@ public class D2RTranslationBatchFunctionTest {
     verifyNoMoreInteractions(translator);
 
     verify(translatorFactory)
-        .createTranslator(metaDb, batchMetaCol);
+        .createTranslator(metaDb, batchMetaCol, 2);
     verifyNoMoreInteractions(translatorFactory);
     assertEquals(colData, result);
   }
@@ -0,0 +1,156 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.torodb.torod.pipeline;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import com.google.common.collect.Lists;
+import com.torodb.core.TableRefFactory;
+import com.torodb.core.d2r.CollectionData;
+import com.torodb.core.d2r.D2RTranslator;
+import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.impl.TableRefFactoryImpl;
+import com.torodb.core.transaction.metainf.FieldType;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MetaDatabase;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
+import com.torodb.core.transaction.metainf.WrapperMutableMetaCollection;
+import com.torodb.core.transaction.metainf.WrapperMutableMetaDatabase;
+import com.torodb.kvdocument.values.KvDocument;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SnapshotD2RTranslationFunctionTest {
+
+  private final TableRefFactory tableRefFactory = new TableRefFactoryImpl();
+  private SnapshotD2RTranslationFunction fun;
+  private D2RTranslatorFactory translatorFactory;
+  private D2RTranslator translator;
+  private CollectionData colData;
+  private WrapperMutableMetaDatabase metaDb;
+  private WrapperMutableMetaCollection metaCol;
+  private AtomicReference<MetaDatabase> translatedDb;
+  private AtomicReference<MutableMetaCollection> translatedCol;
+
+  @Before
+  public void setUp() {
+    metaDb = new WrapperMutableMetaDatabase(new ImmutableMetaDatabase("dbName", "dbId", Collections
+        .emptyList()), (o) -> {
+    });
+    metaCol = metaDb.addMetaCollection("colName", "colId");
+    metaCol.addMetaDocPart(tableRefFactory.createRoot(), "colId");
+
+    translator = mock(D2RTranslator.class);
+    colData = mock(CollectionData.class);
+    when(translator.getCollectionDataAccumulator()).thenReturn(colData);
+
+    translatedDb = new AtomicReference<>();
+    translatedCol = new AtomicReference<>();
+    translatorFactory = mock(D2RTranslatorFactory.class);
+    when(translatorFactory.createTranslator(any(MetaDatabase.class),
+        any(MutableMetaCollection.class), anyInt()))
+        .then(invocation -> {
+          translatedDb.set((MetaDatabase) invocation.getArguments()[0]);
+          translatedCol.set((MutableMetaCollection) invocation.getArguments()[1]);
+          return translator;
+        });
+
+    fun = new SnapshotD2RTranslationFunction(translatorFactory, metaDb, metaCol);
+  }
+
+  @Test
+  public void testApplyWithoutChanges() {
+    KvDocument doc1 = mock(KvDocument.class);
+    KvDocument doc2 = mock(KvDocument.class);
+    List<KvDocument> docs = Lists.newArrayList(doc1, doc2);
+
+    Optional<CollectionData> result = fun.apply(docs);
+
+    verify(translator).translate(doc1);
+    verify(translator).translate(doc2);
+    assertEquals(Optional.of(colData), result);
+    assertNotSame("The translation must not use the real collection", metaCol,
+        translatedCol.get());
+  }
+
+  @Test
+  public void testApplyWithChanges() {
+    KvDocument doc = mock(KvDocument.class);
+    doAnswer(invocation -> {
+      translatedCol.get().getMetaDocPartByTableRef(tableRefFactory.createRoot())
+          .addMetaScalar("v_i", FieldType.INTEGER);
+      return null;
+    }).when(translator).translate(doc);
+
+    Optional<CollectionData> result = fun.apply(Lists.newArrayList(doc));
+
+    assertFalse(result.isPresent());
+    assertNull("The real collection must not be modified",
+        metaCol.getMetaDocPartByTableRef(tableRefFactory.createRoot())
+            .getScalar(FieldType.INTEGER));
+  }
+
+  @Test
+  public void testRefreshSnapshot() {
+    metaCol.addMetaDocPart(tableRefFactory.createChild(tableRefFactory.createRoot(), "a"),
+        "colId_a");
+
+    fun.apply(Lists.newArrayList(mock(KvDocument.class)));
+    assertEquals(1, translatedCol.get().streamContainedMetaDocParts().count());
+
+    fun.refreshSnapshot();
+    fun.apply(Lists.newArrayList(mock(KvDocument.class)));
+    assertEquals(2, translatedCol.get().streamContainedMetaDocParts().count());
+  }
+
+  @Test
+  public void testApplyUsesDatabaseSnapshot() {
+    fun.apply(Lists.newArrayList(mock(KvDocument.class)));
+    assertTrue("The translation must not use the real database",
+        translatedDb.get() instanceof ImmutableMetaDatabase);
+    assertEquals("dbName", translatedDb.get().getName());
+
+    metaDb.addMetaCollection("otherColName", "otherColId");
+
+    fun.apply(Lists.newArrayList(mock(KvDocument.class)));
+    assertNull(translatedDb.get().getMetaCollectionByName("otherColName"));
+
+    fun.refreshSnapshot();
+    fun.apply(Lists.newArrayList(mock(KvDocument.class)));
+    assertNotNull(translatedDb.get().getMetaCollectionByName("otherColName"));
+    assertNotNull(translatedDb.get().getMetaCollectionByName("colName"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testApplyPropagatesTranslationErrors() {
+    KvDocument doc = mock(KvDocument.class);
+    doThrow(new IllegalArgumentException()).when(translator).translate(doc);
+
+    fun.apply(Lists.newArrayList(doc));
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * ToroDB
+ * Copyright © 2014 8Kdata Technology (www.8kdata.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.torodb.torod.pipeline.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+import com.torodb.core.backend.WriteBackendTransaction;
+import com.torodb.core.d2r.CollectionData;
+import com.torodb.core.d2r.D2RTranslator;
+import com.torodb.core.d2r.D2RTranslatorFactory;
+import com.torodb.core.dsl.backend.BackendTransactionJobFactory;
+import com.torodb.core.transaction.metainf.ImmutableMetaDatabase;
+import com.torodb.core.transaction.metainf.MutableMetaCollection;
+import com.torodb.core.transaction.metainf.WrapperMutableMetaCollection;
+import com.torodb.core.transaction.metainf.WrapperMutableMetaDatabase;
+import com.torodb.kvdocument.values.KvDocument;
+import com.torodb.torod.pipeline.AdaptiveBatchSizer;
+import com.torodb.torod.pipeline.AdaptiveBatchSizers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+public class SameThreadInsertPipelineTest {
+
+  private WrapperMutableMetaDatabase metaDb;
+  private WrapperMutableMetaCollection metaCol;
+  private WrapperMutableMetaCollection otherMetaCol;
+  private D2RTranslatorFactory translatorFactory;
+  private AdaptiveBatchSizers batchSizers;
+
+  @Before
+  public void setUp() {
+    metaDb = new WrapperMutableMetaDatabase(new ImmutableMetaDatabase("dbName", "dbId",
+        Collections.emptyList()), (o) -> {
+    });
+    metaCol = metaDb.addMetaCollection("colName", "colId");
+    otherMetaCol = metaDb.addMetaCollection("otherColName", "otherColId");
+
+    CollectionData colData = mock(CollectionData.class);
+    given(colData.orderedDocPartData()).willReturn(Collections.emptyList());
+    D2RTranslator translator = mock(D2RTranslator.class);
+    given(translator.getCollectionDataAccumulator()).willReturn(colData);
+    translatorFactory = mock(D2RTranslatorFactory.class);
+    given(translatorFactory.createTranslator(any(), any(), anyInt())).willReturn(translator);
+
+    batchSizers = new AdaptiveBatchSizers();
+  }
+
+  @Test
+  public void testBatchSizeIsKeptBetweenInserts() throws Exception {
+    SameThreadInsertPipeline firstPipeline = createPipeline(metaCol);
+    assertEquals(AdaptiveBatchSizer.DEFAULT_INITIAL_BATCH_SIZE,
+        firstPipeline.getDocsBatchLength());
+
+    //the backend does nothing, so the batches are considered fast and the batch size grows
+    firstPipeline.insert(Stream.generate(() -> mock(KvDocument.class)).limit(1000));
+    int learnedBatchSize = firstPipeline.getDocsBatchLength();
+    assertTrue(learnedBatchSize > AdaptiveBatchSizer.DEFAULT_INITIAL_BATCH_SIZE);
+
+    assertEquals(learnedBatchSize, createPipeline(metaCol).getDocsBatchLength());
+    assertEquals(AdaptiveBatchSizer.DEFAULT_INITIAL_BATCH_SIZE,
+        createPipeline(otherMetaCol).getDocsBatchLength());
+  }
+
+  private SameThreadInsertPipeline createPipeline(MutableMetaCollection col) {
+    return new SameThreadInsertPipeline(translatorFactory, metaDb, col,
+        mock(WriteBackendTransaction.class), mock(BackendTransactionJobFactory.class),
+        batchSizers);
+  }
+
+}